@@ -0,0 +1,66 @@
+package com.contare.benchmarks;
+
+import java.util.Random;
+
+/**
+ * Deterministic tag data shared by the benchmarks.
+ */
+final class BenchmarkData {
+
+    static final int EPC_BYTES = 12;
+    static final long SEED = 42L;
+
+    private BenchmarkData() {
+    }
+
+    /**
+     * @return {@code count} random 96-bit EPCs.
+     */
+    static byte[][] epcs(final int count) {
+        final Random random = new Random(SEED);
+        final byte[][] epcs = new byte[count][EPC_BYTES];
+        for (final byte[] epc : epcs) {
+            random.nextBytes(epc);
+            epc[0] = (byte) 0xE2;
+        }
+        return epcs;
+    }
+
+    /**
+     * @return {@code count} random 96-bit EPCs as upper case hex strings.
+     */
+    static String[] hex(final int count) {
+        final byte[][] epcs = epcs(count);
+        final String[] result = new String[count];
+        for (int i = 0; i < count; i++) {
+            result[i] = toHex(epcs[i]);
+        }
+        return result;
+    }
+
+    /**
+     * Build a {@code pOUcharIDList} buffer as filled by Inventory_G2: {@code len | EPC | RSSI} per tag.
+     *
+     * @return number of bytes used in {@code list}.
+     */
+    static int inventory(final byte[][] epcs, final byte[] list) {
+        final Random random = new Random(SEED);
+        int m = 0;
+        for (final byte[] epc : epcs) {
+            list[m++] = (byte) epc.length;
+            System.arraycopy(epc, 0, list, m, epc.length);
+            m += epc.length;
+            list[m++] = (byte) (40 + random.nextInt(40));
+        }
+        return m;
+    }
+
+    private static String toHex(final byte[] bytes) {
+        final StringBuilder sb = new StringBuilder(bytes.length * 2);
+        for (final byte b : bytes) {
+            sb.append(String.format("%02X", b));
+        }
+        return sb.toString();
+    }
+
+}
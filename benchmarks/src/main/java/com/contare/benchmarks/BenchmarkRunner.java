@@ -0,0 +1,23 @@
+package com.contare.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * JMH entry point that always attaches the GC profiler, so every run reports allocation rate next to ops/s.
+ * Accepts the usual JMH command line, e.g. {@code java -jar benchmarks.jar Dedup -rf json -rff result.json}.
+ */
+public class BenchmarkRunner {
+
+    public static void main(final String[] args) throws Exception {
+        final Options options = new OptionsBuilder()
+            .parent(new CommandLineOptions(args))
+            .addProfiler(GCProfiler.class)
+            .build();
+        new Runner(options).run();
+    }
+
+}
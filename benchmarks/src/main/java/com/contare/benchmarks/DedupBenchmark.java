@@ -0,0 +1,106 @@
+package com.contare.benchmarks;
+
+import com.contare.core.collections.EpcSet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The {@code buffer.add(epc)} done by the device callbacks.
+ * <p>
+ * - {@code repeat}: steady state, every EPC was already seen (a shelf being read over and over).
+ * - {@code fill}: first sight of every EPC, including table growth.
+ * <p>
+ * {@code HashSet<String>} is the original device buffer, {@link EpcSet} the packed replacement; the {@code Bytes}
+ * variants insert straight from the raw EPC without building a hex string.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DedupBenchmark {
+
+    @Param({ "1000", "50000" })
+    public int population;
+
+    private String[] epcs;
+    private byte[][] raw;
+    private Set<String> seen;
+    private EpcSet packed;
+    private int index;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        epcs = BenchmarkData.hex(population);
+        raw = BenchmarkData.epcs(population);
+        seen = new HashSet<>();
+        packed = new EpcSet(population);
+        for (final String epc : epcs) {
+            seen.add(epc);
+            packed.add(epc);
+        }
+    }
+
+    private int next() {
+        final int i = index;
+        index = (i + 1 == epcs.length) ? 0 : i + 1;
+        return i;
+    }
+
+    @Benchmark
+    public boolean repeat() {
+        return seen.add(epcs[next()]);
+    }
+
+    @Benchmark
+    public boolean repeatEpcSet() {
+        return packed.add(epcs[next()]);
+    }
+
+    @Benchmark
+    public boolean repeatEpcSetBytes() {
+        return packed.add(raw[next()]);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 5)
+    @Measurement(iterations = 20)
+    public Set<String> fill() {
+        final Set<String> set = new HashSet<>();
+        for (final String epc : epcs) {
+            set.add(epc);
+        }
+        return set;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 5)
+    @Measurement(iterations = 20)
+    public EpcSet fillEpcSet() {
+        final EpcSet set = new EpcSet();
+        for (final byte[] epc : raw) {
+            set.add(epc);
+        }
+        return set;
+    }
+
+}
@@ -0,0 +1,47 @@
+package com.contare.benchmarks;
+
+import com.rfid.Utils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SDK hex conversions used for every EPC, TID and password.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HexBenchmark {
+
+    private byte[] epc;
+    private String hex;
+
+    @Setup
+    public void setUp() {
+        epc = BenchmarkData.epcs(1)[0];
+        hex = BenchmarkData.hex(1)[0];
+    }
+
+    @Benchmark
+    public String bytesToHexString() {
+        return Utils.bytesToHexString(epc, 0, epc.length);
+    }
+
+    @Benchmark
+    public byte[] hexStringToBytes() {
+        return Utils.hexStringToBytes(hex);
+    }
+
+}
@@ -0,0 +1,87 @@
+package com.contare.benchmarks;
+
+import com.contare.chafon.TagCursor;
+import com.rfid.ReadTag;
+import com.rfid.Utils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decoding of a {@code pOUcharIDList} inventory buffer into tag records, one invocation per inventory round.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InventoryParseBenchmark {
+
+    @Param({ "1", "32", "200" })
+    public int tags;
+
+    private final byte[] list = new byte[25600];
+    private final TagCursor cursor = new TagCursor();
+    private int length;
+
+    @Setup
+    public void setUp() {
+        length = BenchmarkData.inventory(BenchmarkData.epcs(tags), list);
+    }
+
+    /**
+     * The SDK path: a {@link ReadTag} with a hex EPC per record.
+     */
+    @Benchmark
+    public void readTag(final Blackhole bh) {
+        int m = 0;
+        while (m < length) {
+            final int epcLen = list[m] & 0xFF;
+            final ReadTag tag = new ReadTag();
+            tag.antId = 1;
+            tag.epcId = Utils.bytesToHexString(list, m + 1, epcLen);
+            tag.rssi = list[m + 1 + epcLen] & 0xFF;
+            tag.ipAddr = "127.0.0.1";
+            bh.consume(tag);
+            m += epcLen + 2;
+        }
+    }
+
+    /**
+     * The {@link com.contare.chafon.TagListener} path: a reused flyweight cursor per record.
+     */
+    @Benchmark
+    public void cursor(final Blackhole bh) {
+        cursor.reset(list, length, 1, false, "127.0.0.1");
+        while (cursor.next()) {
+            bh.consume(cursor.getRssi());
+            bh.consume(cursor.getEpcOffset());
+        }
+    }
+
+    /**
+     * Record walk only, the lower bound for any decoder.
+     */
+    @Benchmark
+    public void scan(final Blackhole bh) {
+        int m = 0;
+        while (m < length) {
+            final int epcLen = list[m] & 0xFF;
+            bh.consume(list[m + 1 + epcLen]);
+            m += epcLen + 2;
+        }
+    }
+
+}
@@ -0,0 +1,42 @@
+package com.contare.benchmarks;
+
+import com.contare.core.mappers.TagMetadataMapper;
+import com.contare.core.objects.TagMetadata;
+import com.rfid.ReadTag;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TagMetadataMapperBenchmark {
+
+    private final ReadTag tag = new ReadTag();
+
+    @Setup
+    public void setUp() {
+        tag.epcId = BenchmarkData.hex(1)[0];
+        tag.rssi = 60;
+        tag.antId = 1;
+        tag.ipAddr = "192.168.1.200";
+    }
+
+    @Benchmark
+    public TagMetadata toDto() {
+        return TagMetadataMapper.toDto(tag);
+    }
+
+}
@@ -0,0 +1,39 @@
+package com.contare.benchmarks;
+
+import com.contare.chafon.UHFInformation;
+import com.contare.core.mappers.UHFInformationMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UHFInformationMapperBenchmark {
+
+    private final byte[] version = new byte[]{ 2, 7 };
+    private final byte[] power = new byte[]{ 30 };
+    private final byte[] band = new byte[]{ 2 };
+    private final byte[] maxFrequency = new byte[]{ 49 };
+    private final byte[] minFrequency = new byte[]{ 0 };
+    private final byte[] beep = new byte[]{ 1 };
+    private final int[] ant = new int[]{ 0x05 };
+    private final int[] powerPerAntenna = new int[]{ 30, 30, 30, 30 };
+
+    @Benchmark
+    public UHFInformation parse() {
+        return UHFInformationMapper.parse(version, power, band, maxFrequency, minFrequency, beep, ant, powerPerAntenna, 4, "19A2C301");
+    }
+
+}
@@ -1,15 +1,30 @@
 package com.contare;
 
-import com.contare.chafon.ChafonUHFDevice;
+import com.contare.chafon.ChafonRfidDevice;
 import com.contare.chafon.Frequency;
+import com.contare.chafon.ReaderConfiguration;
 import com.contare.chafon.UHFInformation;
+import com.contare.chafon.inventory.InventoryStrategy;
 import com.contare.config.Config;
 import com.contare.config.ConfigLoader;
+import com.contare.core.archive.ArchiveWriter;
+import com.contare.core.collections.EpcSet;
 import com.contare.core.exceptions.RfidDeviceException;
+import com.contare.core.fleet.ReaderFleet;
+import com.contare.core.journal.JournalOptions;
+import com.contare.core.journal.ReadJournal;
+import com.contare.core.metrics.JmxReporter;
+import com.contare.core.metrics.MetricRegistry;
+import com.contare.core.objects.MemoryReadOptions;
+import com.contare.core.objects.TagFilter;
 import com.contare.core.objects.Options;
+import com.contare.core.presence.PresenceTracker;
 import org.jboss.logging.Logger;
 
 import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
@@ -24,65 +39,60 @@ public class Main {
             final Config cfg = ConfigLoader.load(args);
             logger.info("Loaded configurations");
 
-            final Config.Device params = cfg.getDevice();
-            logger.infof("Verbose: %b", params.isVerbose());
-            logger.infof("Device IP: %s", params.getIp());
-            logger.infof("Device Port: %d", params.getPort());
+            // EPCs read by any reader of the fleet
+            final EpcSet seen = new EpcSet(65_536);
 
-            final int antennas = Math.max(params.getAntennas().getNum(), 4);
-            logger.infof("Device Antennas: %d", antennas);
-
-            final Frequency frequency = Optional.ofNullable(params.getFrequency().toFrequency()).orElse(Frequency.BRAZIL);
-
-            final Map<Integer, Boolean> map = params.getAntennas().getMap();
-            for (int ant = 1; ant <= antennas; ant++) {
-                if (!map.containsKey(ant)) {
-                    map.put(ant, false);
-                }
+            // reads journaled before a crash
+            final JournalOptions journaling = cfg.getJournal().isEnabled() ? cfg.getJournal().toOptions() : null;
+            if (journaling != null) {
+                final long recovered = ReadJournal.read(Paths.get(journaling.directory), (record) -> seen.add(record.getEpc()));
+                logger.infof("Recovered %d reads (%d EPCs) from journal %s", recovered, seen.size(), journaling.directory);
             }
 
-            final Options opts = new Options(params.getAddress(), params.getIp(), params.getPort(), antennas, params.isVerbose());
-
-            try (final ChafonUHFDevice device = new ChafonUHFDevice()) {
-                final boolean initialized = device.init(opts);
-                if (initialized) {
-                    logger.debugf("Device connected opts: %s", opts);
+            // reader and pipeline metrics, see MetricRegistry
+            try (final JmxReporter jmx = cfg.getMetrics().isJmx() ? new JmxReporter(MetricRegistry.getDefault()).start() : null;
+                 final ReadJournal journal = (journaling != null) ? ReadJournal.open(journaling) : null;
+                 final ArchiveWriter archive = cfg.getArchive().isEnabled() ? new ArchiveWriter(Paths.get(cfg.getArchive().getFile()), cfg.getArchive().getBlockRows()) : null;
+                 final PresenceTracker presence = cfg.getPresence().isEnabled() ? new PresenceTracker("fleet", cfg.getPresence().toOptions()) : null;
+                 final ReaderFleet<ChafonRfidDevice> fleet = new ReaderFleet<>(cfg.getFleet().toOptions())) {
+                if (jmx != null) {
+                    logger.infof("Metrics exported over JMX in domain %s", jmx.getDomain());
                 }
-
-                final boolean fUpdated = device.SetFrequency(frequency);
-                if (fUpdated) {
-                    logger.debug("Device frequency has been updated");
+                for (final Config.Device params : cfg.getReaders()) {
+                    logger.infof("Device %s: ip = %s, port = %d, verbose = %b", params.getName(), params.getIp(), params.getPort(), params.isVerbose());
+                    fleet.add(params.getName(), toOptions(params), new ChafonRfidDevice(), (final ChafonRfidDevice device) -> configure(device, params));
+                }
+                fleet.addListener((tag) -> seen.add(tag.getEpc()));
+                if (journal != null) {
+                    fleet.addListener(journal);
+                }
+                if (archive != null) {
+                    fleet.addListener(archive);
+                }
+                if (presence != null) {
+                    presence.addListener((event) -> logger.infof("Presence %s: EPC %s on %s antenna %d", event.getType(), event.getEpc(), event.getDevice(), event.getAntenna()));
+                    MetricRegistry.getDefault().gauge("presence.tracked", presence::getTracked);
+                    fleet.addListener(presence);
+                    presence.start();
                 }
 
-                map.forEach((index, enabled) -> {
-                    final boolean updated = device.SetAntennas(index, enabled);
-                    if (updated) {
-                        logger.infof("Antenna %d %s", index, enabled ? "enabled" : "disabled");
-                    }
-                });
-
-                final UHFInformation info = device.GetUHFInformation();
-                logger.debugf("Device info: %s", info);
-
-                boolean started = device.start();
-                if (started) {
-                    logger.infof("Device started");
-                } else {
-                    logger.warnf("Device did not started");
+                fleet.start().join();
+                for (final ReaderFleet.Member<ChafonRfidDevice> member : fleet.getMembers()) {
+                    logger.infof("%s", member);
                 }
 
                 /*
                  * Wait for Ctrl+C (SIGINT) or other shutdown to stop the application.
                  * We use a CompletableFuture that we complete from a shutdown hook.
                  * When the future completes the main thread continues, the try-with-resources
-                 * will close the device, and the application exits cleanly.
+                 * will close the fleet, and the application exits cleanly.
                  */
                 final CompletableFuture<Void> stopFuture = new CompletableFuture<>();
 
                 Runtime.getRuntime().addShutdownHook(new Thread(() -> {
                     logger.info("Shutdown requested (Ctrl+C). Stopping...");
 
-                    final Set<String> buffer = device.getBuffer();
+                    final Set<String> buffer = seen.snapshot();
                     for (String s : buffer) {
                         logger.infof("EPC: %s", s);
                     }
@@ -91,15 +101,11 @@ public class Main {
                     stopFuture.complete(null);
 
                     // Note: avoid long-running work in shutdown hooks. The try-with-resources
-                    // will close the device after stopFuture completes; if you need to signal
-                    // the device to stop immediately you can call device.stop() here, but
-                    // calling close in the main thread is preferred to keep shutdown-hook short.
+                    // will close the fleet after stopFuture completes.
                 }, "shutdown-hook"));
 
                 // Block here until stopFuture is completed by the shutdown hook.
                 stopFuture.join();
-            } catch (RfidDeviceException e) {
-                logger.errorf(e, "Device error.");
             } catch (IOException e) {
                 logger.errorf(e, "IO error.");
             }
@@ -110,4 +116,54 @@ public class Main {
         }
     }
 
+    private static Options toOptions(final Config.Device params) {
+        final int antennas = Math.max(params.getAntennas().getNum(), 4);
+        return new Options(params.getAddress(), params.getIp(), params.getPort(), antennas, params.isVerbose(), Collections.emptyList(), 0, params.getPipeline().toOptions());
+    }
+
+    private static void configure(final ChafonRfidDevice device, final Config.Device params) throws RfidDeviceException {
+        final int antennas = Math.max(params.getAntennas().getNum(), 4);
+        final Frequency frequency = Optional.ofNullable(params.getFrequency().toFrequency()).orElse(Frequency.BRAZIL);
+
+        // antennas missing from the map are disabled
+        final ReaderConfiguration config = new ReaderConfiguration();
+        config.setFrequency(frequency);
+        final Map<Integer, Boolean> map = params.getAntennas().getMap();
+        for (int ant = 1; ant <= antennas; ant++) {
+            config.antenna(ant, map.getOrDefault(ant, false));
+        }
+
+        if (!device.Apply(config)) {
+            throw new RfidDeviceException("Failed to configure device %s", params.getName());
+        }
+        logger.infof("Device %s configured: frequency band = %d, antenna mask = 0x%04X", params.getName(), frequency.getBand(), config.getAntennaMask());
+
+        device.SetPacing(params.getPacing().toOptions());
+        device.SetAdaptiveQ(params.getInventory().isAdaptiveQ());
+        device.SetAntennaScheduling(params.getInventory().isAntennaScheduling());
+
+        final InventoryStrategy strategy = params.getInventory().toStrategy();
+        if (strategy != null) {
+            device.SetInventoryStrategy(strategy);
+            logger.infof("Device %s inventory strategy: %s", params.getName(), strategy);
+        }
+
+        final MemoryReadOptions memory = params.getMemory().toOptions();
+        if (memory != null) {
+            device.setMemoryRead(memory);
+            logger.infof("Device %s reads %s with every tag", params.getName(), memory);
+        }
+
+        final List<TagFilter> filters = params.toFilters();
+        if (!filters.isEmpty()) {
+            device.setFilters(filters);
+            logger.infof("Device %s inventories tags passing %s", params.getName(), filters);
+        }
+
+        if (logger.isDebugEnabled()) {
+            final UHFInformation info = device.GetUHFInformation();
+            logger.debugf("Device %s info: %s", params.getName(), info);
+        }
+    }
+
 }
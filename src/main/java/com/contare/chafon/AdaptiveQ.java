@@ -0,0 +1,149 @@
+package com.contare.chafon;
+
+import java.util.Arrays;
+
+/**
+ * Online Q selection for the inventory loop, one state per antenna.
+ * <p>
+ * A round with a frame of 2^Q slots singulates the most tags per slot when there are about as many slots as tags, so
+ * after every round the engine updates, per antenna:
+ * - a population estimate, moving average of the tags returned per round, which gives the starting Q (log2 of it);
+ * - the throughput (tags per second of round time) observed at each Q.
+ * <p>
+ * The next Q is the one with the best known throughput among the population Q and its neighbours, an untried
+ * neighbour is probed every few rounds, and the throughput history is dropped once the population moves by more than
+ * a factor of two. Every empty round steps Q down, an empty field is answered fastest by the smallest frame.
+ * <p>
+ * {@link #update} must be called from one thread (the inventory loop), the getters can be called from any thread.
+ */
+public final class AdaptiveQ {
+
+    public static final int MIN_Q = 0;
+    public static final int MAX_Q = 15;
+
+    private static final double ALPHA = 0.3;       // weight of the last round in the moving averages
+    private static final int PROBE_INTERVAL = 8;   // rounds between probes of an untried neighbour
+    private static final double POPULATION_SHIFT = 2.0;
+
+    private final State[] states;
+    private final int minQ;
+    private final int maxQ;
+
+    public AdaptiveQ(final int antennas, final int initialQ) {
+        this(antennas, initialQ, MIN_Q, MAX_Q);
+    }
+
+    /**
+     * @param antennas - number of antenna ports
+     * @param initialQ - Q of the first round on every antenna
+     * @param minQ     - lower bound, >= 0
+     * @param maxQ     - upper bound, <= 15
+     */
+    public AdaptiveQ(final int antennas, final int initialQ, final int minQ, final int maxQ) {
+        if (minQ < MIN_Q || maxQ > MAX_Q || minQ > maxQ) {
+            throw new IllegalArgumentException("Q bounds must satisfy " + MIN_Q + " <= min <= max <= " + MAX_Q + ", but received " + minQ + " .. " + maxQ);
+        }
+        this.minQ = minQ;
+        this.maxQ = maxQ;
+        this.states = new State[Math.max(antennas, 1)];
+        for (int i = 0; i < states.length; i++) {
+            states[i] = new State(clamp(initialQ));
+        }
+    }
+
+    /**
+     * @param antenna - antenna index, starting at 0
+     * @return Q to use in the next round.
+     */
+    public int getQ(final int antenna) {
+        return states[antenna].q;
+    }
+
+    /**
+     * @param antenna - antenna index, starting at 0
+     * @return estimated number of tags answering per round.
+     */
+    public double getPopulation(final int antenna) {
+        return states[antenna].population;
+    }
+
+    /**
+     * @param antenna - antenna index, starting at 0
+     * @return tags per second of the last round.
+     */
+    public double getThroughput(final int antenna) {
+        return states[antenna].throughput;
+    }
+
+    /**
+     * Feed back the outcome of a round.
+     *
+     * @param antenna       - antenna index, starting at 0
+     * @param tags          - tags returned by the round ({@code pOUcharTagNum})
+     * @param durationNanos - round duration
+     */
+    public void update(final int antenna, final int tags, final long durationNanos) {
+        final State s = states[antenna];
+        final int q = s.q;
+        final double rate = tags / (Math.max(durationNanos, 1L) / 1e9);
+        s.throughput = rate;
+        s.rounds++;
+
+        s.rates[q] = s.seen[q] ? s.rates[q] + ALPHA * (rate - s.rates[q]) : rate;
+        s.seen[q] = true;
+        s.population = (s.rounds == 1) ? tags : s.population + ALPHA * (tags - s.population);
+
+        if (tags == 0) {
+            s.q = clamp(q - 1);
+            return;
+        }
+
+        // the field changed, throughput measured at another population does not apply anymore
+        if (s.reference <= 0 || s.population > s.reference * POPULATION_SHIFT || s.population < s.reference / POPULATION_SHIFT) {
+            s.reference = Math.max(s.population, 1);
+            Arrays.fill(s.seen, false);
+            s.seen[q] = true;
+            s.rates[q] = rate;
+        }
+
+        final int target = clamp((int) Math.round(Math.log(Math.max(s.population, 1)) / Math.log(2)));
+        int best = target;
+        if (s.seen[target]) {
+            for (int candidate = target - 1; candidate <= target + 1; candidate += 2) {
+                if (candidate >= minQ && candidate <= maxQ && s.seen[candidate] && s.rates[candidate] > s.rates[best]) {
+                    best = candidate;
+                }
+            }
+            if (s.rounds % PROBE_INTERVAL == 0) {
+                for (int candidate = best - 1; candidate <= best + 1; candidate += 2) {
+                    if (candidate >= minQ && candidate <= maxQ && !s.seen[candidate]) {
+                        best = candidate;
+                        break;
+                    }
+                }
+            }
+        }
+        s.q = best;
+    }
+
+    private int clamp(final int q) {
+        return Math.max(minQ, Math.min(maxQ, q));
+    }
+
+    private static final class State {
+
+        private final double[] rates = new double[MAX_Q + 1];  // tags per second, moving average per Q
+        private final boolean[] seen = new boolean[MAX_Q + 1];
+        private volatile int q;
+        private volatile double population;
+        private volatile double throughput;
+        private double reference;                              // population when the rates were reset
+        private long rounds;
+
+        private State(final int q) {
+            this.q = q;
+        }
+
+    }
+
+}
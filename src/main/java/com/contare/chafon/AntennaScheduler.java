@@ -0,0 +1,215 @@
+package com.contare.chafon;
+
+import java.util.Locale;
+
+/**
+ * Yield driven antenna selection for the inventory loop.
+ * <p>
+ * Every antenna keeps a moving average of its unique tag yield (tags not seen recently, per second of round time), and
+ * gets a share of the rounds proportional to it (stride scheduling): the next antenna is the enabled one with the lowest
+ * pass, and a round advances the pass of its antenna by the inverse of its share. The ScanTime of a round scales with
+ * the share too, so a busy antenna dwells longer on each visit.
+ * <p>
+ * An antenna that keeps returning nothing sees its yield decay and backs off down to a floor share, and an antenna
+ * skipped for too many rounds is picked regardless, so no enabled antenna is starved. Antennas never measured get an
+ * equal share.
+ * <p>
+ * {@link #next} and {@link #update} must be called from one thread (the inventory loop), the getters can be called from
+ * any thread.
+ */
+public final class AntennaScheduler {
+
+    public static final int MAX_SCAN_TIME = 255;
+
+    private static final double ALPHA = 0.3;         // weight of the last round in the yield average
+    private static final double MIN_SHARE = 0.25;    // floor of a quiet antenna, fraction of an equal share
+    private static final int MAX_DWELL = 4;          // ScanTime of the busiest antenna, multiple of the base
+    private static final int STARVATION_ROUNDS = 8;  // max rounds between two visits, per enabled antenna
+    private static final double MIN_ROUND_SECONDS = 0.001;
+
+    private final State[] states;
+    private double clock = 0;
+    private long picks = 0;
+    private int enabled = 0;
+
+    /**
+     * @param antennas - number of antenna ports
+     */
+    public AntennaScheduler(final int antennas) {
+        this.states = new State[Math.max(antennas, 1)];
+        for (int i = 0; i < states.length; i++) {
+            states[i] = new State();
+        }
+    }
+
+    /**
+     * Pick the antenna of the next round.
+     *
+     * @param mask - enabled antennas, bit 0 is antenna index 0
+     * @return antenna index, starting at 0, or -1 if no antenna is enabled.
+     */
+    public int next(final int mask) {
+        enabled = 0;
+        double total = 0;
+        for (int i = 0; i < states.length; i++) {
+            if (isEnabled(mask, i)) {
+                enabled++;
+                total += states[i].yield;
+            }
+        }
+        if (enabled == 0) {
+            return -1;
+        }
+
+        int chosen = -1;
+        final long maxGap = (long) STARVATION_ROUNDS * enabled;
+        for (int i = 0; i < states.length; i++) {
+            if (!isEnabled(mask, i)) {
+                continue;
+            }
+            final State state = states[i];
+            state.share = share(state, total);
+            if (state.pass < clock) {
+                state.pass = clock; // (re-)enabled, joins at the current pass instead of catching up
+            }
+            if (state.rounds > 0 && picks - state.lastPick > maxGap) {
+                chosen = i; // starved
+                break;
+            }
+            if (chosen < 0 || state.pass < states[chosen].pass) {
+                chosen = i;
+            }
+        }
+
+        final State state = states[chosen];
+        clock = Math.max(clock, state.pass);
+        state.pass += 1.0 / state.share;
+        state.lastPick = picks++;
+        return chosen;
+    }
+
+    /**
+     * @param antenna - antenna picked by {@link #next(int)}
+     * @param base    - ScanTime of the reader parameter, in 100 ms units
+     * @return ScanTime of the next round on the antenna, between 1 and {@link #MAX_SCAN_TIME}.
+     */
+    public int getScanTime(final int antenna, final int base) {
+        if (base <= 0) {
+            return base;
+        }
+        final double scaled = base * states[antenna].share * Math.max(enabled, 1);
+        final long scanTime = Math.round(Math.min(scaled, (double) base * MAX_DWELL));
+        return (int) Math.max(1, Math.min(scanTime, MAX_SCAN_TIME));
+    }
+
+    /**
+     * Feed back the outcome of a round.
+     *
+     * @param antenna       - antenna index, starting at 0
+     * @param tags          - tags returned by the round
+     * @param unique        - tags among them not seen recently
+     * @param durationNanos - round time
+     */
+    public void update(final int antenna, final int tags, final int unique, final long durationNanos) {
+        final State state = states[antenna];
+        final double rate = unique / Math.max(durationNanos / 1e9, MIN_ROUND_SECONDS);
+        state.yield = (state.rounds == 0) ? rate : ALPHA * rate + (1 - ALPHA) * state.yield;
+        state.rounds++;
+        state.time += durationNanos;
+        state.tags += tags;
+        state.unique += unique;
+    }
+
+    /**
+     * @param antenna - antenna index, starting at 0
+     * @return moving average of the unique tags per second.
+     */
+    public double getYield(final int antenna) {
+        return states[antenna].yield;
+    }
+
+    /**
+     * @param antenna - antenna index, starting at 0
+     * @return number of rounds run on the antenna.
+     */
+    public long getRounds(final int antenna) {
+        return states[antenna].rounds;
+    }
+
+    /**
+     * @param antenna - antenna index, starting at 0
+     * @return round time spent on the antenna, in nanoseconds.
+     */
+    public long getTime(final int antenna) {
+        return states[antenna].time;
+    }
+
+    /**
+     * @param antenna - antenna index, starting at 0
+     * @return fraction of the round time spent on the antenna, 0 before the first round.
+     */
+    public double getTimeShare(final int antenna) {
+        long total = 0;
+        for (final State state : states) {
+            total += state.time;
+        }
+        return (total > 0) ? (double) states[antenna].time / total : 0;
+    }
+
+    /**
+     * @param antenna - antenna index, starting at 0
+     * @return unique tags read on the antenna.
+     */
+    public long getUnique(final int antenna) {
+        return states[antenna].unique;
+    }
+
+    /**
+     * @return time split over the antennas that ran at least one round.
+     */
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("AntennaScheduler(");
+        boolean first = true;
+        for (int i = 0; i < states.length; i++) {
+            final State state = states[i];
+            if (state.rounds == 0) {
+                continue;
+            }
+            if (!first) {
+                sb.append(", ");
+            }
+            first = false;
+            sb.append(String.format(Locale.ROOT, "ant%d = %.1f%% time, %d rounds, %d/%d unique/tags, %.1f tags/s", i + 1, getTimeShare(i) * 100, state.rounds, state.unique, state.tags, state.yield));
+        }
+        return sb.append(")").toString();
+    }
+
+    private double share(final State state, final double total) {
+        final double equal = 1.0 / enabled;
+        if (state.rounds == 0 || total <= 0) {
+            return equal;
+        }
+        return Math.max(state.yield / total, equal * MIN_SHARE);
+    }
+
+    private static boolean isEnabled(final int mask, final int antenna) {
+        return (mask & (1 << antenna)) != 0;
+    }
+
+    private static final class State {
+
+        private volatile double yield = 0;
+        private volatile long rounds = 0;
+        private volatile long time = 0;
+        private volatile long tags = 0;
+        private volatile long unique = 0;
+
+        // loop thread only
+        private double share = 1;
+        private double pass = 0;
+        private long lastPick = 0;
+
+    }
+
+}
@@ -1,16 +1,38 @@
 package com.contare.chafon;
 
+import com.contare.chafon.encoding.EncodingFrame;
+import com.contare.chafon.inventory.InventoryStrategy;
+import com.contare.chafon.inventory.SelectPlan;
+import com.contare.chafon.jfr.CallbackEvent;
+import com.contare.chafon.jfr.FrequencyHopEvent;
+import com.contare.chafon.jfr.InventoryRoundEvent;
+import com.contare.chafon.protocol.ChafonChannel;
+import com.contare.chafon.protocol.ChafonFrame;
+import com.contare.chafon.protocol.ChafonProtocol;
+import com.contare.chafon.protocol.MemoryReadTag;
+import com.contare.core.collections.EpcSet;
 import com.contare.core.mappers.UHFInformationMapper;
-import com.rfid.*;
+import com.contare.core.metrics.MetricRegistry;
+import com.contare.core.objects.MemoryReadOptions;
+import com.contare.core.objects.TagFilter;
+import com.rfid.ReadTag;
+import com.rfid.ReaderParameter;
+import com.rfid.TagCallback;
+import com.rfid.Utils;
 import lombok.extern.slf4j.Slf4j;
 import org.jboss.logging.Logger;
 
+import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.LockSupport;
 import java.util.function.Consumer;
+import java.util.function.Function;
 
 @Slf4j
 public class ChafonReader {
@@ -20,18 +42,30 @@ public class ChafonReader {
     private static final int MIN_POWER_DBM = 0;
     private static final int MAX_POWER_DBM = 33;
     private static final int DEFAULT_POWER_DBM = 0;
+    private static final long DEFAULT_COMMAND_TIMEOUT_MS = 3_000;
+    private static final long YIELD_WINDOW_MS = 10_000; // a tag counts as unique again once this long has passed
 
     Thread mainThread = Thread.currentThread();
-    private volatile Thread mThread = null;
+    private volatile InventoryLoop loop = null;
     private volatile boolean mWorking = true;
     private byte[] pOUcharIDList = new byte[25600];
-    private volatile int NoCardCount = 0;
     private String sdkVersion = "1.0.0.1";
 
-    private BaseReader reader = null;
+    private ChafonProtocol reader = null;
     public boolean isConnect = false;
     private ReaderParameter param = new ReaderParameter();
     private TagCallback callback;
+    private volatile TagListener listener;
+    private volatile boolean adaptiveQ = false;
+    private volatile boolean antennaScheduling = false;
+    private volatile PacingOptions pacing = PacingOptions.DEFAULT;
+    private volatile InventoryStrategy strategy = null;
+    private volatile MemoryReadOptions memoryRead = null;
+    private volatile SelectPlan selectPlan = null;
+    private final CommandQueue commands;
+    private final ReaderMetrics metrics;
+    private final ReaderStateCache state = new ReaderStateCache();
+    private volatile long commandTimeoutMs = DEFAULT_COMMAND_TIMEOUT_MS;
 
     private String ip = "192.168.0.250"; // device ip address, default is 192.168.0.250 or 192.168.1.200
     private int port = 27011; // device port number, default is 27011 or 2022
@@ -66,7 +100,11 @@ public class ChafonReader {
         this.param.SetReadLength(6);
         this.param.SetPassword("00000000");
 
-        this.reader = new BaseReader(ip, antennas);
+        this.reader = new ChafonProtocol(ip, antennas);
+        this.commands = new CommandQueue(this, "chafon-" + ip + "-commands");
+        this.metrics = new ReaderMetrics(MetricRegistry.getDefault(), "chafon." + ip + ":" + port, antennas, commands::getPending);
+        this.reader.getChannel().setExchangeListener(metrics);
+        this.reader.getChannel().setName(ip + ":" + port);
 
         this.isConnect = false;
     }
@@ -95,6 +133,35 @@ public class ChafonReader {
             reader.DisConnect();
             isConnect = false;
         }
+        state.invalidate(); // the device may be reconfigured while we are away
+    }
+
+    /**
+     * Set how long the reader settings returned by {@link #GetUHFInformation()}, {@link #GetAntennaMask()},
+     * {@link #GetRfPowerByAnt()} and {@link #GetSerialNo()} are served from the state cache. Successful setters update
+     * the cache in place.
+     *
+     * @param ttlMs - time to live in milliseconds, default is 30000, 0 disables the cache.
+     */
+    public void SetStateTtl(final long ttlMs) {
+        state.setTtl(ttlMs);
+    }
+
+    /**
+     * Drop the cached reader settings, the next query reads them from the device.
+     */
+    public void InvalidateState() {
+        state.invalidate();
+    }
+
+    /**
+     * Read the reader settings from the device, replacing the cached ones.
+     *
+     * @return the reader information, null on error.
+     */
+    public UHFInformation RefreshState() {
+        state.invalidate();
+        return GetUHFInformation();
     }
 
     /**
@@ -115,6 +182,33 @@ public class ChafonReader {
         return this.param;
     }
 
+    /**
+     * Read a memory bank slice with every tag, in the same inventory round: rounds run Inventory_Mix, the callback
+     * receives {@link MemoryReadTag}s with the slice as bytes, and a {@link TagListener} finds it at
+     * {@link TagCursor#getMemOffset()}. Takes effect on the next round.
+     *
+     * @param options - bank slice, null to inventory EPCs only
+     */
+    public void SetMemoryRead(final MemoryReadOptions options) {
+        if (options != null) {
+            param.SetReadMem(options.bank.getCode());
+            param.SetReadPtr(options.wordPtr);
+            param.SetReadLength(options.words);
+            param.SetPassword(options.password);
+            param.SetReadType(2);
+        } else {
+            param.SetReadType(0);
+        }
+        this.memoryRead = options;
+    }
+
+    /**
+     * @return memory bank slice read with every tag, null for EPCs only.
+     */
+    public MemoryReadOptions GetMemoryRead() {
+        return memoryRead;
+    }
+
     /**
      * Get basic information of the UFH module.
      *
@@ -137,12 +231,13 @@ public class ChafonReader {
         byte[] ComAddr = new byte[]{-1};
         byte[] AntCfg0 = new byte[1];
         byte[] AntCfg1 = new byte[1];
+        final long generation = state.generation();
         int result = reader.GetReaderInformation(ComAddr, Version, ReaderType, TrType, band, MaxFre, MinFre, Power, ScanTime, AntCfg0, BeepEn, AntCfg1, CheckAnt);
         if (result == 0x00) {
             Ant[0] = ((AntCfg1[0] & 255) << 8) + (AntCfg0[0] & 255);
             param.SetAddress(ComAddr[0]);
             param.SetAntenna(Ant[0] & 255);
-            byte[] var17 = new byte[1];
+            state.putInformation(generation, Version, Power, band, MaxFre, MinFre, BeepEn, Ant);
         }
 
         return result;
@@ -158,9 +253,11 @@ public class ChafonReader {
             final byte[] beep = new byte[1]; // buzzer beeps information
             final int[] ant = new int[1]; // each bit represent an antenna number, such as 0x00009, the binary is 00000000 00001001, indicating antenna 1 to 4
 
-            final int result = this.GetUHFInformation(version, power, band, maxFrequency, minFrequency, beep, ant);
-            if (result != 0x00) {
-                throw ChafonDeviceException.of(result);
+            if (!state.getInformation(version, power, band, maxFrequency, minFrequency, beep, ant)) {
+                final int result = this.GetUHFInformation(version, power, band, maxFrequency, minFrequency, beep, ant);
+                if (result != 0x00) {
+                    throw ChafonDeviceException.of(result);
+                }
             }
 
             final int[] powerPerAntenna = GetRfPowerByAnt();
@@ -182,7 +279,11 @@ public class ChafonReader {
      * @return 0x00 if success, else return error code.
      */
     private int SetRfPower(final int power) {
-        return reader.SetRfPower(param.GetAddress(), (byte) power);
+        final int result = reader.SetRfPower(param.GetAddress(), (byte) power);
+        if (result == 0x00) {
+            state.onPower(power & 0x7F);
+        }
+        return result;
     }
 
     public boolean SetPower(final int value) {
@@ -215,7 +316,11 @@ public class ChafonReader {
      * @return 0x00 if successful, else return error code.
      */
     public int SetRegion(final int band, final int maxfre, final int minfre) {
-        return reader.SetRegion(param.GetAddress(), band, maxfre, minfre);
+        final int result = reader.SetRegion(param.GetAddress(), band, maxfre, minfre);
+        if (result == 0x00) {
+            state.onRegion(band, maxfre, minfre);
+        }
+        return result;
     }
 
     /**
@@ -228,20 +333,37 @@ public class ChafonReader {
      * @return 0x00 if successful, else return error code.
      */
     public int ExtSetRegion(int opt, int band, int maxfre, int minfre) {
-        return this.reader.ExtSetRegion(this.param.GetAddress(), opt, band, maxfre, minfre);
+        final int result = this.reader.ExtSetRegion(this.param.GetAddress(), opt, band, maxfre, minfre);
+        if (result == 0x00) {
+            state.onRegion(band, maxfre, minfre);
+        }
+        return result;
     }
 
     /**
      * Overload: SetRegion
-     * Set the working frequency band of the reader.
+     * Set the working frequency band of the reader, saved across power cycles.
      *
      * @param value - frequency object
      * @return true if successful, else false.
      */
     public boolean SetFrequency(final Frequency value) {
+        return SetFrequency(value, true);
+    }
+
+    /**
+     * Overload: SetRegion
+     * Set the working frequency band of the reader.
+     *
+     * @param value   - frequency object
+     * @param persist - true = save across power cycles, false = temporary, which skips the write to the reader
+     *                non-volatile memory (frequency hopping)
+     * @return true if successful, else false.
+     */
+    public boolean SetFrequency(final Frequency value, final boolean persist) {
         final long start = System.currentTimeMillis();
         try {
-            final int opt = 0; // save
+            final int opt = persist ? 0 : 1;
             final int bandId = value.getBand();
             final int maxIndex = value.getMaxIndex();
             final int minIndex = value.getMinIndex();
@@ -272,6 +394,7 @@ public class ChafonReader {
      * @return 0x00 if successful, else return error code.
      */
     public int SetAntenna(final int SetOnce, int AntCfg) {
+        final int mask = AntCfg;
         int result = 0;
         if (antennas > 4) {
             byte AntCfg1 = (byte) (AntCfg >> 8);
@@ -290,6 +413,9 @@ public class ChafonReader {
                 param.SetAntenna(AntCfg);
             }
         }
+        if (result == 0) {
+            state.onAntennaMask(mask);
+        }
 
         return result;
     }
@@ -358,7 +484,11 @@ public class ChafonReader {
      * @return 0x00 if success, else return error code.
      */
     private int SetBeepNotification(final int BeepEn) {
-        return this.reader.SetBeepNotification(this.param.GetAddress(), (byte) BeepEn);
+        final int result = this.reader.SetBeepNotification(this.param.GetAddress(), (byte) BeepEn);
+        if (result == 0x00) {
+            state.onBeep(BeepEn);
+        }
+        return result;
     }
 
     /**
@@ -389,7 +519,11 @@ public class ChafonReader {
      * @return 0x00 if success, else return error code.
      */
     public int SetRfPowerByAnt(final byte[] Power) {
-        return (Power.length != antennas) ? 0xFF : reader.SetRfPowerByAnt(param.GetAddress(), Power);
+        final int result = (Power.length != antennas) ? 0xFF : reader.SetRfPowerByAnt(param.GetAddress(), Power);
+        if (result == 0x00) {
+            state.onPowerPerAntenna(Power);
+        }
+        return result;
     }
 
     public boolean SetRfPowerByAntenna(final int[] power) {
@@ -444,8 +578,14 @@ public class ChafonReader {
     }
 
     public int[] GetRfPowerByAnt() {
+        final int[] cached = state.getPowerPerAntenna();
+        if (cached != null) {
+            return cached;
+        }
+
         final long start = System.currentTimeMillis();
         try {
+            final long generation = state.generation();
             final byte[] _power = new byte[antennas];
             final int result = this.GetRfPowerByAnt(_power);
             if (result != 0x00) {
@@ -458,6 +598,7 @@ public class ChafonReader {
             }
 
             logger.debugf("Obtained antenna power. (%d ms)", System.currentTimeMillis() - start);
+            state.putPowerPerAntenna(generation, power);
 
             return power;
         } catch (ChafonDeviceException e) {
@@ -466,6 +607,107 @@ public class ChafonReader {
         }
     }
 
+    /**
+     * Apply a configuration as one transaction. The current state is read once (one command, plus one for the antenna
+     * power when {@link ReaderConfiguration#getPowerPerAntenna()} is set), then only the commands for the settings that
+     * differ are sent back-to-back, holding the connection so no inventory round runs in between. Stops at the first
+     * failing command.
+     *
+     * @param config - desired state, null fields are left as they are
+     * @return true if every differing setting was applied.
+     */
+    public boolean Apply(final ReaderConfiguration config) {
+        final long start = System.currentTimeMillis();
+        final ChafonChannel channel = reader.getChannel();
+        channel.lock();
+        try {
+            final byte[] version = new byte[2];
+            final byte[] power = new byte[1];
+            final byte[] band = new byte[1];
+            final byte[] maxFrequency = new byte[1];
+            final byte[] minFrequency = new byte[1];
+            final byte[] beep = new byte[1];
+            final int[] ant = new int[1];
+            int result = this.GetUHFInformation(version, power, band, maxFrequency, minFrequency, beep, ant);
+            if (result != 0x00) {
+                throw ChafonDeviceException.of(result);
+            }
+
+            int commands = 0;
+            final Frequency frequency = config.getFrequency();
+            if (frequency != null) {
+                // the information response only carries the low 4 bits of the band, higher bands are always written
+                final boolean same = frequency.getBand() < 16
+                    && frequency.getBand() == Byte.toUnsignedInt(band[0])
+                    && frequency.getMaxIndex() == Byte.toUnsignedInt(maxFrequency[0])
+                    && frequency.getMinIndex() == Byte.toUnsignedInt(minFrequency[0]);
+                if (!same) {
+                    result = this.ExtSetRegion(config.isPersist() ? 0 : 1, frequency.getBand(), frequency.getMaxIndex(), frequency.getMinIndex());
+                    if (result != 0x00) {
+                        throw ChafonDeviceException.of(result);
+                    }
+                    commands++;
+                }
+            }
+
+            final Integer antennaMask = config.getAntennaMask();
+            if (antennaMask != null && antennaMask != ant[0]) {
+                result = this.SetAntenna(config.isPersist() ? 0 : 1, antennaMask);
+                if (result != 0x00) {
+                    throw ChafonDeviceException.of(result);
+                }
+                commands++;
+            }
+
+            final int[] powerPerAntenna = config.getPowerPerAntenna();
+            if (powerPerAntenna != null) {
+                final int[] current = GetRfPowerByAnt();
+                if (current == null || Byte.toUnsignedInt(power[0]) != 0xFF || !samePower(current, powerPerAntenna)) {
+                    if (!SetRfPowerByAntenna(powerPerAntenna)) {
+                        throw ChafonDeviceException.of("Unable to set antenna power");
+                    }
+                    commands++;
+                }
+            } else if (config.getPower() != null && config.getPower() != Byte.toUnsignedInt(power[0])) {
+                final int value = config.getPower();
+                if (value < MIN_POWER_DBM || value > MAX_POWER_DBM) {
+                    throw ChafonDeviceException.of("Power must be between 0 and 33.");
+                }
+                result = this.SetRfPower(config.isPersist() ? value : (value | 0x80));
+                if (result != 0x00) {
+                    throw ChafonDeviceException.of(result);
+                }
+                commands++;
+            }
+
+            if (config.getBeep() != null && config.getBeep() != (beep[0] == 0x01)) {
+                result = this.SetBeepNotification(config.getBeep() ? 0x01 : 0x00);
+                if (result != 0x00) {
+                    throw ChafonDeviceException.of(result);
+                }
+                commands++;
+            }
+
+            logger.debugf("Applied %s with %d command(s) (%d ms)", config, commands, System.currentTimeMillis() - start);
+            return true;
+        } catch (ChafonDeviceException e) {
+            logger.errorf(e, "Error applying configuration. (%d ms)", System.currentTimeMillis() - start);
+            return false;
+        } finally {
+            channel.unlock();
+        }
+    }
+
+    private boolean samePower(final int[] current, final int[] desired) {
+        for (int i = 0; i < current.length; i++) {
+            final int value = (i < desired.length) ? desired[i] : DEFAULT_POWER_DBM;
+            if (current[i] != value) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     public int ConfigDRM(final byte[] DRM) {
         return reader.ConfigDRM(param.GetAddress(), DRM);
     }
@@ -518,13 +760,19 @@ public class ChafonReader {
     }
 
     public String GetSerialNo() {
+        final String cached = state.getSerial();
+        if (cached != null) {
+            return cached;
+        }
         try {
             byte[] btArr = new byte[4];
             int result = reader.GetSerialNo(param.GetAddress(), btArr);
             if (result != 0x00) {
                 throw ChafonDeviceException.of(result);
             }
-            return Utils.bytesToHexString(btArr, 0, btArr.length);
+            final String serial = Utils.bytesToHexString(btArr, 0, btArr.length);
+            state.putSerial(serial);
+            return serial;
         } catch (ChafonDeviceException e) {
             logger.error("Error getting serial number.", e);
             return null;
@@ -578,7 +826,7 @@ public class ChafonReader {
             // Bits 0..6 = power, bit7 = enabled flag
             final int packed = (value & 0x7F) | (enabled ? 0x80 : 0x00);
             final byte writePowerByte = (byte) (packed & 0xFF);
-            final int result = this.SetWritePower((byte) 0);
+            final int result = this.SetWritePower(writePowerByte);
             if (result != 0x00) {
                 throw ChafonDeviceException.of(result);
             }
@@ -793,89 +1041,23 @@ public class ChafonReader {
         }
     }
 
+    /**
+     * Write the EPC (and its PC word) of the tag with the given TID.
+     *
+     * @param TIDStr      - the hexadecimal TID number of the tag.
+     * @param EPCStr      - the hexadecimal EPC to write, the length must be an integer multiple of 4.
+     * @param PasswordStr - tag hexadecimal access password (4 bytes)
+     * @return 0x00 if successful, 0xFF if the arguments are invalid, else an error code.
+     */
     public int WriteEPCByTID(final String TIDStr, final String EPCStr, final String PasswordStr) {
-        if (TIDStr != null && TIDStr.length() % 4 == 0) {
-            if (EPCStr != null && EPCStr.length() % 4 == 0) {
-                if (PasswordStr != null && PasswordStr.length() == 8) {
-                    byte[] Password = Utils.hexStringToBytes(PasswordStr);
-                    byte ENum = -1;
-                    byte WNum = (byte) (EPCStr.length() / 4);
-                    byte[] EPC = new byte[12];
-                    String PCStr = "";
-                    switch (WNum) {
-                        case 1:
-                            PCStr = "0800";
-                            break;
-                        case 2:
-                            PCStr = "1000";
-                            break;
-                        case 3:
-                            PCStr = "1800";
-                            break;
-                        case 4:
-                            PCStr = "2000";
-                            break;
-                        case 5:
-                            PCStr = "2800";
-                            break;
-                        case 6:
-                            PCStr = "3000";
-                            break;
-                        case 7:
-                            PCStr = "3800";
-                            break;
-                        case 8:
-                            PCStr = "4000";
-                            break;
-                        case 9:
-                            PCStr = "4800";
-                            break;
-                        case 10:
-                            PCStr = "5000";
-                            break;
-                        case 11:
-                            PCStr = "5800";
-                            break;
-                        case 12:
-                            PCStr = "6000";
-                            break;
-                        case 13:
-                            PCStr = "6800";
-                            break;
-                        case 14:
-                            PCStr = "7000";
-                            break;
-                        case 15:
-                            PCStr = "7800";
-                            break;
-                        case 16:
-                            PCStr = "8000";
-                    }
-
-                    String wdata = PCStr + EPCStr;
-                    ++WNum;
-                    byte[] data = Utils.hexStringToBytes(wdata);
-                    byte[] TID = Utils.hexStringToBytes(TIDStr);
-                    byte MaskMem = 2;
-                    byte[] MaskAdr = new byte[2];
-                    MaskAdr[0] = MaskAdr[1] = 0;
-                    byte MaskLen = (byte) (TIDStr.length() * 4);
-                    byte[] MaskData = new byte[TIDStr.length()];
-                    System.arraycopy(TID, 0, MaskData, 0, TID.length);
-                    byte MaskFlag = 0;
-                    byte[] Errorcode = new byte[1];
-                    byte Mem = 1;
-                    byte WordPtr = 1;
-                    return this.reader.WriteData_G2(this.param.GetAddress(), WNum, ENum, EPC, Mem, WordPtr, data, Password, MaskMem, MaskAdr, MaskLen, MaskData, Errorcode);
-                } else {
-                    return 0xFF;
-                }
-            } else {
-                return 0xFF;
-            }
-        } else {
+        final EncodingFrame frame;
+        try {
+            frame = EncodingFrame.of(TIDStr, EPCStr, PasswordStr);
+        } catch (IllegalArgumentException e) {
+            logger.debugf("WriteEPCByTID: %s", e.getMessage());
             return 0xFF;
         }
+        return frame.write(this, new byte[1]);
     }
 
     /**
@@ -938,6 +1120,10 @@ public class ChafonReader {
         return reader.WriteData_G2(param.GetAddress(), WNum, ENum, EPC, Mem, WordPtr, WriteData, Password, MaskMem, MaskAdr, MaskLen, MaskData, ErrorCode);
     }
 
+    public int Lock_G2(final byte ENum, final byte[] EPC, final byte select, final byte setprotect, final byte[] Password, final byte[] ErrorCode) {
+        return reader.Lock_G2(param.GetAddress(), ENum, EPC, select, setprotect, Password, ErrorCode);
+    }
+
     /**
      * Set the callback interface after the inventory is started, and the label data is returned through the callback interface.
      *
@@ -945,7 +1131,47 @@ public class ChafonReader {
      */
     public void SetCallBack(final TagCallback callback) {
         this.callback = callback;
-        this.reader.SetCallBack(callback);
+        this.reader.SetCallBack(traced(callback));
+    }
+
+    /**
+     * Wrap the callback in a {@link CallbackEvent} per tag.
+     */
+    private TagCallback traced(final TagCallback callback) {
+        if (callback == null) {
+            return null;
+        }
+        final String name = ip + ":" + port;
+        return new TagCallback() {
+            @Override
+            public void tagCallback(final ReadTag readTag) {
+                final CallbackEvent event = new CallbackEvent();
+                event.begin();
+                callback.tagCallback(readTag);
+                event.end();
+                if (event.shouldCommit()) {
+                    event.reader = name;
+                    event.antenna = (readTag != null) ? readTag.antId : 0;
+                    event.commit();
+                }
+            }
+
+            @Override
+            public void StopReadCallback() {
+                callback.StopReadCallback();
+            }
+        };
+    }
+
+    /**
+     * Set an allocation-free tag listener. While set, StartRead decodes every tag record into a reused
+     * {@link TagCursor} and no {@link ReadTag} is built for the callback; {@link TagCallback#StopReadCallback()} is still
+     * invoked when reading stops.
+     *
+     * @param listener - tag listener, null to go back to the callback
+     */
+    public void SetTagListener(final TagListener listener) {
+        this.listener = listener;
     }
 
     public void SetCallBack(final Consumer<ReadTag> onRead) {
@@ -963,84 +1189,296 @@ public class ChafonReader {
     }
 
     /**
-     * Start to read tags.
+     * Start to read tags on a dedicated thread.
      *
      * @param frequencies - list of frequencies to swap during process.
      * @param intervalMs  - time between frequency swaps.
      * @return 0x00 if started, else 0xFF if already running.
      */
     public int StartRead(final List<Frequency> frequencies, final int intervalMs) {
-        if (mThread != null) {
+        return StartRead(frequencies, intervalMs, null);
+    }
+
+    /**
+     * Start to read tags.
+     *
+     * @param frequencies - list of frequencies to swap during process.
+     * @param intervalMs  - time between frequency swaps.
+     * @param executor    - executor running the inventory loop one antenna sweep per task, so many readers can share a
+     *                    bounded pool, null to run the loop on a dedicated thread.
+     * @return 0x00 if started, else 0xFF if already running or rejected by the executor.
+     */
+    public synchronized int StartRead(final List<Frequency> frequencies, final int intervalMs, final Executor executor) {
+        if (loop != null) {
+            return 0xFF;
+        }
+
+        final FrequencyHopper hopper;
+        try {
+            hopper = (frequencies != null && frequencies.size() > 1) ? new FrequencyHopper(frequencies, intervalMs) : null;
+        } catch (IllegalArgumentException e) {
+            logger.errorf(e, "Invalid frequency plan for %s.", ip);
+            return 0xFF;
+        }
+
+        final InventoryLoop created;
+        try {
+            created = new InventoryLoop(hopper, executor);
+        } catch (RuntimeException e) {
+            logger.errorf(e, "Failed to create the inventory loop of %s.", ip);
             return 0xFF;
         }
 
         mWorking = true;
+        loop = created;
+        if (executor == null) {
+            new Thread(created, "chafon-" + ip + "-inventory").start();
+            return 0x00;
+        }
 
-        final boolean toggleEnabled = frequencies != null && frequencies.size() > 1;
-        final AtomicInteger freqIndex = new AtomicInteger(0);
-        final AtomicBoolean settingFrequency = new AtomicBoolean(false);
-
-        mThread = new Thread(() -> {
-            long lastToggleTime = System.currentTimeMillis();
-            byte Target = 0;
-            int index = 0;
-
-            while (mWorking) {
-                int antenna = 1 << index;
-                if ((param.GetAntenna() & antenna) == antenna) {
-                    byte Ant = (byte) (index | 128);
-                    int[] pOUcharTagNum = new int[1];
-                    int[] pListLen = new int[1];
-                    pOUcharTagNum[0] = pListLen[0] = 0;
-                    if (param.GetSession() == 0 || param.GetSession() == 1) {
-                        Target = 0;
-                        NoCardCount = 0;
-                    }
+        try {
+            executor.execute(created);
+        } catch (RejectedExecutionException e) {
+            logger.errorf(e, "Inventory loop of %s rejected by executor.", ip);
+            created.finish();
+            mWorking = false;
+            return 0xFF;
+        }
+        return 0x00;
+    }
 
-                    int result = 0;
-                    if (param.GetReadType() == 0) {
-                        byte TIDlen = 0;
-                        byte MaskMem = 0;
-                        reader.Inventory_G2(param.GetAddress(), (byte) param.GetQValue(), (byte) param.GetSession(), (byte) param.GetTidPtr(), TIDlen, Target, Ant, (byte) param.GetScanTime(), pOUcharIDList, pOUcharTagNum, pListLen);
-                    } else if (param.GetReadType() == 1) {
-                        byte TIDlen = (byte) param.GetTidLen();
-                        if (TIDlen == 0) {
-                            TIDlen = 6;
-                        }
-
-                        reader.Inventory_G2(param.GetAddress(), (byte) param.GetQValue(), (byte) param.GetSession(), (byte) param.GetTidPtr(), TIDlen, Target, Ant, (byte) param.GetScanTime(), pOUcharIDList, pOUcharTagNum, pListLen);
-                    } else if (param.GetReadType() == 2) {
-                        byte MaskMem = 0;
-                        byte[] MaskAdr = new byte[2];
-                        byte MaskLen = 0;
-                        byte[] MaskData = new byte[96];
-                        byte MaskFlag = 0;
-                        byte[] ReadAddr = new byte[]{ (byte) (param.GetReadPtr() >> 8), (byte) (param.GetReadPtr() & 255) };
-                        byte[] Password = Utils.hexStringToBytes(param.GetPassword());
-                        reader.Inventory_Mix(param.GetAddress(), (byte) param.GetQValue(), (byte) param.GetSession(), MaskMem, MaskAdr, MaskLen, MaskData, MaskFlag, (byte) param.GetReadMem(), ReadAddr, (byte) param.GetReadLength(), Password, Target, Ant, (byte) param.GetScanTime(), pOUcharIDList, pOUcharTagNum, pListLen);
-                    }
+    /**
+     * @return frequency hopper of the running inventory loop, null if not reading or not hopping.
+     */
+    public FrequencyHopper GetFrequencyHopper() {
+        final InventoryLoop current = loop;
+        return (current != null) ? current.hopper : null;
+    }
 
-                    if (pOUcharTagNum[0] == 0) {
-                        if (param.GetSession() > 1) {
-                            ChafonReader var10000 = ChafonReader.this;
-                            var10000.NoCardCount = var10000.NoCardCount + 1;
-                            int reTryTime = antennas;
-                            if (NoCardCount > reTryTime && param.GetTarget() == 2) {
-                                Target = (byte) (1 - Target);
-                                NoCardCount = 0;
-                            }
-                        }
-                    } else {
-                        NoCardCount = 0;
-                    }
+    /**
+     * Choose Q per antenna from the outcome of the previous rounds ({@link AdaptiveQ}) instead of always sending
+     * {@link ReaderParameter#GetQValue()}, which is then only the starting Q. Takes effect on the next StartRead.
+     *
+     * @param enabled - false by default, every round sends the fixed Q
+     */
+    public void SetAdaptiveQ(final boolean enabled) {
+        this.adaptiveQ = enabled;
+    }
 
-                    try {
-                        Thread.sleep(5L);
-                    } catch (InterruptedException e) {
-                        e.printStackTrace();
-                    }
+    /**
+     * @return Q engine of the running inventory loop, null if not reading or adaptive Q is disabled.
+     */
+    public AdaptiveQ GetAdaptiveQ() {
+        final InventoryLoop current = loop;
+        return (current != null) ? current.qEngine : null;
+    }
+
+    /**
+     * Share the rounds and their ScanTime among the enabled antennas by unique tag yield ({@link AntennaScheduler})
+     * instead of visiting them round-robin with the same ScanTime. Takes effect on the next StartRead.
+     *
+     * @param enabled - false by default, antennas are visited round-robin
+     */
+    public void SetAntennaScheduling(final boolean enabled) {
+        this.antennaScheduling = enabled;
+    }
+
+    /**
+     * @return antenna scheduler of the running inventory loop, null if not reading or scheduling is disabled.
+     */
+    public AntennaScheduler GetAntennaScheduler() {
+        final InventoryLoop current = loop;
+        return (current != null) ? current.scheduler : null;
+    }
+
+    /**
+     * Pause between inventory rounds ({@link InventoryPacer}). The running loop picks it up after its next round.
+     *
+     * @param opts - null for {@link PacingOptions#DEFAULT}
+     */
+    public void SetPacing(final PacingOptions opts) {
+        this.pacing = (opts != null) ? opts : PacingOptions.DEFAULT;
+    }
+
+    public PacingOptions GetPacing() {
+        return pacing;
+    }
+
+    /**
+     * Session / target policy of the inventory rounds. The running loop picks it up before its next round, so zones can
+     * switch between e.g. tracking and new tag detection without restarting the read.
+     *
+     * @param strategy - null to follow the session and target of {@link ReaderParameter}, as read on StartRead
+     */
+    public void SetInventoryStrategy(final InventoryStrategy strategy) {
+        this.strategy = strategy;
+    }
+
+    /**
+     * @return strategy set by {@link #SetInventoryStrategy(InventoryStrategy)}, null if the reader parameter is followed.
+     */
+    public InventoryStrategy GetInventoryStrategy() {
+        return strategy;
+    }
+
+    /**
+     * Let the reader singulate only the tags passing {@code filters}: before every round the loop sends one Select per
+     * filter ({@link SelectPlan}) with the session and target of the round, so the other tags stay silent instead of
+     * being read and dropped. Takes effect on the next round. Tags parked by removed filters answer again once their
+     * session flag decays.
+     *
+     * @param filters - null or empty to inventory every tag
+     */
+    public void SetFilters(final List<TagFilter> filters) {
+        this.selectPlan = (filters != null && !filters.isEmpty()) ? new SelectPlan(filters) : null;
+    }
+
+    /**
+     * @return filters set by {@link #SetFilters(List)}, empty when every tag is inventoried.
+     */
+    public List<TagFilter> GetFilters() {
+        final SelectPlan plan = selectPlan;
+        return (plan != null) ? plan.getFilters() : Collections.emptyList();
+    }
+
+    /**
+     * @return true while the inventory loop is running or finishing its last round.
+     */
+    public boolean isReading() {
+        return loop != null;
+    }
+
+    /**
+     * Stop to read tags.
+     */
+    public void StopRead() {
+        final InventoryLoop current = loop;
+        if (current != null) {
+            reader.StopImmediately(param.GetAddress());
+            mWorking = false;
+            current.wake();
+        }
+    }
+
+    /**
+     * Inventory loop state. It runs either on a dedicated thread, or as a chain of executor tasks that each cover one
+     * sweep over the antenna ports, so only one thread at a time touches it. On an executor the pacing pauses end the
+     * task and the next one is submitted once the pause elapses, the pool threads never park.
+     */
+    private final class InventoryLoop implements Runnable {
+
+        private final FrequencyHopper hopper;
+        private final Executor executor;
+        private final TagListener tagListener;
+        private final AdaptiveQ qEngine;
+        private final AntennaScheduler scheduler;
+        private final InventoryStrategy fallback;
+        private InventoryStrategy installed = null;
+
+        // scratch buffers, reused by every inventory round
+        private final int[] pOUcharTagNum = new int[1];
+        private final int[] pListLen = new int[1];
+        private final byte[] MaskAdr = new byte[2];
+        private final byte[] MaskData = new byte[96];
+        private final byte[] ReadAddr = new byte[2];
+        private byte[] Password = null;
+        private String password = null;
+        private final TagCursor cursor = new TagCursor();
+        private final String name = ip + ":" + port;
+        private final EpcSet recent = new EpcSet(4096); // EPCs read in the current yield window
+        private long recentSince = System.currentTimeMillis();
+
+        private InventoryPacer pacer = null;
+        private long delay = 0;         // pause requested by the last round, executor mode only
+        private final AtomicBoolean waiting = new AtomicBoolean(); // executor mode, next task scheduled after a pause
+        private volatile Thread runner = null;
+
+        private int index = 0;
+        private boolean selectSkipped = false;
+
+        private InventoryLoop(final FrequencyHopper hopper, final Executor executor) {
+            this.hopper = hopper;
+            this.executor = executor;
+            this.tagListener = listener;
+            this.qEngine = adaptiveQ ? new AdaptiveQ(antennas, param.GetQValue()) : null;
+            this.scheduler = antennaScheduling ? new AntennaScheduler(antennas) : null;
+            this.fallback = InventoryStrategy.of(param.GetSession(), param.GetTarget());
+            if (tagListener != null) {
+                reader.SetCallBack(null); // records are decoded from pOUcharIDList instead
+            }
+        }
+
+        @Override
+        public void run() {
+            if (executor == null) {
+                runner = Thread.currentThread();
+                while (mWorking) {
+                    step();
                 }
+                finish();
+                return;
+            }
 
+            // one sweep over the antenna ports, cut short by a pause, then hand the pool thread over to the other readers
+            final int ports = Math.max(antennas, 1);
+            for (int i = 0; i < ports && mWorking && delay == 0; i++) {
+                step();
+            }
+            final long nanos = delay;
+            delay = 0;
+            if (!mWorking) {
+                finish();
+            } else if (nanos > 0) {
+                // submitted from the common pool rather than through a delayed executor on the pool, which would drop a rejection
+                waiting.set(true);
+                CompletableFuture.delayedExecutor(nanos, TimeUnit.NANOSECONDS).execute(this::resume);
+                if (!mWorking) {
+                    resume(); // StopRead came in before waiting was set, do not sit out the pause
+                }
+            } else {
+                submit();
+            }
+        }
+
+        /**
+         * Submit the next task of the chain once a pause elapsed or was cut short by {@link #wake()}, whichever comes
+         * first.
+         */
+        private void resume() {
+            if (waiting.compareAndSet(true, false)) {
+                submit();
+            }
+        }
+
+        private void submit() {
+            try {
+                executor.execute(this);
+            } catch (RejectedExecutionException e) {
+                logger.errorf(e, "Inventory loop of %s rejected by executor, stopping.", ip);
+                mWorking = false;
+                finish();
+            }
+        }
+
+        private void step() {
+            try {
+                inventory();
+                hop();
+            } catch (RuntimeException e) {
+                logger.errorf(e, "Inventory round failed on %s.", ip);
+            }
+        }
+
+        private void inventory() {
+            final int current;
+            if (scheduler != null) {
+                current = scheduler.next(param.GetAntenna());
+                if (current < 0) {
+                    pace(0, 0); // nothing enabled, idle instead of spinning
+                    return;
+                }
+            } else {
+                current = index;
                 ++index;
                 if (antennas != 0) {
                     index %= antennas;
@@ -1048,67 +1486,217 @@ public class ChafonReader {
                     index = 0;
                 }
 
-                // --- Toggle region if requested interval elapsed
-                if (toggleEnabled) {
-                    long now = System.currentTimeMillis();
-                    long elapsed = now - lastToggleTime;
-                    if (elapsed >= intervalMs) {
-                        if (settingFrequency.compareAndSet(false, true)) {
-                            try {
-                                // pre-increment index: first loop will move 0 -> 1 as requested
-                                int nextIndex = freqIndex.updateAndGet(i -> {
-                                    int ni = i + 1;
-                                    return (ni >= frequencies.size()) ? 0 : ni;
-                                });
-
-                                Frequency nextFreq = frequencies.get(nextIndex);
-
-                                long callStart = System.currentTimeMillis();
-                                boolean updated = this.SetFrequency(nextFreq);
-                                long callEnd = System.currentTimeMillis();
-
-                                logger.infof("Frequency changed (%b) to band = %d, indices = %d .. %d, frequency = %.3f ~ %.3f MHz (%d ms)",
-                                    updated,
-                                    nextFreq.getBand(),
-                                    nextFreq.getMinIndex(),
-                                    nextFreq.getMaxIndex(),
-                                    nextFreq.getMinFrequency(),
-                                    nextFreq.getMaxFrequency(),
-                                    callEnd - callStart);
-
-                                // only advance the timer after finishing setFrequency
-                                lastToggleTime = System.currentTimeMillis();
-                            } catch (Exception e) {
-                                logger.error("Failed to change device frequency.", e);
-                                lastToggleTime = System.currentTimeMillis(); // avoid tight retry loops
-                            } finally {
-                                settingFrequency.set(false);
-                            }
-                        } else {
-                            logger.debug("Skipping toggle because setFrequency already in progress");
-                        }
+                int antenna = 1 << current;
+                if ((param.GetAntenna() & antenna) != antenna) {
+                    return;
+                }
+            }
+
+            byte Ant = (byte) (current | 128);
+            pOUcharTagNum[0] = pListLen[0] = 0;
+
+            final InventoryStrategy policy = (strategy != null) ? strategy : fallback;
+            if (policy != installed) {
+                policy.reset(antennas);
+                installed = policy;
+                logger.debugf("Inventory strategy of %s: %s", ip, policy);
+            }
+            final byte Session = (byte) policy.session(current);
+            final byte Target = (byte) policy.target(current);
+            final byte ScanTime = (byte) ((scheduler != null) ? scheduler.getScanTime(current, param.GetScanTime()) : param.GetScanTime());
+
+            final byte QValue = (byte) ((qEngine != null) ? qEngine.getQ(current) : param.GetQValue());
+            final SelectPlan plan = selectPlan;
+            if (plan != null && (Session & 0xFF) > 3) {
+                if (!selectSkipped) {
+                    selectSkipped = true;
+                    logger.warnf("Select filters of %s need session 0 to 3, not sent with session 0x%02X", ip, Session & 0xFF);
+                }
+            } else if (plan != null) {
+                final int selected = plan.issue(reader, param.GetAddress(), current, Session, Target);
+                if (selected != 0x00) {
+                    logger.debugf("Select filters of %s failed on antenna %d, result 0x%02X", ip, current + 1, selected);
+                }
+            }
+
+            final InventoryRoundEvent event = new InventoryRoundEvent();
+            event.begin();
+            final long roundStart = System.nanoTime();
+            int result = 0x00;
+            final int readType = param.GetReadType();
+            if (readType == 0) {
+                byte TIDlen = 0;
+                result = reader.Inventory_G2(param.GetAddress(), QValue, Session, (byte) param.GetTidPtr(), TIDlen, Target, Ant, ScanTime, pOUcharIDList, pOUcharTagNum, pListLen);
+            } else if (readType == 1) {
+                byte TIDlen = (byte) param.GetTidLen();
+                if (TIDlen == 0) {
+                    TIDlen = 6;
+                }
+
+                result = reader.Inventory_G2(param.GetAddress(), QValue, Session, (byte) param.GetTidPtr(), TIDlen, Target, Ant, ScanTime, pOUcharIDList, pOUcharTagNum, pListLen);
+            } else if (readType == 2) {
+                byte MaskMem = 0;
+                byte MaskLen = 0;
+                byte MaskFlag = 0;
+                ReadAddr[0] = (byte) (param.GetReadPtr() >> 8);
+                ReadAddr[1] = (byte) (param.GetReadPtr() & 255);
+                if (Password == null || !param.GetPassword().equals(password)) {
+                    password = param.GetPassword();
+                    Password = Utils.hexStringToBytes(password);
+                }
+                result = reader.Inventory_Mix(param.GetAddress(), QValue, Session, MaskMem, MaskAdr, MaskLen, MaskData, MaskFlag, (byte) param.GetReadMem(), ReadAddr, (byte) param.GetReadLength(), Password, Target, Ant, ScanTime, pOUcharIDList, pOUcharTagNum, pListLen);
+            }
+            final long roundNanos = System.nanoTime() - roundStart;
+            event.end();
+            if (qEngine != null && result != ChafonFrame.COMMUNICATION_ERROR) {
+                qEngine.update(current, pOUcharTagNum[0], roundNanos);
+            }
+
+            int unique = 0;
+            if (pOUcharTagNum[0] > 0) {
+                cursor.reset(pOUcharIDList, pListLen[0], current + 1, readType == 2, ip);
+                while (cursor.next()) {
+                    if (tagListener != null) {
+                        dispatch(current);
+                    }
+                    if (recent.add(cursor.getBuffer(), cursor.getEpcOffset(), cursor.getEpcLength())) {
+                        unique++;
+                    }
+                    if (hopper != null) {
+                        hopper.onTag(cursor.getBuffer(), cursor.getEpcOffset(), cursor.getEpcLength());
                     }
                 }
             }
+            if (result != ChafonFrame.COMMUNICATION_ERROR) {
+                metrics.onRound(current, pOUcharTagNum[0], unique, roundNanos);
+                if (scheduler != null) {
+                    scheduler.update(current, pOUcharTagNum[0], unique, roundNanos);
+                }
+                final long now = System.currentTimeMillis();
+                if (now - recentSince >= YIELD_WINDOW_MS) {
+                    recent.clear();
+                    recentSince = now;
+                }
+            }
+
+            if (result != ChafonFrame.COMMUNICATION_ERROR) {
+                policy.onRound(current, pOUcharTagNum[0]);
+            }
+
+            if (event.shouldCommit()) {
+                event.reader = name;
+                event.antenna = current + 1;
+                event.q = QValue;
+                event.session = Session;
+                event.target = Target;
+                event.scanTime = ScanTime & 0xFF;
+                event.tags = pOUcharTagNum[0];
+                event.bytes = pListLen[0];
+                event.result = result;
+                event.commit();
+            }
+
+            pace(pOUcharTagNum[0], roundNanos);
+        }
+
+        private void dispatch(final int antenna) {
+            final CallbackEvent event = new CallbackEvent();
+            event.begin();
+            tagListener.onTag(cursor);
+            event.end();
+            if (event.shouldCommit()) {
+                event.reader = name;
+                event.antenna = antenna + 1;
+                event.listener = true;
+                event.commit();
+            }
+        }
+
+        private void pace(final int tags, final long roundNanos) {
+            final PacingOptions opts = pacing;
+            if (pacer == null || pacer.getOpts() != opts) {
+                pacer = new InventoryPacer(opts);
+            }
+            final long nanos = pacer.delayNanos(tags, roundNanos);
+            if (executor == null) {
+                pause(nanos);
+            } else {
+                delay = nanos; // run() ends the task and schedules the next one
+            }
+        }
+
+        /**
+         * Park the dedicated thread until the pause elapses or {@link #wake()}. The thread is not interrupted, an
+         * interrupt would close the channel (NIO channels are interruptible).
+         */
+        private void pause(final long nanos) {
+            final long deadline = System.nanoTime() + nanos;
+            long remaining = nanos;
+            while (remaining > 0 && mWorking) {
+                LockSupport.parkNanos(this, remaining);
+                remaining = deadline - System.nanoTime();
+            }
+        }
+
+        private void wake() {
+            if (executor != null) {
+                resume();
+                return;
+            }
+            final Thread thread = runner;
+            if (thread != null) {
+                LockSupport.unpark(thread);
+            }
+        }
+
+        // --- Switch to the next channel group once the current one had its dwell
+        private void hop() {
+            if (hopper == null || !hopper.isDue(System.nanoTime())) {
+                return;
+            }
+            final Frequency next = hopper.getNext();
+            final FrequencyHopEvent event = new FrequencyHopEvent();
+            event.begin();
+            final long start = System.nanoTime();
+            final boolean switched = SetFrequency(next, false);
+            final long cost = System.nanoTime() - start;
+            event.end();
+            hopper.onHop(switched, cost);
+            if (event.shouldCommit()) {
+                event.reader = name;
+                event.band = next.getBand();
+                event.minIndex = next.getMinIndex();
+                event.maxIndex = next.getMaxIndex();
+                event.switched = switched;
+                event.commit();
+            }
+            logger.debugf("Frequency hop (%b) to band = %d, indices = %d .. %d, frequency = %.3f ~ %.3f MHz (%.1f ms)",
+                switched,
+                next.getBand(),
+                next.getMinIndex(),
+                next.getMaxIndex(),
+                next.getMinFrequency(),
+                next.getMaxFrequency(),
+                cost / 1e6);
+        }
 
+        private void finish() {
+            if (scheduler != null) {
+                logger.infof("Inventory of %s stopped, %s", ip, scheduler);
+            }
+            if (hopper != null) {
+                logger.infof("Inventory of %s stopped, %s", ip, hopper);
+            }
+            if (tagListener != null) {
+                reader.SetCallBack(traced(callback));
+            }
             if (callback != null) {
                 callback.StopReadCallback();
             }
 
-            mThread = null;
-        });
-        this.mThread.start();
-        return 0x00;
-    }
-
-    /**
-     * Stop to read tags.
-     */
-    public void StopRead() {
-        if (mThread != null) {
-            reader.StopImmediately(param.GetAddress());
-            mWorking = false;
+            loop = null;
         }
+
     }
 
     /**
@@ -1157,4 +1745,102 @@ public class ChafonReader {
         return reader.SetExtProfile(param.GetAddress(), Opt, Profile);
     }
 
+    // --- asynchronous API
+
+    /**
+     * Set the timeout of the asynchronous commands submitted without an explicit one.
+     *
+     * @param timeoutMs - timeout in milliseconds, default is 3000.
+     */
+    public void SetCommandTimeout(final long timeoutMs) {
+        if (timeoutMs <= 0) {
+            throw new IllegalArgumentException("Command timeout must be > 0, but received " + timeoutMs);
+        }
+        this.commandTimeoutMs = timeoutMs;
+    }
+
+    /**
+     * @return number of asynchronous commands waiting to be sent.
+     */
+    public int GetPendingCommands() {
+        return commands.getPending();
+    }
+
+    /**
+     * Queue a command. Commands run one at a time in submission order on the reader command thread, so the calling
+     * thread never blocks on the device.
+     *
+     * @param command   - command, e.g. {@code r -> r.SetPower(30)}
+     * @param timeoutMs - time allowed for queueing plus the device round trip
+     * @return future completed with the command result, or with a {@link java.util.concurrent.TimeoutException}.
+     */
+    public <T> CompletableFuture<T> submit(final Function<ChafonReader, T> command, final long timeoutMs) {
+        return commands.submit(command, timeoutMs);
+    }
+
+    public <T> CompletableFuture<T> submit(final Function<ChafonReader, T> command) {
+        return submit(command, commandTimeoutMs);
+    }
+
+    public CompletableFuture<UHFInformation> GetUHFInformationAsync() {
+        return submit(ChafonReader::GetUHFInformation);
+    }
+
+    public CompletableFuture<Boolean> SetPowerAsync(final int value) {
+        return submit((final ChafonReader r) -> r.SetPower(value));
+    }
+
+    public CompletableFuture<int[]> GetRfPowerByAntAsync() {
+        return submit(ChafonReader::GetRfPowerByAnt);
+    }
+
+    public CompletableFuture<Boolean> SetFrequencyAsync(final Frequency value) {
+        return submit((final ChafonReader r) -> r.SetFrequency(value));
+    }
+
+    public CompletableFuture<Boolean> SetAntennaAsync(final int pos, final boolean enabled) {
+        return submit((final ChafonReader r) -> r.SetAntenna(pos, enabled));
+    }
+
+    public CompletableFuture<Boolean> SetBeepAsync(final boolean enable) {
+        return submit((final ChafonReader r) -> r.SetBeep(enable));
+    }
+
+    public CompletableFuture<String> GetSerialNoAsync() {
+        return submit(ChafonReader::GetSerialNo);
+    }
+
+    public CompletableFuture<String> ReadDataByEPCAsync(final String EPCStr, final byte Mem, final byte WordPtr, final byte Num, final String PasswordStr) {
+        return submit((final ChafonReader r) -> r.ReadDataByEPC(EPCStr, Mem, WordPtr, Num, PasswordStr));
+    }
+
+    public CompletableFuture<String> ReadDataByTIDAsync(final String TIDStr, final byte Mem, final byte WordPtr, final byte Num, final String PasswordStr) {
+        return submit((final ChafonReader r) -> r.ReadDataByTID(TIDStr, Mem, WordPtr, Num, PasswordStr));
+    }
+
+    public CompletableFuture<Integer> WriteDataByEPCAsync(final String EPCStr, final byte Mem, final byte WordPtr, final String PasswordStr, final String wdata) {
+        return submit((final ChafonReader r) -> r.WriteDataByEPC(EPCStr, Mem, WordPtr, PasswordStr, wdata));
+    }
+
+    public CompletableFuture<Integer> WriteDataByTIDAsync(final String TIDStr, final byte Mem, final byte WordPtr, final String PasswordStr, final String wdata) {
+        return submit((final ChafonReader r) -> r.WriteDataByTID(TIDStr, Mem, WordPtr, PasswordStr, wdata));
+    }
+
+    public CompletableFuture<Integer> WriteEPCAsync(final String epc, final String password) {
+        return submit((final ChafonReader r) -> r.WriteEPC(epc, password));
+    }
+
+    public CompletableFuture<Integer> WriteEPCByTIDAsync(final String TIDStr, final String EPCStr, final String PasswordStr) {
+        return submit((final ChafonReader r) -> r.WriteEPCByTID(TIDStr, EPCStr, PasswordStr));
+    }
+
+    public CompletableFuture<Integer> LockAsync(final String epc, final byte select, final byte setprotect, final String password) {
+        return submit((final ChafonReader r) -> r.Lock(epc, select, setprotect, password));
+    }
+
+    public CompletableFuture<Integer> KillAsync(final String epc, final String password) {
+        return submit((final ChafonReader r) -> r.Kill(epc, password));
+    }
+
+
 }
@@ -1,28 +1,83 @@
 package com.contare.chafon;
 
+import com.contare.chafon.inventory.InventoryStrategy;
 import com.contare.core.RfidDevice;
+import com.contare.core.collections.EpcSet;
+import com.contare.core.collections.TagStats;
 import com.contare.core.exceptions.RfidDeviceException;
 import com.contare.core.mappers.TagMetadataMapper;
+import com.contare.core.metrics.MetricRegistry;
+import com.contare.core.objects.MemoryReadOptions;
 import com.contare.core.objects.Options;
+import com.contare.core.objects.TagFilter;
 import com.contare.core.objects.TagMetadata;
+import com.contare.core.pipeline.RingBuffer;
 import com.rfid.ReadTag;
 import org.jboss.logging.Logger;
 
 import java.io.IOException;
-import java.util.Collections;
-import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
 
 public class ChafonRfidDevice implements RfidDevice {
 
     private static final Logger logger = Logger.getLogger(ChafonRfidDevice.class);
+    private static final int BUFFER_EXPECTED_SIZE = 65_536;
 
     private Options opts;
     private ChafonReader reader;
-    private final Set<String> buffer = new HashSet<>();
-
+    private final EpcSet buffer = new EpcSet(BUFFER_EXPECTED_SIZE);
+    private TagStats stats;
+    private RingBuffer<ReadTag> pipeline;
+    private final List<Consumer<TagMetadata>> listeners = new CopyOnWriteArrayList<>();
+    private Executor executor;
+    private MemoryReadOptions memoryRead;
+    private List<TagFilter> filters;
+
+    /**
+     * @return snapshot of the EPCs read since the device was started.
+     */
     public Set<String> getBuffer() {
-        return Collections.unmodifiableSet(buffer);
+        return buffer.snapshot();
+    }
+
+    /**
+     * @return read count and RSSI per tag and antenna since the device was started, null before {@link #init(Options)}.
+     */
+    public TagStats getStats() {
+        return stats;
+    }
+
+    /**
+     * @return ring buffer between the reader thread and the tag consumers, null before {@link #init(Options)}.
+     */
+    public RingBuffer<ReadTag> getPipeline() {
+        return pipeline;
+    }
+
+    @Override
+    public void addListener(final Consumer<TagMetadata> listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public void setExecutor(final Executor executor) {
+        this.executor = executor;
+    }
+
+    @Override
+    public boolean setMemoryRead(final MemoryReadOptions options) {
+        this.memoryRead = options;
+        return true;
+    }
+
+    @Override
+    public boolean setFilters(final List<TagFilter> filters) {
+        this.filters = filters;
+        return true;
     }
 
     @Override
@@ -30,15 +85,32 @@ public class ChafonRfidDevice implements RfidDevice {
         this.opts = opts;
 
         reader = new ChafonReader(opts.ip, opts.port, opts.antennas, opts.verbose);
+        stats = new TagStats(BUFFER_EXPECTED_SIZE, opts.antennas);
+
+        // the reader thread only publishes, mapping, logging and dedup run on the pipeline consumers
+        pipeline = new RingBuffer<>("chafon-" + opts.ip, opts.pipeline);
+        final RingBuffer<ReadTag>.Subscription dedup = pipeline.subscribe("dedup", (final ReadTag readTag) -> {
+            if (buffer.add(readTag.epcId)) {
+                logger.debugf("EPC %s added to buffer.", readTag.epcId);
+            }
+            stats.record(readTag.epcId, readTag.antId, readTag.rssi, System.currentTimeMillis());
+        });
+        final RingBuffer<ReadTag>.Subscription log = pipeline.subscribe("log", (final ReadTag readTag) -> {
+            final TagMetadata tag = TagMetadataMapper.toDto(readTag);
+            logger.infof("Tag Received: %s", tag);
+            for (final Consumer<TagMetadata> listener : listeners) {
+                try {
+                    listener.accept(tag);
+                } catch (RuntimeException e) {
+                    logger.errorf(e, "Tag listener failed on %s", tag);
+                }
+            }
+        });
+        register(MetricRegistry.getDefault(), "chafon." + opts.ip + ":" + opts.port + ".pipeline", dedup, log);
 
         reader.SetCallBack((final ReadTag readTag) -> {
             if (readTag != null) {
-                final TagMetadata tag = TagMetadataMapper.toDto(readTag);
-                logger.infof("Tag Received: %s", tag);
-
-                if (buffer.add(tag.getEpc())) {
-                    logger.debugf("EPC %s added to buffer.", tag.getEpc());
-                }
+                pipeline.publish(readTag);
             } else {
                 logger.warn("Tag Received is empty");
             }
@@ -47,6 +119,21 @@ public class ChafonRfidDevice implements RfidDevice {
         return this.connect();
     }
 
+    /**
+     * Export the ring buffer: consumer lag, and the time from the reader callback (right after the inventory frame is
+     * decoded) to the end of each consumer, the listeners run at the end of {@code log}.
+     */
+    private void register(final MetricRegistry registry, final String prefix, final RingBuffer<ReadTag>.Subscription dedup, final RingBuffer<ReadTag>.Subscription log) {
+        final RingBuffer<ReadTag> ring = pipeline;
+        registry.gauge(prefix + ".published", ring::getPublished);
+        registry.gauge(prefix + ".dedup.tags", stats::size);
+        registry.gauge(prefix + ".dropped", () -> ring.getDroppedNewest() + ring.getDroppedOldest());
+        registry.gauge(prefix + ".dedup.lag", dedup::getLag);
+        registry.gauge(prefix + ".log.lag", log::getLag);
+        registry.register(prefix + ".dedup.latency-us", dedup.getLatency());
+        registry.register(prefix + ".log.latency-us", log.getLatency());
+    }
+
     @Override
     public boolean connect() {
         try {
@@ -67,6 +154,7 @@ public class ChafonRfidDevice implements RfidDevice {
 
         // reset buffer
         buffer.clear();
+        stats.clear();
 
 
 
@@ -84,7 +172,17 @@ public class ChafonRfidDevice implements RfidDevice {
         // params.SetScanTime(255);
         // reader.SetInventoryParameter(params);
 
-        final int result = reader.StartRead(opts.frequencies, opts.interval);
+        reader.SetMemoryRead(memoryRead);
+        if (memoryRead != null) {
+            logger.debugf("Device reads %s with every tag", memoryRead);
+        }
+
+        reader.SetFilters(filters);
+        if (filters != null && !filters.isEmpty()) {
+            logger.debugf("Device inventories tags passing %s", filters);
+        }
+
+        final int result = reader.StartRead(opts.frequencies, opts.interval, executor);
         if (result != 0x00) {
             throw ChafonDeviceException.of(ChafonDeviceStatus.of(result));
         }
@@ -114,6 +212,9 @@ public class ChafonRfidDevice implements RfidDevice {
                 reader.Disconnect();
             }
         }
+        if (pipeline != null) {
+            pipeline.close();
+        }
         final long elapsed = System.currentTimeMillis() - start;
         logger.debugf("Device closed (%d ms)", elapsed);
     }
@@ -147,6 +248,26 @@ public class ChafonRfidDevice implements RfidDevice {
         return reader.SetAntenna(index, enabled);
     }
 
+    public boolean Apply(final ReaderConfiguration config) {
+        return reader.Apply(config);
+    }
+
+    public void SetInventoryStrategy(final InventoryStrategy strategy) {
+        reader.SetInventoryStrategy(strategy);
+    }
+
+    public void SetPacing(final PacingOptions opts) {
+        reader.SetPacing(opts);
+    }
+
+    public void SetAdaptiveQ(final boolean enabled) {
+        reader.SetAdaptiveQ(enabled);
+    }
+
+    public void SetAntennaScheduling(final boolean enabled) {
+        reader.SetAntennaScheduling(enabled);
+    }
+
     public byte[] GetGPIO() {
         return reader.GetGPIOStatus();
     }
@@ -1,26 +1,31 @@
 package com.contare.chafon;
 
 import com.contare.core.RfidDevice;
+import com.contare.core.collections.EpcSet;
 import com.contare.core.exceptions.RfidDeviceException;
 import com.contare.core.mappers.TagMetadataMapper;
 import com.contare.core.mappers.UHFInformationMapper;
+import com.contare.core.objects.MemoryReadOptions;
 import com.contare.core.objects.Options;
 import com.contare.core.objects.TagMetadata;
+import com.contare.core.pipeline.RingBuffer;
 import com.rfid.CReader;
 import com.rfid.ReadTag;
+import com.rfid.ReaderParameter;
 import com.rfid.TagCallback;
 import com.rfid.Utils;
 import org.jboss.logging.Logger;
 
 import java.io.IOException;
-import java.util.Collections;
-import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.function.Consumer;
 
 public class ChafonUHFDevice implements RfidDevice {
 
     private static final Logger logger = Logger.getLogger(ChafonUHFDevice.class);
+    private static final int BUFFER_EXPECTED_SIZE = 65_536;
     private static final int MIN_POWER_DBM = 0;
     private static final int MAX_POWER_DBM = 33;
     private static final int DEFAULT_POWER_DBM = 0;
@@ -28,10 +33,34 @@ public class ChafonUHFDevice implements RfidDevice {
     private Options opts;
     private CReader reader;
     private int antennas = 4;
-    private final Set<String> buffer = new HashSet<>();
+    private final EpcSet buffer = new EpcSet(BUFFER_EXPECTED_SIZE);
+    private RingBuffer<ReadTag> pipeline;
+    private final List<Consumer<TagMetadata>> listeners = new CopyOnWriteArrayList<>();
+    private MemoryReadOptions memoryRead;
 
+    /**
+     * @return snapshot of the EPCs read since the device was started.
+     */
     public Set<String> getBuffer() {
-        return Collections.unmodifiableSet(buffer);
+        return buffer.snapshot();
+    }
+
+    /**
+     * @return ring buffer between the reader thread and the tag consumers, null before {@link #init(Options)}.
+     */
+    public RingBuffer<ReadTag> getPipeline() {
+        return pipeline;
+    }
+
+    @Override
+    public void addListener(final Consumer<TagMetadata> listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public boolean setMemoryRead(final MemoryReadOptions options) {
+        this.memoryRead = options;
+        return true;
     }
 
     @Override
@@ -41,14 +70,28 @@ public class ChafonUHFDevice implements RfidDevice {
 
         reader = new CReader(opts.ip, opts.port, opts.antennas, opts.verbose ? 1 : 0);
 
+        // the reader thread only publishes, mapping, logging and dedup run on the pipeline consumers
+        pipeline = new RingBuffer<>("chafon-" + opts.ip, opts.pipeline);
+        pipeline.subscribe("dedup", (final ReadTag readTag) -> {
+            if (buffer.add(readTag.epcId)) {
+                logger.debugf("EPC %s added to buffer.", readTag.epcId);
+            }
+        });
+        pipeline.subscribe("log", (final ReadTag readTag) -> {
+            final TagMetadata tag = TagMetadataMapper.toDto(readTag);
+            logger.infof("Tag Received: %s", tag);
+            for (final Consumer<TagMetadata> listener : listeners) {
+                try {
+                    listener.accept(tag);
+                } catch (RuntimeException e) {
+                    logger.errorf(e, "Tag listener failed on %s", tag);
+                }
+            }
+        });
+
         this.SetCallBack((final ReadTag readTag) -> {
             if (readTag != null) {
-                final TagMetadata tag = TagMetadataMapper.toDto(readTag);
-                logger.infof("Tag Received: %s", tag);
-
-                if (buffer.add(tag.getEpc())) {
-                    logger.debugf("EPC %s added to buffer.", tag.getEpc());
-                }
+                pipeline.publish(readTag);
             } else {
                 logger.warn("Tag Received is empty");
             }
@@ -97,6 +140,19 @@ public class ChafonUHFDevice implements RfidDevice {
         // params.SetScanTime(255);
         // reader.SetInventoryParameter(params);
 
+        // the SDK loop runs Inventory_Mix for read type 2
+        final ReaderParameter params = reader.GetInventoryParameter();
+        if (memoryRead != null) {
+            params.SetReadMem(memoryRead.bank.getCode());
+            params.SetReadPtr(memoryRead.wordPtr);
+            params.SetReadLength(memoryRead.words);
+            params.SetPassword(memoryRead.password);
+            params.SetReadType(2);
+        } else {
+            params.SetReadType(0);
+        }
+        reader.SetInventoryParameter(params);
+
         final int result = reader.StartRead();
         if (result != 0x00) {
             throw ChafonDeviceException.of(ChafonDeviceStatus.of(result));
@@ -127,6 +183,9 @@ public class ChafonUHFDevice implements RfidDevice {
                 reader.DisConnect();
             }
         }
+        if (pipeline != null) {
+            pipeline.close();
+        }
         final long elapsed = System.currentTimeMillis() - start;
         logger.debugf("Device closed (%d ms)", elapsed);
     }
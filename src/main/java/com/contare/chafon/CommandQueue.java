@@ -0,0 +1,79 @@
+package com.contare.chafon;
+
+import com.contare.chafon.protocol.ChafonChannel;
+import org.jboss.logging.Logger;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+
+/**
+ * Serializes the asynchronous commands of one {@link ChafonReader} on a single worker thread.
+ * <p>
+ * Each command carries its own timeout: the future fails with a {@link TimeoutException} once it
+ * expires, a command still queued at that point is never sent, and a command in flight stops waiting for the device
+ * at the deadline ({@link ChafonChannel#setDeadline(long)}). The worker thread exits after a minute without commands.
+ */
+final class CommandQueue {
+
+    private static final Logger logger = Logger.getLogger(CommandQueue.class);
+
+    private static final int CAPACITY = 1024;
+    private static final long KEEP_ALIVE_SECONDS = 60;
+
+    private final ChafonReader reader;
+    private final ThreadPoolExecutor executor;
+
+    CommandQueue(final ChafonReader reader, final String name) {
+        this.reader = reader;
+        this.executor = new ThreadPoolExecutor(1, 1, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, new LinkedBlockingQueue<>(CAPACITY), (final Runnable runnable) -> {
+            final Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * @return number of commands waiting to be sent.
+     */
+    int getPending() {
+        return executor.getQueue().size();
+    }
+
+    <T> CompletableFuture<T> submit(final Function<ChafonReader, T> command, final long timeoutMs) {
+        final CompletableFuture<T> future = new CompletableFuture<>();
+        final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        try {
+            executor.execute(() -> {
+                if (future.isDone()) {
+                    return; // timed out or cancelled while queued
+                }
+                ChafonChannel.setDeadline(deadline);
+                try {
+                    final T result = command.apply(reader);
+                    if (System.nanoTime() - deadline >= 0) {
+                        // the round trip was cut short at the deadline, the result is a communication error
+                        future.completeExceptionally(new TimeoutException("Command timed out after " + timeoutMs + " ms"));
+                    } else {
+                        future.complete(result);
+                    }
+                } catch (Throwable t) {
+                    future.completeExceptionally(t);
+                } finally {
+                    ChafonChannel.clearDeadline();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            logger.warnf("Command queue full (%d pending), rejecting command", getPending());
+            future.completeExceptionally(e);
+            return future;
+        }
+        return future.orTimeout(timeoutMs, TimeUnit.MILLISECONDS);
+    }
+
+}
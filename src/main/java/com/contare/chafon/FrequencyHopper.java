@@ -0,0 +1,262 @@
+package com.contare.chafon;
+
+import com.contare.core.collections.EpcSet;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Frequency hopping plan of the inventory loop, with statistics per channel group (plan entry).
+ * <p>
+ * The plan is validated up front, so a bad entry fails StartRead instead of the first hop. The loop stays on a group
+ * for its dwell, then switches the region without saving it ({@link ChafonReader#SetFrequency(Frequency, boolean)}),
+ * which spares the reader a write to its non-volatile memory on every hop. Each hop is timed.
+ * <p>
+ * Reads and unique tags (distinct EPCs within one dwell) are counted per group. The unique tags per second of a dwell
+ * feed a moving average, and the dwell of a group is the base interval scaled by its average relative to the mean of
+ * the plan, between {@link #MIN_WEIGHT} and {@link #MAX_WEIGHT}, so low yield groups get less time but are never
+ * skipped.
+ * <p>
+ * {@link #onTag}, {@link #isDue} and {@link #onHop} must be called from one thread (the inventory loop), the getters
+ * can be called from any thread.
+ */
+public final class FrequencyHopper {
+
+    public static final double MIN_WEIGHT = 0.25;
+    public static final double MAX_WEIGHT = 2.0;
+
+    private static final double ALPHA = 0.3; // weight of the last dwell in the yield average
+
+    private final List<Frequency> plan;
+    private final long intervalNanos;
+    private final Group[] groups;
+
+    private volatile int current = 0;
+    private long dwellStart;
+    private volatile long hops = 0;
+    private volatile long failedHops = 0;
+    private volatile long hopNanos = 0;
+
+    /**
+     * @param plan       - channel groups, in hop order, the first one being the region the reader is set to
+     * @param intervalMs - base dwell per group
+     * @throws IllegalArgumentException if the plan is empty or an entry is not a valid region
+     */
+    public FrequencyHopper(final List<Frequency> plan, final long intervalMs) {
+        if (plan == null || plan.isEmpty()) {
+            throw new IllegalArgumentException("Frequency plan must not be empty");
+        }
+        if (intervalMs < 0) {
+            throw new IllegalArgumentException("Hop interval must be >= 0, but received " + intervalMs);
+        }
+        for (int i = 0; i < plan.size(); i++) {
+            final Frequency freq = plan.get(i);
+            if (freq == null) {
+                throw new IllegalArgumentException("Frequency plan entry " + i + " is null");
+            }
+            try {
+                Frequency.get(freq.getBand(), freq.getMinIndex(), freq.getMaxIndex());
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Frequency plan entry " + i + " is invalid: " + e.getMessage(), e);
+            }
+        }
+        this.plan = Collections.unmodifiableList(new ArrayList<>(plan));
+        this.intervalNanos = TimeUnit.MILLISECONDS.toNanos(intervalMs);
+        this.groups = new Group[plan.size()];
+        for (int i = 0; i < groups.length; i++) {
+            groups[i] = new Group();
+        }
+        this.dwellStart = System.nanoTime();
+    }
+
+    public List<Frequency> getPlan() {
+        return plan;
+    }
+
+    /**
+     * @return plan index of the group the reader is on.
+     */
+    public int getCurrent() {
+        return current;
+    }
+
+    /**
+     * @return group the next hop switches to.
+     */
+    public Frequency getNext() {
+        return plan.get(nextIndex());
+    }
+
+    /**
+     * Count a tag read on the current group.
+     *
+     * @param src    - buffer holding the EPC
+     * @param offset - first EPC byte
+     * @param length - EPC length in bytes
+     */
+    public void onTag(final byte[] src, final int offset, final int length) {
+        final Group group = groups[current];
+        group.reads++;
+        if (group.dwellTags.add(src, offset, length)) {
+            group.unique++;
+            group.dwellUnique++;
+        }
+    }
+
+    /**
+     * @return true once the current group had its dwell, always false for a single group plan.
+     */
+    public boolean isDue(final long nowNanos) {
+        return groups.length > 1 && nowNanos - dwellStart >= getDwellNanos(current);
+    }
+
+    /**
+     * Record a hop to {@link #getNext()}. A failed hop stays on the current group and starts a new dwell, so a
+     * failing region is not retried in a tight loop.
+     *
+     * @param switched  - true if the reader accepted the region
+     * @param costNanos - time spent switching
+     */
+    public void onHop(final boolean switched, final long costNanos) {
+        final long now = System.nanoTime();
+        hopNanos += costNanos;
+        if (!switched) {
+            failedHops++;
+            dwellStart = now;
+            return;
+        }
+        hops++;
+
+        final Group group = groups[current];
+        final long dwell = Math.max(now - costNanos - dwellStart, 1);
+        final double rate = group.dwellUnique / (dwell / 1e9);
+        group.yield = (group.dwells == 0) ? rate : ALPHA * rate + (1 - ALPHA) * group.yield;
+        group.dwells++;
+        group.time += dwell;
+        group.dwellUnique = 0;
+        group.dwellTags.clear();
+
+        current = nextIndex();
+        dwellStart = now;
+    }
+
+    /**
+     * @param index - plan index
+     * @return dwell of the group, the base interval scaled by its relative yield.
+     */
+    public long getDwellNanos(final int index) {
+        return (long) (intervalNanos * getWeight(index));
+    }
+
+    /**
+     * @param index - plan index
+     * @return yield of the group relative to the mean of the measured groups, 1 until measured.
+     */
+    public double getWeight(final int index) {
+        final Group group = groups[index];
+        if (group.dwells == 0) {
+            return 1;
+        }
+        double total = 0;
+        int measured = 0;
+        for (final Group g : groups) {
+            if (g.dwells > 0) {
+                total += g.yield;
+                measured++;
+            }
+        }
+        if (total <= 0) {
+            return 1;
+        }
+        final double weight = group.yield / (total / measured);
+        return Math.max(MIN_WEIGHT, Math.min(weight, MAX_WEIGHT));
+    }
+
+    /**
+     * @param index - plan index
+     * @return tags read on the group, duplicates included.
+     */
+    public long getReads(final int index) {
+        return groups[index].reads;
+    }
+
+    /**
+     * @param index - plan index
+     * @return sum over the dwells of the distinct EPCs read on the group.
+     */
+    public long getUnique(final int index) {
+        return groups[index].unique;
+    }
+
+    /**
+     * @param index - plan index
+     * @return moving average of the unique tags per second of dwell.
+     */
+    public double getYield(final int index) {
+        return groups[index].yield;
+    }
+
+    /**
+     * @return number of successful hops.
+     */
+    public long getHops() {
+        return hops;
+    }
+
+    public long getFailedHops() {
+        return failedHops;
+    }
+
+    /**
+     * @return mean time spent switching regions, in nanoseconds.
+     */
+    public long getMeanHopNanos() {
+        final long attempts = hops + failedHops;
+        return (attempts > 0) ? hopNanos / attempts : 0;
+    }
+
+    /**
+     * @return fraction of the time spent switching regions, over the completed dwells.
+     */
+    public double getHopShare() {
+        long dwelled = 0;
+        for (final Group group : groups) {
+            dwelled += group.time;
+        }
+        final long total = dwelled + hopNanos;
+        return (total > 0) ? (double) hopNanos / total : 0;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("FrequencyHopper(");
+        for (int i = 0; i < groups.length; i++) {
+            final Frequency freq = plan.get(i);
+            final Group group = groups[i];
+            sb.append(String.format(Locale.ROOT, "band %d [%d .. %d] = %d reads, %d unique, %.1f tags/s, weight %.2f; ",
+                freq.getBand(), freq.getMinIndex(), freq.getMaxIndex(), group.reads, group.unique, group.yield, getWeight(i)));
+        }
+        return sb.append(String.format(Locale.ROOT, "hops = %d (%d failed), %.1f ms mean, %.1f%% of the time)",
+            hops, failedHops, getMeanHopNanos() / 1e6, getHopShare() * 100)).toString();
+    }
+
+    private int nextIndex() {
+        return (current + 1 >= groups.length) ? 0 : current + 1;
+    }
+
+    private static final class Group {
+
+        private final EpcSet dwellTags = new EpcSet();
+        private volatile long reads = 0;
+        private volatile long unique = 0;
+        private volatile double yield = 0;
+        private volatile long dwells = 0;
+        private volatile long time = 0;
+        private int dwellUnique = 0;
+
+    }
+
+}
@@ -0,0 +1,53 @@
+package com.contare.chafon;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pause of the inventory loop after a round.
+ * <p>
+ * - Rounds that returned tags are followed by the next one right away, while tags are flowing every millisecond counts.
+ * - Empty rounds back off: the first one pauses {@link PacingOptions#idleDelayMs}, every further one doubles the pause
+ * up to {@link PacingOptions#maxIdleDelayMs}, and the first round with tags resets it.
+ * - A duty cycle below 1 keeps the carrier off long enough after every round (round time x (1 - duty) / duty) that the
+ * time spent in rounds never exceeds that fraction, for regulatory or thermal limits. It applies to every round,
+ * tags or not.
+ * <p>
+ * Used by the inventory loop thread only.
+ */
+public final class InventoryPacer {
+
+    private static final int MAX_DOUBLINGS = 20;
+
+    private final PacingOptions opts;
+    private int emptyRounds = 0;
+
+    public InventoryPacer(final PacingOptions opts) {
+        this.opts = opts;
+    }
+
+    public PacingOptions getOpts() {
+        return opts;
+    }
+
+    /**
+     * @param tags       - tags returned by the round
+     * @param roundNanos - round time
+     * @return pause before the next round, in nanoseconds.
+     */
+    public long delayNanos(final int tags, final long roundNanos) {
+        long idle = 0;
+        if (tags > 0) {
+            emptyRounds = 0;
+        } else {
+            final long ms = opts.idleDelayMs << Math.min(emptyRounds, MAX_DOUBLINGS);
+            idle = TimeUnit.MILLISECONDS.toNanos(Math.min(ms, opts.maxIdleDelayMs));
+            emptyRounds++;
+        }
+        long off = 0;
+        if (opts.dutyCycle < 1) {
+            off = Math.round(roundNanos * (1 - opts.dutyCycle) / opts.dutyCycle);
+        }
+        return Math.max(idle, off);
+    }
+
+}
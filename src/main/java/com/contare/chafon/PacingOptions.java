@@ -0,0 +1,31 @@
+package com.contare.chafon;
+
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Pause between the inventory rounds of a reader, see {@link InventoryPacer}.
+ */
+@Getter
+@ToString
+public class PacingOptions {
+
+    public static final PacingOptions DEFAULT = new PacingOptions(5L, 100L, 1.0);
+
+    public final long idleDelayMs;      // pause after the first empty round, doubled by every further empty round
+    public final long maxIdleDelayMs;   // upper bound of the idle pause
+    public final double dutyCycle;      // max fraction of the time spent in rounds, 1 = no limit
+
+    public PacingOptions(final Long idleDelayMs, final Long maxIdleDelayMs, final Double dutyCycle) {
+        this.idleDelayMs = (idleDelayMs != null) ? idleDelayMs : 5L;
+        this.maxIdleDelayMs = (maxIdleDelayMs != null) ? maxIdleDelayMs : Math.max(this.idleDelayMs, 100L);
+        this.dutyCycle = (dutyCycle != null) ? dutyCycle : 1.0;
+        if (this.idleDelayMs < 0 || this.maxIdleDelayMs < this.idleDelayMs) {
+            throw new IllegalArgumentException("Idle delay must satisfy 0 <= idle <= max, but received " + this.idleDelayMs + " .. " + this.maxIdleDelayMs);
+        }
+        if (!(this.dutyCycle > 0 && this.dutyCycle <= 1)) {
+            throw new IllegalArgumentException("Duty cycle must be in (0, 1], but received " + this.dutyCycle);
+        }
+    }
+
+}
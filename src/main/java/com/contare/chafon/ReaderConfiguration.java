@@ -0,0 +1,39 @@
+package com.contare.chafon;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Desired reader state, applied as a whole with {@link ChafonReader#Apply(ReaderConfiguration)}.
+ * <p>
+ * Null fields are left as they are on the device. Applying reads the current state once, then sends only the commands
+ * for the settings that differ, back-to-back.
+ */
+@Data
+@NoArgsConstructor
+public class ReaderConfiguration {
+
+    private Frequency frequency;
+    private Integer antennaMask;     // bit 0 = antenna 1
+    private Integer power;           // dBm, every antenna
+    private int[] powerPerAntenna;   // dBm per antenna, takes precedence over power
+    private Boolean beep;
+    private boolean persist = true;  // keep the settings across power cycles
+
+    /**
+     * Enable or disable one antenna in {@link #getAntennaMask()}.
+     *
+     * @param pos     - antenna position, starting at 1
+     * @param enabled - true = enable, false = disable
+     */
+    public ReaderConfiguration antenna(final int pos, final boolean enabled) {
+        if (pos < 1 || pos > 16) {
+            throw new IllegalArgumentException("Antenna position must be between 1 and 16, but received " + pos);
+        }
+        final int bit = 1 << (pos - 1);
+        final int mask = (antennaMask != null) ? antennaMask : 0;
+        antennaMask = enabled ? (mask | bit) : (mask & ~bit);
+        return this;
+    }
+
+}
@@ -0,0 +1,95 @@
+package com.contare.chafon;
+
+import com.contare.chafon.protocol.ChafonChannel;
+import com.contare.chafon.protocol.ChafonFrame;
+import com.contare.core.metrics.Counter;
+import com.contare.core.metrics.Histogram;
+import com.contare.core.metrics.Meter;
+import com.contare.core.metrics.MetricRegistry;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntSupplier;
+
+/**
+ * Metrics of one {@link ChafonReader}, named {@code chafon.<ip>:<port>.<metric>}:
+ * - {@code reads}, {@code unique}, and the same per antenna ({@code antenna.<n>.reads}, ...), tags and unique tags
+ * (not seen in the last few seconds) per second;
+ * - {@code rounds}, {@code empty-rounds}, {@code empty-round-ratio} and {@code round-duration-us};
+ * - {@code command.<cmd>.latency-us} per command code and {@code command-errors}, from the channel round trips;
+ * - {@code command-queue}, asynchronous commands waiting to be sent.
+ */
+final class ReaderMetrics implements ChafonChannel.ExchangeListener {
+
+    private final MetricRegistry registry;
+    private final String prefix;
+
+    private final Meter reads;
+    private final Meter unique;
+    private final Meter[] antennaReads;
+    private final Meter[] antennaUnique;
+    private final Counter rounds;
+    private final Counter emptyRounds;
+    private final Counter commandErrors;
+    private final Histogram roundDuration;
+    private final Histogram[] commandLatency = new Histogram[256];
+
+    ReaderMetrics(final MetricRegistry registry, final String prefix, final int antennas, final IntSupplier pendingCommands) {
+        this.registry = registry;
+        this.prefix = prefix;
+        this.reads = registry.meter(prefix + ".reads");
+        this.unique = registry.meter(prefix + ".unique");
+        this.antennaReads = new Meter[Math.max(antennas, 1)];
+        this.antennaUnique = new Meter[Math.max(antennas, 1)];
+        for (int i = 0; i < antennaReads.length; i++) {
+            antennaReads[i] = registry.meter(prefix + ".antenna." + (i + 1) + ".reads");
+            antennaUnique[i] = registry.meter(prefix + ".antenna." + (i + 1) + ".unique");
+        }
+        this.rounds = registry.counter(prefix + ".rounds");
+        this.emptyRounds = registry.counter(prefix + ".empty-rounds");
+        this.commandErrors = registry.counter(prefix + ".command-errors");
+        this.roundDuration = registry.histogram(prefix + ".round-duration-us");
+        registry.gauge(prefix + ".empty-round-ratio", () -> {
+            final long total = rounds.getCount();
+            return (total > 0) ? (double) emptyRounds.getCount() / total : 0;
+        });
+        registry.gauge(prefix + ".command-queue", pendingCommands::getAsInt);
+    }
+
+    /**
+     * @param antenna - antenna index, starting at 0
+     * @param tags    - tags returned by the round
+     * @param fresh   - tags among them not seen recently
+     * @param nanos   - round time
+     */
+    void onRound(final int antenna, final int tags, final int fresh, final long nanos) {
+        rounds.inc();
+        if (tags == 0) {
+            emptyRounds.inc();
+        } else {
+            reads.mark(tags);
+            antennaReads[antenna].mark(tags);
+        }
+        if (fresh > 0) {
+            unique.mark(fresh);
+            antennaUnique[antenna].mark(fresh);
+        }
+        roundDuration.record(TimeUnit.NANOSECONDS.toMicros(nanos));
+    }
+
+    @Override
+    public void onExchange(final int cmd, final int result, final long nanos) {
+        if (result != ChafonFrame.SUCCESS) {
+            commandErrors.inc();
+            return;
+        }
+        final int code = cmd & 0xFF;
+        Histogram histogram = commandLatency[code];
+        if (histogram == null) {
+            histogram = registry.histogram(String.format(Locale.ROOT, "%s.command.%02X.latency-us", prefix, code));
+            commandLatency[code] = histogram;
+        }
+        histogram.record(TimeUnit.NANOSECONDS.toMicros(nanos));
+    }
+
+}
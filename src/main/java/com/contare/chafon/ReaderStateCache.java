@@ -0,0 +1,167 @@
+package com.contare.chafon;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Last known settings of one reader, so read-only status queries do not put extra commands on the wire between
+ * inventory rounds.
+ * <p>
+ * Entries are filled lazily by the reader queries, updated in place by successful setters and expire after the TTL.
+ * A setter bumps the generation, and a query only stores its result if no setter ran while it was on the wire, so a
+ * slow read never overwrites a newer value.
+ */
+final class ReaderStateCache {
+
+    static final long DEFAULT_TTL_MS = 30_000;
+
+    private long ttlNanos = TimeUnit.MILLISECONDS.toNanos(DEFAULT_TTL_MS);
+    private long generation = 0;
+
+    // reader information (0x21)
+    private boolean information = false;
+    private long informationAt;
+    private final byte[] version = new byte[2];
+    private byte power;
+    private byte band;
+    private byte maxIndex;
+    private byte minIndex;
+    private byte beep;
+    private int antennaMask;
+
+    private int[] powerPerAntenna;
+    private long powerPerAntennaAt;
+
+    private String serial;
+
+    /**
+     * @param ttlMs - time an entry read from the device stays valid, 0 disables the cache
+     */
+    synchronized void setTtl(final long ttlMs) {
+        if (ttlMs < 0) {
+            throw new IllegalArgumentException("State TTL must be >= 0, but received " + ttlMs);
+        }
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMs);
+    }
+
+    synchronized long generation() {
+        return generation;
+    }
+
+    synchronized void invalidate() {
+        generation++;
+        information = false;
+        powerPerAntenna = null;
+        serial = null;
+    }
+
+    // --- queries
+
+    /**
+     * Copy the cached reader information into the SDK style output arrays.
+     *
+     * @return false if there is no fresh entry.
+     */
+    synchronized boolean getInformation(final byte[] Version, final byte[] Power, final byte[] Band, final byte[] MaxFre, final byte[] MinFre, final byte[] BeepEn, final int[] Ant) {
+        if (!information || expired(informationAt)) {
+            return false;
+        }
+        Version[0] = version[0];
+        Version[1] = version[1];
+        Power[0] = power;
+        Band[0] = band;
+        MaxFre[0] = maxIndex;
+        MinFre[0] = minIndex;
+        BeepEn[0] = beep;
+        Ant[0] = antennaMask;
+        return true;
+    }
+
+    synchronized void putInformation(final long generation, final byte[] Version, final byte[] Power, final byte[] Band, final byte[] MaxFre, final byte[] MinFre, final byte[] BeepEn, final int[] Ant) {
+        if (generation != this.generation) {
+            return;
+        }
+        version[0] = Version[0];
+        version[1] = Version[1];
+        power = Power[0];
+        band = Band[0];
+        maxIndex = MaxFre[0];
+        minIndex = MinFre[0];
+        beep = BeepEn[0];
+        antennaMask = Ant[0];
+        information = true;
+        informationAt = System.nanoTime();
+    }
+
+    /**
+     * @return copy of the cached power per antenna, null if there is no fresh entry.
+     */
+    synchronized int[] getPowerPerAntenna() {
+        if (powerPerAntenna == null || expired(powerPerAntennaAt)) {
+            return null;
+        }
+        return powerPerAntenna.clone();
+    }
+
+    synchronized void putPowerPerAntenna(final long generation, final int[] value) {
+        if (generation != this.generation) {
+            return;
+        }
+        powerPerAntenna = value.clone();
+        powerPerAntennaAt = System.nanoTime();
+    }
+
+    /**
+     * @return serial number, it never changes so it does not expire.
+     */
+    synchronized String getSerial() {
+        return (ttlNanos > 0) ? serial : null;
+    }
+
+    synchronized void putSerial(final String value) {
+        serial = value;
+    }
+
+    // --- setters
+
+    synchronized void onPower(final int value) {
+        generation++;
+        power = (byte) value;
+        if (powerPerAntenna != null) {
+            Arrays.fill(powerPerAntenna, value);
+        }
+    }
+
+    synchronized void onPowerPerAntenna(final byte[] value) {
+        generation++;
+        power = (byte) 0xFF; // reported when the antennas have their own power
+        final int[] copy = new int[value.length];
+        for (int i = 0; i < value.length; i++) {
+            copy[i] = Byte.toUnsignedInt(value[i]);
+        }
+        powerPerAntenna = copy;
+        powerPerAntennaAt = System.nanoTime();
+    }
+
+    synchronized void onRegion(final int band, final int maxIndex, final int minIndex) {
+        generation++;
+        this.band = (byte) (band & 0x0F); // the reader information only carries the low 4 bits
+        this.maxIndex = (byte) maxIndex;
+        this.minIndex = (byte) minIndex;
+    }
+
+    synchronized void onAntennaMask(final int mask) {
+        generation++;
+        antennaMask = mask;
+    }
+
+    synchronized void onBeep(final int value) {
+        generation++;
+        beep = (byte) value;
+    }
+
+    private boolean expired(final long at) {
+        return System.nanoTime() - at >= ttlNanos;
+    }
+
+}
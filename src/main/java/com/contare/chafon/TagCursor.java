@@ -0,0 +1,152 @@
+package com.contare.chafon;
+
+import com.rfid.Utils;
+
+/**
+ * Flyweight view over the tag records of an inventory buffer ({@code pOUcharIDList}).
+ * <p>
+ * The cursor does not copy anything: accessors read straight from the buffer filled by Inventory_G2 or Inventory_Mix,
+ * so a consumer can process a whole inventory round without allocating. The cursor (and the buffer behind it) is
+ * reused for the next round, keep copies of whatever must outlive {@link TagListener#onTag(TagCursor)}.
+ * <p>
+ * Record layouts:
+ * - Inventory_G2: {@code len | EPC (or TID) | RSSI}
+ * - Inventory_Mix: {@code epcLen | EPC | RSSI | memLen | MEM}
+ */
+public final class TagCursor {
+
+    private byte[] buffer;
+    private int limit;
+    private boolean mix;
+    private int next;
+
+    private String device;
+    private int antenna;
+    private int epcOffset;
+    private int epcLength;
+    private int rssi;
+    private int memOffset;
+    private int memLength;
+
+    /**
+     * Point the cursor before the first record of {@code buffer}.
+     *
+     * @param buffer  - inventory buffer
+     * @param length  - number of bytes used in {@code buffer}
+     * @param antenna - antenna the round was run on (1..n)
+     * @param mix     - true if the buffer was filled by Inventory_Mix
+     * @param device  - device ip address
+     */
+    public TagCursor reset(final byte[] buffer, final int length, final int antenna, final boolean mix, final String device) {
+        this.buffer = buffer;
+        this.limit = length;
+        this.antenna = antenna;
+        this.mix = mix;
+        this.device = device;
+        this.next = 0;
+        this.epcOffset = this.epcLength = this.rssi = this.memOffset = this.memLength = 0;
+        return this;
+    }
+
+    /**
+     * Move to the next record.
+     *
+     * @return false when there are no more records.
+     */
+    public boolean next() {
+        if (next >= limit) {
+            return false;
+        }
+        int m = next;
+        epcLength = buffer[m] & 0xFF;
+        epcOffset = m + 1;
+        m += epcLength + 1;
+        if (m >= limit) {
+            return truncated();
+        }
+        rssi = buffer[m++] & 0xFF;
+        if (mix) {
+            if (m >= limit) {
+                return truncated();
+            }
+            memLength = buffer[m] & 0xFF;
+            memOffset = m + 1;
+            m += memLength + 1;
+        }
+        if (m > limit) {
+            return truncated();
+        }
+        next = m;
+        return true;
+    }
+
+    private boolean truncated() {
+        next = limit;
+        return false;
+    }
+
+    public byte[] getBuffer() {
+        return buffer;
+    }
+
+    public int getEpcOffset() {
+        return epcOffset;
+    }
+
+    public int getEpcLength() {
+        return epcLength;
+    }
+
+    public int getRssi() {
+        return rssi;
+    }
+
+    public int getAntenna() {
+        return antenna;
+    }
+
+    public String getDevice() {
+        return device;
+    }
+
+    public int getMemOffset() {
+        return memOffset;
+    }
+
+    /**
+     * @return length of the memory data read by Inventory_Mix, 0 for Inventory_G2 records.
+     */
+    public int getMemLength() {
+        return memLength;
+    }
+
+    /**
+     * Copy the EPC of the current record into {@code dst}.
+     *
+     * @return number of bytes copied.
+     */
+    public int copyEpc(final byte[] dst, final int offset) {
+        System.arraycopy(buffer, epcOffset, dst, offset, epcLength);
+        return epcLength;
+    }
+
+    /**
+     * @return EPC of the current record as hex string. Allocates, meant for logging and slow paths.
+     */
+    public String getEpcHex() {
+        return Utils.bytesToHexString(buffer, epcOffset, epcLength);
+    }
+
+    /**
+     * @return memory data of the current record as hex string, or null for Inventory_G2 records. Allocates.
+     */
+    public String getMemHex() {
+        return mix ? Utils.bytesToHexString(buffer, memOffset, memLength) : null;
+    }
+
+    @Override
+    public String toString() {
+        return "TagCursor(epc=" + getEpcHex() + ", rssi=" + rssi + ", antenna=" + antenna + ", mem=" + getMemHex() + ")";
+    }
+
+}
@@ -0,0 +1,12 @@
+package com.contare.chafon;
+
+/**
+ * Allocation-free alternative to {@link com.rfid.TagCallback}: called once per tag record with a reused
+ * {@link TagCursor}, which is only valid for the duration of the call.
+ */
+@FunctionalInterface
+public interface TagListener {
+
+    void onTag(final TagCursor tag);
+
+}
@@ -0,0 +1,264 @@
+package com.contare.chafon.encoding;
+
+import com.contare.chafon.ChafonReader;
+import com.contare.chafon.TagCursor;
+import com.contare.chafon.protocol.ChafonFrame;
+import com.rfid.ReaderParameter;
+import com.rfid.Utils;
+import org.jboss.logging.Logger;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bulk commissioning of tags: writes the EPC of each TID of a mapping.
+ * <p>
+ * A run inventories the field by TID (session 0, every enabled antenna), then for every tag found writes PC + EPC by
+ * TID mask, reads it back and optionally locks it, retrying up to {@link EncodingOptions#attempts} times with the
+ * write power of {@link EncodingOptions#writePowers}. The command payloads of every tag are prepared when the job is
+ * built, and inventoried TIDs are matched on their raw bytes, so the run sends its commands back to back without hex
+ * work; submitted with {@link #submit(ChafonReader, long)}
+ * the run holds the reader command thread, so no other command interleaves.
+ * <p>
+ * The reader inventory loop must be stopped while encoding.
+ */
+public class EncodeJob {
+
+    private static final Logger logger = Logger.getLogger(EncodeJob.class);
+
+    private static final int MAX_ANTENNAS = 16;
+
+    private final List<EncodingFrame> frames;
+    private final EncodingFrame[] index;  // open addressing by hash of the TID bytes
+    private final int[] tidBytes; // distinct TID lengths of the job, descending
+    private final int tidWords;
+    private final EncodingOptions options;
+
+    /**
+     * @param tidToEpc - EPC to write, by TID (hex)
+     * @param options  - policy, null for {@link EncodingOptions#DEFAULT}
+     * @throws IllegalArgumentException if a TID, EPC or the password is not valid hex, or a TID is repeated.
+     */
+    public EncodeJob(final Map<String, String> tidToEpc, final EncodingOptions options) {
+        this.options = (options != null) ? options : EncodingOptions.DEFAULT;
+        final List<EncodingFrame> prepared = new ArrayList<>(tidToEpc.size());
+        final TreeSet<Integer> lengths = new TreeSet<>(Collections.reverseOrder());
+        this.index = new EncodingFrame[Integer.highestOneBit(Math.max(tidToEpc.size(), 1) * 2) << 1];
+        int words = 0;
+        for (final Map.Entry<String, String> entry : tidToEpc.entrySet()) {
+            final EncodingFrame frame = EncodingFrame.of(entry.getKey(), entry.getValue(), this.options.password);
+            final byte[] tid = Utils.hexStringToBytes(frame.getTid());
+            int slot = hash(tid, 0, tid.length) & (index.length - 1);
+            for (; index[slot] != null; slot = (slot + 1) & (index.length - 1)) {
+                if (index[slot].getTidWords() == frame.getTidWords() && index[slot].matchesTid(tid, 0, tid.length)) {
+                    throw new IllegalArgumentException("TID " + frame.getTid() + " is repeated");
+                }
+            }
+            index[slot] = frame;
+            prepared.add(frame);
+            lengths.add(frame.getTidWords() * 2);
+            words = Math.max(words, frame.getTidWords());
+        }
+        this.frames = Collections.unmodifiableList(prepared);
+        this.tidBytes = lengths.stream().mapToInt(Integer::intValue).toArray();
+        this.tidWords = words;
+    }
+
+    public int size() {
+        return frames.size();
+    }
+
+    public List<EncodingFrame> getFrames() {
+        return frames;
+    }
+
+    public EncodingOptions getOptions() {
+        return options;
+    }
+
+    /**
+     * Queue the run on the reader command thread.
+     *
+     * @param timeoutMs - time allowed for the whole run
+     */
+    public CompletableFuture<EncodeReport> submit(final ChafonReader reader, final long timeoutMs) {
+        return reader.submit(this::run, timeoutMs);
+    }
+
+    /**
+     * Run the job on the calling thread.
+     *
+     * @throws IllegalStateException if the reader inventory loop is running.
+     */
+    public EncodeReport run(final ChafonReader reader) {
+        if (reader.isReading()) {
+            throw new IllegalStateException("Reader is running an inventory, stop it before encoding");
+        }
+        final long start = System.nanoTime();
+        final Map<String, EncodingFrame> found = inventory(reader);
+        logger.debugf("Encoding: %d of %d tags found in the field", found.size(), frames.size());
+
+        final List<EncodeResult> results = new ArrayList<>(frames.size());
+        final Session session = new Session(reader);
+        try {
+            for (final EncodingFrame frame : found.values()) {
+                final EncodeResult result = session.encode(frame);
+                logger.debugf("Encoding: %s", result);
+                results.add(result);
+            }
+        } finally {
+            session.restore();
+        }
+        for (final EncodingFrame frame : frames) {
+            if (!found.containsKey(frame.getTid())) {
+                results.add(new EncodeResult(frame.getTid(), frame.getEpc(), EncodeResult.Outcome.NOT_FOUND, 0, null, ChafonFrame.NO_TAG, 0, 0));
+            }
+        }
+
+        final EncodeReport report = new EncodeReport(results, System.nanoTime() - start);
+        logger.infof("Encoded %d of %d tags in %d ms (%.1f tags/min): %s", report.getEncoded(), frames.size(), TimeUnit.NANOSECONDS.toMillis(report.getElapsedNanos()), report.getTagsPerMinute(), report.getOutcomes());
+        return report;
+    }
+
+    /**
+     * @return frames of the TIDs seen, in read order, by TID.
+     */
+    private Map<String, EncodingFrame> inventory(final ChafonReader reader) {
+        final Map<String, EncodingFrame> found = new LinkedHashMap<>();
+        if (frames.isEmpty()) {
+            return found;
+        }
+        final ReaderParameter param = reader.GetInventoryParameter();
+        final int mask = reader.GetAntennaMask();
+        final byte[] list = new byte[25600];
+        final int[] count = new int[1];
+        final int[] length = new int[1];
+        final TagCursor cursor = new TagCursor();
+        for (int round = 0; round < options.inventoryRounds && found.size() < frames.size(); round++) {
+            for (int antenna = 0; antenna < MAX_ANTENNAS && found.size() < frames.size(); antenna++) {
+                if ((mask & (1 << antenna)) == 0) {
+                    continue;
+                }
+                count[0] = length[0] = 0;
+                final int result = reader.Inventory_G2((byte) param.GetQValue(), (byte) 0, (byte) 0, (byte) tidWords, (byte) 0, (byte) (antenna | 0x80), (byte) param.GetScanTime(), list, count, length);
+                if (count[0] == 0) {
+                    logger.debugf("Encoding: inventory on antenna %d returned 0x%02X, no tags", antenna + 1, result);
+                    continue;
+                }
+                cursor.reset(list, length[0], antenna + 1, false, null);
+                while (cursor.next()) {
+                    final EncodingFrame frame = match(cursor);
+                    if (frame != null) {
+                        found.putIfAbsent(frame.getTid(), frame);
+                    }
+                }
+            }
+        }
+        return found;
+    }
+
+    private EncodingFrame match(final TagCursor cursor) {
+        final byte[] buffer = cursor.getBuffer();
+        final int offset = cursor.getEpcOffset();
+        for (final int bytes : tidBytes) {
+            if (cursor.getEpcLength() < bytes) {
+                continue;
+            }
+            final int mask = index.length - 1;
+            for (int slot = hash(buffer, offset, bytes) & mask; index[slot] != null; slot = (slot + 1) & mask) {
+                final EncodingFrame frame = index[slot];
+                if (frame.getTidWords() * 2 == bytes && frame.matchesTid(buffer, offset, bytes)) {
+                    return frame;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static int hash(final byte[] buffer, final int offset, final int length) {
+        int h = length;
+        for (int i = offset; i < offset + length; i++) {
+            h = 31 * h + buffer[i];
+        }
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * State of one run: reader, scratch buffers and the write power currently set.
+     */
+    private final class Session {
+
+        private final ChafonReader reader;
+        private final byte[] readBack = new byte[34]; // PC + 16 EPC words
+        private final byte[] errorCode = new byte[1];
+        private final byte[] previous = new byte[1];
+        private final boolean restorable;
+        private Integer power = null;
+
+        private Session(final ChafonReader reader) {
+            this.reader = reader;
+            this.restorable = !options.writePowers.isEmpty() && reader.GetWritePower(previous) == 0x00;
+        }
+
+        private EncodeResult encode(final EncodingFrame frame) {
+            final long start = System.nanoTime();
+            EncodeResult.Outcome outcome = EncodeResult.Outcome.WRITE_FAILED;
+            int result = 0x00;
+            int attempt = 0;
+            for (; attempt < options.attempts && !outcome.isSuccess(); attempt++) {
+                power(options.getWritePower(attempt));
+                if (outcome == EncodeResult.Outcome.WRITE_FAILED || outcome == EncodeResult.Outcome.VERIFY_FAILED) {
+                    errorCode[0] = 0;
+                    result = frame.write(reader, errorCode);
+                    if (result != 0x00) {
+                        outcome = EncodeResult.Outcome.WRITE_FAILED;
+                        continue;
+                    }
+                    if (options.verify) {
+                        errorCode[0] = 0;
+                        result = frame.read(reader, readBack, errorCode);
+                        if (result != 0x00 || !frame.verifies(readBack)) {
+                            outcome = EncodeResult.Outcome.VERIFY_FAILED;
+                            continue;
+                        }
+                        outcome = EncodeResult.Outcome.VERIFIED;
+                    } else {
+                        outcome = EncodeResult.Outcome.WRITTEN;
+                    }
+                }
+                if (options.lockSelect != null) {
+                    errorCode[0] = 0;
+                    result = frame.lock(reader, (byte) (int) options.lockSelect, (byte) options.lockProtect, errorCode);
+                    outcome = (result == 0x00) ? EncodeResult.Outcome.LOCKED : EncodeResult.Outcome.LOCK_FAILED;
+                }
+            }
+            return new EncodeResult(frame.getTid(), frame.getEpc(), outcome, attempt, power, result, errorCode[0] & 0xFF, System.nanoTime() - start);
+        }
+
+        private void power(final Integer value) {
+            if (value == null || value.equals(power)) {
+                return;
+            }
+            final int result = reader.SetWritePower((byte) (value | 0x80));
+            if (result != 0x00) {
+                logger.warnf("Encoding: failed to set write power %d dBm, result 0x%02X", value, result);
+                return;
+            }
+            power = value;
+        }
+
+        private void restore() {
+            if (restorable && power != null) {
+                reader.SetWritePower(previous[0]);
+            }
+        }
+
+    }
+
+}
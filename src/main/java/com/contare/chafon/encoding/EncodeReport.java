@@ -0,0 +1,56 @@
+package com.contare.chafon.encoding;
+
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Per-tag outcomes and rate of an {@link EncodeJob} run.
+ */
+@Getter
+@ToString(exclude = "results")
+public class EncodeReport {
+
+    private final List<EncodeResult> results;
+    private final Map<EncodeResult.Outcome, Integer> outcomes;
+    private final long elapsedNanos;
+
+    public EncodeReport(final List<EncodeResult> results, final long elapsedNanos) {
+        this.results = Collections.unmodifiableList(results);
+        this.elapsedNanos = elapsedNanos;
+        final Map<EncodeResult.Outcome, Integer> counts = new EnumMap<>(EncodeResult.Outcome.class);
+        for (final EncodeResult result : results) {
+            counts.merge(result.getOutcome(), 1, Integer::sum);
+        }
+        this.outcomes = Collections.unmodifiableMap(counts);
+    }
+
+    public int count(final EncodeResult.Outcome outcome) {
+        return outcomes.getOrDefault(outcome, 0);
+    }
+
+    /**
+     * @return tags encoded successfully.
+     */
+    public int getEncoded() {
+        int encoded = 0;
+        for (final Map.Entry<EncodeResult.Outcome, Integer> entry : outcomes.entrySet()) {
+            if (entry.getKey().isSuccess()) {
+                encoded += entry.getValue();
+            }
+        }
+        return encoded;
+    }
+
+    /**
+     * @return tags encoded successfully per minute, over the whole run including the inventory.
+     */
+    public double getTagsPerMinute() {
+        return (elapsedNanos > 0) ? getEncoded() * 60e9 / elapsedNanos : 0;
+    }
+
+}
@@ -0,0 +1,36 @@
+package com.contare.chafon.encoding;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Outcome of one tag of an {@link EncodeJob}.
+ */
+@Data
+@AllArgsConstructor
+public class EncodeResult {
+
+    public enum Outcome {
+        WRITTEN,        // written, not verified
+        VERIFIED,       // written and read back
+        LOCKED,         // written, read back and locked
+        NOT_FOUND,      // TID not seen by the inventory
+        WRITE_FAILED,
+        VERIFY_FAILED,  // written, read back different
+        LOCK_FAILED;
+
+        public boolean isSuccess() {
+            return this == WRITTEN || this == VERIFIED || this == LOCKED;
+        }
+    }
+
+    private final String tid;
+    private final String epc;
+    private final Outcome outcome;
+    private final int attempts;
+    private final Integer writePower;   // of the last attempt, null if the reader setting was left
+    private final int result;           // last command result, 0x00 on success
+    private final int errorCode;        // last tag error code
+    private final long elapsedNanos;
+
+}
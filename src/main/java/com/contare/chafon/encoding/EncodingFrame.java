@@ -0,0 +1,152 @@
+package com.contare.chafon.encoding;
+
+import com.contare.chafon.ChafonReader;
+import com.rfid.Utils;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Command payloads of one TID to EPC write, parsed once up front.
+ * <p>
+ * The tag is addressed by a TID mask. The EPC bank is written from word 1 with the PC word (EPC length in bits
+ * 15..11) followed by the EPC, and read back over the same words to verify. Payload arrays are shared by every
+ * attempt, so retries do no hex parsing.
+ */
+public final class EncodingFrame {
+
+    static final byte MEM_EPC = 1;
+    static final byte MEM_TID = 2;
+    static final byte WORD_PC = 1;
+
+    private static final byte MASK_BY_TID = (byte) 0xFF; // ENum: address the tag by mask, not by EPC
+    private static final byte[] NO_EPC = new byte[0];
+    private static final byte[] MASK_ADR = new byte[2];
+
+    private final String tid;
+    private final String epc;
+    private final byte[] tidMask;
+    private final byte[] epcBytes;
+    private final byte[] data;      // PC + EPC
+    private final byte words;       // PC + EPC words
+    private final byte[] password;
+
+    private EncodingFrame(final String tid, final String epc, final String password) {
+        this.tid = tid;
+        this.epc = epc;
+        this.tidMask = Utils.hexStringToBytes(tid);
+        this.epcBytes = Utils.hexStringToBytes(epc);
+        final int epcWords = epc.length() / 4;
+        final int pc = pc(epcWords);
+        this.data = new byte[2 + epcBytes.length];
+        data[0] = (byte) (pc >> 8);
+        data[1] = (byte) pc;
+        System.arraycopy(epcBytes, 0, data, 2, epcBytes.length);
+        this.words = (byte) (epcWords + 1);
+        this.password = Utils.hexStringToBytes(password);
+    }
+
+    /**
+     * @param tid      - TID of the tag, hex, 1 to 15 words (the mask length is one byte of bits)
+     * @param epc      - EPC to write, hex, 1 to 16 words
+     * @param password - access password, 8 hex digits
+     */
+    public static EncodingFrame of(final String tid, final String epc, final String password) {
+        if (!isHexWords(tid) || tid.length() / 4 > 15) {
+            throw new IllegalArgumentException("TID must be 1 to 15 words of hex, but received " + tid);
+        }
+        if (!isHexWords(epc) || epc.length() / 4 > 16) {
+            throw new IllegalArgumentException("EPC must be 1 to 16 words of hex, but received " + epc);
+        }
+        if (password == null || password.length() != 8 || !isHex(password)) {
+            throw new IllegalArgumentException("Password must be 8 hex digits, but received " + password);
+        }
+        return new EncodingFrame(tid.toUpperCase(Locale.ROOT), epc.toUpperCase(Locale.ROOT), password);
+    }
+
+    /**
+     * @return PC word of an EPC of {@code epcWords} words, other PC bits cleared.
+     */
+    public static int pc(final int epcWords) {
+        return (epcWords & 0x1F) << 11;
+    }
+
+    public String getTid() {
+        return tid;
+    }
+
+    public String getEpc() {
+        return epc;
+    }
+
+    /**
+     * @return PC word and EPC, as written to the EPC bank from word 1.
+     */
+    public byte[] getData() {
+        return data.clone();
+    }
+
+    int getTidWords() {
+        return tidMask.length / 2;
+    }
+
+    /**
+     * @return true if {@code buffer} holds this TID at {@code offset}, extra words read from the tag are ignored.
+     */
+    boolean matchesTid(final byte[] buffer, final int offset, final int length) {
+        return length >= tidMask.length && Arrays.equals(tidMask, 0, tidMask.length, buffer, offset, offset + tidMask.length);
+    }
+
+    /**
+     * Write PC + EPC to the tag with this TID.
+     *
+     * @return 0x00 if successful, else an error code.
+     */
+    public int write(final ChafonReader reader, final byte[] errorCode) {
+        return reader.WriteData_G2(words, MASK_BY_TID, NO_EPC, MEM_EPC, WORD_PC, data, password, MEM_TID, MASK_ADR, (byte) (tidMask.length * 8), tidMask, errorCode);
+    }
+
+    /**
+     * Read the PC and EPC words back into {@code buffer}, at least {@link #getData()} long.
+     *
+     * @return 0x00 if successful, else an error code.
+     */
+    public int read(final ChafonReader reader, final byte[] buffer, final byte[] errorCode) {
+        return reader.ReadData_G2(MASK_BY_TID, NO_EPC, MEM_EPC, WORD_PC, words, password, MEM_TID, MASK_ADR, (byte) (tidMask.length * 8), tidMask, buffer, errorCode);
+    }
+
+    /**
+     * @return true if {@code buffer}, filled by {@link #read}, holds the PC and EPC written.
+     */
+    public boolean verifies(final byte[] buffer) {
+        return Arrays.equals(data, 0, data.length, buffer, 0, data.length);
+    }
+
+    /**
+     * Lock an area of the tag, addressed by the new EPC.
+     *
+     * @return 0x00 if successful, else an error code.
+     */
+    public int lock(final ChafonReader reader, final byte select, final byte protect, final byte[] errorCode) {
+        return reader.Lock_G2((byte) (epcBytes.length / 2), epcBytes, select, protect, password, errorCode);
+    }
+
+    private static boolean isHexWords(final String value) {
+        return value != null && !value.isEmpty() && value.length() % 4 == 0 && isHex(value);
+    }
+
+    private static boolean isHex(final String value) {
+        for (int i = 0; i < value.length(); i++) {
+            if (Character.digit(value.charAt(i), 16) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return "EncodingFrame(tid=" + tid + ", epc=" + epc + ")";
+    }
+
+}
@@ -0,0 +1,64 @@
+package com.contare.chafon.encoding;
+
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Write, verify, lock and retry policy of an {@link EncodeJob}.
+ */
+@Getter
+@ToString
+public class EncodingOptions {
+
+    public static final EncodingOptions DEFAULT = new EncodingOptions(null, null, null, null, null, null, null);
+
+    public final String password;           // access password, 8 hex digits
+    public final List<Integer> writePowers; // write power (dBm) of each attempt, the last one is kept for further attempts, empty = leave as is
+    public final int attempts;              // write + verify (+ lock) attempts per tag
+    public final boolean verify;            // read the EPC bank back after writing
+    public final Integer lockSelect;        // Lock area, 0 = kill password .. 4 = user, null = do not lock
+    public final int lockProtect;           // Lock protection, 0 = writable .. 3 = never writable
+    public final int inventoryRounds;       // rounds per antenna looking for the TIDs of the job
+
+    public EncodingOptions(final String password, final List<Integer> writePowers, final Integer attempts, final Boolean verify, final Integer lockSelect, final Integer lockProtect, final Integer inventoryRounds) {
+        this.password = (password != null) ? password : "00000000";
+        this.writePowers = (writePowers != null) ? Collections.unmodifiableList(writePowers) : Collections.emptyList();
+        this.attempts = (attempts != null) ? attempts : Math.max(3, this.writePowers.size());
+        this.verify = (verify != null) ? verify : true;
+        this.lockSelect = lockSelect;
+        this.lockProtect = (lockProtect != null) ? lockProtect : 2;
+        this.inventoryRounds = (inventoryRounds != null) ? inventoryRounds : 3;
+        for (final Integer power : this.writePowers) {
+            if (power == null || power < 0 || power > 33) {
+                throw new IllegalArgumentException("Write power must be between 0 and 33, but received " + power);
+            }
+        }
+        if (this.attempts < 1) {
+            throw new IllegalArgumentException("Attempts must be >= 1, but received " + this.attempts);
+        }
+        if (lockSelect != null && (lockSelect < 0 || lockSelect > 4)) {
+            throw new IllegalArgumentException("Lock area must be between 0 and 4, but received " + lockSelect);
+        }
+        if (this.lockProtect < 0 || this.lockProtect > 3) {
+            throw new IllegalArgumentException("Lock protection must be between 0 and 3, but received " + this.lockProtect);
+        }
+        if (this.inventoryRounds < 1) {
+            throw new IllegalArgumentException("Inventory rounds must be >= 1, but received " + this.inventoryRounds);
+        }
+    }
+
+    /**
+     * @param attempt - attempt, from 0
+     * @return write power of the attempt, null to leave the reader setting.
+     */
+    public Integer getWritePower(final int attempt) {
+        if (writePowers.isEmpty()) {
+            return null;
+        }
+        return writePowers.get(Math.min(attempt, writePowers.size() - 1));
+    }
+
+}
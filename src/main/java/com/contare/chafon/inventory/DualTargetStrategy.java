@@ -0,0 +1,68 @@
+package com.contare.chafon.inventory;
+
+/**
+ * Dual target sweeps: session 2 or 3, querying target A until the antenna returns nothing for a few rounds (every tag
+ * in the field has moved to B), then target B until they are all back in A, and so on. Every sweep reads the whole
+ * population once without the quiet tags crowding the frame, weak tags included.
+ * <p>
+ * Empty rounds are counted per antenna, so a busy antenna keeps its target while an idle one switches.
+ */
+public class DualTargetStrategy implements InventoryStrategy {
+
+    public static final int DEFAULT_EMPTY_ROUNDS = 2;
+
+    private final int session;
+    private final int emptyRounds;
+
+    private int[] target = new int[0];
+    private int[] empty = new int[0];
+
+    /**
+     * @param session     - 2 or 3, the sessions whose flag persists while the carrier is on
+     * @param emptyRounds - consecutive empty rounds on an antenna before it switches target
+     */
+    public DualTargetStrategy(final int session, final int emptyRounds) {
+        if (session != 2 && session != 3) {
+            throw new IllegalArgumentException("Dual target sweeps need session 2 or 3, but received " + session);
+        }
+        if (emptyRounds < 1) {
+            throw new IllegalArgumentException("Empty rounds must be >= 1, but received " + emptyRounds);
+        }
+        this.session = session;
+        this.emptyRounds = emptyRounds;
+    }
+
+    @Override
+    public void reset(final int antennas) {
+        target = new int[Math.max(antennas, 1)];
+        empty = new int[Math.max(antennas, 1)];
+    }
+
+    @Override
+    public int session(final int antenna) {
+        return session;
+    }
+
+    @Override
+    public int target(final int antenna) {
+        return target[antenna];
+    }
+
+    @Override
+    public void onRound(final int antenna, final int tags) {
+        if (tags > 0) {
+            empty[antenna] = 0;
+            return;
+        }
+        if (++empty[antenna] >= emptyRounds) {
+            target[antenna] = 1 - target[antenna];
+            empty[antenna] = 0;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "DualTargetStrategy(S" + session + ", A/B, emptyRounds = " + emptyRounds + ")";
+    }
+
+}
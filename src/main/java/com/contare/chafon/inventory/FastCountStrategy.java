@@ -0,0 +1,33 @@
+package com.contare.chafon.inventory;
+
+/**
+ * Fast count: session 1, target A. A counted tag keeps its inventoried flag for 0.5 to 5 s even under continuous
+ * carrier, so the next rounds are spent on the tags not counted yet, and the whole population is counted again a few
+ * seconds later.
+ */
+public class FastCountStrategy implements InventoryStrategy {
+
+    @Override
+    public void reset(final int antennas) {
+    }
+
+    @Override
+    public int session(final int antenna) {
+        return 1;
+    }
+
+    @Override
+    public int target(final int antenna) {
+        return TARGET_A;
+    }
+
+    @Override
+    public void onRound(final int antenna, final int tags) {
+    }
+
+    @Override
+    public String toString() {
+        return "FastCountStrategy(S1, A)";
+    }
+
+}
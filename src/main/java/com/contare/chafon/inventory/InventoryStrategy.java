@@ -0,0 +1,66 @@
+package com.contare.chafon.inventory;
+
+/**
+ * Session / target policy of the inventory loop.
+ * <p>
+ * Before every round the loop asks the strategy which session and target to query on the antenna, and reports the
+ * number of tags the round returned afterwards. Strategies keep per antenna state, so an instance must only be used by
+ * one reader. They are called from the inventory loop only, and can be swapped while it runs
+ * ({@link com.contare.chafon.ChafonReader#SetInventoryStrategy(InventoryStrategy)}), the new strategy is
+ * {@link #reset(int) reset} before its first round.
+ */
+public interface InventoryStrategy {
+
+    int TARGET_A = 0;
+    int TARGET_B = 1;
+
+    /**
+     * Clear the per antenna state.
+     *
+     * @param antennas - number of antenna ports of the reader
+     */
+    void reset(final int antennas);
+
+    /**
+     * @param antenna - antenna index, starting at 0
+     * @return session of the next round, 0 to 3.
+     */
+    int session(final int antenna);
+
+    /**
+     * @param antenna - antenna index, starting at 0
+     * @return target of the next round, {@link #TARGET_A} or {@link #TARGET_B}.
+     */
+    int target(final int antenna);
+
+    /**
+     * @param antenna - antenna index, starting at 0
+     * @param tags    - number of tags returned by the round
+     */
+    void onRound(final int antenna, final int tags);
+
+    /**
+     * Strategy matching the session and target of a reader parameter. Target 2 alternates A and B, switching an
+     * antenna after {@link DualTargetStrategy#DEFAULT_EMPTY_ROUNDS} empty rounds on it. Sessions other than 0 to 3
+     * (0xFF lets the reader choose) are sent unchanged by a {@link PassthroughStrategy}.
+     *
+     * @param session - {@link com.rfid.ReaderParameter#GetSession()}
+     * @param target  - {@link com.rfid.ReaderParameter#GetTarget()}
+     */
+    static InventoryStrategy of(final int session, final int target) {
+        if (session == 0) {
+            return new TrackingStrategy();
+        }
+        if (session == 1) {
+            return new FastCountStrategy();
+        }
+        if (session != 2 && session != 3) {
+            return new PassthroughStrategy(session, target);
+        }
+        if (target == 2) {
+            return new DualTargetStrategy(session, DualTargetStrategy.DEFAULT_EMPTY_ROUNDS);
+        }
+        return new NewTagsStrategy(session);
+    }
+
+}
@@ -0,0 +1,32 @@
+package com.contare.chafon.inventory;
+
+/**
+ * Built-in strategies, as selected in the configuration.
+ */
+public enum InventoryStrategyType {
+
+    TRACKING,
+    FAST_COUNT,
+    DUAL_TARGET,
+    NEW_TAGS;
+
+    /**
+     * @param session     - session for {@link #DUAL_TARGET} and {@link #NEW_TAGS}, null for 2
+     * @param emptyRounds - empty rounds before a {@link #DUAL_TARGET} antenna switches target, null for {@link DualTargetStrategy#DEFAULT_EMPTY_ROUNDS}
+     */
+    public InventoryStrategy create(final Integer session, final Integer emptyRounds) {
+        switch (this) {
+            case TRACKING:
+                return new TrackingStrategy();
+            case FAST_COUNT:
+                return new FastCountStrategy();
+            case DUAL_TARGET:
+                return new DualTargetStrategy((session != null) ? session : 2, (emptyRounds != null) ? emptyRounds : DualTargetStrategy.DEFAULT_EMPTY_ROUNDS);
+            case NEW_TAGS:
+                return new NewTagsStrategy((session != null) ? session : 2);
+            default:
+                throw new IllegalStateException("Unknown inventory strategy " + this);
+        }
+    }
+
+}
@@ -0,0 +1,44 @@
+package com.contare.chafon.inventory;
+
+/**
+ * Find new tags only: session 2 or 3, always target A. A tag read once moves to B and stays quiet for as long as it
+ * keeps seeing the carrier, so the rounds only return tags that just entered the field.
+ */
+public class NewTagsStrategy implements InventoryStrategy {
+
+    private final int session;
+
+    /**
+     * @param session - 2 or 3, the sessions whose flag persists while the carrier is on
+     */
+    public NewTagsStrategy(final int session) {
+        if (session != 2 && session != 3) {
+            throw new IllegalArgumentException("New tag detection needs session 2 or 3, but received " + session);
+        }
+        this.session = session;
+    }
+
+    @Override
+    public void reset(final int antennas) {
+    }
+
+    @Override
+    public int session(final int antenna) {
+        return session;
+    }
+
+    @Override
+    public int target(final int antenna) {
+        return TARGET_A;
+    }
+
+    @Override
+    public void onRound(final int antenna, final int tags) {
+    }
+
+    @Override
+    public String toString() {
+        return "NewTagsStrategy(S" + session + ", A)";
+    }
+
+}
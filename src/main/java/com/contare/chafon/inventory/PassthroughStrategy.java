@@ -0,0 +1,59 @@
+package com.contare.chafon.inventory;
+
+/**
+ * Session and target of the reader parameter sent as they are, for the sessions the other strategies do not model
+ * (e.g. 0xFF, the reader choosing the session itself). Target 2 starts at A and flips between A and B once more than
+ * one empty round per antenna port has gone by, as the original inventory loop did.
+ */
+public class PassthroughStrategy implements InventoryStrategy {
+
+    private final int session;
+    private final int target;
+    private int current = TARGET_A;
+    private int retries = 1;
+    private int empty = 0;
+
+    /**
+     * @param session - {@link com.rfid.ReaderParameter#GetSession()}
+     * @param target  - {@link com.rfid.ReaderParameter#GetTarget()}, 2 to alternate A and B
+     */
+    public PassthroughStrategy(final int session, final int target) {
+        this.session = session;
+        this.target = target;
+    }
+
+    @Override
+    public void reset(final int antennas) {
+        current = (target == 2) ? TARGET_A : target;
+        retries = Math.max(antennas, 1);
+        empty = 0;
+    }
+
+    @Override
+    public int session(final int antenna) {
+        return session;
+    }
+
+    @Override
+    public int target(final int antenna) {
+        return current;
+    }
+
+    @Override
+    public void onRound(final int antenna, final int tags) {
+        if (tags > 0) {
+            empty = 0;
+            return;
+        }
+        if (target == 2 && ++empty > retries) {
+            current = 1 - current;
+            empty = 0;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("PassthroughStrategy(S 0x%02X, target %d)", session, target);
+    }
+
+}
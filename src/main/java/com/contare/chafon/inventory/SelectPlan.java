@@ -0,0 +1,100 @@
+package com.contare.chafon.inventory;
+
+import com.contare.chafon.protocol.ChafonProtocol;
+import com.contare.core.objects.TagFilter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * {@link TagFilter}s compiled to the Select commands issued before every inventory round.
+ * <p>
+ * The Selects act on the inventoried flag of the round's session: tags failing a filter are moved to the opposite of
+ * the round's target, so they do not answer the Query, while matching tags are left untouched and keep the persistence
+ * the {@link InventoryStrategy} relies on. Re-issued every round, with that round's session and target, because the
+ * flags of the parked tags decay (S0 and S1) and dual target strategies flip the target.
+ * Rounds with a session outside 0 to 3 (e.g. 0xFF, chosen by the reader) have no flag to act on and run unfiltered.
+ * <p>
+ * The masks are converted once, when the plan is built.
+ */
+public final class SelectPlan {
+
+    // Gen2 Select actions, on an inventoried flag assert = A and deassert = B
+    static final int NONMATCHING_TO_B = 2;      // matching: nothing, non-matching: deassert (B)
+    static final int NONMATCHING_TO_A = 6;      // matching: nothing, non-matching: assert (A)
+    static final int MATCHING_TO_B = 5;         // matching: deassert (B), non-matching: nothing
+    static final int MATCHING_TO_A = 1;         // matching: assert (A), non-matching: nothing
+
+    private final List<TagFilter> filters;
+    private final byte[] banks;
+    private final byte[][] addresses;
+    private final byte[] lengths;
+    private final byte[][] masks;
+    private final boolean[] includes;
+
+    /**
+     * @throws IllegalArgumentException if {@code filters} is empty.
+     */
+    public SelectPlan(final List<TagFilter> filters) {
+        if (filters.isEmpty()) {
+            throw new IllegalArgumentException("Filters must not be empty");
+        }
+        this.filters = Collections.unmodifiableList(new ArrayList<>(filters));
+        final int count = this.filters.size();
+        this.banks = new byte[count];
+        this.addresses = new byte[count][];
+        this.lengths = new byte[count];
+        this.masks = new byte[count][];
+        this.includes = new boolean[count];
+        for (int i = 0; i < count; i++) {
+            final TagFilter filter = this.filters.get(i);
+            final int ptr = filter.getSelectPtr();
+            banks[i] = (byte) filter.bank.getCode();
+            addresses[i] = new byte[]{ (byte) (ptr >> 8), (byte) ptr };
+            lengths[i] = (byte) filter.bitLength;
+            masks[i] = filter.getMaskBytes();
+            includes[i] = filter.isInclude();
+        }
+    }
+
+    public List<TagFilter> getFilters() {
+        return filters;
+    }
+
+    /**
+     * @param include - {@link TagFilter#isInclude()}
+     * @param target  - {@link InventoryStrategy#TARGET_A} or {@link InventoryStrategy#TARGET_B}
+     * @return Select action moving the tags failing the filter away from {@code target}.
+     */
+    static int action(final boolean include, final int target) {
+        if (include) {
+            return (target == InventoryStrategy.TARGET_A) ? NONMATCHING_TO_B : NONMATCHING_TO_A;
+        }
+        return (target == InventoryStrategy.TARGET_A) ? MATCHING_TO_B : MATCHING_TO_A;
+    }
+
+    /**
+     * Send the Select of every filter, stopping at the first failure.
+     *
+     * @param antenna - antenna index, starting at 0
+     * @param session - session of the round, 0 to 3
+     * @param target  - target of the round
+     * @return 0x00 on success, or the result of the failed Select.
+     */
+    public int issue(final ChafonProtocol protocol, final byte address, final int antenna, final int session, final int target) {
+        for (int i = 0; i < banks.length; i++) {
+            final int result = protocol.SelectCmdWithCarrier(address, (byte) antenna, (byte) session, (byte) action(includes[i], target), banks[i], addresses[i], lengths[i], masks[i], (byte) 0, (byte) 0);
+            if (result != 0x00) {
+                return result;
+            }
+        }
+        return 0x00;
+    }
+
+    @Override
+    public String toString() {
+        return "SelectPlan" + filters;
+    }
+
+}
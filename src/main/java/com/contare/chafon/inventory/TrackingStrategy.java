@@ -0,0 +1,32 @@
+package com.contare.chafon.inventory;
+
+/**
+ * Continuous tracking: session 0, target A. A tag loses its inventoried flag as soon as it leaves the field or the
+ * carrier stops, so every tag answers every round and the reads double as presence heartbeats.
+ */
+public class TrackingStrategy implements InventoryStrategy {
+
+    @Override
+    public void reset(final int antennas) {
+    }
+
+    @Override
+    public int session(final int antenna) {
+        return 0;
+    }
+
+    @Override
+    public int target(final int antenna) {
+        return TARGET_A;
+    }
+
+    @Override
+    public void onRound(final int antenna, final int tags) {
+    }
+
+    @Override
+    public String toString() {
+        return "TrackingStrategy(S0, A)";
+    }
+
+}
@@ -0,0 +1,25 @@
+package com.contare.chafon.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Dispatch of one tag to the application, the callback or the tag listener, on the inventory thread.
+ */
+@Name("com.contare.chafon.Callback")
+@Label("Chafon Callback")
+@Category({ "Chafon", "Inventory" })
+@StackTrace(false)
+public class CallbackEvent extends ChafonEvent {
+
+    @Label("Antenna")
+    public int antenna;
+
+    @Label("Listener")
+    @Description("True for a tag listener, false for the callback")
+    public boolean listener;
+
+}
@@ -0,0 +1,15 @@
+package com.contare.chafon.jfr;
+
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+
+/**
+ * Base of the Chafon flight recorder events. Events are disabled until a recording enables them (e.g.
+ * {@code jcmd <pid> JFR.start}), and a disabled event costs an {@link #isEnabled()} check.
+ */
+abstract class ChafonEvent extends Event {
+
+    @Label("Reader")
+    public String reader;
+
+}
@@ -0,0 +1,26 @@
+package com.contare.chafon.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * One command round trip on the socket, from writing the request to the first response frame (or giving up).
+ */
+@Name("com.contare.chafon.Command")
+@Label("Chafon Command")
+@Category({ "Chafon", "Reader" })
+@Description("Request written to the reader and its first response frame")
+@StackTrace(false)
+public class CommandEvent extends ChafonEvent {
+
+    @Label("Opcode")
+    public int opcode;
+
+    @Label("Result")
+    @Description("0x00 if answered, 0x30 on communication error or timeout")
+    public int result;
+
+}
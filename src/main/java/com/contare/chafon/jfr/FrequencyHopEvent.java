@@ -0,0 +1,29 @@
+package com.contare.chafon.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Region switch of the frequency hopper.
+ */
+@Name("com.contare.chafon.FrequencyHop")
+@Label("Chafon Frequency Hop")
+@Category({ "Chafon", "Inventory" })
+@StackTrace(false)
+public class FrequencyHopEvent extends ChafonEvent {
+
+    @Label("Band")
+    public int band;
+
+    @Label("Min Index")
+    public int minIndex;
+
+    @Label("Max Index")
+    public int maxIndex;
+
+    @Label("Switched")
+    public boolean switched;
+
+}
@@ -0,0 +1,47 @@
+package com.contare.chafon.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * One inventory round of the inventory loop, callbacks of the tags it returned included.
+ */
+@Name("com.contare.chafon.InventoryRound")
+@Label("Chafon Inventory Round")
+@Category({ "Chafon", "Inventory" })
+@Description("Inventory command on one antenna, until its last response frame")
+@StackTrace(false)
+public class InventoryRoundEvent extends ChafonEvent {
+
+    @Label("Antenna")
+    public int antenna;
+
+    @Label("Q")
+    public int q;
+
+    @Label("Session")
+    public int session;
+
+    @Label("Target")
+    public int target;
+
+    @Label("Scan Time")
+    @Description("Maximum round time, in 100 ms units")
+    public int scanTime;
+
+    @Label("Tags")
+    public int tags;
+
+    @Label("Bytes")
+    @Description("Tag records received")
+    @DataAmount
+    public int bytes;
+
+    @Label("Result")
+    public int result;
+
+}
@@ -0,0 +1,499 @@
+package com.contare.chafon.protocol;
+
+import com.contare.chafon.jfr.CommandEvent;
+import jdk.jfr.EventType;
+import org.jboss.logging.Logger;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.CancelledKeyException;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Non-blocking TCP transport for the Chafon UHF protocol.
+ * <p>
+ * Frames are encoded into and decoded from direct buffers owned by the channel, so a command round trip does not
+ * allocate. Waiting for a response parks the caller in {@link Selector#select(long)}, which returns as soon as bytes
+ * arrive instead of polling the socket.
+ * <p>
+ * Locking:
+ * - {@link #lock()} / {@link #unlock()} guard a full exchange (request + response), so responses are never consumed by
+ * a different caller.
+ * - {@link #beginFrame(byte, int)} / {@link #send()} guard the transmit buffer only, which lets a fire-and-forget
+ * command (e.g. stop) be written with {@link #post()} while another thread is waiting for an inventory response.
+ * <p>
+ * A thread can bound every wait it makes on any channel with {@link #setDeadline(long)}, which is how per-command
+ * timeouts of the asynchronous command API cut a round trip short. Writes wait for the socket to drain in the same
+ * selector, for at most {@value #WRITE_TIMEOUT_MS} ms.
+ * <p>
+ * An {@link ExchangeListener} sees the time from every request to the first response frame, or to the wait giving up,
+ * and the same span is recorded as a {@link CommandEvent} when a flight recording enables it.
+ */
+public class ChafonChannel implements Closeable {
+
+    private static final Logger logger = Logger.getLogger(ChafonChannel.class);
+
+    private static final int RX_CAPACITY = 16 * 1024;
+    private static final long WRITE_TIMEOUT_MS = 1_500; // peer not draining its socket
+
+    private static final ThreadLocal<Long> DEADLINE = new ThreadLocal<>();
+
+    // checked before allocating, the event escapes into pendingEvent so a disabled one would still be garbage per frame
+    private static final EventType COMMAND_EVENT = EventType.getEventType(CommandEvent.class);
+
+    private final ByteBuffer tx = ByteBuffer.allocateDirect(ChafonFrame.MAX_LENGTH);
+    private final ByteBuffer rx = ByteBuffer.allocateDirect(RX_CAPACITY);
+    private final ByteBuffer frame = ByteBuffer.allocateDirect(ChafonFrame.MAX_LENGTH);
+
+    private final ReentrantLock exchangeLock = new ReentrantLock();
+    private final ReentrantLock txLock = new ReentrantLock();
+
+    private volatile SocketChannel channel;
+    private Selector selector;
+    private int rxStart = 0;
+    private int rxEnd = 0;
+    private boolean verbose = false;
+    private volatile ExchangeListener exchangeListener;
+    private volatile long sentAt = 0; // nanoTime of the last request not answered yet, 0 if none
+    private volatile CommandEvent pendingEvent; // event of that request, null if not recording
+    private volatile String name = "";
+
+    /**
+     * Open the connection.
+     *
+     * @param host      - device ip address
+     * @param port      - device port number
+     * @param timeoutMs - connect timeout in milliseconds
+     * @return 0x00 if connected, 0x35 if already connected, 0x30 on communication error.
+     */
+    public synchronized int open(final String host, final int port, final int timeoutMs) {
+        if (channel != null) {
+            return ChafonFrame.ALREADY_CONNECTED;
+        }
+        SocketChannel ch = null;
+        try {
+            ch = SocketChannel.open();
+            ch.socket().setTcpNoDelay(true);
+            ch.socket().connect(new InetSocketAddress(host, port), timeoutMs);
+            ch.configureBlocking(false);
+
+            selector = Selector.open();
+            ch.register(selector, SelectionKey.OP_READ);
+
+            rxStart = rxEnd = 0;
+            channel = ch;
+            return ChafonFrame.SUCCESS;
+        } catch (IOException e) {
+            logger.debugf(e, "Unable to connect to %s:%d", host, port);
+            closeQuietly(ch);
+            closeQuietly(selector);
+            selector = null;
+            return ChafonFrame.COMMUNICATION_ERROR;
+        }
+    }
+
+    public boolean isOpen() {
+        return channel != null;
+    }
+
+    /**
+     * @param name - reader name in the flight recorder events, e.g. {@code ip:port}
+     */
+    public void setName(final String name) {
+        this.name = name;
+    }
+
+    public void setExchangeListener(final ExchangeListener listener) {
+        this.exchangeListener = listener;
+    }
+
+    public void setVerbose(final boolean verbose) {
+        this.verbose = verbose;
+    }
+
+    @Override
+    public synchronized void close() {
+        final SocketChannel ch = channel;
+        channel = null;
+        closeQuietly(ch);
+        closeQuietly(selector);
+        selector = null;
+    }
+
+    /**
+     * Bound the responses awaited by the calling thread, on any channel, until {@link #clearDeadline()}.
+     *
+     * @param nanoTime - deadline as a {@link System#nanoTime()} value
+     */
+    public static void setDeadline(final long nanoTime) {
+        DEADLINE.set(nanoTime);
+    }
+
+    public static void clearDeadline() {
+        DEADLINE.remove();
+    }
+
+    // --- exchange lock
+
+    public void lock() {
+        exchangeLock.lock();
+    }
+
+    public void unlock() {
+        exchangeLock.unlock();
+    }
+
+    // --- encoding
+
+    /**
+     * Start a request frame. The returned buffer is positioned after the header and must be completed with
+     * {@link #send()}, which also releases the transmit lock.
+     */
+    public ByteBuffer beginFrame(final byte address, final int cmd) {
+        txLock.lock();
+        tx.clear();
+        tx.put((byte) 0); // length, patched on send
+        tx.put(address);
+        tx.put((byte) cmd);
+        return tx;
+    }
+
+    /**
+     * Patch length and checksum of the frame started by {@link #beginFrame(byte, int)} and write it.
+     *
+     * @return 0x00 if the frame was written, else 0x30.
+     */
+    public int send() {
+        return send(true);
+    }
+
+    /**
+     * Like {@link #send()}, for a fire-and-forget frame (e.g. stop) written while another thread awaits a response: the
+     * round trip time and flight recorder event of the request in flight are left alone.
+     *
+     * @return 0x00 if the frame was written, else 0x30.
+     */
+    public int post() {
+        return send(false);
+    }
+
+    private int send(final boolean exchange) {
+        try {
+            final int length = tx.position() + 2; // + crc
+            tx.put(ChafonFrame.LEN, (byte) (length - 1));
+            final int crc = Crc16.compute(tx, 0, length - 2);
+            tx.put((byte) (crc & 0xFF));
+            tx.put((byte) ((crc >> 8) & 0xFF));
+            tx.flip();
+            if (verbose) {
+                logger.debugf("Send: %s", toHex(tx, 0, length));
+            }
+            return write(tx, exchange);
+        } finally {
+            txLock.unlock();
+        }
+    }
+
+    /**
+     * Write an already encoded frame (length and checksum included).
+     */
+    public int send(final ByteBuffer encoded) {
+        txLock.lock();
+        try {
+            if (verbose) {
+                logger.debugf("Send: %s", toHex(encoded, encoded.position(), encoded.remaining()));
+            }
+            return write(encoded, true);
+        } finally {
+            txLock.unlock();
+        }
+    }
+
+    /**
+     * @param exchange - true if a response is awaited, which starts the round trip timing
+     */
+    private int write(final ByteBuffer src, final boolean exchange) {
+        final SocketChannel ch = channel;
+        if (ch == null) {
+            return ChafonFrame.COMMUNICATION_ERROR;
+        }
+        final long now = System.nanoTime();
+        if (exchange) {
+            if (COMMAND_EVENT.isEnabled()) {
+                final CommandEvent event = new CommandEvent();
+                event.begin();
+                pendingEvent = event;
+            }
+            sentAt = now;
+        }
+        final long deadline = deadline(now + TimeUnit.MILLISECONDS.toNanos(WRITE_TIMEOUT_MS));
+        try {
+            while (src.hasRemaining()) {
+                if (ch.write(src) > 0) {
+                    continue;
+                }
+                final long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                if (remaining <= 0) {
+                    logger.debugf("Unable to write frame, %d bytes not accepted by the peer", src.remaining());
+                    return ChafonFrame.COMMUNICATION_ERROR;
+                }
+                awaitWritable(ch, remaining);
+            }
+            return ChafonFrame.SUCCESS;
+        } catch (IOException | ClosedSelectorException | CancelledKeyException e) {
+            // the selector and key are closed by a concurrent close(), e.g. Disconnect during a read
+            logger.debug("Unable to write frame", e);
+            return ChafonFrame.COMMUNICATION_ERROR;
+        }
+    }
+
+    /**
+     * Park until the socket send buffer has room or {@code timeoutMs} passes. A caller waiting for a response in the
+     * same selector is woken up, so it does not hold the selector past the write deadline.
+     */
+    private void awaitWritable(final SocketChannel ch, final long timeoutMs) throws IOException {
+        final Selector sel = selector;
+        final SelectionKey key = (sel != null) ? ch.keyFor(sel) : null;
+        if (key == null || !key.isValid()) {
+            throw new IOException("channel is closed");
+        }
+        key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+        try {
+            sel.wakeup();
+            sel.selectNow(); // clears the wakeup, or it would cut the select below short
+            sel.select(timeoutMs);
+            sel.selectedKeys().clear();
+        } finally {
+            if (key.isValid()) {
+                key.interestOps(SelectionKey.OP_READ);
+            }
+        }
+    }
+
+    // --- decoding
+
+    /**
+     * Send the pending request and wait for the response to {@code cmd}.
+     *
+     * @return 0x00 if a valid response is available in {@link #frame()}, else 0x30.
+     */
+    public int exchange(final int cmd, final long timeoutMs) {
+        final int sent = send();
+        if (sent != ChafonFrame.SUCCESS) {
+            return sent;
+        }
+        return receive(cmd, timeoutMs);
+    }
+
+    /**
+     * Wait until a frame for {@code cmd} with a valid checksum is received.
+     * Frames with a valid checksum for other commands are discarded whole, garbage is skipped byte by byte.
+     *
+     * @return 0x00 if a valid response is available in {@link #frame()}, else 0x30.
+     */
+    public int receive(final int cmd, final long timeoutMs) {
+        final long deadline = deadline(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs));
+        try {
+            while (true) {
+                if (extract(cmd)) {
+                    return answered(cmd, ChafonFrame.SUCCESS);
+                }
+                if (fill() > 0) {
+                    continue;
+                }
+                final long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                if (remaining <= 0) {
+                    return answered(cmd, ChafonFrame.COMMUNICATION_ERROR);
+                }
+                final Selector sel = selector;
+                if (sel == null) {
+                    return answered(cmd, ChafonFrame.COMMUNICATION_ERROR);
+                }
+                sel.select(remaining);
+                sel.selectedKeys().clear();
+            }
+        } catch (IOException | ClosedSelectorException | CancelledKeyException e) {
+            logger.debug("Unable to read frame", e);
+            return answered(cmd, ChafonFrame.COMMUNICATION_ERROR);
+        }
+    }
+
+    private int answered(final int cmd, final int result) {
+        final CommandEvent event = pendingEvent;
+        if (event != null) {
+            pendingEvent = null;
+            event.end();
+            if (event.shouldCommit()) {
+                event.reader = name;
+                event.opcode = cmd;
+                event.result = result;
+                event.commit();
+            }
+        }
+        final long sent = sentAt;
+        final ExchangeListener listener = exchangeListener;
+        if (sent != 0 && listener != null) {
+            sentAt = 0;
+            listener.onExchange(cmd, result, System.nanoTime() - sent);
+        }
+        return result;
+    }
+
+    /**
+     * The last frame returned by {@link #receive(int, long)}, positioned at 0 with limit set to the frame length.
+     * Only valid until the next receive by the lock owner.
+     */
+    public ByteBuffer frame() {
+        return frame;
+    }
+
+    /**
+     * Discard any bytes buffered from previous exchanges.
+     */
+    public void discard() {
+        rxStart = rxEnd = 0;
+    }
+
+    private static long deadline(final long deadline) {
+        final Long bound = DEADLINE.get();
+        return (bound != null && bound - deadline < 0) ? bound : deadline;
+    }
+
+    private int fill() throws IOException {
+        final SocketChannel ch = channel;
+        if (ch == null) {
+            throw new IOException("channel is closed");
+        }
+        if (rxEnd == rx.capacity()) {
+            compact();
+        }
+        rx.limit(rx.capacity());
+        rx.position(rxEnd);
+        final int n = ch.read(rx);
+        if (n < 0) {
+            throw new IOException("connection closed by peer");
+        }
+        rxEnd += n;
+        return n;
+    }
+
+    private void compact() {
+        if (rxStart == 0) {
+            // buffer is full of unparsable bytes, drop them
+            rxStart = rxEnd = 0;
+            return;
+        }
+        rx.limit(rxEnd);
+        rx.position(rxStart);
+        rx.compact();
+        rxEnd -= rxStart;
+        rxStart = 0;
+    }
+
+    private boolean extract(final int cmd) {
+        int index = rxStart;
+        try {
+            while (rxEnd - index >= ChafonFrame.MIN_RESPONSE_LENGTH) {
+                final int len = rx.get(index) & 0xFF;
+                if (len < ChafonFrame.MIN_RESPONSE_LENGTH - 1) {
+                    index++;
+                    continue;
+                }
+                final int total = len + 1;
+                if (rxEnd - index < total) {
+                    // either a partial frame or a garbage length byte, a complete frame further ahead settles it
+                    final int next = findFrame(index + 1);
+                    if (next < 0) {
+                        break; // wait for the rest of the frame
+                    }
+                    index = next;
+                    continue;
+                }
+                if (!Crc16.check(rx, index, total)) {
+                    index++;
+                    continue;
+                }
+
+                final int reCmd = rx.get(index + ChafonFrame.COMMAND) & 0xFF;
+                if (reCmd != cmd) {
+                    logger.tracef("Discarding frame for command 0x%02X while waiting for 0x%02X", reCmd, cmd);
+                    index += total;
+                    continue;
+                }
+
+                frame.clear();
+                for (int i = 0; i < total; i++) {
+                    frame.put(i, rx.get(index + i));
+                }
+                frame.limit(total);
+                index += total;
+
+                if (verbose) {
+                    logger.debugf("Recv: %s", toHex(frame, 0, total));
+                }
+                return true;
+            }
+            return false;
+        } finally {
+            rxStart = index;
+            if (rxStart == rxEnd) {
+                rxStart = rxEnd = 0;
+            }
+        }
+    }
+
+    /**
+     * @return offset of the first complete frame with a valid checksum at or after {@code from}, else -1.
+     */
+    private int findFrame(final int from) {
+        for (int i = from; rxEnd - i >= ChafonFrame.MIN_RESPONSE_LENGTH; i++) {
+            final int total = (rx.get(i) & 0xFF) + 1;
+            if (total >= ChafonFrame.MIN_RESPONSE_LENGTH && rxEnd - i >= total && Crc16.check(rx, i, total)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static String toHex(final ByteBuffer buffer, final int offset, final int length) {
+        final StringBuilder sb = new StringBuilder(length * 2);
+        for (int i = offset; i < offset + length; i++) {
+            sb.append(String.format("%02X", buffer.get(i)));
+        }
+        return sb.toString();
+    }
+
+    private static void closeQuietly(final Closeable closeable) {
+        if (closeable == null) {
+            return;
+        }
+        try {
+            closeable.close();
+        } catch (IOException ignored) {
+            // nothing to do
+        }
+    }
+
+    /**
+     * Round trip observer, called on the thread that waited for the response.
+     */
+    @FunctionalInterface
+    public interface ExchangeListener {
+
+        /**
+         * @param cmd    - command of the request
+         * @param result - 0x00 if answered, else 0x30
+         * @param nanos  - time from writing the request to the response, or to giving up
+         */
+        void onExchange(final int cmd, final int result, final long nanos);
+
+    }
+
+}
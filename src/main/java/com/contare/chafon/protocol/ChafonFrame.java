@@ -0,0 +1,93 @@
+package com.contare.chafon.protocol;
+
+/**
+ * Chafon UHF frame layout and command codes.
+ * <p>
+ * Request : Len | Adr | Cmd | Data[] | LSB-CRC16 | MSB-CRC16
+ * Response: Len | Adr | reCmd | Status | Data[] | LSB-CRC16 | MSB-CRC16
+ * <p>
+ * {@code Len} counts every byte after itself, so a complete frame has {@code Len + 1} bytes.
+ */
+public final class ChafonFrame {
+
+    // offsets
+    public static final int LEN = 0;
+    public static final int ADDRESS = 1;
+    public static final int COMMAND = 2;
+    public static final int STATUS = 3;
+    public static final int DATA = 4;
+
+    public static final int MAX_LENGTH = 256; // length byte (255) + itself
+    public static final int MIN_RESPONSE_LENGTH = 6; // len, adr, cmd, status, crc, crc
+    public static final byte BROADCAST_ADDRESS = (byte) 0xFF;
+
+    // EPC C1G2 commands
+    public static final int CMD_INVENTORY = 0x01;
+    public static final int CMD_READ_DATA = 0x02;
+    public static final int CMD_WRITE_DATA = 0x03;
+    public static final int CMD_WRITE_EPC = 0x04;
+    public static final int CMD_KILL = 0x05;
+    public static final int CMD_LOCK = 0x06;
+    public static final int CMD_INVENTORY_MIX = 0x19;
+
+    // reader commands
+    public static final int CMD_GET_READER_INFORMATION = 0x21;
+    public static final int CMD_SET_REGION = 0x22;
+    public static final int CMD_SET_ADDRESS = 0x24;
+    public static final int CMD_SET_RF_POWER = 0x2F;
+    public static final int CMD_SET_ANTENNA = 0x3F;
+    public static final int CMD_SET_BEEP = 0x40;
+    public static final int CMD_SET_RELAY = 0x45;
+    public static final int CMD_SET_GPIO = 0x46;
+    public static final int CMD_GET_GPIO = 0x47;
+    public static final int CMD_GET_SERIAL_NO = 0x4C;
+    public static final int CMD_SET_CHECK_ANT = 0x66;
+    public static final int CMD_SET_WRITE_POWER = 0x79;
+    public static final int CMD_GET_WRITE_POWER = 0x7A;
+    public static final int CMD_SET_PROFILE = 0x7F;
+    public static final int CMD_CONFIG_DRM = 0x90;
+    public static final int CMD_MEASURE_RETURN_LOSS = 0x91;
+    public static final int CMD_STOP_IMMEDIATELY = 0x93;
+    public static final int CMD_GET_RF_POWER_BY_ANT = 0x94;
+    public static final int CMD_SELECT_WITH_CARRIER = 0x98;
+    public static final int CMD_SET_CFG_PARAMETER = 0xEA;
+    public static final int CMD_GET_CFG_PARAMETER = 0xEB;
+
+    // inventory response status
+    public static final int INVENTORY_FINISHED = 0x01;   // last frame, round completed
+    public static final int INVENTORY_TIMEOUT = 0x02;    // last frame, scan time overflow
+    public static final int INVENTORY_MORE = 0x03;       // more frames follow
+    public static final int INVENTORY_BUFFER_FULL = 0x04; // more frames follow, reader buffer was full
+
+    // return codes shared with the vendor SDK
+    public static final int SUCCESS = 0x00;
+    public static final int COMMUNICATION_ERROR = 0x30;
+    public static final int ALREADY_CONNECTED = 0x35;
+    public static final int NO_TAG = 0xFB;               // no tag operable in the field
+    public static final int PARAMETER_ERROR = 0xFF;
+
+    private ChafonFrame() {
+    }
+
+    public static boolean isInventoryStatus(final int status) {
+        return status >= INVENTORY_FINISHED && status <= INVENTORY_BUFFER_FULL;
+    }
+
+    public static boolean isLastInventoryFrame(final int status) {
+        return status == INVENTORY_FINISHED || status == INVENTORY_TIMEOUT;
+    }
+
+    /**
+     * Translate the antenna byte of an inventory response to a 1-based antenna number.
+     * Readers up to 8 ports report a one-hot mask, larger readers report the 0-based port index.
+     *
+     * @return antenna number, or 0 if the mask is not one-hot.
+     */
+    public static int toAntennaId(final int value, final int maxAntennas) {
+        if (maxAntennas < 9) {
+            return (value != 0 && Integer.bitCount(value) == 1) ? Integer.numberOfTrailingZeros(value) + 1 : 0;
+        }
+        return value + 1;
+    }
+
+}
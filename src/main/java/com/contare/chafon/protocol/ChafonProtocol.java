@@ -0,0 +1,641 @@
+package com.contare.chafon.protocol;
+
+import com.rfid.ReadTag;
+import com.rfid.TagCallback;
+import com.rfid.Utils;
+import org.jboss.logging.Logger;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Pure Java implementation of the Chafon UHF command set on top of {@link ChafonChannel}.
+ * <p>
+ * Method names, parameters and return codes follow the vendor {@code com.rfid.BaseReader}, so it can be used as a
+ * drop-in replacement. Every call returns 0x00 on success, the device status byte on device error or 0x30 when no
+ * valid response was received in time.
+ */
+public class ChafonProtocol {
+
+    private static final Logger logger = Logger.getLogger(ChafonProtocol.class);
+
+    private static final int CONNECT_TIMEOUT_MS = 3_000;
+    private static final int DEFAULT_TIMEOUT_MS = 1_000;
+    private static final int INVENTORY_IDLE_TIMEOUT_MS = 3_000;
+    private static final int READER_INFORMATION_LENGTH = 12; // version .. check antenna
+
+    private final ChafonChannel channel = new ChafonChannel();
+    private final String ip;
+    private final int maxAntennas;
+    private TagCallback callback;
+
+    public ChafonProtocol(final String ip, final int maxAntennas) {
+        this.ip = ip;
+        this.maxAntennas = maxAntennas;
+    }
+
+    public ChafonChannel getChannel() {
+        return channel;
+    }
+
+    public int getMaxAntennas() {
+        return maxAntennas;
+    }
+
+    public void SetCallBack(final TagCallback callback) {
+        this.callback = callback;
+    }
+
+    public int Connect(final String ip, final int port, final int logswitch) {
+        channel.setVerbose(logswitch == 1);
+        return channel.open(ip, port, CONNECT_TIMEOUT_MS);
+    }
+
+    public int DisConnect() {
+        channel.close();
+        return ChafonFrame.SUCCESS;
+    }
+
+    // --- helpers
+
+    private ByteBuffer request(final byte address, final int cmd) {
+        return channel.beginFrame(address, cmd);
+    }
+
+    /**
+     * Send the pending request and return the response status (0x30 if no response).
+     */
+    private int status(final int cmd, final long timeoutMs) {
+        final int result = channel.exchange(cmd, timeoutMs);
+        if (result != ChafonFrame.SUCCESS) {
+            return result;
+        }
+        return channel.frame().get(ChafonFrame.STATUS) & 0xFF;
+    }
+
+    private int simple(final byte address, final int cmd, final byte value) {
+        channel.lock();
+        try {
+            request(address, cmd).put(value);
+            return status(cmd, DEFAULT_TIMEOUT_MS);
+        } finally {
+            channel.unlock();
+        }
+    }
+
+    private static void copyData(final ByteBuffer frame, final byte[] dst, final int length) {
+        for (int i = 0; i < length; i++) {
+            dst[i] = frame.get(ChafonFrame.DATA + i);
+        }
+    }
+
+    private static int dataLength(final ByteBuffer frame) {
+        return frame.limit() - ChafonFrame.DATA - 2;
+    }
+
+    // --- reader commands
+
+    public int GetReaderInformation(final byte[] ComAddr, final byte[] TVersionInfo, final byte[] ReaderType, final byte[] TrType, final byte[] band, final byte[] dmaxfre, final byte[] dminfre, final byte[] powerdBm, final byte[] ScanTime, final byte[] Ant, final byte[] BeepEn, final byte[] OutputRep, final byte[] CheckAnt) {
+        channel.lock();
+        try {
+            request(ComAddr[0], ChafonFrame.CMD_GET_READER_INFORMATION);
+            final int result = status(ChafonFrame.CMD_GET_READER_INFORMATION, DEFAULT_TIMEOUT_MS);
+            if (result != ChafonFrame.SUCCESS) {
+                return result;
+            }
+            final ByteBuffer f = channel.frame();
+            if (dataLength(f) < READER_INFORMATION_LENGTH) {
+                logger.debugf("Reader information response too short (%d bytes)", dataLength(f));
+                return ChafonFrame.COMMUNICATION_ERROR;
+            }
+            ComAddr[0] = f.get(ChafonFrame.ADDRESS);
+            TVersionInfo[0] = f.get(4);
+            TVersionInfo[1] = f.get(5);
+            ReaderType[0] = f.get(6);
+            TrType[0] = f.get(7);
+            dmaxfre[0] = (byte) (f.get(8) & 0x3F);
+            dminfre[0] = (byte) (f.get(9) & 0x3F);
+            band[0] = (byte) (((f.get(8) & 0xC0) >> 4) | ((f.get(9) & 0xC0) >> 6));
+            powerdBm[0] = f.get(10);
+            ScanTime[0] = f.get(11);
+            Ant[0] = f.get(12);
+            BeepEn[0] = f.get(13);
+            OutputRep[0] = f.get(14);
+            CheckAnt[0] = f.get(15);
+            return ChafonFrame.SUCCESS;
+        } finally {
+            channel.unlock();
+        }
+    }
+
+    public int SetRfPower(final byte ComAddr, final byte power) {
+        return simple(ComAddr, ChafonFrame.CMD_SET_RF_POWER, power);
+    }
+
+    public int SetRfPowerByAnt(final byte ComAddr, final byte[] Power) {
+        if (Power.length != maxAntennas) {
+            return ChafonFrame.PARAMETER_ERROR;
+        }
+        channel.lock();
+        try {
+            request(ComAddr, ChafonFrame.CMD_SET_RF_POWER).put(Power);
+            return status(ChafonFrame.CMD_SET_RF_POWER, DEFAULT_TIMEOUT_MS);
+        } finally {
+            channel.unlock();
+        }
+    }
+
+    public int GetRfPowerByAnt(final byte ComAddr, final byte[] Power) {
+        if (Power.length < maxAntennas) {
+            return ChafonFrame.PARAMETER_ERROR;
+        }
+        channel.lock();
+        try {
+            request(ComAddr, ChafonFrame.CMD_GET_RF_POWER_BY_ANT);
+            final int result = status(ChafonFrame.CMD_GET_RF_POWER_BY_ANT, DEFAULT_TIMEOUT_MS);
+            if (result == ChafonFrame.SUCCESS) {
+                final ByteBuffer f = channel.frame();
+                copyData(f, Power, Math.min(Power.length, dataLength(f)));
+            }
+            return result;
+        } finally {
+            channel.unlock();
+        }
+    }
+
+    public int SetRegion(final byte ComAddr, final int band, final int maxfre, final int minfre) {
+        channel.lock();
+        try {
+            request(ComAddr, ChafonFrame.CMD_SET_REGION)
+                .put((byte) (((band & 0x0C) << 4) | (maxfre & 0x3F)))
+                .put((byte) (((band & 0x03) << 6) | (minfre & 0x3F)));
+            return status(ChafonFrame.CMD_SET_REGION, DEFAULT_TIMEOUT_MS);
+        } finally {
+            channel.unlock();
+        }
+    }
+
+    public int ExtSetRegion(final byte ComAddr, final int opt, final int band, final int maxfre, final int minfre) {
+        channel.lock();
+        try {
+            request(ComAddr, ChafonFrame.CMD_SET_REGION)
+                .put((byte) opt)
+                .put((byte) band)
+                .put((byte) maxfre)
+                .put((byte) minfre);
+            return status(ChafonFrame.CMD_SET_REGION, 500);
+        } finally {
+            channel.unlock();
+        }
+    }
+
+    public int SetAntennaMultiplexing(final byte ComAddr, final byte AntCfg) {
+        return simple(ComAddr, ChafonFrame.CMD_SET_ANTENNA, AntCfg);
+    }
+
+    public int SetAntennaMultiplexing(final byte ComAddr, final byte SetOnce, final byte AntCfg1, final byte AntCfg2) {
+        channel.lock();
+        try {
+            request(ComAddr, ChafonFrame.CMD_SET_ANTENNA).put(SetOnce).put(AntCfg1).put(AntCfg2);
+            return status(ChafonFrame.CMD_SET_ANTENNA, DEFAULT_TIMEOUT_MS);
+        } finally {
+            channel.unlock();
+        }
+    }
+
+    public int ConfigDRM(final byte ComAddr, final byte[] DRM) {
+        channel.lock();
+        try {
+            request(ComAddr, ChafonFrame.CMD_CONFIG_DRM).put(DRM[0]);
+            final int result = status(ChafonFrame.CMD_CONFIG_DRM, DEFAULT_TIMEOUT_MS);
+            if (result == ChafonFrame.SUCCESS) {
+                DRM[0] = channel.frame().get(ChafonFrame.DATA);
+            }
+            return result;
+        } finally {
+            channel.unlock();
+        }
+    }
+
+    public int SetRelay(final byte ComAddr, final byte RelayTime) {
+        return simple(ComAddr, ChafonFrame.CMD_SET_RELAY, RelayTime);
+    }
+
+    public int SetGPIO(final byte ComAddr, final byte OutputPin) {
+        return simple(ComAddr, ChafonFrame.CMD_SET_GPIO, OutputPin);
+    }
+
+    public int GetGPIOStatus(final byte ComAddr, final byte[] OutputPin) {
+        channel.lock();
+        try {
+            request(ComAddr, ChafonFrame.CMD_GET_GPIO);
+            final int result = status(ChafonFrame.CMD_GET_GPIO, DEFAULT_TIMEOUT_MS);
+            if (result == ChafonFrame.SUCCESS) {
+                OutputPin[0] = channel.frame().get(ChafonFrame.DATA);
+            }
+            return result;
+        } finally {
+            channel.unlock();
+        }
+    }
+
+    public int GetSerialNo(final byte ComAddr, final byte[] SeriaNo) {
+        channel.lock();
+        try {
+            request(ComAddr, ChafonFrame.CMD_GET_SERIAL_NO);
+            final int result = status(ChafonFrame.CMD_GET_SERIAL_NO, DEFAULT_TIMEOUT_MS);
+            if (result == ChafonFrame.SUCCESS) {
+                copyData(channel.frame(), SeriaNo, 4);
+            }
+            return result;
+        } finally {
+            channel.unlock();
+        }
+    }
+
+    public int SetBeepNotification(final byte ComAddr, final byte BeepEn) {
+        return simple(ComAddr, ChafonFrame.CMD_SET_BEEP, BeepEn);
+    }
+
+    public int SetCheckAnt(final byte ComAddr, final byte CheckAnt) {
+        return simple(ComAddr, ChafonFrame.CMD_SET_CHECK_ANT, CheckAnt);
+    }
+
+    public int SetCfgParameter(final byte ComAddr, final byte opt, final byte cfgNum, final byte[] data, final int len) {
+        channel.lock();
+        try {
+            final ByteBuffer out = request(ComAddr, ChafonFrame.CMD_SET_CFG_PARAMETER).put(opt).put(cfgNum);
+            if (len > 0) {
+                out.put(data, 0, len);
+            }
+            return status(ChafonFrame.CMD_SET_CFG_PARAMETER, 1_500);
+        } finally {
+            channel.unlock();
+        }
+    }
+
+    public int GetCfgParameter(final byte ComAddr, final byte cfgNo, final byte[] cfgData, final int[] len) {
+        channel.lock();
+        try {
+            request(ComAddr, ChafonFrame.CMD_GET_CFG_PARAMETER).put(cfgNo);
+            final int result = status(ChafonFrame.CMD_GET_CFG_PARAMETER, 1_500);
+            if (result == ChafonFrame.SUCCESS) {
+                final ByteBuffer f = channel.frame();
+                len[0] = Math.min(dataLength(f), cfgData.length);
+                copyData(f, cfgData, len[0]);
+            }
+            return result;
+        } finally {
+            channel.unlock();
+        }
+    }
+
+    public int MeasureReturnLoss(final byte ComAddr, final byte[] TestFreq, final byte Ant, final byte[] ReturnLoss) {
+        channel.lock();
+        try {
+            request(ComAddr, ChafonFrame.CMD_MEASURE_RETURN_LOSS).put(TestFreq, 0, 4).put(Ant);
+            final int result = status(ChafonFrame.CMD_MEASURE_RETURN_LOSS, DEFAULT_TIMEOUT_MS);
+            if (result == ChafonFrame.SUCCESS) {
+                ReturnLoss[0] = channel.frame().get(ChafonFrame.DATA);
+            }
+            return result;
+        } finally {
+            channel.unlock();
+        }
+    }
+
+    public int SetWritePower(final byte ComAddr, final byte WritePower) {
+        return simple(ComAddr, ChafonFrame.CMD_SET_WRITE_POWER, WritePower);
+    }
+
+    public int GetWritePower(final byte ComAddr, final byte[] WritePower) {
+        channel.lock();
+        try {
+            request(ComAddr, ChafonFrame.CMD_GET_WRITE_POWER);
+            final int result = status(ChafonFrame.CMD_GET_WRITE_POWER, DEFAULT_TIMEOUT_MS);
+            if (result == ChafonFrame.SUCCESS) {
+                WritePower[0] = channel.frame().get(ChafonFrame.DATA);
+            }
+            return result;
+        } finally {
+            channel.unlock();
+        }
+    }
+
+    public int SetExtProfile(final byte ComAddr, final byte Opt, final int[] Profile) {
+        channel.lock();
+        try {
+            request(ComAddr, ChafonFrame.CMD_SET_PROFILE).put(Opt).put((byte) (Profile[0] >> 8)).put((byte) Profile[0]);
+            final int result = status(ChafonFrame.CMD_SET_PROFILE, DEFAULT_TIMEOUT_MS);
+            if (result == ChafonFrame.SUCCESS) {
+                final ByteBuffer f = channel.frame();
+                Profile[0] = ((f.get(ChafonFrame.DATA) & 0xFF) << 8) + (f.get(ChafonFrame.DATA + 1) & 0xFF);
+            }
+            return result;
+        } finally {
+            channel.unlock();
+        }
+    }
+
+    /**
+     * Stop the running inventory. The response is not awaited, the inventory caller receives the final frame.
+     */
+    public int StopImmediately(final byte ComAddr) {
+        request(ComAddr, ChafonFrame.CMD_STOP_IMMEDIATELY);
+        channel.post();
+        return ChafonFrame.SUCCESS;
+    }
+
+    public int SelectCmdWithCarrier(final byte ComAddr, final byte Antenna, final byte Session, final byte SelAction, final byte MaskMem, final byte[] MaskAdr, final byte MaskLen, final byte[] MaskData, final byte Truncate, final byte CarrierTime) {
+        final int len = ((MaskLen & 0xFF) + 7) / 8;
+        channel.lock();
+        try {
+            final ByteBuffer out = request(ComAddr, ChafonFrame.CMD_SELECT_WITH_CARRIER)
+                .put(Antenna)
+                .put(Session)
+                .put(SelAction)
+                .put(MaskMem)
+                .put(MaskAdr[0])
+                .put(MaskAdr[1])
+                .put(MaskLen);
+            if (len > 0) {
+                out.put(MaskData, 0, len);
+            }
+            out.put(Truncate).put(CarrierTime);
+            return status(ChafonFrame.CMD_SELECT_WITH_CARRIER, 1_500);
+        } finally {
+            channel.unlock();
+        }
+    }
+
+    // --- tag commands
+
+    public int ReadData_G2(final byte ComAddr, final byte ENum, final byte[] EPC, final byte Mem, final byte WordPtr, final byte Num, final byte[] Password, final byte MaskMem, final byte[] MaskAdr, final byte MaskLen, final byte[] MaskData, final byte[] Data, final byte[] Errorcode) {
+        final boolean masked = (ENum & 0xFF) == 0xFF;
+        if (!masked && (ENum <= 0 || ENum >= 16)) {
+            return ChafonFrame.PARAMETER_ERROR;
+        }
+        if (masked && MaskLen == 0) {
+            return ChafonFrame.PARAMETER_ERROR;
+        }
+        channel.lock();
+        try {
+            final ByteBuffer out = request(ComAddr, ChafonFrame.CMD_READ_DATA).put(ENum);
+            if (masked) {
+                out.put(Mem).put(WordPtr).put(Num).put(Password, 0, 4);
+                putMask(out, MaskMem, MaskAdr, MaskLen, MaskData);
+            } else {
+                out.put(EPC, 0, ENum * 2).put(Mem).put(WordPtr).put(Num).put(Password, 0, 4);
+            }
+            final int result = status(ChafonFrame.CMD_READ_DATA, 3_000);
+            if (result == ChafonFrame.SUCCESS) {
+                Errorcode[0] = 0;
+                copyData(channel.frame(), Data, Num * 2);
+            } else if (result == 0xFC) {
+                Errorcode[0] = channel.frame().get(ChafonFrame.DATA);
+            }
+            return result;
+        } finally {
+            channel.unlock();
+        }
+    }
+
+    public int WriteData_G2(final byte ComAddr, final byte WNum, final byte ENum, final byte[] EPC, final byte Mem, final byte WordPtr, final byte[] Writedata, final byte[] Password, final byte MaskMem, final byte[] MaskAdr, final byte MaskLen, final byte[] MaskData, final byte[] Errorcode) {
+        final boolean masked = (ENum & 0xFF) == 0xFF;
+        if (!masked && (ENum <= 0 || ENum >= 16)) {
+            return ChafonFrame.PARAMETER_ERROR;
+        }
+        if (masked && MaskLen == 0) {
+            return ChafonFrame.PARAMETER_ERROR;
+        }
+        channel.lock();
+        try {
+            final ByteBuffer out = request(ComAddr, ChafonFrame.CMD_WRITE_DATA).put(WNum).put(ENum);
+            if (masked) {
+                out.put(Mem).put(WordPtr).put(Writedata, 0, WNum * 2).put(Password, 0, 4);
+                putMask(out, MaskMem, MaskAdr, MaskLen, MaskData);
+            } else {
+                out.put(EPC, 0, ENum * 2).put(Mem).put(WordPtr).put(Writedata, 0, WNum * 2).put(Password, 0, 4);
+            }
+            return tagStatus(ChafonFrame.CMD_WRITE_DATA, 3_000, Errorcode);
+        } finally {
+            channel.unlock();
+        }
+    }
+
+    public int WriteEPC_G2(final byte ComAddr, final byte ENum, final byte[] Password, final byte[] WriteEPC, final byte[] Errorcode) {
+        channel.lock();
+        try {
+            request(ComAddr, ChafonFrame.CMD_WRITE_EPC).put(ENum).put(Password, 0, 4).put(WriteEPC, 0, ENum * 2);
+            return tagStatus(ChafonFrame.CMD_WRITE_EPC, 2_000, Errorcode);
+        } finally {
+            channel.unlock();
+        }
+    }
+
+    public int Lock_G2(final byte ComAddr, final byte ENum, final byte[] EPC, final byte select, final byte setprotect, final byte[] Password, final byte[] Errorcode) {
+        channel.lock();
+        try {
+            final ByteBuffer out = request(ComAddr, ChafonFrame.CMD_LOCK).put(ENum);
+            if (ENum > 0) {
+                out.put(EPC, 0, ENum * 2);
+            }
+            out.put(select).put(setprotect).put(Password, 0, 4);
+            return tagStatus(ChafonFrame.CMD_LOCK, DEFAULT_TIMEOUT_MS, Errorcode);
+        } finally {
+            channel.unlock();
+        }
+    }
+
+    public int Kill_G2(final byte ComAddr, final byte ENum, final byte[] EPC, final byte[] Password, final byte[] Errorcode) {
+        channel.lock();
+        try {
+            final ByteBuffer out = request(ComAddr, ChafonFrame.CMD_KILL).put(ENum);
+            if (ENum > 0) {
+                out.put(EPC, 0, ENum * 2);
+            }
+            out.put(Password, 0, 4);
+            return tagStatus(ChafonFrame.CMD_KILL, DEFAULT_TIMEOUT_MS, Errorcode);
+        } finally {
+            channel.unlock();
+        }
+    }
+
+    private int tagStatus(final int cmd, final long timeoutMs, final byte[] Errorcode) {
+        final int result = status(cmd, timeoutMs);
+        if (result == ChafonFrame.SUCCESS) {
+            Errorcode[0] = 0;
+        } else if (result == 0xFC) {
+            Errorcode[0] = channel.frame().get(ChafonFrame.DATA);
+        }
+        return result;
+    }
+
+    private static void putMask(final ByteBuffer out, final byte MaskMem, final byte[] MaskAdr, final byte MaskLen, final byte[] MaskData) {
+        final int maskBytes = ((MaskLen & 0xFF) + 7) / 8;
+        out.put(MaskMem).put(MaskAdr[0]).put(MaskAdr[1]).put(MaskLen).put(MaskData, 0, maskBytes);
+    }
+
+    // --- inventory
+
+    public int Inventory_G2(final byte ComAddr, final byte QValue, final byte Session, final byte AdrTID, final byte LenTID, final byte Target, final byte Ant, final byte Scantime, final byte[] pOUcharIDList, final int[] pOUcharTagNum, final int[] pListLen) {
+        channel.lock();
+        try {
+            final ByteBuffer out = request(ComAddr, ChafonFrame.CMD_INVENTORY).put(QValue).put(Session);
+            if (LenTID != 0) {
+                out.put(AdrTID).put(LenTID);
+            }
+            out.put(Target).put(Ant).put(Scantime);
+            final int sent = channel.send();
+            if (sent != ChafonFrame.SUCCESS) {
+                return sent;
+            }
+            return receiveInventory(pOUcharIDList, pOUcharTagNum, pListLen);
+        } finally {
+            channel.unlock();
+        }
+    }
+
+    /**
+     * Collect inventory frames until the reader reports the end of the round.
+     * Each tag record ({@code len | EPC | RSSI}) is appended to {@code pOUcharIDList} and reported to the callback.
+     */
+    private int receiveInventory(final byte[] pOUcharIDList, final int[] pOUcharTagNum, final int[] pListLen) {
+        pOUcharTagNum[0] = 0;
+        pListLen[0] = 0;
+        while (true) {
+            final int result = channel.receive(ChafonFrame.CMD_INVENTORY, INVENTORY_IDLE_TIMEOUT_MS);
+            if (result != ChafonFrame.SUCCESS) {
+                return result;
+            }
+            final ByteBuffer f = channel.frame();
+            final int status = f.get(ChafonFrame.STATUS) & 0xFF;
+            if (!ChafonFrame.isInventoryStatus(status)) {
+                return status;
+            }
+
+            final int antenna = ChafonFrame.toAntennaId(f.get(4) & 0xFF, maxAntennas);
+            final int num = f.get(5) & 0xFF;
+            int m = 6;
+            for (int n = 0; n < num; n++) {
+                final int epcLen = f.get(m) & 0xFF;
+                final int recordLen = epcLen + 2; // len + epc + rssi
+                if (m + recordLen > f.limit() - 2 || pListLen[0] + recordLen > pOUcharIDList.length) {
+                    logger.warnf("Inventory record overflow (record = %d bytes, list = %d bytes)", recordLen, pListLen[0]);
+                    break;
+                }
+                for (int i = 0; i < recordLen; i++) {
+                    pOUcharIDList[pListLen[0] + i] = f.get(m + i);
+                }
+                pOUcharTagNum[0]++;
+                pListLen[0] += recordLen;
+
+                if (callback != null) {
+                    final ReadTag tag = new ReadTag();
+                    tag.antId = antenna;
+                    tag.epcId = Utils.bytesToHexString(pOUcharIDList, pListLen[0] - recordLen + 1, epcLen);
+                    tag.rssi = f.get(m + 1 + epcLen) & 0xFF;
+                    tag.ipAddr = ip;
+                    callback.tagCallback(tag);
+                }
+                m += recordLen;
+            }
+
+            if (ChafonFrame.isLastInventoryFrame(status)) {
+                return (pOUcharTagNum[0] > 0) ? ChafonFrame.SUCCESS : ChafonFrame.INVENTORY_FINISHED;
+            }
+        }
+    }
+
+    public int Inventory_Mix(final byte ComAddr, final byte QValue, final byte Session, final byte MaskMem, final byte[] MaskAdr, final byte MaskLen, final byte[] MaskData, final byte MaskFlag, final byte ReadMem, final byte[] ReadAdr, final byte ReadLen, final byte[] Pwd, final byte Target, final byte Ant, final byte Scantime, final byte[] pOUcharIDList, final int[] pOUcharTagNum, final int[] pListLen) {
+        channel.lock();
+        try {
+            final ByteBuffer out = request(ComAddr, ChafonFrame.CMD_INVENTORY_MIX).put(QValue).put(Session);
+            if (MaskFlag != 0) {
+                putMask(out, MaskMem, MaskAdr, MaskLen, MaskData);
+            }
+            out.put(ReadMem).put(ReadAdr[0]).put(ReadAdr[1]).put(ReadLen).put(Pwd, 0, 4).put(Target).put(Ant).put(Scantime);
+            final int sent = channel.send();
+            if (sent != ChafonFrame.SUCCESS) {
+                return sent;
+            }
+            return receiveInventoryMix(pOUcharIDList, pOUcharTagNum, pListLen);
+        } finally {
+            channel.unlock();
+        }
+    }
+
+    /**
+     * Collect Inventory_Mix frames. Each tag is sent as two packets: the EPC (packet number &lt; 0x80) followed by the
+     * memory data (packet number | 0x80).
+     * Each complete pair is appended to {@code pOUcharIDList} as {@code epcLen | EPC | RSSI | memLen | MEM}.
+     */
+    private int receiveInventoryMix(final byte[] pOUcharIDList, final int[] pOUcharTagNum, final int[] pListLen) {
+        pOUcharTagNum[0] = 0;
+        pListLen[0] = 0;
+        int lastPacket = -1;
+        while (true) {
+            final int result = channel.receive(ChafonFrame.CMD_INVENTORY_MIX, INVENTORY_IDLE_TIMEOUT_MS);
+            if (result != ChafonFrame.SUCCESS) {
+                return result;
+            }
+            final ByteBuffer f = channel.frame();
+            final int status = f.get(ChafonFrame.STATUS) & 0xFF;
+            if (!ChafonFrame.isInventoryStatus(status)) {
+                return status;
+            }
+
+            final int num = f.get(5) & 0xFF;
+            if (num > 0) {
+                final int packet = f.get(6) & 0xFF;
+                final int len = f.get(7) & 0x7F;
+                final int m = pListLen[0];
+                if (packet < 0x80) {
+                    // stage the EPC after the committed records, it is kept only if the memory packet follows
+                    lastPacket = -1;
+                    if (m + len + 1 <= pOUcharIDList.length) {
+                        pOUcharIDList[m] = (byte) len;
+                        for (int i = 0; i < len; i++) {
+                            pOUcharIDList[m + 1 + i] = f.get(8 + i);
+                        }
+                        lastPacket = packet;
+                    } else {
+                        logger.warnf("Inventory record overflow (record = %d bytes, list = %d bytes)", len + 1, m);
+                    }
+                } else if (lastPacket >= 0 && ((lastPacket + 1) & 0x7F) == (packet & 0x7F)) {
+                    lastPacket = -1;
+                    final int epcLen = pOUcharIDList[m] & 0xFF;
+                    final int memOffset = m + epcLen + 3; // len + epc + rssi + memLen
+                    if (memOffset + len > pOUcharIDList.length) {
+                        logger.warnf("Inventory record overflow (record = %d bytes, list = %d bytes)", memOffset + len - m, m);
+                    } else {
+                        final int rssi = f.get(8 + len) & 0xFF;
+                        pOUcharIDList[memOffset - 2] = (byte) rssi;
+                        pOUcharIDList[memOffset - 1] = (byte) len;
+                        for (int i = 0; i < len; i++) {
+                            pOUcharIDList[memOffset + i] = f.get(8 + i);
+                        }
+                        pOUcharTagNum[0]++;
+                        pListLen[0] = memOffset + len;
+
+                        if (callback != null) {
+                            final MemoryReadTag tag = new MemoryReadTag();
+                            tag.antId = ChafonFrame.toAntennaId(f.get(4) & 0xFF, maxAntennas);
+                            tag.epcId = Utils.bytesToHexString(pOUcharIDList, m + 1, epcLen);
+                            tag.memId = Utils.bytesToHexString(pOUcharIDList, memOffset, len);
+                            tag.memory = Arrays.copyOfRange(pOUcharIDList, memOffset, memOffset + len);
+                            tag.rssi = rssi;
+                            tag.ipAddr = ip;
+                            callback.tagCallback(tag);
+                        }
+                    }
+                }
+            }
+
+            if (ChafonFrame.isLastInventoryFrame(status)) {
+                return (pOUcharTagNum[0] > 0) ? ChafonFrame.SUCCESS : ChafonFrame.INVENTORY_FINISHED;
+            }
+        }
+    }
+
+}
@@ -0,0 +1,67 @@
+package com.contare.chafon.protocol;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Table-driven CRC-16 used by the Chafon UHF protocol.
+ * <p>
+ * Reflected polynomial 0x8408 with preset 0xFFFF, no final xor. The checksum is transmitted low byte first
+ * at the end of every frame and covers every byte before it (length byte included).
+ */
+public final class Crc16 {
+
+    public static final int PRESET = 0xFFFF;
+    public static final int POLYNOMIAL = 0x8408;
+
+    private static final int[] TABLE = new int[256];
+
+    static {
+        for (int i = 0; i < TABLE.length; i++) {
+            int crc = i;
+            for (int bit = 0; bit < 8; bit++) {
+                crc = ((crc & 1) != 0) ? (crc >>> 1) ^ POLYNOMIAL : (crc >>> 1);
+            }
+            TABLE[i] = crc;
+        }
+    }
+
+    private Crc16() {
+    }
+
+    public static int update(final int crc, final byte value) {
+        return (crc >>> 8) ^ TABLE[(crc ^ value) & 0xFF];
+    }
+
+    public static int compute(final byte[] data, final int offset, final int length) {
+        int crc = PRESET;
+        for (int i = offset; i < offset + length; i++) {
+            crc = (crc >>> 8) ^ TABLE[(crc ^ data[i]) & 0xFF];
+        }
+        return crc;
+    }
+
+    /**
+     * Compute the checksum using absolute reads, the buffer position and limit are left untouched.
+     */
+    public static int compute(final ByteBuffer data, final int offset, final int length) {
+        int crc = PRESET;
+        for (int i = offset; i < offset + length; i++) {
+            crc = (crc >>> 8) ^ TABLE[(crc ^ data.get(i)) & 0xFF];
+        }
+        return crc;
+    }
+
+    /**
+     * Check the trailing checksum of a complete frame of {@code length} bytes starting at {@code offset}.
+     */
+    public static boolean check(final ByteBuffer frame, final int offset, final int length) {
+        if (length < 3) {
+            return false;
+        }
+        final int expected = compute(frame, offset, length - 2);
+        final int lo = frame.get(offset + length - 2) & 0xFF;
+        final int hi = frame.get(offset + length - 1) & 0xFF;
+        return expected == (lo | (hi << 8));
+    }
+
+}
@@ -0,0 +1,13 @@
+package com.contare.chafon.protocol;
+
+import com.rfid.ReadTag;
+
+/**
+ * Tag of an Inventory_Mix round: {@link ReadTag} plus the memory read with it as bytes, copied from the frame, so
+ * consumers do not parse {@link #memId} back from hex.
+ */
+public class MemoryReadTag extends ReadTag {
+
+    public byte[] memory;
+
+}
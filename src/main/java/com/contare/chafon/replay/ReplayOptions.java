@@ -0,0 +1,34 @@
+package com.contare.chafon.replay;
+
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Pace of a {@link ReplayReader}.
+ */
+@Getter
+@ToString
+public class ReplayOptions {
+
+    public static final ReplayOptions DEFAULT = new ReplayOptions(1.0, null);
+    public static final ReplayOptions MAX_SPEED = new ReplayOptions(0.0, null);
+
+    public final double speed;      // 1 = recorded pace, N = N times faster, 0 = as fast as the listener takes them
+    public final Long maxGapMs;     // longest pause between two reads, longer ones are cut to it, null keeps the recorded gaps
+
+    public ReplayOptions(final Double speed, final Long maxGapMs) {
+        this.speed = (speed != null) ? speed : 1.0;
+        this.maxGapMs = maxGapMs;
+        if (!(this.speed >= 0)) {
+            throw new IllegalArgumentException("Speed must be >= 0, but received " + this.speed);
+        }
+        if (maxGapMs != null && maxGapMs < 0) {
+            throw new IllegalArgumentException("Max gap must be >= 0, but received " + maxGapMs);
+        }
+    }
+
+    public boolean isMaxSpeed() {
+        return speed == 0 || Double.isInfinite(speed);
+    }
+
+}
@@ -0,0 +1,280 @@
+package com.contare.chafon.replay;
+
+import com.contare.core.archive.ArchiveReader;
+import com.contare.core.archive.ArchivedRead;
+import com.contare.core.journal.JournalRecord;
+import com.contare.core.journal.ReadJournal;
+import com.contare.core.metrics.Meter;
+import com.contare.core.metrics.MetricRegistry;
+import com.rfid.ReadTag;
+import com.rfid.TagCallback;
+import org.jboss.logging.Logger;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Feeds recorded reads back through the same callback contract as {@link com.contare.chafon.ChafonReader}, to load
+ * test the pipeline behind a reader without the hardware.
+ * <p>
+ * Reads come from a {@link ReadJournal} or an archive and are emitted in recorded order on a daemon thread, at the
+ * recorded pace, N times faster or as fast as the callback takes them (see {@link ReplayOptions}). Each read is due at
+ * its offset on the recorded timeline divided by the speed, so a slow callback is caught up on instead of drifting.
+ * {@link TagCallback#StopReadCallback()} is invoked when the replay ends or is stopped, and the sustained throughput is
+ * logged and kept in {@link #getThroughput()}.
+ */
+public class ReplayReader {
+
+    private static final Logger logger = Logger.getLogger(ReplayReader.class);
+
+    private final String name;
+    private final long[] times;     // epoch milliseconds
+    private final ReadTag[] tags;
+    private final Meter meter;
+
+    private volatile ReplayOptions options = ReplayOptions.DEFAULT;
+    private volatile TagCallback callback;
+    private volatile Thread thread;
+    private volatile boolean working = false;
+
+    private volatile long emitted = 0;
+    private volatile long startNanos = 0;
+    private volatile long endNanos = 0;
+
+    /**
+     * @param name  - name of the replay, in the thread name and the "replay.&lt;name&gt;.reads" meter
+     * @param times - read times, epoch milliseconds, in recorded order
+     * @param tags  - reads, same length as times
+     */
+    public ReplayReader(final String name, final long[] times, final ReadTag[] tags) {
+        if (times.length != tags.length) {
+            throw new IllegalArgumentException("Times and tags must have the same length, but received " + times.length + " and " + tags.length);
+        }
+        this.name = name;
+        this.times = times;
+        this.tags = tags;
+        this.meter = MetricRegistry.getDefault().meter("replay." + name + ".reads");
+    }
+
+    /**
+     * @param directory - journal directory, see {@link ReadJournal}
+     */
+    public static ReplayReader fromJournal(final String name, final Path directory) throws IOException {
+        final List<JournalRecord> records = new ArrayList<>();
+        ReadJournal.read(directory, records::add);
+        final long[] times = new long[records.size()];
+        final ReadTag[] tags = new ReadTag[records.size()];
+        for (int i = 0; i < tags.length; i++) {
+            final JournalRecord record = records.get(i);
+            times[i] = record.getEpochMillis();
+            tags[i] = tag(record.getEpc(), record.getRssi(), record.getAntenna(), record.getReader());
+        }
+        return new ReplayReader(name, times, tags);
+    }
+
+    /**
+     * @param file - archive file
+     * @param from - first read time, inclusive, null for the start of the archive
+     * @param to   - last read time, inclusive, null for the end of the archive
+     */
+    public static ReplayReader fromArchive(final String name, final Path file, final Instant from, final Instant to) throws IOException {
+        final List<ArchivedRead> reads;
+        try (final ArchiveReader reader = new ArchiveReader(file)) {
+            reads = reader.query(from, to);
+        }
+        final long[] times = new long[reads.size()];
+        final ReadTag[] tags = new ReadTag[reads.size()];
+        for (int i = 0; i < tags.length; i++) {
+            final ArchivedRead read = reads.get(i);
+            times[i] = read.getReadtime().toEpochMilli();
+            tags[i] = tag(read.getEpc(), (read.getRssi() != null) ? read.getRssi() : 0, (read.getAntenna() != null) ? read.getAntenna() : 0, read.getDevice());
+        }
+        return new ReplayReader(name, times, tags);
+    }
+
+    private static ReadTag tag(final String epc, final int rssi, final int antenna, final String device) {
+        final ReadTag tag = new ReadTag();
+        tag.epcId = epc;
+        tag.memId = "";
+        tag.rssi = rssi;
+        tag.antId = antenna;
+        tag.ipAddr = device;
+        return tag;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return number of recorded reads.
+     */
+    public int size() {
+        return tags.length;
+    }
+
+    public ReplayOptions GetOptions() {
+        return options;
+    }
+
+    /**
+     * @param options - pace of the next replays, null for the recorded pace
+     */
+    public void SetOptions(final ReplayOptions options) {
+        this.options = (options != null) ? options : ReplayOptions.DEFAULT;
+    }
+
+    public void SetCallBack(final TagCallback callback) {
+        this.callback = callback;
+    }
+
+    public void SetCallBack(final Consumer<ReadTag> onRead) {
+        this.SetCallBack(new TagCallback() {
+            @Override
+            public void tagCallback(final ReadTag readTag) {
+                onRead.accept(readTag);
+            }
+
+            @Override
+            public void StopReadCallback() {
+                logger.debugf("Callback stopped.");
+            }
+        });
+    }
+
+    /**
+     * Start the replay from the first read.
+     *
+     * @return 0x00 when started, 0xFF when already replaying.
+     */
+    public synchronized int StartRead() {
+        if (thread != null) {
+            return 0xFF;
+        }
+        working = true;
+        emitted = 0;
+        endNanos = 0;
+        startNanos = System.nanoTime();
+        final Thread t = new Thread(this::run, "replay-" + name);
+        t.setDaemon(true);
+        thread = t;
+        t.start();
+        return 0x00;
+    }
+
+    /**
+     * Stop the replay, the callback is notified from the replay thread.
+     */
+    public void StopRead() {
+        working = false;
+        final Thread t = thread;
+        if (t != null) {
+            LockSupport.unpark(t);
+        }
+    }
+
+    public boolean isReading() {
+        return thread != null;
+    }
+
+    /**
+     * Wait for the replay to end.
+     *
+     * @return true if it ended within the timeout.
+     */
+    public boolean await(final long timeout, final TimeUnit unit) throws InterruptedException {
+        final Thread t = thread;
+        if (t != null) {
+            t.join(Math.max(1, unit.toMillis(timeout)));
+        }
+        return thread == null;
+    }
+
+    /**
+     * @return reads emitted by the current or last replay.
+     */
+    public long getEmitted() {
+        return emitted;
+    }
+
+    /**
+     * @return duration of the current or last replay.
+     */
+    public long getElapsedNanos() {
+        final long start = startNanos;
+        if (start == 0) {
+            return 0;
+        }
+        final long end = endNanos;
+        return ((end != 0) ? end : System.nanoTime()) - start;
+    }
+
+    /**
+     * @return sustained reads per second of the current or last replay.
+     */
+    public double getThroughput() {
+        final long elapsed = getElapsedNanos();
+        return (elapsed > 0) ? emitted * 1e9 / elapsed : 0;
+    }
+
+    private void run() {
+        final ReplayOptions opts = this.options;
+        final TagCallback cb = this.callback;
+        final boolean max = opts.isMaxSpeed();
+        final long start = startNanos;
+        long offsetMs = 0;    // on the compressed timeline
+        long count = 0;
+        try {
+            for (int i = 0; i < tags.length && working; i++) {
+                if (i > 0) {
+                    long gap = Math.max(0, times[i] - times[i - 1]);
+                    if (opts.maxGapMs != null) {
+                        gap = Math.min(gap, opts.maxGapMs);
+                    }
+                    offsetMs += gap;
+                }
+                if (!max) {
+                    final long due = start + (long) (offsetMs * 1_000_000L / opts.speed);
+                    long wait;
+                    while (working && (wait = due - System.nanoTime()) > 0) {
+                        LockSupport.parkNanos(wait);
+                    }
+                    if (!working) {
+                        break;
+                    }
+                }
+                if (cb != null) {
+                    try {
+                        cb.tagCallback(tags[i]);
+                    } catch (RuntimeException e) {
+                        logger.errorf(e, "Replay %s: callback failed", name);
+                    }
+                }
+                emitted = ++count;
+                meter.mark();
+            }
+        } finally {
+            endNanos = System.nanoTime();
+            working = false;
+            logger.infof("Replay %s: %d of %d reads in %d ms, %.0f reads/s (%s)", name, count, tags.length, TimeUnit.NANOSECONDS.toMillis(endNanos - start), getThroughput(), opts);
+            synchronized (this) {
+                thread = null;
+            }
+            if (cb != null) {
+                cb.StopReadCallback();
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "ReplayReader(" + name + ", " + tags.length + " reads)";
+    }
+
+}
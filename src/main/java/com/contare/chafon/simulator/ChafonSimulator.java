@@ -0,0 +1,240 @@
+package com.contare.chafon.simulator;
+
+import com.contare.chafon.protocol.ChafonFrame;
+import com.contare.chafon.protocol.Crc16;
+import org.jboss.logging.Logger;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Local TCP server speaking the Chafon UHF protocol, backed by a {@link SimulatedReader}.
+ * <p>
+ * Lets the transport, the SDK-compatible API and the inventory loop be exercised without hardware:
+ * <pre>
+ *     try (ChafonSimulator simulator = ChafonSimulator.start(new SimulatorConfig().addTags(1, 500))) {
+ *         reader.Connect("127.0.0.1", simulator.getPort(), 0);
+ *     }
+ * </pre>
+ * Every connection gets a network thread, which decodes request frames, and a worker thread, which executes them in
+ * order. StopImmediately is signalled from the network thread, so it can interrupt an inventory round in progress.
+ */
+public class ChafonSimulator implements Closeable {
+
+    private static final Logger logger = Logger.getLogger(ChafonSimulator.class);
+
+    private final SimulatorConfig config;
+    private final SimulatedReader reader;
+    private final ServerSocketChannel server;
+    private final Thread acceptor;
+    private final List<Connection> connections = new CopyOnWriteArrayList<>();
+    private volatile boolean running = true;
+
+    private ChafonSimulator(final SimulatorConfig config) throws IOException {
+        this.config = config;
+        this.reader = new SimulatedReader(config);
+        this.server = ServerSocketChannel.open();
+        this.server.bind(new InetSocketAddress("127.0.0.1", config.getPort()));
+        this.acceptor = new Thread(this::accept, "chafon-simulator-accept");
+        this.acceptor.setDaemon(true);
+    }
+
+    public static ChafonSimulator start(final SimulatorConfig config) throws IOException {
+        final ChafonSimulator simulator = new ChafonSimulator(config);
+        simulator.acceptor.start();
+        logger.debugf("Chafon simulator listening on port %d with %d tags", simulator.getPort(), config.getTags().size());
+        return simulator;
+    }
+
+    public int getPort() {
+        return server.socket().getLocalPort();
+    }
+
+    public SimulatedReader getReader() {
+        return reader;
+    }
+
+    public SimulatorConfig getConfig() {
+        return config;
+    }
+
+    public int getConnectionCount() {
+        return connections.size();
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        try {
+            server.close();
+        } catch (IOException e) {
+            logger.debug("Unable to close simulator socket", e);
+        }
+        for (final Connection connection : connections) {
+            connection.close();
+        }
+        acceptor.interrupt();
+    }
+
+    private void accept() {
+        while (running) {
+            try {
+                final SocketChannel socket = server.accept();
+                socket.socket().setTcpNoDelay(true);
+                final Connection connection = new Connection(socket);
+                connections.add(connection);
+                connection.start();
+            } catch (IOException e) {
+                if (running) {
+                    logger.errorf(e, "Simulator failed to accept connection");
+                }
+                return;
+            }
+        }
+    }
+
+    private class Connection {
+
+        private final SocketChannel socket;
+        private final BlockingQueue<byte[]> requests = new LinkedBlockingQueue<>();
+        private final Thread network;
+        private final Thread worker;
+        private volatile boolean open = true;
+
+        private Connection(final SocketChannel socket) {
+            this.socket = socket;
+            this.network = new Thread(this::read, "chafon-simulator-net");
+            this.worker = new Thread(this::work, "chafon-simulator-worker");
+            this.network.setDaemon(true);
+            this.worker.setDaemon(true);
+        }
+
+        private void start() {
+            network.start();
+            worker.start();
+        }
+
+        private void read() {
+            final ByteBuffer rx = ByteBuffer.allocate(4096);
+            try {
+                while (open) {
+                    if (socket.read(rx) < 0) {
+                        break;
+                    }
+                    rx.flip();
+                    while (rx.remaining() > 0) {
+                        final int total = (rx.get(rx.position()) & 0xFF) + 1;
+                        if (total < 5) {
+                            rx.get(); // garbage
+                            continue;
+                        }
+                        if (rx.remaining() < total) {
+                            break;
+                        }
+                        final byte[] request = new byte[total];
+                        rx.get(request);
+                        if (Crc16.compute(request, 0, total) != 0) {
+                            logger.debugf("Simulator dropped request with invalid checksum");
+                            continue;
+                        }
+                        if ((request[ChafonFrame.COMMAND] & 0xFF) == ChafonFrame.CMD_STOP_IMMEDIATELY) {
+                            reader.requestStop();
+                        }
+                        requests.add(request);
+                    }
+                    rx.compact();
+                }
+            } catch (IOException e) {
+                if (open) {
+                    logger.debugf("Simulator connection closed: %s", e.getMessage());
+                }
+            } finally {
+                close();
+            }
+        }
+
+        private void work() {
+            try {
+                while (open) {
+                    final byte[] request = requests.take();
+                    reader.handle(request, this::write);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        private void write(final byte[] frame) {
+            if (!open) {
+                return;
+            }
+            try {
+                final ByteBuffer buffer = ByteBuffer.wrap(frame);
+                while (buffer.hasRemaining()) {
+                    socket.write(buffer);
+                }
+            } catch (IOException e) {
+                logger.debugf("Simulator unable to write %s: %s", Arrays.toString(frame), e.getMessage());
+                close();
+            }
+        }
+
+        private void close() {
+            if (!open) {
+                return;
+            }
+            open = false;
+            connections.remove(this);
+            try {
+                socket.close();
+            } catch (IOException ignored) {
+                // nothing to do
+            }
+            worker.interrupt();
+        }
+
+    }
+
+    /**
+     * Run a standalone simulator: {@code --port <n> --antennas <n> --tags <tags per antenna>}.
+     */
+    public static void main(final String[] args) throws Exception {
+        final SimulatorConfig config = new SimulatorConfig();
+        config.setPort(2022);
+        int tags = 100;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--port":
+                    config.setPort(Integer.parseInt(args[i + 1]));
+                    break;
+                case "--antennas":
+                    config.setAntennas(Integer.parseInt(args[i + 1]));
+                    break;
+                case "--tags":
+                    tags = Integer.parseInt(args[i + 1]);
+                    break;
+                default:
+                    logger.errorf("Unknown argument %s", args[i]);
+            }
+        }
+        for (int ant = 1; ant <= config.getAntennas(); ant++) {
+            config.addTags(ant, tags);
+        }
+        config.setRealTime(true);
+
+        try (ChafonSimulator simulator = ChafonSimulator.start(config)) {
+            logger.infof("Chafon simulator listening on 127.0.0.1:%d", simulator.getPort());
+            Thread.currentThread().join();
+        }
+    }
+
+}
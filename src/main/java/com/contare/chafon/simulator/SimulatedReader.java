@@ -0,0 +1,809 @@
+package com.contare.chafon.simulator;
+
+import com.contare.chafon.protocol.ChafonFrame;
+import com.contare.chafon.protocol.Crc16;
+import org.jboss.logging.Logger;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Consumer;
+
+/**
+ * Device state and command handling behind {@link ChafonSimulator}.
+ * <p>
+ * Every request is answered the way a Chafon UHF reader answers it: one response frame for configuration and access
+ * commands, a stream of inventory frames ended by a final status frame for Inventory_G2 / Inventory_Mix.
+ * <p>
+ * Inventory rounds use a slotted ALOHA model: each eligible tag picks one of 2^Q slots per frame, only slots with a
+ * single reply are decoded and Q is adjusted between frames the way the Gen2 Q algorithm does. Frames repeat until
+ * every tag was read, the scan time elapsed or too many frames in a row decoded nothing.
+ */
+public class SimulatedReader {
+
+    private static final Logger logger = Logger.getLogger(SimulatedReader.class);
+
+    private static final int RECORD_BYTES = ChafonFrame.MAX_LENGTH - 6 - 2; // header + crc
+    private static final int MAX_IDLE_FRAMES = 16;
+    private static final double Q_STEP = 0.3;
+
+    private final SimulatorConfig config;
+    private final Random random;
+    private final AtomicBoolean stop = new AtomicBoolean(false);
+    private final AtomicLongArray commands = new AtomicLongArray(256);
+
+    // device state, guarded by this
+    private byte address = 0x00;
+    private int power = 30;
+    private final byte[] powerPerAntenna;
+    private boolean powerPerAntennaMode = false;
+    private int band = 2;
+    private int maxIndex = 49;
+    private int minIndex = 0;
+    private int scanTime = 10;
+    private int antennaMask = 0x01;
+    private int beep = 1;
+    private int checkAnt = 0;
+    private int writePower = 0;
+    private int gpio = 0;
+    private int drm = 0;
+    private int profile = 0;
+    private boolean useSelected = false;
+    private int packet = 0;
+    private final byte[][] cfg = new byte[256][];
+
+    // statistics
+    private long rounds = 0;
+    private long reads = 0;
+
+    public SimulatedReader(final SimulatorConfig config) {
+        this.config = config;
+        this.random = new Random(config.getSeed());
+        this.powerPerAntenna = new byte[config.getAntennas()];
+        Arrays.fill(powerPerAntenna, (byte) power);
+    }
+
+    public SimulatorConfig getConfig() {
+        return config;
+    }
+
+    /**
+     * @return number of requests received for {@code cmd}.
+     */
+    public long getCommandCount(final int cmd) {
+        return commands.get(cmd & 0xFF);
+    }
+
+    public long getTotalCommandCount() {
+        long total = 0;
+        for (int i = 0; i < commands.length(); i++) {
+            total += commands.get(i);
+        }
+        return total;
+    }
+
+    public void resetCommandCounts() {
+        for (int i = 0; i < commands.length(); i++) {
+            commands.set(i, 0);
+        }
+    }
+
+    public synchronized long getRounds() {
+        return rounds;
+    }
+
+    public synchronized long getReads() {
+        return reads;
+    }
+
+    public synchronized int getAntennaMask() {
+        return antennaMask;
+    }
+
+    public synchronized int getPower() {
+        return power;
+    }
+
+    public synchronized int getBand() {
+        return band;
+    }
+
+    public synchronized int getMinIndex() {
+        return minIndex;
+    }
+
+    public synchronized int getMaxIndex() {
+        return maxIndex;
+    }
+
+    public synchronized int getBeep() {
+        return beep;
+    }
+
+    /**
+     * Called from the network thread as soon as a stop request arrives, so a running inventory can end early.
+     */
+    void requestStop() {
+        stop.set(true);
+    }
+
+    /**
+     * Handle a complete request frame (length byte to crc) and emit the response frames.
+     */
+    public synchronized void handle(final byte[] request, final Consumer<byte[]> out) {
+        final int cmd = request[ChafonFrame.COMMAND] & 0xFF;
+        commands.incrementAndGet(cmd);
+
+        sleep(config.getLatencyMs(cmd));
+
+        final int dataLen = request.length - 5; // len, adr, cmd, crc, crc
+        final int d = 3; // first data byte
+        switch (cmd) {
+            case ChafonFrame.CMD_GET_READER_INFORMATION: {
+                out.accept(response(cmd, 0,
+                    config.getVersionMajor(),
+                    config.getVersionMinor(),
+                    config.getReaderType(),
+                    0x3E,
+                    ((band & 0x0C) << 4) | (maxIndex & 0x3F),
+                    ((band & 0x03) << 6) | (minIndex & 0x3F),
+                    powerPerAntennaMode ? 0xFF : power,
+                    scanTime,
+                    antennaMask & 0xFF,
+                    beep,
+                    (antennaMask >> 8) & 0xFF,
+                    checkAnt));
+                break;
+            }
+            case ChafonFrame.CMD_SET_RF_POWER: {
+                if (dataLen == 1) {
+                    final int value = request[d] & 0x7F;
+                    if (value > 33) {
+                        out.accept(response(cmd, ChafonFrame.PARAMETER_ERROR));
+                        break;
+                    }
+                    power = value;
+                    powerPerAntennaMode = false;
+                    Arrays.fill(powerPerAntenna, (byte) value);
+                } else if (dataLen == powerPerAntenna.length) {
+                    System.arraycopy(request, d, powerPerAntenna, 0, dataLen);
+                    powerPerAntennaMode = true;
+                } else {
+                    out.accept(response(cmd, ChafonFrame.PARAMETER_ERROR));
+                    break;
+                }
+                out.accept(response(cmd, 0));
+                break;
+            }
+            case ChafonFrame.CMD_GET_RF_POWER_BY_ANT: {
+                final int[] data = new int[powerPerAntenna.length];
+                for (int i = 0; i < data.length; i++) {
+                    data[i] = powerPerAntenna[i] & 0xFF;
+                }
+                out.accept(response(cmd, 0, data));
+                break;
+            }
+            case ChafonFrame.CMD_SET_REGION: {
+                if (dataLen == 4) {
+                    band = request[d + 1] & 0xFF;
+                    maxIndex = request[d + 2] & 0xFF;
+                    minIndex = request[d + 3] & 0xFF;
+                } else if (dataLen == 2) {
+                    band = ((request[d] & 0xC0) >> 4) | ((request[d + 1] & 0xC0) >> 6);
+                    maxIndex = request[d] & 0x3F;
+                    minIndex = request[d + 1] & 0x3F;
+                } else {
+                    out.accept(response(cmd, ChafonFrame.PARAMETER_ERROR));
+                    break;
+                }
+                out.accept(response(cmd, 0));
+                break;
+            }
+            case ChafonFrame.CMD_SET_ANTENNA: {
+                final int mask;
+                if (dataLen == 1) {
+                    mask = request[d] & 0x7F;
+                } else if (dataLen == 3) {
+                    mask = ((request[d + 1] & 0xFF) << 8) | (request[d + 2] & 0xFF);
+                } else {
+                    out.accept(response(cmd, ChafonFrame.PARAMETER_ERROR));
+                    break;
+                }
+                final int valid = (config.getAntennas() >= 32) ? -1 : (1 << config.getAntennas()) - 1;
+                if (mask == 0 || (mask & ~valid) != 0) {
+                    out.accept(response(cmd, ChafonFrame.PARAMETER_ERROR));
+                    break;
+                }
+                antennaMask = mask;
+                out.accept(response(cmd, 0));
+                break;
+            }
+            case ChafonFrame.CMD_SET_BEEP: {
+                beep = request[d] & 0xFF;
+                out.accept(response(cmd, 0));
+                break;
+            }
+            case ChafonFrame.CMD_SET_CHECK_ANT: {
+                checkAnt = request[d] & 0xFF;
+                out.accept(response(cmd, 0));
+                break;
+            }
+            case ChafonFrame.CMD_SET_WRITE_POWER: {
+                writePower = request[d] & 0xFF;
+                out.accept(response(cmd, 0));
+                break;
+            }
+            case ChafonFrame.CMD_GET_WRITE_POWER: {
+                out.accept(response(cmd, 0, writePower));
+                break;
+            }
+            case ChafonFrame.CMD_SET_GPIO: {
+                gpio = (gpio & 0x01) | ((request[d] & 0x03) << 4);
+                out.accept(response(cmd, 0));
+                break;
+            }
+            case ChafonFrame.CMD_GET_GPIO: {
+                out.accept(response(cmd, 0, gpio));
+                break;
+            }
+            case ChafonFrame.CMD_SET_RELAY:
+            case ChafonFrame.CMD_SET_ADDRESS: {
+                out.accept(response(cmd, 0));
+                break;
+            }
+            case ChafonFrame.CMD_GET_SERIAL_NO: {
+                final String serial = config.getSerialNo();
+                final int[] data = new int[4];
+                for (int i = 0; i < 4; i++) {
+                    data[i] = Integer.parseInt(serial.substring(i * 2, i * 2 + 2), 16);
+                }
+                out.accept(response(cmd, 0, data));
+                break;
+            }
+            case ChafonFrame.CMD_CONFIG_DRM: {
+                final int value = request[d] & 0xFF;
+                if ((value & 0x80) != 0) {
+                    drm = value & 0x01;
+                }
+                out.accept(response(cmd, 0, drm));
+                break;
+            }
+            case ChafonFrame.CMD_MEASURE_RETURN_LOSS: {
+                out.accept(response(cmd, 0, 20));
+                break;
+            }
+            case ChafonFrame.CMD_SET_PROFILE: {
+                if (dataLen >= 3) {
+                    if ((request[d] & 0xFF) != 0) {
+                        profile = ((request[d + 1] & 0xFF) << 8) | (request[d + 2] & 0xFF);
+                    }
+                    out.accept(response(cmd, 0, (profile >> 8) & 0xFF, profile & 0xFF));
+                } else {
+                    if ((request[d] & 0x80) != 0) {
+                        profile = request[d] & 0x7F;
+                    }
+                    out.accept(response(cmd, 0, profile));
+                }
+                break;
+            }
+            case ChafonFrame.CMD_SET_CFG_PARAMETER: {
+                final int cfgNum = request[d + 1] & 0xFF;
+                cfg[cfgNum] = Arrays.copyOfRange(request, d + 2, d + dataLen);
+                out.accept(response(cmd, 0));
+                break;
+            }
+            case ChafonFrame.CMD_GET_CFG_PARAMETER: {
+                final byte[] value = cfg[request[d] & 0xFF];
+                final int[] data = new int[(value != null) ? value.length : 0];
+                for (int i = 0; i < data.length; i++) {
+                    data[i] = value[i] & 0xFF;
+                }
+                out.accept(response(cmd, 0, data));
+                break;
+            }
+            case ChafonFrame.CMD_SELECT_WITH_CARRIER: {
+                select(request, d);
+                out.accept(response(cmd, 0));
+                break;
+            }
+            case ChafonFrame.CMD_STOP_IMMEDIATELY: {
+                stop.set(false);
+                out.accept(response(cmd, 0));
+                break;
+            }
+            case ChafonFrame.CMD_INVENTORY: {
+                inventory(request, dataLen, out);
+                break;
+            }
+            case ChafonFrame.CMD_INVENTORY_MIX: {
+                inventoryMix(request, dataLen, out);
+                break;
+            }
+            case ChafonFrame.CMD_READ_DATA: {
+                readData(request, out);
+                break;
+            }
+            case ChafonFrame.CMD_WRITE_DATA: {
+                writeData(request, out);
+                break;
+            }
+            case ChafonFrame.CMD_WRITE_EPC: {
+                writeEpc(request, out);
+                break;
+            }
+            case ChafonFrame.CMD_LOCK: {
+                lock(request, out);
+                break;
+            }
+            case ChafonFrame.CMD_KILL: {
+                kill(request, out);
+                break;
+            }
+            default: {
+                logger.debugf("Unsupported command 0x%02X", cmd);
+                out.accept(response(cmd, 0xFE));
+            }
+        }
+    }
+
+    // --- inventory
+
+    private void inventory(final byte[] request, final int dataLen, final Consumer<byte[]> out) {
+        final int d = 3;
+        final int q = request[d] & 0x0F;
+        final int session = request[d + 1] & 0xFF;
+        final int tidPtr;
+        final int tidLen;
+        final int p;
+        if (dataLen == 7) {
+            tidPtr = request[d + 2] & 0xFF;
+            tidLen = request[d + 3] & 0xFF;
+            p = d + 4;
+        } else {
+            tidPtr = 0;
+            tidLen = 0;
+            p = d + 2;
+        }
+        final int target = request[p] & 0x01;
+        final int antenna = (request[p + 1] & 0x7F) + 1;
+        final int scan = request[p + 2] & 0xFF;
+
+        final List<VirtualTag> singulated = singulate(antenna, q, session, target, scan);
+        final int antByte = antennaByte(antenna);
+
+        final byte[] records = new byte[RECORD_BYTES];
+        int used = 0;
+        int count = 0;
+        for (final VirtualTag tag : singulated) {
+            final byte[] id = (tidLen > 0) ? tag.read(VirtualTag.BANK_TID, tidPtr, tidLen) : tag.getEpc();
+            if (id == null) {
+                continue;
+            }
+            if (used + id.length + 2 > records.length) {
+                out.accept(inventoryFrame(ChafonFrame.CMD_INVENTORY, ChafonFrame.INVENTORY_MORE, antByte, count, records, used));
+                used = 0;
+                count = 0;
+            }
+            records[used++] = (byte) id.length;
+            System.arraycopy(id, 0, records, used, id.length);
+            used += id.length;
+            records[used++] = (byte) rssi(tag, antenna);
+            count++;
+        }
+        out.accept(inventoryFrame(ChafonFrame.CMD_INVENTORY, ChafonFrame.INVENTORY_FINISHED, antByte, count, records, used));
+    }
+
+    private void inventoryMix(final byte[] request, final int dataLen, final Consumer<byte[]> out) {
+        final int d = 3;
+        final int q = request[d] & 0x0F;
+        final int session = request[d + 1] & 0xFF;
+        int p = d + 2;
+        if (dataLen > 13) {
+            final int maskLen = request[p + 3] & 0xFF;
+            p += 4 + (maskLen + 7) / 8;
+        }
+        final int readMem = request[p] & 0xFF;
+        final int readPtr = ((request[p + 1] & 0xFF) << 8) | (request[p + 2] & 0xFF);
+        final int readLen = request[p + 3] & 0xFF;
+        final int target = request[p + 8] & 0x01;
+        final int antenna = (request[p + 9] & 0x7F) + 1;
+        final int scan = request[p + 10] & 0xFF;
+
+        final List<VirtualTag> singulated = singulate(antenna, q, session, target, scan);
+        final int antByte = antennaByte(antenna);
+        for (final VirtualTag tag : singulated) {
+            final byte[] memory = tag.read(readMem, readPtr, readLen);
+            if (memory == null) {
+                continue;
+            }
+            final int rssi = rssi(tag, antenna);
+            final byte[] epc = tag.getEpc();
+            final int epcPacket = packet;
+            final int memPacket = (packet + 1) & 0x7F;
+            packet = (packet + 2) & 0x7F;
+            out.accept(mixFrame(antByte, epcPacket, epc, rssi));
+            out.accept(mixFrame(antByte, 0x80 | memPacket, memory, rssi));
+        }
+        out.accept(inventoryFrame(ChafonFrame.CMD_INVENTORY_MIX, ChafonFrame.INVENTORY_FINISHED, antByte, 0, new byte[0], 0));
+    }
+
+    /**
+     * Run one inventory round on {@code antenna}.
+     *
+     * @return tags singulated in the round, in read order.
+     */
+    private List<VirtualTag> singulate(final int antenna, final int q, final int session, final int target, final int scan) {
+        rounds++;
+        final List<VirtualTag> result = new ArrayList<>();
+        if ((antennaMask & (1 << (antenna - 1))) == 0) {
+            return result;
+        }
+
+        final long now = System.currentTimeMillis();
+        final List<VirtualTag> eligible = new ArrayList<>();
+        for (final VirtualTag tag : config.getTags()) {
+            if (!tag.isVisible(antenna)) {
+                continue;
+            }
+            if (useSelected && !tag.selected) {
+                continue;
+            }
+            if (session <= 3 && flag(tag, session, now) != (target == 1)) {
+                continue;
+            }
+            eligible.add(tag);
+        }
+
+        final long budgetMicros = (scan == 0) ? Long.MAX_VALUE : scan * 100_000L;
+        long elapsedMicros = 0;
+        int idleFrames = 0;
+        double qfp = q;
+        while (!eligible.isEmpty() && elapsedMicros < budgetMicros && idleFrames < MAX_IDLE_FRAMES && !stop.get()) {
+            final int slots = config.isCollisions() ? (1 << (int) Math.round(qfp)) : eligible.size();
+            final int[] occupancy = new int[slots];
+            final int[] choice = new int[eligible.size()];
+            for (int i = 0; i < choice.length; i++) {
+                choice[i] = config.isCollisions() ? random.nextInt(slots) : i;
+                occupancy[choice[i]]++;
+            }
+
+            final List<VirtualTag> read = new ArrayList<>();
+            for (int i = 0; i < choice.length; i++) {
+                if (occupancy[choice[i]] == 1 && random.nextDouble() < config.getReadProbability()) {
+                    read.add(eligible.get(i));
+                }
+            }
+            elapsedMicros += (long) slots * config.getSlotMicros();
+
+            // Q algorithm: collided slots raise Q, empty slots lower it
+            int empty = 0;
+            int collided = 0;
+            for (final int n : occupancy) {
+                if (n == 0) {
+                    empty++;
+                } else if (n > 1) {
+                    collided++;
+                }
+            }
+            qfp = Math.max(0, Math.min(15, qfp + Q_STEP * Integer.signum(collided - empty) * Math.min(4, Math.abs(collided - empty))));
+            idleFrames = read.isEmpty() ? idleFrames + 1 : 0;
+
+            for (final VirtualTag tag : read) {
+                eligible.remove(tag);
+                if (session <= 3) {
+                    tag.inventoried[session] = (target == 0);
+                    tag.inventoriedAt[session] = now;
+                }
+                result.add(tag);
+            }
+        }
+
+        if (config.isRealTime()) {
+            sleepMicros(Math.min(elapsedMicros, budgetMicros));
+        }
+
+        // S0 flags do not persist once the antenna powers down
+        for (final VirtualTag tag : config.getTags()) {
+            tag.inventoried[0] = false;
+        }
+
+        reads += result.size();
+        return result;
+    }
+
+    private boolean flag(final VirtualTag tag, final int session, final long now) {
+        if (session == 1 && tag.inventoried[1] && now - tag.inventoriedAt[1] > config.getS1PersistenceMs()) {
+            tag.inventoried[1] = false;
+        }
+        return tag.inventoried[session];
+    }
+
+    private int rssi(final VirtualTag tag, final int antenna) {
+        final double value = config.getRssiMean(antenna) + tag.getRssiOffset() + random.nextGaussian() * config.getRssiStdDev();
+        return (int) Math.max(0, Math.min(255, Math.round(value)));
+    }
+
+    private int antennaByte(final int antenna) {
+        return (config.getAntennas() < 9) ? (1 << (antenna - 1)) : (antenna - 1);
+    }
+
+    // --- select
+
+    /**
+     * Apply an EPC C1G2 Select. Targets 0..3 change the session inventoried flags, target 4 changes SL.
+     * Once SL was targeted, inventory rounds only singulate tags with SL asserted.
+     */
+    private void select(final byte[] request, final int d) {
+        final int target = request[d + 1] & 0xFF;
+        final int action = request[d + 2] & 0x07;
+        final int bank = request[d + 3] & 0xFF;
+        final int bitPtr = ((request[d + 4] & 0xFF) << 8) | (request[d + 5] & 0xFF);
+        final int bitLen = request[d + 6] & 0xFF;
+        final byte[] mask = Arrays.copyOfRange(request, d + 7, d + 7 + (bitLen + 7) / 8);
+
+        if (target == 4) {
+            useSelected = true;
+        }
+        for (final VirtualTag tag : config.getTags()) {
+            final boolean matching = tag.matches(bank, bitPtr, bitLen, mask);
+            // 0 = assert SL / inventoried A, 1 = deassert SL / inventoried B, 2 = negate, -1 = nothing
+            final int op;
+            switch (action) {
+                case 0: op = matching ? 0 : 1; break;
+                case 1: op = matching ? 0 : -1; break;
+                case 2: op = matching ? -1 : 1; break;
+                case 3: op = matching ? 2 : -1; break;
+                case 4: op = matching ? 1 : 0; break;
+                case 5: op = matching ? 1 : -1; break;
+                case 6: op = matching ? -1 : 0; break;
+                default: op = matching ? -1 : 2; break;
+            }
+            if (op < 0) {
+                continue;
+            }
+            if (target == 4) {
+                tag.selected = (op == 2) ? !tag.selected : (op == 0);
+            } else if (target <= 3) {
+                tag.inventoried[target] = (op == 2) ? !tag.inventoried[target] : (op == 1);
+                tag.inventoriedAt[target] = System.currentTimeMillis();
+            }
+        }
+    }
+
+    // --- access
+
+    /**
+     * Resolve the tag addressed by an access command: by EPC when {@code eNum} words are given, by mask when 0xFF.
+     */
+    private VirtualTag find(final byte[] request, final int eNum, final int epcOffset, final int maskOffset) {
+        for (final VirtualTag tag : config.getTags()) {
+            if (!isInField(tag)) {
+                continue;
+            }
+            if (eNum == 0xFF) {
+                final int bank = request[maskOffset] & 0xFF;
+                final int bitPtr = ((request[maskOffset + 1] & 0xFF) << 8) | (request[maskOffset + 2] & 0xFF);
+                final int bitLen = request[maskOffset + 3] & 0xFF;
+                final byte[] mask = Arrays.copyOfRange(request, maskOffset + 4, maskOffset + 4 + (bitLen + 7) / 8);
+                if (tag.matches(bank, bitPtr, bitLen, mask)) {
+                    return tag;
+                }
+            } else if (eNum == 0) {
+                return tag;
+            } else {
+                final byte[] epc = Arrays.copyOfRange(request, epcOffset, epcOffset + eNum * 2);
+                if (Arrays.equals(epc, tag.getEpc())) {
+                    return tag;
+                }
+            }
+        }
+        return null;
+    }
+
+    private boolean isInField(final VirtualTag tag) {
+        return !tag.isKilled() && (tag.getAntennaMask() & antennaMask) != 0;
+    }
+
+    private void readData(final byte[] request, final Consumer<byte[]> out) {
+        final int cmd = ChafonFrame.CMD_READ_DATA;
+        final int eNum = request[3] & 0xFF;
+        final int p = (eNum == 0xFF) ? 4 : 4 + eNum * 2;
+        final int mem = request[p] & 0xFF;
+        final int wordPtr = request[p + 1] & 0xFF;
+        final int num = request[p + 2] & 0xFF;
+        final VirtualTag tag = find(request, eNum, 4, p + 7);
+        if (tag == null) {
+            out.accept(response(cmd, ChafonFrame.NO_TAG));
+            return;
+        }
+        final byte[] data = tag.read(mem, wordPtr, num);
+        if (data == null) {
+            out.accept(response(cmd, 0xFC, 0x03)); // memory overrun
+            return;
+        }
+        final int[] values = new int[data.length];
+        for (int i = 0; i < data.length; i++) {
+            values[i] = data[i] & 0xFF;
+        }
+        out.accept(response(cmd, 0, values));
+    }
+
+    private void writeData(final byte[] request, final Consumer<byte[]> out) {
+        final int cmd = ChafonFrame.CMD_WRITE_DATA;
+        final int wNum = request[3] & 0xFF;
+        final int eNum = request[4] & 0xFF;
+        final int p = (eNum == 0xFF) ? 5 : 5 + eNum * 2;
+        final int mem = request[p] & 0xFF;
+        final int wordPtr = request[p + 1] & 0xFF;
+        final int dataOffset = p + 2;
+        final byte[] password = Arrays.copyOfRange(request, dataOffset + wNum * 2, dataOffset + wNum * 2 + 4);
+        final VirtualTag tag = find(request, eNum, 5, dataOffset + wNum * 2 + 4);
+        if (tag == null) {
+            out.accept(response(cmd, ChafonFrame.NO_TAG));
+            return;
+        }
+        final int effective = ((writePower & 0x80) != 0) ? writePower & 0x7F : power;
+        if (effective < config.getMinWritePower()) {
+            out.accept(response(cmd, ChafonFrame.NO_TAG)); // too weak to power the tag
+            return;
+        }
+        if (!writable(tag, mem, password)) {
+            out.accept(response(cmd, 0xFC, 0x04)); // memory locked
+            return;
+        }
+        if (!tag.write(mem, wordPtr, request, dataOffset, wNum)) {
+            out.accept(response(cmd, 0xFC, 0x03)); // memory overrun
+            return;
+        }
+        out.accept(response(cmd, 0));
+    }
+
+    private void writeEpc(final byte[] request, final Consumer<byte[]> out) {
+        final int cmd = ChafonFrame.CMD_WRITE_EPC;
+        final int eNum = request[3] & 0xFF;
+        final byte[] password = Arrays.copyOfRange(request, 4, 8);
+        final VirtualTag tag = find(request, 0, 0, 0);
+        if (tag == null) {
+            out.accept(response(cmd, ChafonFrame.NO_TAG));
+            return;
+        }
+        if (!writable(tag, VirtualTag.BANK_EPC, password)) {
+            out.accept(response(cmd, 0xFC, 0x04));
+            return;
+        }
+        tag.setEpc(Arrays.copyOfRange(request, 8, 8 + eNum * 2));
+        out.accept(response(cmd, 0));
+    }
+
+    private void lock(final byte[] request, final Consumer<byte[]> out) {
+        final int cmd = ChafonFrame.CMD_LOCK;
+        final int eNum = request[3] & 0xFF;
+        final int p = 4 + eNum * 2;
+        final int select = request[p] & 0xFF;
+        final int protect = request[p + 1] & 0xFF;
+        final byte[] password = Arrays.copyOfRange(request, p + 2, p + 6);
+        final VirtualTag tag = find(request, eNum, 4, 0);
+        if (tag == null) {
+            out.accept(response(cmd, ChafonFrame.NO_TAG));
+            return;
+        }
+        if (select > 4 || protect > 3 || !Arrays.equals(password, tag.read(VirtualTag.BANK_RESERVED, 2, 2))) {
+            out.accept(response(cmd, 0xFC, 0x04));
+            return;
+        }
+        tag.setLock(select, protect);
+        out.accept(response(cmd, 0));
+    }
+
+    private void kill(final byte[] request, final Consumer<byte[]> out) {
+        final int cmd = ChafonFrame.CMD_KILL;
+        final int eNum = request[3] & 0xFF;
+        final byte[] password = Arrays.copyOfRange(request, 4 + eNum * 2, 8 + eNum * 2);
+        final VirtualTag tag = find(request, eNum, 4, 0);
+        if (tag == null) {
+            out.accept(response(cmd, ChafonFrame.NO_TAG));
+            return;
+        }
+        final byte[] kill = tag.read(VirtualTag.BANK_RESERVED, 0, 2);
+        if (Arrays.equals(kill, new byte[4])) {
+            out.accept(response(cmd, 0x0A)); // all-zero kill password is invalid
+            return;
+        }
+        if (!Arrays.equals(kill, password)) {
+            out.accept(response(cmd, 0x09));
+            return;
+        }
+        tag.kill();
+        out.accept(response(cmd, 0));
+    }
+
+    /**
+     * Lock areas: 0 = kill password, 1 = access password, 2 = EPC, 3 = TID, 4 = USER.
+     */
+    private static boolean writable(final VirtualTag tag, final int bank, final byte[] password) {
+        final int area = (bank == VirtualTag.BANK_RESERVED) ? 1 : bank + 1;
+        final int lock = tag.getLock(area);
+        if (lock == VirtualTag.LOCK_NEVER_WRITABLE) {
+            return false;
+        }
+        if (lock == VirtualTag.LOCK_SECURED) {
+            return Arrays.equals(password, tag.read(VirtualTag.BANK_RESERVED, 2, 2));
+        }
+        return true;
+    }
+
+    // --- framing
+
+    private byte[] response(final int cmd, final int status, final int... data) {
+        final byte[] frame = new byte[data.length + 6];
+        frame[0] = (byte) (frame.length - 1);
+        frame[1] = address;
+        frame[2] = (byte) cmd;
+        frame[3] = (byte) status;
+        for (int i = 0; i < data.length; i++) {
+            frame[4 + i] = (byte) data[i];
+        }
+        return crc(frame);
+    }
+
+    private byte[] inventoryFrame(final int cmd, final int status, final int ant, final int count, final byte[] records, final int length) {
+        final byte[] frame = new byte[length + 8];
+        frame[0] = (byte) (frame.length - 1);
+        frame[1] = address;
+        frame[2] = (byte) cmd;
+        frame[3] = (byte) status;
+        frame[4] = (byte) ant;
+        frame[5] = (byte) count;
+        System.arraycopy(records, 0, frame, 6, length);
+        return crc(frame);
+    }
+
+    private byte[] mixFrame(final int ant, final int packetParam, final byte[] data, final int rssi) {
+        final byte[] frame = new byte[data.length + 11];
+        frame[0] = (byte) (frame.length - 1);
+        frame[1] = address;
+        frame[2] = (byte) ChafonFrame.CMD_INVENTORY_MIX;
+        frame[3] = (byte) ChafonFrame.INVENTORY_MORE;
+        frame[4] = (byte) ant;
+        frame[5] = 1;
+        frame[6] = (byte) packetParam;
+        frame[7] = (byte) data.length;
+        System.arraycopy(data, 0, frame, 8, data.length);
+        frame[8 + data.length] = (byte) rssi;
+        return crc(frame);
+    }
+
+    private static byte[] crc(final byte[] frame) {
+        final int crc = Crc16.compute(frame, 0, frame.length - 2);
+        frame[frame.length - 2] = (byte) (crc & 0xFF);
+        frame[frame.length - 1] = (byte) ((crc >> 8) & 0xFF);
+        return frame;
+    }
+
+    private static void sleep(final long ms) {
+        if (ms <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void sleepMicros(final long micros) {
+        if (micros <= 0) {
+            return;
+        }
+        try {
+            TimeUnit.MICROSECONDS.sleep(micros);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
@@ -0,0 +1,87 @@
+package com.contare.chafon.simulator;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Configuration of a {@link ChafonSimulator}: reader identity, virtual tag population, radio model and latency.
+ */
+@Data
+@NoArgsConstructor
+public class SimulatorConfig {
+
+    // network
+    private int port = 0; // 0 = ephemeral port
+    private int antennas = 4;
+
+    // identity
+    private String serialNo = "19A2C301";
+    private int versionMajor = 2;
+    private int versionMinor = 7;
+    private int readerType = 0x70;
+
+    // population
+    private final List<VirtualTag> tags = new ArrayList<>();
+
+    // radio model
+    private long seed = 42L;
+    private double rssiMean = 60.0;
+    private double rssiStdDev = 4.0;
+    private Map<Integer, Double> antennaRssiMean = new HashMap<>(); // antenna (1..n) -> mean rssi
+    private boolean collisions = true;       // slotted ALOHA, tags sharing a slot are not read
+    private double readProbability = 1.0;    // chance a singulated tag is decoded
+    private int slotMicros = 250;            // air time of a single slot
+    private boolean realTime = false;        // sleep for the simulated air time of inventory rounds
+    private long s1PersistenceMs = 2_000;    // S1 inventoried flag persistence
+    private int minWritePower = 0;           // writes at a lower power (dBm) do not reach the tags
+
+    // latency
+    private int defaultLatencyMs = 0;
+    private Map<Integer, Integer> latencyMs = new HashMap<>(); // command code -> latency
+
+    public int getLatencyMs(final int cmd) {
+        return latencyMs.getOrDefault(cmd, defaultLatencyMs);
+    }
+
+    public double getRssiMean(final int antenna) {
+        return antennaRssiMean.getOrDefault(antenna, rssiMean);
+    }
+
+    public SimulatorConfig addTag(final VirtualTag tag) {
+        tags.add(tag);
+        return this;
+    }
+
+    /**
+     * Add {@code count} tags visible on {@code antenna} with sequential 96-bit EPCs and TIDs.
+     */
+    public SimulatorConfig addTags(final int antenna, final int count) {
+        final int base = tags.size();
+        for (int i = 0; i < count; i++) {
+            final int n = base + i;
+            final byte[] epc = new byte[12];
+            epc[0] = (byte) 0xE2;
+            epc[1] = (byte) 0x80;
+            epc[2] = (byte) antenna;
+            for (int b = 0; b < 4; b++) {
+                epc[11 - b] = (byte) (n >>> (8 * b));
+            }
+            final byte[] tid = new byte[12];
+            tid[0] = (byte) 0xE2;
+            tid[1] = (byte) 0x80;
+            tid[2] = (byte) 0x11;
+            tid[3] = (byte) 0x60;
+            for (int b = 0; b < 4; b++) {
+                tid[11 - b] = (byte) (n >>> (8 * b));
+            }
+            tags.add(new VirtualTag(epc, tid, new byte[8], 1 << (antenna - 1)));
+        }
+        return this;
+    }
+
+}
@@ -0,0 +1,192 @@
+package com.contare.chafon.simulator;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.Arrays;
+
+/**
+ * EPC C1G2 tag emulated by {@link ChafonSimulator}.
+ * <p>
+ * Memory banks: 0 = reserved (kill + access password), 1 = EPC (StoredCRC, PC, EPC), 2 = TID, 3 = USER.
+ * Session flags (S0..S3) and SL are kept per tag, so session/target and select behaviour can be exercised.
+ */
+public class VirtualTag {
+
+    public static final int BANK_RESERVED = 0;
+    public static final int BANK_EPC = 1;
+    public static final int BANK_TID = 2;
+    public static final int BANK_USER = 3;
+
+    public static final int LOCK_WRITABLE = 0;
+    public static final int LOCK_PERMANENTLY_WRITABLE = 1;
+    public static final int LOCK_SECURED = 2;
+    public static final int LOCK_NEVER_WRITABLE = 3;
+
+    private final byte[][] banks = new byte[4][];
+    private final int[] locks = new int[5];
+
+    /**
+     * Antennas that can see this tag, bit 0 = antenna 1.
+     */
+    @Getter
+    @Setter
+    private int antennaMask;
+
+    /**
+     * Added to the antenna mean RSSI for every read of this tag.
+     */
+    @Getter
+    @Setter
+    private double rssiOffset = 0;
+
+    @Getter
+    private boolean killed = false;
+
+    // gen2 state, guarded by the owning reader
+    final boolean[] inventoried = new boolean[4]; // false = A, true = B
+    final long[] inventoriedAt = new long[4];
+    boolean selected = false;
+
+    public VirtualTag(final byte[] epc, final byte[] tid, final byte[] user, final int antennaMask) {
+        this.banks[BANK_RESERVED] = new byte[8];
+        this.banks[BANK_EPC] = new byte[4];
+        this.banks[BANK_TID] = (tid != null) ? tid.clone() : new byte[0];
+        this.banks[BANK_USER] = (user != null) ? user.clone() : new byte[0];
+        this.antennaMask = antennaMask;
+        setEpc(epc);
+    }
+
+    public boolean isVisible(final int antenna) {
+        return !killed && (antennaMask & (1 << (antenna - 1))) != 0;
+    }
+
+    public byte[] getEpc() {
+        final int words = getPc() >>> 11;
+        final byte[] bank = banks[BANK_EPC];
+        final int len = Math.min(words * 2, bank.length - 4);
+        return Arrays.copyOfRange(bank, 4, 4 + len);
+    }
+
+    public int getPc() {
+        final byte[] bank = banks[BANK_EPC];
+        return ((bank[2] & 0xFF) << 8) | (bank[3] & 0xFF);
+    }
+
+    public void setEpc(final byte[] epc) {
+        final int words = (epc.length + 1) / 2;
+        final byte[] bank = new byte[4 + words * 2];
+        final int pc = (words << 11) | (getPcFlags() & 0x07FF);
+        bank[2] = (byte) (pc >> 8);
+        bank[3] = (byte) pc;
+        System.arraycopy(epc, 0, bank, 4, epc.length);
+        banks[BANK_EPC] = bank;
+    }
+
+    private int getPcFlags() {
+        final byte[] bank = banks[BANK_EPC];
+        return (bank != null && bank.length >= 4) ? getPc() : 0;
+    }
+
+    public byte[] getTid() {
+        return banks[BANK_TID].clone();
+    }
+
+    public byte[] getBank(final int bank) {
+        return banks[bank].clone();
+    }
+
+    public int getLock(final int area) {
+        return locks[area];
+    }
+
+    void setLock(final int area, final int value) {
+        locks[area] = value;
+    }
+
+    void kill() {
+        this.killed = true;
+    }
+
+    /**
+     * Read {@code words} words from {@code bank} starting at {@code wordPtr}.
+     *
+     * @return data or null if the range is outside the bank.
+     */
+    public byte[] read(final int bank, final int wordPtr, final int words) {
+        if (bank < 0 || bank > 3) {
+            return null;
+        }
+        final byte[] data = banks[bank];
+        final int from = wordPtr * 2;
+        final int to = from + words * 2;
+        if (from < 0 || to > data.length) {
+            return null;
+        }
+        return Arrays.copyOfRange(data, from, to);
+    }
+
+    /**
+     * Write {@code words} words into {@code bank} at {@code wordPtr}. Writes past the end of the EPC and USER banks
+     * grow the bank, the PC word is honoured when the EPC bank is written.
+     *
+     * @return false if the range is not writable.
+     */
+    public boolean write(final int bank, final int wordPtr, final byte[] src, final int offset, final int words) {
+        if (bank < 0 || bank > 3 || bank == BANK_TID) {
+            return false;
+        }
+        final int from = wordPtr * 2;
+        final int to = from + words * 2;
+        byte[] data = banks[bank];
+        if (to > data.length) {
+            if (bank == BANK_RESERVED) {
+                return false;
+            }
+            data = Arrays.copyOf(data, to);
+        }
+        System.arraycopy(src, offset, data, from, words * 2);
+        banks[bank] = data;
+        return true;
+    }
+
+    /**
+     * Bit-wise comparison used by masked access commands and Select.
+     *
+     * @param bank   - memory bank
+     * @param bitPtr - first bit address
+     * @param bitLen - number of bits to compare, 0 matches every tag
+     * @param mask   - mask data, MSB first
+     */
+    public boolean matches(final int bank, final int bitPtr, final int bitLen, final byte[] mask) {
+        if (bitLen == 0) {
+            return true;
+        }
+        if (bank < 1 || bank > 3) {
+            return false;
+        }
+        final byte[] data = banks[bank];
+        if (bitPtr + bitLen > data.length * 8) {
+            return false;
+        }
+        for (int i = 0; i < bitLen; i++) {
+            final int bit = bitPtr + i;
+            final int tagBit = (data[bit >> 3] >> (7 - (bit & 7))) & 1;
+            final int maskBit = (mask[i >> 3] >> (7 - (i & 7))) & 1;
+            if (tagBit != maskBit) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder();
+        for (byte b : getEpc()) {
+            sb.append(String.format("%02X", b));
+        }
+        return "VirtualTag(" + sb + ")";
+    }
+
+}
@@ -1,11 +1,29 @@
 package com.contare.config;
 
+import com.contare.chafon.PacingOptions;
+import com.contare.chafon.inventory.InventoryStrategy;
+import com.contare.chafon.inventory.InventoryStrategyType;
+import com.contare.core.archive.ArchiveWriter;
+import com.contare.core.fleet.FleetOptions;
+import com.contare.core.journal.JournalOptions;
+import com.contare.core.objects.MemoryBank;
+import com.contare.core.objects.MemoryReadOptions;
+import com.contare.core.objects.TagFilter;
+import com.contare.core.pipeline.OverflowPolicy;
+import com.contare.core.pipeline.PipelineOptions;
+import com.contare.core.pipeline.WaitStrategy;
+import com.contare.core.presence.PresenceOptions;
+import com.contare.core.presence.PresenceScope;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @Data
@@ -14,10 +32,43 @@ public class Config {
     @JsonProperty(value = "device")
     private Device device = new Device();
 
+    @JsonProperty(value = "devices")
+    private List<Device> devices = new ArrayList<>();
+
+    @JsonProperty(value = "fleet")
+    private Fleet fleet = new Fleet();
+
+    @JsonProperty(value = "metrics")
+    private Metrics metrics = new Metrics();
+
+    @JsonProperty(value = "presence")
+    private Presence presence = new Presence();
+
+    @JsonProperty(value = "journal")
+    private Journal journal = new Journal();
+
+    @JsonProperty(value = "archive")
+    private Archive archive = new Archive();
+
+    /**
+     * @return the readers of the {@code devices} list, or the single legacy {@code device} block when the list is empty.
+     */
+    @JsonIgnore
+    public List<Device> getReaders() {
+        if (devices == null || devices.isEmpty()) {
+            return Collections.singletonList(device);
+        }
+        return devices;
+    }
+
     @Data
     @NoArgsConstructor
     public static class Device {
 
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        @JsonProperty(value = "name")
+        private String name;
+
         @JsonInclude(JsonInclude.Include.NON_NULL)
         @JsonProperty(value = "MACAddress")
         private String address = "192.168.1.200";
@@ -42,6 +93,288 @@ public class Config {
         @JsonProperty(value = "frequency")
         private Frequency frequency = new Frequency();
 
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        @JsonProperty(value = "pipeline")
+        private Pipeline pipeline = new Pipeline();
+
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        @JsonProperty(value = "inventory")
+        private Inventory inventory = new Inventory();
+
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        @JsonProperty(value = "pacing")
+        private Pacing pacing = new Pacing();
+
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        @JsonProperty(value = "memory")
+        private Memory memory = new Memory();
+
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        @JsonProperty(value = "filters")
+        private List<Filter> filters = new ArrayList<>();
+
+        /**
+         * @return tag filters of the reader, empty when every tag is inventoried.
+         */
+        public List<TagFilter> toFilters() {
+            final List<TagFilter> result = new ArrayList<>();
+            if (filters != null) {
+                for (final Filter filter : filters) {
+                    result.add(filter.toFilter());
+                }
+            }
+            return result;
+        }
+
+        /**
+         * @return configured name, or {@code ip:port} when not set.
+         */
+        public String getName() {
+            return (name != null) ? name : ip + ":" + port;
+        }
+
+    }
+
+    @Data
+    @NoArgsConstructor
+    public static class Fleet {
+
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        @JsonProperty(value = "threads")
+        private Integer threads;
+
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        @JsonProperty(value = "setupThreads")
+        private Integer setupThreads;
+
+        public FleetOptions toOptions() {
+            return new FleetOptions(threads, setupThreads);
+        }
+
+    }
+
+    @Data
+    @NoArgsConstructor
+    public static class Metrics {
+
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        @JsonProperty(value = "jmx")
+        private boolean jmx = true;
+
+    }
+
+    @Data
+    @NoArgsConstructor
+    public static class Archive {
+
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        @JsonProperty(value = "enabled")
+        private boolean enabled = false;
+
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        @JsonProperty(value = "file")
+        private String file = "archive/reads.car";
+
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        @JsonProperty(value = "blockRows")
+        private int blockRows = ArchiveWriter.DEFAULT_BLOCK_ROWS;
+
+    }
+
+    @Data
+    @NoArgsConstructor
+    public static class Journal {
+
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        @JsonProperty(value = "enabled")
+        private boolean enabled = false;
+
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        @JsonProperty(value = "directory")
+        private String directory;
+
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        @JsonProperty(value = "segmentBytes")
+        private Long segmentBytes;
+
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        @JsonProperty(value = "syncIntervalMs")
+        private Long syncIntervalMs;
+
+        public JournalOptions toOptions() {
+            return new JournalOptions(directory, segmentBytes, syncIntervalMs);
+        }
+
+    }
+
+    @Data
+    @NoArgsConstructor
+    public static class Presence {
+
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        @JsonProperty(value = "enabled")
+        private boolean enabled = false;
+
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        @JsonProperty(value = "timeoutMs")
+        private Long timeoutMs;
+
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        @JsonProperty(value = "antennaTimeoutMs")
+        private Map<Integer, Long> antennaTimeoutMs;
+
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        @JsonProperty(value = "tickMs")
+        private Long tickMs;
+
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        @JsonProperty(value = "slots")
+        private Integer slots;
+
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        @JsonProperty(value = "scope")
+        private PresenceScope scope;
+
+        public PresenceOptions toOptions() {
+            return new PresenceOptions(timeoutMs, antennaTimeoutMs, tickMs, slots, scope);
+        }
+
+    }
+
+    @Data
+    @NoArgsConstructor
+    public static class Pipeline {
+
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        @JsonProperty(value = "capacity")
+        private Integer capacity;
+
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        @JsonProperty(value = "wait")
+        private WaitStrategy waitStrategy;
+
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        @JsonProperty(value = "overflow")
+        private OverflowPolicy overflowPolicy;
+
+        public PipelineOptions toOptions() {
+            return new PipelineOptions(capacity, waitStrategy, overflowPolicy);
+        }
+
+    }
+
+    @Data
+    @NoArgsConstructor
+    public static class Inventory {
+
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        @JsonProperty(value = "strategy")
+        private InventoryStrategyType strategy;
+
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        @JsonProperty(value = "session")
+        private Integer session;
+
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        @JsonProperty(value = "emptyRounds")
+        private Integer emptyRounds;
+
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        @JsonProperty(value = "adaptiveQ")
+        private boolean adaptiveQ = false;
+
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        @JsonProperty(value = "antennaScheduling")
+        private boolean antennaScheduling = false;
+
+        /**
+         * @return configured strategy, null to follow the reader parameter.
+         */
+        public InventoryStrategy toStrategy() {
+            return (strategy != null) ? strategy.create(session, emptyRounds) : null;
+        }
+
+    }
+
+    @Data
+    @NoArgsConstructor
+    public static class Pacing {
+
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        @JsonProperty(value = "idleDelayMs")
+        private Long idleDelayMs;
+
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        @JsonProperty(value = "maxIdleDelayMs")
+        private Long maxIdleDelayMs;
+
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        @JsonProperty(value = "dutyCycle")
+        private Double dutyCycle;
+
+        public PacingOptions toOptions() {
+            return new PacingOptions(idleDelayMs, maxIdleDelayMs, dutyCycle);
+        }
+
+    }
+
+    @Data
+    @NoArgsConstructor
+    public static class Memory {
+
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        @JsonProperty(value = "bank")
+        private MemoryBank bank;
+
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        @JsonProperty(value = "wordPtr")
+        private Integer wordPtr;
+
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        @JsonProperty(value = "words")
+        private Integer words;
+
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        @JsonProperty(value = "password")
+        private String password;
+
+        /**
+         * @return memory read with every tag, null when no bank is configured.
+         */
+        public MemoryReadOptions toOptions() {
+            return (bank != null) ? new MemoryReadOptions(bank, wordPtr, words, password) : null;
+        }
+
+    }
+
+    @Data
+    @NoArgsConstructor
+    public static class Filter {
+
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        @JsonProperty(value = "action")
+        private TagFilter.Action action;
+
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        @JsonProperty(value = "bank")
+        private MemoryBank bank;
+
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        @JsonProperty(value = "bitPtr")
+        private Integer bitPtr;
+
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        @JsonProperty(value = "mask")
+        private String mask;
+
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        @JsonProperty(value = "bitLength")
+        private Integer bitLength;
+
+        public TagFilter toFilter() {
+            return new TagFilter(action, bank, bitPtr, mask, bitLength);
+        }
+
     }
 
     @Data
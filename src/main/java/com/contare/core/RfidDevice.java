@@ -1,9 +1,15 @@
 package com.contare.core;
 
 import com.contare.core.exceptions.RfidDeviceException;
+import com.contare.core.objects.MemoryReadOptions;
 import com.contare.core.objects.Options;
+import com.contare.core.objects.TagFilter;
+import com.contare.core.objects.TagMetadata;
 
 import java.io.Closeable;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
 
 public interface RfidDevice extends Closeable {
 
@@ -15,4 +21,42 @@ public interface RfidDevice extends Closeable {
 
     boolean stop();
 
+    /**
+     * Register a listener for every tag read by this device. Listeners run on the device tag consumer thread.
+     *
+     * @param listener - tag listener
+     */
+    void addListener(final Consumer<TagMetadata> listener);
+
+    /**
+     * Run the inventory loop on a shared executor instead of a dedicated thread. Must be called before {@link #start()}.
+     * Devices whose loop is owned by the vendor SDK ignore it.
+     *
+     * @param executor - inventory executor, null for a dedicated thread
+     */
+    default void setExecutor(final Executor executor) {
+    }
+
+    /**
+     * Read a memory bank slice (e.g. the TID) with every tag, in the same inventory round as its EPC, delivered in
+     * {@link TagMetadata#getMemory()}. Must be called before {@link #start()}.
+     *
+     * @param options - bank slice, null for EPC only
+     * @return false if the device cannot read memory while inventorying.
+     */
+    default boolean setMemoryRead(final MemoryReadOptions options) {
+        return options == null;
+    }
+
+    /**
+     * Inventory only the tags passing {@code filters}, filtered by the reader (Gen2 Select) so the other tags are never
+     * reported. Must be called before {@link #start()}.
+     *
+     * @param filters - null or empty for every tag
+     * @return false if the device cannot filter while inventorying.
+     */
+    default boolean setFilters(final List<TagFilter> filters) {
+        return filters == null || filters.isEmpty();
+    }
+
 }
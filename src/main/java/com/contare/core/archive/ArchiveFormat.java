@@ -0,0 +1,287 @@
+package com.contare.core.archive;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Consumer;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Archive file layout, shared by {@link ArchiveWriter} and {@link ArchiveReader}.
+ * <pre>
+ * file   = "CTAR" version:int block*
+ * block  = length:int rawLength:int minTime:long maxTime:long rows:int deflate(body)
+ * body   = epcDict deviceDict epc* time* rssi* antenna* flags* device*
+ * epcDict    = size:varint (kind:byte length:varint bytes)*   kind 0 = hex packed to bytes, 1 = UTF-8
+ * deviceDict = size:varint (length:varint utf8)*              index 0 is a null device, entries start at 1
+ * epc        = dictionary index:varint
+ * time       = zig-zag varint of the delta to the previous row, the first one to minTime, epoch milliseconds
+ * rssi, antenna = one byte each
+ * flags      = bit 0 rssi null, bit 1 antenna null
+ * device     = dictionary index:varint
+ * </pre>
+ * Blocks are indexed by their time range, read without decoding the body, so a query skips the blocks out of its
+ * range, and an EPC query the blocks whose dictionary lacks the EPC.
+ */
+final class ArchiveFormat {
+
+    static final int MAGIC = 0x43544152; // "CTAR"
+    static final int VERSION = 1;
+    static final int FILE_HEADER_BYTES = 8;
+    static final int BLOCK_HEADER_BYTES = 28;
+
+    static final int RSSI_NULL = 1;
+    static final int ANTENNA_NULL = 2;
+
+    private ArchiveFormat() {
+    }
+
+    /**
+     * Block index entry.
+     */
+    static final class Block {
+
+        final long offset; // of the header
+        final int length;  // compressed body
+        final int rawLength;
+        final long minTime;
+        final long maxTime;
+        final int rows;
+
+        Block(final long offset, final int length, final int rawLength, final long minTime, final long maxTime, final int rows) {
+            this.offset = offset;
+            this.length = length;
+            this.rawLength = rawLength;
+            this.minTime = minTime;
+            this.maxTime = maxTime;
+            this.rows = rows;
+        }
+
+        boolean overlaps(final long from, final long to) {
+            return minTime <= to && maxTime >= from;
+        }
+
+    }
+
+    /**
+     * Check the file header and index the complete blocks.
+     *
+     * @return blocks, the end of the last one is the end of the valid data.
+     */
+    static List<Block> index(final FileChannel channel) throws IOException {
+        final List<Block> blocks = new ArrayList<>();
+        final long size = channel.size();
+        final ByteBuffer header = ByteBuffer.allocate(BLOCK_HEADER_BYTES);
+        if (size < FILE_HEADER_BYTES) {
+            return blocks;
+        }
+        readFully(channel, header.limit(FILE_HEADER_BYTES), 0);
+        if (header.getInt(0) != MAGIC) {
+            throw new IOException("Not a tag archive");
+        }
+        if (header.getInt(4) != VERSION) {
+            throw new IOException("Unsupported tag archive version " + header.getInt(4));
+        }
+        long position = FILE_HEADER_BYTES;
+        while (position + BLOCK_HEADER_BYTES <= size) {
+            header.clear();
+            readFully(channel, header, position);
+            final int length = header.getInt(0);
+            if (length < 0 || position + BLOCK_HEADER_BYTES + length > size) {
+                break; // torn block
+            }
+            blocks.add(new Block(position, length, header.getInt(4), header.getLong(8), header.getLong(16), header.getInt(24)));
+            position += BLOCK_HEADER_BYTES + length;
+        }
+        return blocks;
+    }
+
+    static long end(final List<Block> blocks) {
+        if (blocks.isEmpty()) {
+            return FILE_HEADER_BYTES;
+        }
+        final Block last = blocks.get(blocks.size() - 1);
+        return last.offset + BLOCK_HEADER_BYTES + last.length;
+    }
+
+    /**
+     * Decode the rows of a block matching the filter.
+     *
+     * @param epc - only the rows of this EPC, null for all
+     */
+    static void decode(final FileChannel channel, final Block block, final long from, final long to, final String epc, final Consumer<ArchivedRead> consumer) throws IOException {
+        final ByteBuffer compressed = ByteBuffer.allocate(block.length);
+        readFully(channel, compressed, block.offset + BLOCK_HEADER_BYTES);
+        final byte[] raw = new byte[block.rawLength];
+        final Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(compressed.array());
+            int n = 0;
+            while (n < raw.length && !inflater.finished()) {
+                final int inflated = inflater.inflate(raw, n, raw.length - n);
+                if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                n += inflated;
+            }
+            if (n != raw.length) {
+                throw new IOException("Corrupt archive block at " + block.offset);
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupt archive block at " + block.offset, e);
+        } finally {
+            inflater.end();
+        }
+
+        final ByteBuffer body = ByteBuffer.wrap(raw);
+        final int epcs = readVarint(body);
+        final String[] epcDict = new String[epcs];
+        int wanted = -1;
+        for (int i = 0; i < epcs; i++) {
+            final int kind = body.get();
+            final byte[] bytes = new byte[readVarint(body)];
+            body.get(bytes);
+            epcDict[i] = (kind == 0) ? toHex(bytes) : new String(bytes, StandardCharsets.UTF_8);
+            if (epc != null && epcDict[i].equals(epc)) {
+                wanted = i;
+            }
+        }
+        if (epc != null && wanted < 0) {
+            return; // the EPC was not read in this block
+        }
+        final int devices = readVarint(body);
+        final String[] deviceDict = new String[devices + 1];
+        for (int i = 1; i <= devices; i++) {
+            final byte[] bytes = new byte[readVarint(body)];
+            body.get(bytes);
+            deviceDict[i] = new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        // column offsets: the varint columns are decoded in step
+        final int rows = block.rows;
+        final ByteBuffer epcColumn = body.duplicate();
+        skipVarints(body, rows);
+        final ByteBuffer timeColumn = body.duplicate();
+        skipVarints(body, rows);
+        final int rssiStart = body.position();
+        final int antennaStart = rssiStart + rows;
+        final int flagsStart = antennaStart + rows;
+        final ByteBuffer deviceColumn = body.duplicate();
+        deviceColumn.position(flagsStart + rows);
+
+        long time = block.minTime;
+        for (int row = 0; row < rows; row++) {
+            final int e = readVarint(epcColumn);
+            time += unzigzag(readVarlong(timeColumn));
+            final int d = readVarint(deviceColumn);
+            if ((wanted >= 0 && e != wanted) || time < from || time > to) {
+                continue;
+            }
+            final int flags = raw[flagsStart + row];
+            final Integer rssi = ((flags & RSSI_NULL) != 0) ? null : raw[rssiStart + row] & 0xFF;
+            final Integer antenna = ((flags & ANTENNA_NULL) != 0) ? null : raw[antennaStart + row] & 0xFF;
+            consumer.accept(new ArchivedRead(epcDict[e], rssi, antenna, deviceDict[d], Instant.ofEpochMilli(time)));
+        }
+    }
+
+    static void readFully(final FileChannel channel, final ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            final int n = channel.read(buffer, position);
+            if (n < 0) {
+                throw new IOException("Unexpected end of archive at " + position);
+            }
+            position += n;
+        }
+        buffer.flip();
+    }
+
+    // --- EPC
+
+    /**
+     * @return the EPC packed to bytes, or null if it is not even length hex.
+     */
+    static byte[] parseHex(final String epc) {
+        final int chars = epc.length();
+        if ((chars & 1) != 0) {
+            return null;
+        }
+        final byte[] bytes = new byte[chars >> 1];
+        for (int i = 0; i < chars; i += 2) {
+            final int high = Character.digit(epc.charAt(i), 16);
+            final int low = Character.digit(epc.charAt(i + 1), 16);
+            if (high < 0 || low < 0) {
+                return null;
+            }
+            bytes[i >> 1] = (byte) ((high << 4) | low);
+        }
+        return bytes;
+    }
+
+    /**
+     * @return the key an EPC is stored under, upper case when hex.
+     */
+    static String normalize(final String epc) {
+        return (parseHex(epc) != null) ? epc.toUpperCase(Locale.ROOT) : epc;
+    }
+
+    private static String toHex(final byte[] bytes) {
+        final char[] chars = new char[bytes.length << 1];
+        for (int i = 0; i < bytes.length; i++) {
+            chars[i << 1] = Character.toUpperCase(Character.forDigit((bytes[i] >> 4) & 0x0F, 16));
+            chars[(i << 1) + 1] = Character.toUpperCase(Character.forDigit(bytes[i] & 0x0F, 16));
+        }
+        return new String(chars);
+    }
+
+    // --- varints
+
+    static void writeVarint(final ByteArrayOutputStream out, final long value) {
+        long v = value;
+        while ((v & ~0x7FL) != 0) {
+            out.write((int) ((v & 0x7F) | 0x80));
+            v >>>= 7;
+        }
+        out.write((int) v);
+    }
+
+    static long zigzag(final long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    static long unzigzag(final long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    static int readVarint(final ByteBuffer in) {
+        return (int) readVarlong(in);
+    }
+
+    static long readVarlong(final ByteBuffer in) {
+        long value = 0;
+        int shift = 0;
+        while (true) {
+            final byte b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+            shift += 7;
+        }
+    }
+
+    private static void skipVarints(final ByteBuffer in, final int count) {
+        for (int i = 0; i < count; i++) {
+            while (in.get() < 0) {
+                // continuation byte
+            }
+        }
+    }
+
+}
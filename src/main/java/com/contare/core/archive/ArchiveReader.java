@@ -0,0 +1,214 @@
+package com.contare.core.archive;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Time range and EPC queries over an archive written by {@link ArchiveWriter}.
+ * <p>
+ * The block index (time range and size of every block) is read on open. A query keeps the blocks overlapping its
+ * range, and splits them with fork/join down to single blocks, each one read with a positional read, inflated and
+ * decoded on its own worker. Results come back in archive order. The reader sees the blocks complete when it was opened.
+ */
+public class ArchiveReader implements Closeable {
+
+    private final FileChannel channel;
+    private final List<ArchiveFormat.Block> blocks;
+    private final ForkJoinPool pool;
+
+    public ArchiveReader(final Path file) throws IOException {
+        this(file, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param pool - pool decoding the blocks of a query
+     */
+    public ArchiveReader(final Path file, final ForkJoinPool pool) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            this.blocks = Collections.unmodifiableList(ArchiveFormat.index(channel));
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        this.pool = pool;
+    }
+
+    public int getBlocks() {
+        return blocks.size();
+    }
+
+    /**
+     * @return number of reads in the archive.
+     */
+    public long getRows() {
+        long rows = 0;
+        for (final ArchiveFormat.Block block : blocks) {
+            rows += block.rows;
+        }
+        return rows;
+    }
+
+    /**
+     * @return time of the oldest read, null if the archive is empty.
+     */
+    public Instant getFrom() {
+        long min = Long.MAX_VALUE;
+        for (final ArchiveFormat.Block block : blocks) {
+            min = Math.min(min, block.minTime);
+        }
+        return blocks.isEmpty() ? null : Instant.ofEpochMilli(min);
+    }
+
+    /**
+     * @return time of the newest read, null if the archive is empty.
+     */
+    public Instant getTo() {
+        long max = Long.MIN_VALUE;
+        for (final ArchiveFormat.Block block : blocks) {
+            max = Math.max(max, block.maxTime);
+        }
+        return blocks.isEmpty() ? null : Instant.ofEpochMilli(max);
+    }
+
+    /**
+     * @param from - first read time, inclusive, null for no lower bound
+     * @param to   - last read time, inclusive, null for no upper bound
+     * @return reads in the range.
+     */
+    public List<ArchivedRead> query(final Instant from, final Instant to) throws IOException {
+        return query(from, to, null);
+    }
+
+    /**
+     * @param from - first read time, inclusive, null for no lower bound
+     * @param to   - last read time, inclusive, null for no upper bound
+     * @param epc  - EPC as hex string, null for every tag
+     * @return reads in the range, of the EPC.
+     */
+    public List<ArchivedRead> query(final Instant from, final Instant to, final String epc) throws IOException {
+        return scan(from, to, epc, new Sink<List<ArchivedRead>>() {
+            @Override
+            public List<ArchivedRead> decode(final ArchiveFormat.Block block, final long start, final long end, final String key) throws IOException {
+                final List<ArchivedRead> result = new ArrayList<>();
+                ArchiveFormat.decode(channel, block, start, end, key, result::add);
+                return result;
+            }
+
+            @Override
+            public List<ArchivedRead> merge(final List<ArchivedRead> left, final List<ArchivedRead> right) {
+                left.addAll(right);
+                return left;
+            }
+        }, Collections.emptyList());
+    }
+
+    /**
+     * @return number of reads in the range, of the EPC.
+     */
+    public long count(final Instant from, final Instant to, final String epc) throws IOException {
+        return scan(from, to, epc, new Sink<Long>() {
+            @Override
+            public Long decode(final ArchiveFormat.Block block, final long start, final long end, final String key) throws IOException {
+                if (key == null && block.minTime >= start && block.maxTime <= end) {
+                    return (long) block.rows; // whole block in range
+                }
+                final long[] count = new long[1];
+                ArchiveFormat.decode(channel, block, start, end, key, (final ArchivedRead read) -> count[0]++);
+                return count[0];
+            }
+
+            @Override
+            public Long merge(final Long left, final Long right) {
+                return left + right;
+            }
+        }, 0L);
+    }
+
+    private <R> R scan(final Instant from, final Instant to, final String epc, final Sink<R> sink, final R empty) throws IOException {
+        final long start = (from != null) ? from.toEpochMilli() : Long.MIN_VALUE;
+        final long end = (to != null) ? to.toEpochMilli() : Long.MAX_VALUE;
+        final List<ArchiveFormat.Block> selected = new ArrayList<>();
+        for (final ArchiveFormat.Block block : blocks) {
+            if (block.overlaps(start, end)) {
+                selected.add(block);
+            }
+        }
+        if (selected.isEmpty()) {
+            return empty;
+        }
+        try {
+            return pool.invoke(new Scan<>(sink, selected, 0, selected.size(), start, end, (epc != null) ? ArchiveFormat.normalize(epc) : null));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Result of one block, and how two results combine.
+     */
+    private interface Sink<R> {
+
+        R decode(ArchiveFormat.Block block, long from, long to, String epc) throws IOException;
+
+        R merge(R left, R right);
+
+    }
+
+    private static final class Scan<R> extends RecursiveTask<R> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Sink<R> sink;
+        private final List<ArchiveFormat.Block> blocks;
+        private final int lo;
+        private final int hi;
+        private final long from;
+        private final long to;
+        private final String epc;
+
+        private Scan(final Sink<R> sink, final List<ArchiveFormat.Block> blocks, final int lo, final int hi, final long from, final long to, final String epc) {
+            this.sink = sink;
+            this.blocks = blocks;
+            this.lo = lo;
+            this.hi = hi;
+            this.from = from;
+            this.to = to;
+            this.epc = epc;
+        }
+
+        @Override
+        protected R compute() {
+            if (hi - lo == 1) {
+                try {
+                    return sink.decode(blocks.get(lo), from, to, epc);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+            final int mid = (lo + hi) >>> 1;
+            final Scan<R> left = new Scan<>(sink, blocks, lo, mid, from, to, epc);
+            final Scan<R> right = new Scan<>(sink, blocks, mid, hi, from, to, epc);
+            left.fork();
+            final R second = right.compute();
+            return sink.merge(left.join(), second);
+        }
+
+    }
+
+}
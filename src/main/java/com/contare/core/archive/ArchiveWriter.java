@@ -0,0 +1,250 @@
+package com.contare.core.archive;
+
+import com.contare.core.objects.TagMetadata;
+import org.jboss.logging.Logger;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.zip.Deflater;
+
+/**
+ * Appends reads to a columnar archive file, see {@link ArchiveFormat} for the layout.
+ * <p>
+ * Reads are buffered in columns and written as one compressed block every {@code blockRows} reads, on {@link #flush()}
+ * and on {@link #close()}. An existing archive is appended to, after its last complete block. Reads buffered when the
+ * process dies are lost, the {@link com.contare.core.journal.ReadJournal} covers them.
+ * <p>
+ * Methods are synchronized, it can listen to the merged stream of a fleet.
+ */
+public class ArchiveWriter implements Consumer<TagMetadata>, Closeable {
+
+    private static final Logger logger = Logger.getLogger(ArchiveWriter.class);
+
+    public static final int DEFAULT_BLOCK_ROWS = 65_536;
+
+    private final Path file;
+    private final FileChannel channel;
+    private final int blockRows;
+    private long position;
+    private long blocks = 0;
+
+    // current block
+    private final Map<String, Integer> epcs = new HashMap<>();
+    private final List<String> epcDict = new ArrayList<>();
+    private final Map<String, Integer> devices = new HashMap<>();
+    private final List<String> deviceDict = new ArrayList<>();
+    private final int[] epcColumn;
+    private final long[] timeColumn;
+    private final byte[] rssiColumn;
+    private final byte[] antennaColumn;
+    private final byte[] flagsColumn;
+    private final int[] deviceColumn;
+    private int rows = 0;
+
+    public ArchiveWriter(final Path file) throws IOException {
+        this(file, DEFAULT_BLOCK_ROWS);
+    }
+
+    /**
+     * @param file      - archive file, created if missing
+     * @param blockRows - reads per block, bigger blocks compress better and are skipped by time less often
+     */
+    public ArchiveWriter(final Path file, final int blockRows) throws IOException {
+        if (blockRows <= 0) {
+            throw new IllegalArgumentException("Block rows must be > 0, but received " + blockRows);
+        }
+        this.file = file;
+        this.blockRows = blockRows;
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        if (channel.size() == 0) {
+            final ByteBuffer header = ByteBuffer.allocate(ArchiveFormat.FILE_HEADER_BYTES);
+            header.putInt(ArchiveFormat.MAGIC).putInt(ArchiveFormat.VERSION).flip();
+            write(header, 0);
+            position = ArchiveFormat.FILE_HEADER_BYTES;
+        } else {
+            final List<ArchiveFormat.Block> existing = ArchiveFormat.index(channel);
+            position = ArchiveFormat.end(existing);
+            blocks = existing.size();
+            if (position < channel.size()) {
+                logger.warnf("Archive %s: dropping %d bytes of a torn block", file, channel.size() - position);
+                channel.truncate(position);
+            }
+        }
+        this.epcColumn = new int[blockRows];
+        this.timeColumn = new long[blockRows];
+        this.rssiColumn = new byte[blockRows];
+        this.antennaColumn = new byte[blockRows];
+        this.flagsColumn = new byte[blockRows];
+        this.deviceColumn = new int[blockRows];
+    }
+
+    /**
+     * @return number of blocks written.
+     */
+    public synchronized long getBlocks() {
+        return blocks;
+    }
+
+    @Override
+    public void accept(final TagMetadata tag) {
+        final Instant readtime = tag.getReadtime();
+        append(tag.getEpc(), tag.getRssi(), tag.getAntenna(), tag.getDevice(), (readtime != null) ? readtime.toEpochMilli() : System.currentTimeMillis());
+    }
+
+    /**
+     * @param epc         - EPC as hex string
+     * @param rssi        - RSSI, 0 to 255, may be null
+     * @param antenna     - antenna, 0 to 255, may be null
+     * @param device      - device, may be null
+     * @param epochMillis - read time
+     */
+    public synchronized void append(final String epc, final Integer rssi, final Integer antenna, final String device, final long epochMillis) {
+        if (epc == null) {
+            return;
+        }
+        epcColumn[rows] = epcs.computeIfAbsent(ArchiveFormat.normalize(epc), (final String key) -> {
+            epcDict.add(key);
+            return epcDict.size() - 1;
+        });
+        deviceColumn[rows] = (device == null) ? 0 : devices.computeIfAbsent(device, (final String key) -> {
+            deviceDict.add(key);
+            return deviceDict.size(); // 0 is null
+        });
+        timeColumn[rows] = epochMillis;
+        int flags = 0;
+        if (rssi != null) {
+            rssiColumn[rows] = (byte) (int) rssi;
+        } else {
+            rssiColumn[rows] = 0;
+            flags |= ArchiveFormat.RSSI_NULL;
+        }
+        if (antenna != null) {
+            antennaColumn[rows] = (byte) (int) antenna;
+        } else {
+            antennaColumn[rows] = 0;
+            flags |= ArchiveFormat.ANTENNA_NULL;
+        }
+        flagsColumn[rows] = (byte) flags;
+        rows++;
+        if (rows == blockRows) {
+            try {
+                flush();
+            } catch (IOException e) {
+                throw new IllegalStateException("Failed to write archive block to " + file, e);
+            }
+        }
+    }
+
+    /**
+     * Write the buffered reads as a block.
+     */
+    public synchronized void flush() throws IOException {
+        if (rows == 0) {
+            return;
+        }
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+        for (int i = 0; i < rows; i++) {
+            min = Math.min(min, timeColumn[i]);
+            max = Math.max(max, timeColumn[i]);
+        }
+
+        final ByteArrayOutputStream body = new ByteArrayOutputStream(rows * 8);
+        ArchiveFormat.writeVarint(body, epcDict.size());
+        for (final String epc : epcDict) {
+            final byte[] packed = ArchiveFormat.parseHex(epc);
+            final byte[] bytes = (packed != null) ? packed : epc.getBytes(StandardCharsets.UTF_8);
+            body.write((packed != null) ? 0 : 1);
+            ArchiveFormat.writeVarint(body, bytes.length);
+            body.write(bytes, 0, bytes.length);
+        }
+        ArchiveFormat.writeVarint(body, deviceDict.size());
+        for (final String device : deviceDict) {
+            final byte[] bytes = device.getBytes(StandardCharsets.UTF_8);
+            ArchiveFormat.writeVarint(body, bytes.length);
+            body.write(bytes, 0, bytes.length);
+        }
+        for (int i = 0; i < rows; i++) {
+            ArchiveFormat.writeVarint(body, epcColumn[i]);
+        }
+        long previous = min;
+        for (int i = 0; i < rows; i++) {
+            ArchiveFormat.writeVarint(body, ArchiveFormat.zigzag(timeColumn[i] - previous));
+            previous = timeColumn[i];
+        }
+        body.write(rssiColumn, 0, rows);
+        body.write(antennaColumn, 0, rows);
+        body.write(flagsColumn, 0, rows);
+        for (int i = 0; i < rows; i++) {
+            ArchiveFormat.writeVarint(body, deviceColumn[i]);
+        }
+
+        final byte[] raw = body.toByteArray();
+        final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        final byte[] compressed;
+        try {
+            deflater.setInput(raw);
+            deflater.finish();
+            final ByteArrayOutputStream out = new ByteArrayOutputStream(raw.length / 4 + 64);
+            final byte[] chunk = new byte[8192];
+            while (!deflater.finished()) {
+                final int n = deflater.deflate(chunk);
+                out.write(chunk, 0, n);
+            }
+            compressed = out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+
+        final ByteBuffer block = ByteBuffer.allocate(ArchiveFormat.BLOCK_HEADER_BYTES + compressed.length);
+        block.putInt(compressed.length).putInt(raw.length).putLong(min).putLong(max).putInt(rows).put(compressed).flip();
+        write(block, position);
+        position += block.limit();
+        blocks++;
+        logger.debugf("Archive %s: block of %d reads, %d EPCs, %d bytes", file, rows, epcDict.size(), compressed.length);
+
+        epcs.clear();
+        epcDict.clear();
+        devices.clear();
+        deviceDict.clear();
+        Arrays.fill(deviceColumn, 0, rows, 0);
+        rows = 0;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (!channel.isOpen()) {
+            return;
+        }
+        try {
+            flush();
+            channel.force(true);
+        } finally {
+            channel.close();
+        }
+    }
+
+    private void write(final ByteBuffer buffer, long at) throws IOException {
+        while (buffer.hasRemaining()) {
+            at += channel.write(buffer, at);
+        }
+    }
+
+}
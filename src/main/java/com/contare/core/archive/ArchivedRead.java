@@ -0,0 +1,21 @@
+package com.contare.core.archive;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.Instant;
+
+/**
+ * One read of an archive, the {@link com.contare.core.objects.TagMetadata} fields it keeps.
+ */
+@Data
+@AllArgsConstructor
+public class ArchivedRead {
+
+    private final String epc;
+    private final Integer rssi;    // null if not reported
+    private final Integer antenna; // null if not reported
+    private final String device;
+    private final Instant readtime; // millisecond precision
+
+}
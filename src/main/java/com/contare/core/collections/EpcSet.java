@@ -0,0 +1,384 @@
+package com.contare.core.collections;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Concurrent set of EPCs used to deduplicate tag reads.
+ * <p>
+ * EPCs of up to 128 bits (the 96-bit EPCs we tag shelves with, and 128-bit ones) are packed into two longs and kept in
+ * an open addressing table with linear probing, so a tag costs ~24 bytes instead of a hex {@link String} inside a
+ * {@link java.util.HashMap.Node}. Longer or malformed EPCs go to a {@link ConcurrentHashMap} backed overflow set.
+ * <p>
+ * Concurrency:
+ * - {@link #add} is lock-free: a slot is claimed with a CAS on its state, filled, then published with a volatile write.
+ * Entries are never removed, so two threads adding the same EPC always meet at the same slot.
+ * - Growing the table migrates every slot to a new table, marking old slots as moved. Writers reaching a moved slot
+ * wait for the new table to be published, so size the set up front ({@link #EpcSet(int)}) to keep resizes off the
+ * reader thread.
+ * - {@link #snapshot()} returns a copy containing at least every EPC whose {@code add} completed before the call.
+ * - {@link #clear()} swaps in an empty table; adds racing with it may land in the discarded table.
+ */
+public class EpcSet {
+
+    private static final int MAX_PACKED_BYTES = 16;
+    private static final int DEFAULT_EXPECTED_SIZE = 1024;
+    private static final float LOAD_FACTOR = 0.75f;
+
+    // slot states, published slots hold (length + 1)
+    private static final int EMPTY = 0;
+    private static final int CLAIMING = -1;
+    private static final int MOVED = -2;
+
+    private static final int ADDED = 0;
+    private static final int PRESENT = 1;
+    private static final int RETRY = 2;
+
+    private static final char[] HEX = "0123456789ABCDEF".toCharArray();
+    static final byte[] DIGITS = new byte[128]; // hex digit values, -1 if not a digit
+
+    static {
+        Arrays.fill(DIGITS, (byte) -1);
+        for (int i = 0; i < 16; i++) {
+            DIGITS[HEX[i]] = (byte) i;
+            DIGITS[Character.toLowerCase(HEX[i])] = (byte) i;
+        }
+    }
+
+    private final int initialCapacity;
+    private final AtomicBoolean resizing = new AtomicBoolean(false);
+    private final Set<String> overflow = ConcurrentHashMap.newKeySet();
+    private volatile Table table;
+
+    public EpcSet() {
+        this(DEFAULT_EXPECTED_SIZE);
+    }
+
+    /**
+     * @param expectedSize - number of distinct EPCs expected, the table will not grow before reaching it.
+     */
+    public EpcSet(final int expectedSize) {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("Expected size must be >= 0, but received " + expectedSize);
+        }
+        this.initialCapacity = capacityFor(expectedSize);
+        this.table = new Table(initialCapacity);
+    }
+
+    /**
+     * @param epc - EPC bytes
+     * @return true if the EPC was not in the set.
+     */
+    public boolean add(final byte[] epc) {
+        return add(epc, 0, epc.length);
+    }
+
+    /**
+     * @param src    - buffer holding the EPC, e.g. an inventory {@code pOUcharIDList}
+     * @param offset - first EPC byte
+     * @param length - EPC length in bytes
+     * @return true if the EPC was not in the set.
+     */
+    public boolean add(final byte[] src, final int offset, final int length) {
+        if (length > MAX_PACKED_BYTES) {
+            return overflow.add(toHex(src, offset, length));
+        }
+        return add(pack(src, offset, Math.min(length, 8)), pack(src, offset + 8, length - 8), length);
+    }
+
+    /**
+     * @param epc - EPC as hex string, as reported by the SDK
+     * @return true if the EPC was not in the set.
+     */
+    public boolean add(final String epc) {
+        return hex(epc, true);
+    }
+
+    public boolean contains(final byte[] epc) {
+        if (epc.length > MAX_PACKED_BYTES) {
+            return overflow.contains(toHex(epc, 0, epc.length));
+        }
+        return contains(pack(epc, 0, Math.min(epc.length, 8)), pack(epc, 8, epc.length - 8), epc.length);
+    }
+
+    public boolean contains(final String epc) {
+        return hex(epc, false);
+    }
+
+    public int size() {
+        return table.count.get() + overflow.size();
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Remove every EPC.
+     */
+    public void clear() {
+        awaitResize();
+        table = new Table(initialCapacity);
+        overflow.clear();
+    }
+
+    /**
+     * @return unmodifiable copy of the set, EPCs as upper case hex strings.
+     */
+    public Set<String> snapshot() {
+        final Set<String> result = new HashSet<>(size() * 2);
+        Table t = table;
+        while (true) {
+            boolean moved = false;
+            final long[] keys = t.keys;
+            for (int i = 0; i <= t.mask; i++) {
+                final int state = t.states.get(i);
+                if (state > 0) {
+                    result.add(toHex(keys[i << 1], keys[(i << 1) + 1], state - 1));
+                } else if (state == MOVED) {
+                    moved = true;
+                    break;
+                }
+            }
+            if (!moved) {
+                break;
+            }
+            t = awaitNext(t);
+        }
+        result.addAll(overflow);
+        return Collections.unmodifiableSet(result);
+    }
+
+    // --- table
+
+    private boolean add(final long hi, final long lo, final int length) {
+        while (true) {
+            final Table t = table;
+            final int result = t.insert(hi, lo, length);
+            if (result == RETRY) {
+                awaitNext(t);
+                continue;
+            }
+            if (result == ADDED && t.count.get() > t.threshold) {
+                resize(t);
+            }
+            return result == ADDED;
+        }
+    }
+
+    private boolean contains(final long hi, final long lo, final int length) {
+        while (true) {
+            final Table t = table;
+            final int result = t.find(hi, lo, length);
+            if (result == RETRY) {
+                awaitNext(t);
+                continue;
+            }
+            return result == PRESENT;
+        }
+    }
+
+    private void resize(final Table current) {
+        if (!resizing.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            if (table != current) {
+                return;
+            }
+            final Table next = new Table((current.mask + 1) << 1);
+            final long[] keys = current.keys;
+            for (int i = 0; i <= current.mask; i++) {
+                while (true) {
+                    final int state = current.states.get(i);
+                    if (state == EMPTY) {
+                        if (current.states.compareAndSet(i, EMPTY, MOVED)) {
+                            break;
+                        }
+                    } else if (state == CLAIMING) {
+                        Thread.onSpinWait();
+                    } else {
+                        next.insert(keys[i << 1], keys[(i << 1) + 1], state - 1);
+                        current.states.set(i, MOVED);
+                        break;
+                    }
+                }
+            }
+            table = next;
+        } finally {
+            resizing.set(false);
+        }
+    }
+
+    private Table awaitNext(final Table current) {
+        Table t;
+        while ((t = table) == current) {
+            Thread.yield();
+        }
+        return t;
+    }
+
+    private void awaitResize() {
+        while (resizing.get()) {
+            Thread.yield();
+        }
+    }
+
+    private static final class Table {
+
+        private final long[] keys; // hi, lo per slot
+        private final AtomicIntegerArray states;
+        private final AtomicInteger count = new AtomicInteger();
+        private final int mask;
+        private final int threshold;
+
+        private Table(final int capacity) {
+            this.keys = new long[capacity << 1];
+            this.states = new AtomicIntegerArray(capacity);
+            this.mask = capacity - 1;
+            this.threshold = (int) (capacity * LOAD_FACTOR);
+        }
+
+        private int insert(final long hi, final long lo, final int length) {
+            final int published = length + 1;
+            int index = hash(hi, lo, length) & mask;
+            for (int probes = 0; probes <= mask; probes++) {
+                int state = states.get(index);
+                if (state == EMPTY) {
+                    if (states.compareAndSet(index, EMPTY, CLAIMING)) {
+                        keys[index << 1] = hi;
+                        keys[(index << 1) + 1] = lo;
+                        states.set(index, published);
+                        count.incrementAndGet();
+                        return ADDED;
+                    }
+                    state = states.get(index);
+                }
+                while (state == CLAIMING) {
+                    Thread.onSpinWait();
+                    state = states.get(index);
+                }
+                if (state == MOVED) {
+                    return RETRY;
+                }
+                if (state == published && keys[index << 1] == hi && keys[(index << 1) + 1] == lo) {
+                    return PRESENT;
+                }
+                index = (index + 1) & mask;
+            }
+            return RETRY; // full, a resize is pending
+        }
+
+        private int find(final long hi, final long lo, final int length) {
+            final int published = length + 1;
+            int index = hash(hi, lo, length) & mask;
+            for (int probes = 0; probes <= mask; probes++) {
+                int state = states.get(index);
+                while (state == CLAIMING) {
+                    Thread.onSpinWait();
+                    state = states.get(index);
+                }
+                if (state == EMPTY) {
+                    return ADDED; // absent
+                }
+                if (state == MOVED) {
+                    return RETRY;
+                }
+                if (state == published && keys[index << 1] == hi && keys[(index << 1) + 1] == lo) {
+                    return PRESENT;
+                }
+                index = (index + 1) & mask;
+            }
+            return ADDED;
+        }
+
+    }
+
+    // --- packing
+
+    private static int capacityFor(final int expectedSize) {
+        final int needed = (int) Math.ceil(Math.max(expectedSize, 1) / LOAD_FACTOR) + 1;
+        return Integer.highestOneBit(needed - 1) << 1;
+    }
+
+    static int hash(final long hi, final long lo, final int length) {
+        long h = hi * 0x9E3779B97F4A7C15L ^ lo ^ length;
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return (int) h;
+    }
+
+    static long pack(final byte[] src, final int offset, final int length) {
+        long value = 0;
+        for (int i = 0; i < length; i++) {
+            value = (value << 8) | (src[offset + i] & 0xFF);
+        }
+        return value;
+    }
+
+    /**
+     * Pack a hex EPC in a single pass, falling back to the overflow set for odd, long or non-hex strings.
+     */
+    private boolean hex(final String epc, final boolean add) {
+        final int chars = epc.length();
+        if ((chars & 1) == 0 && chars <= MAX_PACKED_BYTES * 2) {
+            long hi = 0;
+            long lo = 0;
+            int i = 0;
+            for (; i < chars; i++) {
+                final char c = epc.charAt(i);
+                final int digit = (c < DIGITS.length) ? DIGITS[c] : -1;
+                if (digit < 0) {
+                    break;
+                }
+                if (i < 16) {
+                    hi = (hi << 4) | digit;
+                } else {
+                    lo = (lo << 4) | digit;
+                }
+            }
+            if (i == chars) {
+                final int length = chars >> 1;
+                return add ? add(hi, lo, length) : contains(hi, lo, length);
+            }
+        }
+        final String key = epc.toUpperCase(Locale.ROOT);
+        return add ? overflow.add(key) : overflow.contains(key);
+    }
+
+    static String toHex(final long hi, final long lo, final int length) {
+        final char[] chars = new char[length << 1];
+        for (int i = 0; i < length; i++) {
+            final int b;
+            if (i < 8) {
+                b = (int) (hi >>> ((Math.min(length, 8) - 1 - i) << 3)) & 0xFF;
+            } else {
+                b = (int) (lo >>> ((length - 1 - i) << 3)) & 0xFF;
+            }
+            chars[i << 1] = HEX[b >>> 4];
+            chars[(i << 1) + 1] = HEX[b & 0x0F];
+        }
+        return new String(chars);
+    }
+
+    private static String toHex(final byte[] src, final int offset, final int length) {
+        final char[] chars = new char[length << 1];
+        for (int i = 0; i < length; i++) {
+            final int b = src[offset + i] & 0xFF;
+            chars[i << 1] = HEX[b >>> 4];
+            chars[(i << 1) + 1] = HEX[b & 0x0F];
+        }
+        return new String(chars);
+    }
+
+}
@@ -0,0 +1,492 @@
+package com.contare.core.collections;
+
+import com.contare.core.objects.TagMetadata;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Per tag read statistics: read count, first and last seen, and per antenna read count and min / max / moving average
+ * RSSI.
+ * <p>
+ * Tags get a dense id on their first read, and every statistic is a column (a primitive array) indexed by the id, or by
+ * {@code id * antennas + antenna - 1} for the per antenna ones, so 100k tags on 4 antennas take ~10 MB and no object per
+ * tag. EPCs of up to 128 bits are packed into two longs like in {@link EpcSet} and found through an open addressing
+ * index of ids; longer or malformed EPCs go to a map. Recording a read allocates nothing, except when the columns grow,
+ * so size the store up front.
+ * <p>
+ * Methods are synchronized: the store is fed by one consumer thread and queried from others.
+ */
+public class TagStats implements Consumer<TagMetadata> {
+
+    public static final int UNKNOWN = -1; // rssi or antenna not reported
+
+    private static final double ALPHA = 0.2; // weight of the last read in the RSSI average
+    private static final float LOAD_FACTOR = 0.5f;
+    private static final byte OVERFLOW = -1;
+
+    private final int antennas;
+    private final int initialCapacity;
+
+    // index, slot -> id + 1, 0 if empty
+    private int[] slots;
+    private int mask;
+    private final Map<String, Integer> overflow = new HashMap<>();
+    private final Map<Integer, String> overflowEpcs = new HashMap<>();
+
+    // per tag columns
+    private int size = 0;
+    private long[] hi;
+    private long[] lo;
+    private byte[] lengths;
+    private long[] reads;
+    private long[] firstSeen;
+    private long[] lastSeen;
+
+    // per tag and antenna columns
+    private int[] antennaReads;
+    private short[] minRssi;
+    private short[] maxRssi;
+    private float[] avgRssi;
+
+    /**
+     * @param expectedSize - number of distinct tags expected, the columns will not grow before reaching it
+     * @param antennas     - number of antenna ports, reads of other antennas only count per tag
+     */
+    public TagStats(final int expectedSize, final int antennas) {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("Expected size must be >= 0, but received " + expectedSize);
+        }
+        if (antennas <= 0) {
+            throw new IllegalArgumentException("Antennas must be > 0, but received " + antennas);
+        }
+        this.antennas = antennas;
+        this.initialCapacity = Math.max(expectedSize, 16);
+        allocate(initialCapacity);
+    }
+
+    public int getAntennas() {
+        return antennas;
+    }
+
+    /**
+     * Record a read, at its read time.
+     */
+    @Override
+    public void accept(final TagMetadata tag) {
+        final Instant readtime = tag.getReadtime();
+        record(tag.getEpc(),
+            (tag.getAntenna() != null) ? tag.getAntenna() : UNKNOWN,
+            (tag.getRssi() != null) ? tag.getRssi() : UNKNOWN,
+            (readtime != null) ? readtime.toEpochMilli() : System.currentTimeMillis());
+    }
+
+    /**
+     * @param epc     - EPC as hex string, as reported by the SDK
+     * @param antenna - antenna, starting at 1, or {@link #UNKNOWN}
+     * @param rssi    - RSSI of the read, or {@link #UNKNOWN}
+     * @param nowMs   - read time, epoch milliseconds
+     * @return tag id.
+     */
+    public synchronized int record(final String epc, final int antenna, final int rssi, final long nowMs) {
+        return update(hex(epc, true), antenna, rssi, nowMs);
+    }
+
+    /**
+     * @param src     - buffer holding the EPC, e.g. an inventory {@code pOUcharIDList}
+     * @param offset  - first EPC byte
+     * @param length  - EPC length in bytes
+     * @param antenna - antenna, starting at 1, or {@link #UNKNOWN}
+     * @param rssi    - RSSI of the read, or {@link #UNKNOWN}
+     * @param nowMs   - read time, epoch milliseconds
+     * @return tag id.
+     */
+    public synchronized int record(final byte[] src, final int offset, final int length, final int antenna, final int rssi, final long nowMs) {
+        if (length > 16) {
+            final StringBuilder sb = new StringBuilder(length << 1);
+            for (int i = 0; i < length; i++) {
+                sb.append(Character.toUpperCase(Character.forDigit((src[offset + i] >> 4) & 0x0F, 16)));
+                sb.append(Character.toUpperCase(Character.forDigit(src[offset + i] & 0x0F, 16)));
+            }
+            return update(overflowId(sb.toString()), antenna, rssi, nowMs);
+        }
+        return update(id(EpcSet.pack(src, offset, Math.min(length, 8)), EpcSet.pack(src, offset + 8, length - 8), length), antenna, rssi, nowMs);
+    }
+
+    /**
+     * @return id of the tag, or -1 if never read.
+     */
+    public synchronized int find(final String epc) {
+        return hex(epc, false);
+    }
+
+    /**
+     * @return number of tags, ids go from 0 to size - 1.
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * @return EPC of the tag, as upper case hex string.
+     */
+    public synchronized String getEpc(final int id) {
+        check(id);
+        if (lengths[id] == OVERFLOW) {
+            return overflowEpcs.get(id);
+        }
+        return EpcSet.toHex(hi[id], lo[id], lengths[id]);
+    }
+
+    public synchronized long getReads(final int id) {
+        check(id);
+        return reads[id];
+    }
+
+    /**
+     * @return time of the first read, epoch milliseconds.
+     */
+    public synchronized long getFirstSeen(final int id) {
+        check(id);
+        return firstSeen[id];
+    }
+
+    /**
+     * @return time of the last read, epoch milliseconds.
+     */
+    public synchronized long getLastSeen(final int id) {
+        check(id);
+        return lastSeen[id];
+    }
+
+    /**
+     * @param antenna - antenna, starting at 1
+     */
+    public synchronized int getReads(final int id, final int antenna) {
+        return antennaReads[cell(id, antenna)];
+    }
+
+    /**
+     * @param antenna - antenna, starting at 1
+     * @return lowest RSSI read by the antenna, {@link #UNKNOWN} if none.
+     */
+    public synchronized int getMinRssi(final int id, final int antenna) {
+        return minRssi[cell(id, antenna)];
+    }
+
+    /**
+     * @param antenna - antenna, starting at 1
+     * @return highest RSSI read by the antenna, {@link #UNKNOWN} if none.
+     */
+    public synchronized int getMaxRssi(final int id, final int antenna) {
+        return maxRssi[cell(id, antenna)];
+    }
+
+    /**
+     * @param antenna - antenna, starting at 1
+     * @return moving average of the RSSI read by the antenna, NaN if none.
+     */
+    public synchronized double getRssi(final int id, final int antenna) {
+        return avgRssi[cell(id, antenna)];
+    }
+
+    /**
+     * @return antenna with the highest average RSSI, {@link #UNKNOWN} if no antenna reported one.
+     */
+    public synchronized int getBestAntenna(final int id) {
+        check(id);
+        int best = UNKNOWN;
+        float rssi = Float.NEGATIVE_INFINITY;
+        final int base = id * antennas;
+        for (int a = 0; a < antennas; a++) {
+            final float value = avgRssi[base + a];
+            if (value > rssi) { // false for NaN
+                rssi = value;
+                best = a + 1;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Rank the tags by signal quality.
+     *
+     * @param n - max number of tags
+     * @return ids of the tags with the highest average RSSI on their best antenna, best first.
+     */
+    public synchronized int[] top(final int n) {
+        // min-heap of the best n so far, the weakest at the root
+        final int k = Math.min(Math.max(n, 0), size);
+        final int[] heap = new int[k];
+        final float[] keys = new float[k];
+        int count = 0;
+        for (int id = 0; id < size; id++) {
+            final float key = bestRssi(id);
+            if (Float.isNaN(key)) {
+                continue;
+            }
+            if (count < k) {
+                heap[count] = id;
+                keys[count] = key;
+                siftUp(heap, keys, count++);
+            } else if (k > 0 && key > keys[0]) {
+                heap[0] = id;
+                keys[0] = key;
+                siftDown(heap, keys, count);
+            }
+        }
+        // pop the weakest to the end
+        for (int end = count - 1; end > 0; end--) {
+            swap(heap, keys, 0, end);
+            siftDown(heap, keys, end);
+        }
+        return (count == k) ? heap : Arrays.copyOf(heap, count);
+    }
+
+    /**
+     * Forget every tag, ids start again at 0.
+     */
+    public synchronized void clear() {
+        overflow.clear();
+        overflowEpcs.clear();
+        allocate(initialCapacity);
+    }
+
+    // --- update
+
+    private int update(final int id, final int antenna, final int rssi, final long nowMs) {
+        reads[id]++;
+        if (nowMs > lastSeen[id]) {
+            lastSeen[id] = nowMs;
+        }
+        if (nowMs < firstSeen[id]) {
+            firstSeen[id] = nowMs;
+        }
+        if (antenna >= 1 && antenna <= antennas) {
+            final int cell = id * antennas + antenna - 1;
+            antennaReads[cell]++;
+            if (rssi >= 0) {
+                if (minRssi[cell] == UNKNOWN || rssi < minRssi[cell]) {
+                    minRssi[cell] = (short) rssi;
+                }
+                if (rssi > maxRssi[cell]) {
+                    maxRssi[cell] = (short) rssi;
+                }
+                final float avg = avgRssi[cell];
+                avgRssi[cell] = Float.isNaN(avg) ? rssi : (float) (ALPHA * rssi + (1 - ALPHA) * avg);
+            }
+        }
+        return id;
+    }
+
+    private float bestRssi(final int id) {
+        float best = Float.NaN;
+        final int base = id * antennas;
+        for (int a = 0; a < antennas; a++) {
+            final float value = avgRssi[base + a];
+            if (Float.isNaN(best) || value > best) {
+                best = value;
+            }
+        }
+        return best;
+    }
+
+    // --- index
+
+    private int id(final long h, final long l, final int length) {
+        final int slot = probe(h, l, length);
+        if (slots[slot] != 0) {
+            return slots[slot] - 1;
+        }
+        final int id = add((byte) length);
+        hi[id] = h;
+        lo[id] = l;
+        if (size > (slots.length * LOAD_FACTOR)) {
+            rehash(slots.length << 1);
+        } else {
+            slots[slot] = id + 1;
+        }
+        return id;
+    }
+
+    /**
+     * Pack a hex EPC in a single pass, falling back to the overflow map for odd, long or non-hex strings.
+     *
+     * @return id of the tag, -1 if absent and not added.
+     */
+    private int hex(final String epc, final boolean add) {
+        final int chars = epc.length();
+        if ((chars & 1) == 0 && chars <= 32) {
+            long h = 0;
+            long l = 0;
+            int i = 0;
+            for (; i < chars; i++) {
+                final char c = epc.charAt(i);
+                final int digit = (c < EpcSet.DIGITS.length) ? EpcSet.DIGITS[c] : -1;
+                if (digit < 0) {
+                    break;
+                }
+                if (i < 16) {
+                    h = (h << 4) | digit;
+                } else {
+                    l = (l << 4) | digit;
+                }
+            }
+            if (i == chars) {
+                return add ? id(h, l, chars >> 1) : slots[probe(h, l, chars >> 1)] - 1;
+            }
+        }
+        final String key = epc.toUpperCase(Locale.ROOT);
+        if (add) {
+            return overflowId(key);
+        }
+        final Integer id = overflow.get(key);
+        return (id != null) ? id : -1;
+    }
+
+    private int overflowId(final String epc) {
+        final Integer known = overflow.get(epc);
+        if (known != null) {
+            return known;
+        }
+        final int id = add(OVERFLOW);
+        overflow.put(epc, id);
+        overflowEpcs.put(id, epc);
+        return id;
+    }
+
+    /**
+     * @return slot of the EPC, or the empty slot it would go to.
+     */
+    private int probe(final long h, final long l, final int length) {
+        int slot = EpcSet.hash(h, l, length) & mask;
+        while (true) {
+            final int entry = slots[slot];
+            if (entry == 0) {
+                return slot;
+            }
+            final int id = entry - 1;
+            if (lengths[id] == length && hi[id] == h && lo[id] == l) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    private void rehash(final int capacity) {
+        slots = new int[capacity];
+        mask = capacity - 1;
+        for (int id = 0; id < size; id++) {
+            if (lengths[id] != OVERFLOW) {
+                slots[probe(hi[id], lo[id], lengths[id])] = id + 1;
+            }
+        }
+    }
+
+    // --- columns
+
+    private void allocate(final int capacity) {
+        size = 0;
+        hi = new long[capacity];
+        lo = new long[capacity];
+        lengths = new byte[capacity];
+        reads = new long[capacity];
+        firstSeen = new long[capacity];
+        lastSeen = new long[capacity];
+        antennaReads = new int[capacity * antennas];
+        minRssi = new short[capacity * antennas];
+        maxRssi = new short[capacity * antennas];
+        avgRssi = new float[capacity * antennas];
+        Arrays.fill(minRssi, (short) UNKNOWN);
+        Arrays.fill(maxRssi, (short) UNKNOWN);
+        Arrays.fill(avgRssi, Float.NaN);
+        rehash(Integer.highestOneBit((int) (capacity / LOAD_FACTOR) - 1) << 1);
+    }
+
+    private int add(final byte length) {
+        if (size == hi.length) {
+            grow(hi.length << 1);
+        }
+        final int id = size++;
+        lengths[id] = length;
+        reads[id] = 0;
+        firstSeen[id] = Long.MAX_VALUE;
+        lastSeen[id] = Long.MIN_VALUE;
+        return id;
+    }
+
+    private void grow(final int capacity) {
+        final int previous = hi.length * antennas;
+        hi = Arrays.copyOf(hi, capacity);
+        lo = Arrays.copyOf(lo, capacity);
+        lengths = Arrays.copyOf(lengths, capacity);
+        reads = Arrays.copyOf(reads, capacity);
+        firstSeen = Arrays.copyOf(firstSeen, capacity);
+        lastSeen = Arrays.copyOf(lastSeen, capacity);
+        antennaReads = Arrays.copyOf(antennaReads, capacity * antennas);
+        minRssi = Arrays.copyOf(minRssi, capacity * antennas);
+        maxRssi = Arrays.copyOf(maxRssi, capacity * antennas);
+        avgRssi = Arrays.copyOf(avgRssi, capacity * antennas);
+        Arrays.fill(minRssi, previous, minRssi.length, (short) UNKNOWN);
+        Arrays.fill(maxRssi, previous, maxRssi.length, (short) UNKNOWN);
+        Arrays.fill(avgRssi, previous, avgRssi.length, Float.NaN);
+    }
+
+    private void check(final int id) {
+        if (id < 0 || id >= size) {
+            throw new IndexOutOfBoundsException("Tag id " + id + " out of [0, " + size + ")");
+        }
+    }
+
+    private int cell(final int id, final int antenna) {
+        check(id);
+        if (antenna < 1 || antenna > antennas) {
+            throw new IndexOutOfBoundsException("Antenna " + antenna + " out of [1, " + antennas + "]");
+        }
+        return id * antennas + antenna - 1;
+    }
+
+    // --- heap
+
+    private static void siftUp(final int[] heap, final float[] keys, int i) {
+        while (i > 0) {
+            final int parent = (i - 1) >>> 1;
+            if (keys[parent] <= keys[i]) {
+                break;
+            }
+            swap(heap, keys, parent, i);
+            i = parent;
+        }
+    }
+
+    private static void siftDown(final int[] heap, final float[] keys, final int count) {
+        int i = 0;
+        while (true) {
+            final int left = (i << 1) + 1;
+            if (left >= count) {
+                break;
+            }
+            final int right = left + 1;
+            final int child = (right < count && keys[right] < keys[left]) ? right : left;
+            if (keys[i] <= keys[child]) {
+                break;
+            }
+            swap(heap, keys, i, child);
+            i = child;
+        }
+    }
+
+    private static void swap(final int[] heap, final float[] keys, final int a, final int b) {
+        final int id = heap[a];
+        heap[a] = heap[b];
+        heap[b] = id;
+        final float key = keys[a];
+        keys[a] = keys[b];
+        keys[b] = key;
+    }
+
+}
@@ -0,0 +1,23 @@
+package com.contare.core.fleet;
+
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Sizing of the thread pools shared by every reader of a {@link ReaderFleet}.
+ */
+@Getter
+@ToString
+public class FleetOptions {
+
+    public static final FleetOptions DEFAULT = new FleetOptions(null, null);
+
+    public final int threads;      // inventory pool, readers take turns when there are more readers than threads
+    public final int setupThreads; // connect / configure / start pool
+
+    public FleetOptions(final Integer threads, final Integer setupThreads) {
+        this.threads = (threads != null && threads > 0) ? threads : Math.max(2, Runtime.getRuntime().availableProcessors());
+        this.setupThreads = (setupThreads != null && setupThreads > 0) ? setupThreads : 8;
+    }
+
+}
@@ -0,0 +1,312 @@
+package com.contare.core.fleet;
+
+import com.contare.core.RfidDevice;
+import com.contare.core.exceptions.RfidDeviceException;
+import com.contare.core.objects.Options;
+import com.contare.core.objects.TagMetadata;
+import org.jboss.logging.Logger;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Runs many readers from one process.
+ * <p>
+ * - Setup: members are initialized, connected, configured and started in parallel on a bounded pool, so a fleet of
+ * readers comes up in roughly the time of the slowest one instead of the sum of all of them.
+ * - Inventory: devices supporting {@link RfidDevice#setExecutor} run their inventory loop on one bounded pool shared by
+ * the fleet, one antenna sweep per task, instead of a thread per reader.
+ * - Isolation: a member failing to connect, configure or start is marked {@link State#FAILED} and logged, the other
+ * members are not affected. {@link #restart(String)} retries a single member.
+ * - Tags: listeners registered with {@link #addListener} receive the tags of every member as one merged stream. They
+ * are called from the consumer threads of every device, so they must be thread-safe.
+ */
+public class ReaderFleet<D extends RfidDevice> implements Closeable {
+
+    private static final Logger logger = Logger.getLogger(ReaderFleet.class);
+
+    public enum State {
+        NEW,
+        CONNECTING,
+        CONFIGURING,
+        RUNNING,
+        FAILED,
+        STOPPED
+    }
+
+    /**
+     * Configuration applied to a member after it connects and before its inventory loop starts.
+     */
+    @FunctionalInterface
+    public interface Setup<D> {
+
+        void apply(final D device) throws Exception;
+
+    }
+
+    private final FleetOptions options;
+    private final ExecutorService setup;
+    private final ExecutorService inventory;
+    private final List<Member<D>> members = new CopyOnWriteArrayList<>();
+    private final List<Consumer<TagMetadata>> listeners = new CopyOnWriteArrayList<>();
+    private final LongAdder tags = new LongAdder();
+
+    public ReaderFleet(final FleetOptions options) {
+        this.options = (options != null) ? options : FleetOptions.DEFAULT;
+        this.setup = Executors.newFixedThreadPool(this.options.setupThreads, threads("fleet-setup"));
+        this.inventory = Executors.newFixedThreadPool(this.options.threads, threads("fleet-inventory"));
+    }
+
+    public FleetOptions getOptions() {
+        return options;
+    }
+
+    /**
+     * Add a reader. Members must be added before {@link #start()}.
+     *
+     * @param name   - unique member name, used in logs and by {@link #restart(String)}
+     * @param opts   - device options
+     * @param device - device, not initialized yet
+     * @param setup  - configuration applied once connected, may be null
+     */
+    public Member<D> add(final String name, final Options opts, final D device, final Setup<? super D> setup) {
+        Objects.requireNonNull(name, "name must not be null.");
+        if (find(name) != null) {
+            throw new IllegalArgumentException("Duplicate fleet member " + name);
+        }
+        final Member<D> member = new Member<>(name, opts, device, setup);
+        device.addListener((final TagMetadata tag) -> {
+            tags.increment();
+            member.tags.increment();
+            for (final Consumer<TagMetadata> listener : listeners) {
+                try {
+                    listener.accept(tag);
+                } catch (RuntimeException e) {
+                    logger.errorf(e, "Fleet listener failed on %s from %s", tag, member.name);
+                }
+            }
+        });
+        members.add(member);
+        return member;
+    }
+
+    /**
+     * Register a listener for the merged tag stream of every member.
+     *
+     * @param listener - tag listener, must be thread-safe
+     */
+    public void addListener(final Consumer<TagMetadata> listener) {
+        listeners.add(listener);
+    }
+
+    public List<Member<D>> getMembers() {
+        return new ArrayList<>(members);
+    }
+
+    public List<Member<D>> getMembers(final State state) {
+        final List<Member<D>> result = new ArrayList<>();
+        for (final Member<D> member : members) {
+            if (member.state == state) {
+                result.add(member);
+            }
+        }
+        return result;
+    }
+
+    public Member<D> find(final String name) {
+        for (final Member<D> member : members) {
+            if (member.name.equals(name)) {
+                return member;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return number of tags received from every member.
+     */
+    public long getTags() {
+        return tags.sum();
+    }
+
+    /**
+     * Connect, configure and start every member in parallel.
+     *
+     * @return future completed once every member is either running or failed, it never completes exceptionally.
+     */
+    public CompletableFuture<Void> start() {
+        final List<CompletableFuture<Member<D>>> futures = new ArrayList<>(members.size());
+        for (final Member<D> member : members) {
+            futures.add(launch(member));
+        }
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).thenRun(() -> {
+            logger.infof("Fleet started: %d running, %d failed", getMembers(State.RUNNING).size(), getMembers(State.FAILED).size());
+        });
+    }
+
+    /**
+     * Close and start a single member again, e.g. after it failed.
+     *
+     * @param name - member name
+     */
+    public CompletableFuture<Member<D>> restart(final String name) {
+        final Member<D> member = find(name);
+        if (member == null) {
+            throw new IllegalArgumentException("Unknown fleet member " + name);
+        }
+        return CompletableFuture.runAsync(() -> close(member), setup).thenCompose((final Void ignored) -> launch(member));
+    }
+
+    /**
+     * Stop the inventory loop of every running member.
+     */
+    public void stop() {
+        for (final Member<D> member : members) {
+            if (member.state == State.RUNNING) {
+                try {
+                    member.device.stop();
+                } catch (RuntimeException e) {
+                    logger.errorf(e, "Failed to stop reader %s", member.name);
+                }
+                member.state = State.STOPPED;
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        stop();
+        final List<CompletableFuture<Void>> futures = new ArrayList<>(members.size());
+        for (final Member<D> member : members) {
+            futures.add(CompletableFuture.runAsync(() -> close(member), setup));
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).join();
+        setup.shutdown();
+        inventory.shutdown();
+        try {
+            if (!inventory.awaitTermination(5, TimeUnit.SECONDS)) {
+                inventory.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            inventory.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private CompletableFuture<Member<D>> launch(final Member<D> member) {
+        return CompletableFuture.supplyAsync(() -> {
+            final long start = System.currentTimeMillis();
+            try {
+                member.state = State.CONNECTING;
+                member.device.setExecutor(inventory);
+                if (!member.device.init(member.opts)) {
+                    throw new RfidDeviceException("Failed to connect reader %s at %s:%d", member.name, member.opts.ip, member.opts.port);
+                }
+
+                member.state = State.CONFIGURING;
+                if (member.setup != null) {
+                    member.setup.apply(member.device);
+                }
+
+                if (!member.device.start()) {
+                    throw new RfidDeviceException("Failed to start reader %s", member.name);
+                }
+                member.error = null;
+                member.state = State.RUNNING;
+                logger.infof("Reader %s running (%d ms)", member.name, System.currentTimeMillis() - start);
+            } catch (Exception e) {
+                member.error = e;
+                member.state = State.FAILED;
+                logger.errorf(e, "Reader %s failed (%d ms), the rest of the fleet keeps running.", member.name, System.currentTimeMillis() - start);
+            }
+            return member;
+        }, setup);
+    }
+
+    private void close(final Member<D> member) {
+        try {
+            member.device.close();
+        } catch (IOException | RuntimeException e) {
+            logger.errorf(e, "Failed to close reader %s", member.name);
+        }
+        if (member.state != State.FAILED) {
+            member.state = State.STOPPED;
+        }
+    }
+
+    private static ThreadFactory threads(final String prefix) {
+        final AtomicInteger count = new AtomicInteger();
+        return (final Runnable runnable) -> {
+            final Thread thread = new Thread(runnable, prefix + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    public static final class Member<D> {
+
+        private final String name;
+        private final Options opts;
+        private final D device;
+        private final Setup<? super D> setup;
+        private final LongAdder tags = new LongAdder();
+        private volatile State state = State.NEW;
+        private volatile Throwable error;
+
+        private Member(final String name, final Options opts, final D device, final Setup<? super D> setup) {
+            this.name = name;
+            this.opts = opts;
+            this.device = device;
+            this.setup = setup;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public Options getOpts() {
+            return opts;
+        }
+
+        public D getDevice() {
+            return device;
+        }
+
+        public State getState() {
+            return state;
+        }
+
+        /**
+         * @return cause of the last failure, null unless {@link State#FAILED}.
+         */
+        public Throwable getError() {
+            return error;
+        }
+
+        /**
+         * @return number of tags received from this member.
+         */
+        public long getTags() {
+            return tags.sum();
+        }
+
+        @Override
+        public String toString() {
+            return "Member(name=" + name + ", ip=" + opts.ip + ", port=" + opts.port + ", state=" + state + ", tags=" + tags.sum() + ")";
+        }
+
+    }
+
+}
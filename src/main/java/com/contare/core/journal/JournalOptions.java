@@ -0,0 +1,31 @@
+package com.contare.core.journal;
+
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Location, segment size and fsync cadence of a {@link ReadJournal}.
+ */
+@Getter
+@ToString
+public class JournalOptions {
+
+    public static final JournalOptions DEFAULT = new JournalOptions(null, null, null);
+
+    public final String directory;
+    public final long segmentBytes;   // segment file size, rounded down to whole records
+    public final long syncIntervalMs; // max time a record stays in the page cache only, 0 = fsync every record
+
+    public JournalOptions(final String directory, final Long segmentBytes, final Long syncIntervalMs) {
+        this.directory = (directory != null) ? directory : "journal";
+        this.segmentBytes = ((segmentBytes != null) ? segmentBytes : 64L << 20) / ReadJournal.RECORD_BYTES * ReadJournal.RECORD_BYTES;
+        this.syncIntervalMs = (syncIntervalMs != null) ? syncIntervalMs : 1_000L;
+        if (this.segmentBytes <= 0 || this.segmentBytes > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Journal segment must hold 1 record and at most 2 GiB, but received " + segmentBytes);
+        }
+        if (this.syncIntervalMs < 0) {
+            throw new IllegalArgumentException("Journal sync interval must be >= 0, but received " + this.syncIntervalMs);
+        }
+    }
+
+}
@@ -0,0 +1,21 @@
+package com.contare.core.journal;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * One read recovered from a {@link ReadJournal}.
+ */
+@Data
+@AllArgsConstructor
+public class JournalRecord {
+
+    private final long sequence;   // position in the journal, from 0
+    private final String epc;
+    private final int rssi;
+    private final int antenna;
+    private final String reader;   // null if the reader was not registered
+    private final long nanoTime;   // System.nanoTime() of the writing process, only comparable within one run
+    private final long epochMillis;
+
+}
@@ -0,0 +1,456 @@
+package com.contare.core.journal;
+
+import com.contare.core.objects.TagMetadata;
+import org.jboss.logging.Logger;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only journal of tag reads, so the reads of a crashed process can be recovered.
+ * <p>
+ * Reads are fixed-width binary records of {@link #RECORD_BYTES} bytes, appended to memory-mapped segment files named
+ * after the sequence of their first record. An append is a copy into the mapping, the page cache writes it back, and a
+ * daemon thread forces the current segment to disk every {@link JournalOptions#syncIntervalMs}, which bounds what a
+ * power loss can take. A full segment is forced and the next one is created. Reader names are kept once in a
+ * {@code readers} file, records carry their id.
+ * <p>
+ * Record layout (big endian):
+ * <pre>
+ *  0  int   CRC32 of bytes 4 .. 63
+ *  4  byte  magic, 0 in a slot never written
+ *  5  byte  EPC length in bytes
+ *  6  byte  antenna
+ *  7  byte  RSSI
+ *  8  int   reader id
+ * 12  long  System.nanoTime()
+ * 20  long  epoch milliseconds
+ * 28  32 B  EPC, zero padded
+ * 60  int   reserved
+ * </pre>
+ * On open, the last segment is scanned up to its first record that is not written or fails its CRC (a torn write), the
+ * records after it are cleared, and appending resumes there.
+ * <p>
+ * Feed it from a tag consumer, never the reader thread ({@link #accept(TagMetadata)} as a device or fleet listener).
+ * Appends are synchronized.
+ */
+public class ReadJournal implements Consumer<TagMetadata>, Closeable {
+
+    private static final Logger logger = Logger.getLogger(ReadJournal.class);
+
+    public static final int RECORD_BYTES = 64;
+    public static final int MAX_EPC_BYTES = 32;
+
+    private static final byte MAGIC = 0x5A;
+    private static final String SEGMENT_SUFFIX = ".seg";
+    private static final String READERS_FILE = "readers";
+
+    private final JournalOptions options;
+    private final Path directory;
+    private final Map<String, Integer> readers = new HashMap<>();
+
+    // append scratch, reused by every record
+    private final byte[] scratch = new byte[RECORD_BYTES];
+    private final ByteBuffer record = ByteBuffer.wrap(scratch);
+    private final byte[] epc = new byte[MAX_EPC_BYTES];
+    private final CRC32 crc = new CRC32();
+
+    private volatile Segment segment;
+    private long sequence;
+    private long skipped = 0;
+    private volatile boolean dirty = false;
+
+    private final Thread syncer;
+    private volatile boolean running = true;
+
+    private ReadJournal(final JournalOptions options) throws IOException {
+        this.options = options;
+        this.directory = Paths.get(options.directory);
+        Files.createDirectories(directory);
+        readers.putAll(loadReaders(directory));
+
+        final List<Path> segments = segments(directory);
+        if (segments.isEmpty()) {
+            segment = Segment.create(directory, 0, options.segmentBytes);
+        } else {
+            final Path last = segments.get(segments.size() - 1);
+            segment = Segment.open(last, base(last), options.segmentBytes);
+            segment.count = segment.recover(crc);
+            if (segment.count == segment.capacity) {
+                roll();
+            }
+        }
+        sequence = segment.base + segment.count;
+
+        if (options.syncIntervalMs > 0) {
+            syncer = new Thread(this::run, "journal-sync");
+            syncer.setDaemon(true);
+            syncer.start();
+        } else {
+            syncer = null;
+        }
+    }
+
+    /**
+     * Open the journal of the directory, recovering the end of the last segment.
+     */
+    public static ReadJournal open(final JournalOptions options) throws IOException {
+        final ReadJournal journal = new ReadJournal((options != null) ? options : JournalOptions.DEFAULT);
+        logger.infof("Read journal %s opened at record %d", journal.directory, journal.sequence);
+        return journal;
+    }
+
+    /**
+     * Read every valid record of a journal directory, in order.
+     *
+     * @return number of records read.
+     */
+    public static long read(final Path directory, final Consumer<JournalRecord> consumer) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return 0;
+        }
+        final Map<Integer, String> names = new HashMap<>();
+        for (final Map.Entry<String, Integer> entry : loadReaders(directory).entrySet()) {
+            names.put(entry.getValue(), entry.getKey());
+        }
+        final CRC32 crc = new CRC32();
+        final byte[] buffer = new byte[RECORD_BYTES];
+        long count = 0;
+        for (final Path path : segments(directory)) {
+            final long base = base(path);
+            try (final FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                final MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                final int records = (int) (channel.size() / RECORD_BYTES);
+                for (int i = 0; i < records; i++) {
+                    mapped.position(i * RECORD_BYTES);
+                    mapped.get(buffer);
+                    if (!valid(buffer, crc)) {
+                        break;
+                    }
+                    consumer.accept(decode(base + i, buffer, names));
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    public JournalOptions getOptions() {
+        return options;
+    }
+
+    /**
+     * @return sequence of the next record, the number of records in the journal.
+     */
+    public synchronized long getSequence() {
+        return sequence;
+    }
+
+    /**
+     * @return reads not journaled, their EPC being longer than {@link #MAX_EPC_BYTES} or not hex.
+     */
+    public synchronized long getSkipped() {
+        return skipped;
+    }
+
+    /**
+     * Journal a read, with the time of the call as monotonic timestamp.
+     */
+    @Override
+    public void accept(final TagMetadata tag) {
+        final Instant readtime = tag.getReadtime();
+        append(tag.getEpc(),
+            (tag.getRssi() != null) ? tag.getRssi() : 0,
+            (tag.getAntenna() != null) ? tag.getAntenna() : 0,
+            tag.getDevice(),
+            System.nanoTime(),
+            (readtime != null) ? readtime.toEpochMilli() : System.currentTimeMillis());
+    }
+
+    /**
+     * @param hex    - EPC as hex string
+     * @param reader - reader name, registered on its first read
+     * @return false if the EPC does not fit a record.
+     */
+    public synchronized boolean append(final String hex, final int rssi, final int antenna, final String reader, final long nanoTime, final long epochMillis) {
+        final int chars = (hex != null) ? hex.length() : -1;
+        if (chars < 0 || (chars & 1) != 0 || chars > MAX_EPC_BYTES * 2) {
+            skipped++;
+            return false;
+        }
+        for (int i = 0; i < chars; i += 2) {
+            final int high = Character.digit(hex.charAt(i), 16);
+            final int low = Character.digit(hex.charAt(i + 1), 16);
+            if (high < 0 || low < 0) {
+                skipped++;
+                return false;
+            }
+            epc[i >> 1] = (byte) ((high << 4) | low);
+        }
+        append(epc, 0, chars >> 1, rssi, antenna, register(reader), nanoTime, epochMillis);
+        return true;
+    }
+
+    /**
+     * @param src      - buffer holding the EPC, e.g. an inventory {@code pOUcharIDList}
+     * @param offset   - first EPC byte
+     * @param length   - EPC length in bytes, up to {@link #MAX_EPC_BYTES}
+     * @param readerId - id from {@link #register(String)}
+     */
+    public synchronized void append(final byte[] src, final int offset, final int length, final int rssi, final int antenna, final int readerId, final long nanoTime, final long epochMillis) {
+        if (length < 0 || length > MAX_EPC_BYTES) {
+            throw new IllegalArgumentException("EPC length must be in [0, " + MAX_EPC_BYTES + "], but received " + length);
+        }
+        if (!running) {
+            throw new IllegalStateException("Read journal " + directory + " is closed");
+        }
+        record.clear();
+        record.putInt(0);
+        record.put(MAGIC);
+        record.put((byte) length);
+        record.put((byte) antenna);
+        record.put((byte) rssi);
+        record.putInt(readerId);
+        record.putLong(nanoTime);
+        record.putLong(epochMillis);
+        record.put(src, offset, length);
+        for (int i = length; i < MAX_EPC_BYTES; i++) {
+            record.put((byte) 0);
+        }
+        record.putInt(0);
+        crc.reset();
+        crc.update(scratch, 4, RECORD_BYTES - 4);
+        record.putInt(0, (int) crc.getValue());
+
+        if (segment.count == segment.capacity) {
+            try {
+                roll();
+            } catch (IOException e) {
+                throw new IllegalStateException("Failed to roll read journal " + directory, e);
+            }
+        }
+        final Segment current = segment;
+        current.buffer.position(current.count * RECORD_BYTES);
+        current.buffer.put(scratch);
+        current.count++;
+        sequence++;
+        if (options.syncIntervalMs == 0) {
+            current.buffer.force();
+        } else {
+            dirty = true;
+        }
+    }
+
+    /**
+     * @param reader - reader name, may be null
+     * @return id of the reader in the records, 0 for null.
+     */
+    public synchronized int register(final String reader) {
+        if (reader == null) {
+            return 0;
+        }
+        final Integer known = readers.get(reader);
+        if (known != null) {
+            return known;
+        }
+        final int id = readers.size() + 1;
+        final byte[] line = (id + " " + reader + "\n").getBytes(StandardCharsets.UTF_8);
+        try (final FileChannel channel = FileChannel.open(directory.resolve(READERS_FILE), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            channel.write(ByteBuffer.wrap(line));
+            channel.force(true);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to register reader " + reader + " in " + directory, e);
+        }
+        readers.put(reader, id);
+        return id;
+    }
+
+    /**
+     * Force the records appended so far to disk.
+     */
+    public void sync() {
+        if (dirty) {
+            dirty = false;
+            segment.buffer.force();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            if (!running) {
+                return;
+            }
+            running = false;
+        }
+        if (syncer != null) {
+            LockSupport.unpark(syncer);
+            try {
+                syncer.join(TimeUnit.SECONDS.toMillis(1));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        synchronized (this) {
+            segment.buffer.force();
+            segment.channel.close();
+        }
+        logger.infof("Read journal %s closed at record %d", directory, sequence);
+    }
+
+    private void run() {
+        final long intervalNanos = TimeUnit.MILLISECONDS.toNanos(options.syncIntervalMs);
+        while (running) {
+            LockSupport.parkNanos(this, intervalNanos);
+            try {
+                sync();
+            } catch (RuntimeException e) {
+                logger.errorf(e, "Failed to sync read journal %s", directory);
+            }
+        }
+    }
+
+    private void roll() throws IOException {
+        final Segment full = segment;
+        full.buffer.force();
+        full.channel.close();
+        segment = Segment.create(directory, full.base + full.count, options.segmentBytes);
+        logger.debugf("Read journal %s rolled to segment %d", directory, segment.base);
+    }
+
+    // --- records
+
+    private static boolean valid(final byte[] buffer, final CRC32 crc) {
+        if (buffer[4] != MAGIC || (buffer[5] & 0xFF) > MAX_EPC_BYTES) {
+            return false;
+        }
+        crc.reset();
+        crc.update(buffer, 4, RECORD_BYTES - 4);
+        return (int) crc.getValue() == ByteBuffer.wrap(buffer).getInt(0);
+    }
+
+    private static JournalRecord decode(final long sequence, final byte[] buffer, final Map<Integer, String> readers) {
+        final ByteBuffer bb = ByteBuffer.wrap(buffer);
+        final int length = buffer[5] & 0xFF;
+        final StringBuilder epc = new StringBuilder(length << 1);
+        for (int i = 0; i < length; i++) {
+            final int b = buffer[28 + i] & 0xFF;
+            epc.append(Character.toUpperCase(Character.forDigit(b >>> 4, 16)));
+            epc.append(Character.toUpperCase(Character.forDigit(b & 0x0F, 16)));
+        }
+        return new JournalRecord(sequence, epc.toString(), buffer[7] & 0xFF, buffer[6] & 0xFF, readers.get(bb.getInt(8)), bb.getLong(12), bb.getLong(20));
+    }
+
+    // --- files
+
+    private static List<Path> segments(final Path directory) throws IOException {
+        try (final Stream<Path> files = Files.list(directory)) {
+            return files.filter((final Path path) -> path.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                .sorted()
+                .collect(Collectors.toList());
+        }
+    }
+
+    private static long base(final Path segment) {
+        final String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    private static Map<String, Integer> loadReaders(final Path directory) throws IOException {
+        final Map<String, Integer> result = new HashMap<>();
+        final Path file = directory.resolve(READERS_FILE);
+        if (Files.exists(file)) {
+            for (final String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+                final int space = line.indexOf(' ');
+                if (space > 0) {
+                    try {
+                        result.put(line.substring(space + 1), Integer.parseInt(line.substring(0, space)));
+                    } catch (NumberFormatException e) {
+                        logger.warnf("Ignoring journal reader line '%s'", line); // torn line
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    private static final class Segment {
+
+        private final long base;
+        private final FileChannel channel;
+        private final MappedByteBuffer buffer;
+        private final int capacity;
+        private int count = 0;
+
+        private Segment(final long base, final FileChannel channel, final long bytes) throws IOException {
+            this.base = base;
+            this.channel = channel;
+            this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, bytes);
+            this.capacity = (int) (bytes / RECORD_BYTES);
+        }
+
+        private static Segment create(final Path directory, final long base, final long bytes) throws IOException {
+            final Path path = directory.resolve(String.format("%020d%s", base, SEGMENT_SUFFIX));
+            return new Segment(base, FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE), bytes);
+        }
+
+        /**
+         * Open an existing segment, keeping its size when it was created with another segment size.
+         */
+        private static Segment open(final Path path, final long base, final long bytes) throws IOException {
+            final FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            final long size = channel.size() / RECORD_BYTES * RECORD_BYTES;
+            return new Segment(base, channel, (size > 0) ? size : bytes);
+        }
+
+        /**
+         * @return number of valid records, the slots after them are zeroed.
+         */
+        private int recover(final CRC32 crc) {
+            final byte[] slot = new byte[RECORD_BYTES];
+            int valid = 0;
+            while (valid < capacity) {
+                buffer.position(valid * RECORD_BYTES);
+                buffer.get(slot);
+                if (!ReadJournal.valid(slot, crc)) {
+                    break;
+                }
+                valid++;
+            }
+            // a torn record, or records written back out of order before the crash, must not be read after new ones
+            final byte[] zeros = new byte[RECORD_BYTES];
+            boolean zeroed = false;
+            for (int i = valid; i < capacity; i++) {
+                if (i == valid || buffer.get(i * RECORD_BYTES + 4) != 0) {
+                    buffer.position(i * RECORD_BYTES);
+                    buffer.put(zeros);
+                    zeroed = true;
+                }
+            }
+            if (zeroed) {
+                buffer.force();
+            }
+            return valid;
+        }
+
+    }
+
+}
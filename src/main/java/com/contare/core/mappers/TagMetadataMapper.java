@@ -1,7 +1,9 @@
 package com.contare.core.mappers;
 
+import com.contare.chafon.protocol.MemoryReadTag;
 import com.contare.core.objects.TagMetadata;
 import com.rfid.ReadTag;
+import com.rfid.Utils;
 
 public class TagMetadataMapper {
 
@@ -11,8 +13,22 @@ public class TagMetadataMapper {
             read.rssi,
             read.antId,
             read.ipAddr,
-            read.memId
+            read.memId,
+            toMemory(read)
         );
     }
 
+    /**
+     * @return memory read with the tag, as decoded from the frame, or parsed from memId for the vendor SDK tags.
+     */
+    private static byte[] toMemory(final ReadTag read) {
+        if (read instanceof MemoryReadTag) {
+            return ((MemoryReadTag) read).memory;
+        }
+        if (read.memId == null || read.memId.isEmpty()) {
+            return null;
+        }
+        return Utils.hexStringToBytes(read.memId);
+    }
+
 }
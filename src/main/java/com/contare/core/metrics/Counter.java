@@ -0,0 +1,30 @@
+package com.contare.core.metrics;
+
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Monotonic count, cheap to increment from many threads.
+ */
+public final class Counter implements Metric {
+
+    private final LongAdder count = new LongAdder();
+
+    public void inc() {
+        count.increment();
+    }
+
+    public void add(final long n) {
+        count.add(n);
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    @Override
+    public Map<String, Number> snapshot() {
+        return Map.of("Count", getCount());
+    }
+
+}
@@ -0,0 +1,18 @@
+package com.contare.core.metrics;
+
+import java.util.Map;
+
+/**
+ * Value sampled when read, e.g. a queue depth.
+ */
+@FunctionalInterface
+public interface Gauge extends Metric {
+
+    double getValue();
+
+    @Override
+    default Map<String, Number> snapshot() {
+        return Map.of("Value", getValue());
+    }
+
+}
@@ -0,0 +1,103 @@
+package com.contare.core.metrics;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Distribution of non-negative values, e.g. latencies, in log-linear buckets (HDR style).
+ * <p>
+ * Every power of two is split in {@value #SUB_BUCKETS} linear buckets, so a percentile is accurate within ~3% of the
+ * value across the whole long range, at a fixed ~15 KB per histogram. Recording is a couple of atomic increments and
+ * never allocates. Values are kept since creation, percentiles describe the whole lifetime.
+ */
+public final class Histogram implements Metric {
+
+    private static final int SUB_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+    private static final int BUCKETS = (64 - SUB_BITS) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    /**
+     * @param value - value to record, negative values are recorded as 0
+     */
+    public void record(final long value) {
+        final long v = Math.max(value, 0);
+        counts.incrementAndGet(index(v));
+        count.increment();
+        sum.add(v);
+        max.accumulate(v);
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public double getMean() {
+        final long n = count.sum();
+        return (n > 0) ? (double) sum.sum() / n : 0;
+    }
+
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * @param percentile - 0 to 100
+     * @return highest value of the bucket holding the percentile, 0 when empty.
+     */
+    public long getValueAtPercentile(final double percentile) {
+        final long n = count.sum();
+        if (n == 0) {
+            return 0;
+        }
+        final long rank = Math.max(1, (long) Math.ceil(n * Math.min(Math.max(percentile, 0), 100) / 100.0));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                return Math.min(highest(i), getMax());
+            }
+        }
+        return getMax();
+    }
+
+    @Override
+    public Map<String, Number> snapshot() {
+        final Map<String, Number> values = new LinkedHashMap<>();
+        values.put("Count", getCount());
+        values.put("Mean", getMean());
+        values.put("Max", getMax());
+        values.put("P50", getValueAtPercentile(50));
+        values.put("P90", getValueAtPercentile(90));
+        values.put("P99", getValueAtPercentile(99));
+        values.put("P999", getValueAtPercentile(99.9));
+        return values;
+    }
+
+    static int index(final long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        final int exponent = 63 - Long.numberOfLeadingZeros(value); // >= SUB_BITS
+        final int sub = (int) (value >>> (exponent - SUB_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BITS + 1) * SUB_BUCKETS + sub;
+    }
+
+    static long highest(final int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        final int exponent = index / SUB_BUCKETS + SUB_BITS - 1;
+        final long sub = index % SUB_BUCKETS;
+        final long lowest = (1L << exponent) | (sub << (exponent - SUB_BITS));
+        return lowest + (1L << (exponent - SUB_BITS)) - 1;
+    }
+
+}
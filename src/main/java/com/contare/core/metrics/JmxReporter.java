@@ -0,0 +1,167 @@
+package com.contare.core.metrics;
+
+import org.jboss.logging.Logger;
+
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.AttributeNotFoundException;
+import javax.management.DynamicMBean;
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanInfo;
+import javax.management.MBeanServer;
+import javax.management.MalformedObjectNameException;
+import javax.management.ObjectName;
+import java.io.Closeable;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Exports every metric of a registry as a read-only MBean, {@code <domain>:type=<Counter|Meter|...>,name="<name>"},
+ * with one attribute per {@link Metric#snapshot()} entry. Metrics added to or removed from the registry later follow.
+ */
+public class JmxReporter implements MetricRegistry.Listener, Closeable {
+
+    private static final Logger logger = Logger.getLogger(JmxReporter.class);
+
+    public static final String DEFAULT_DOMAIN = "com.contare";
+
+    private final MetricRegistry registry;
+    private final String domain;
+    private final MBeanServer server;
+    private final Set<ObjectName> registered = ConcurrentHashMap.newKeySet();
+
+    public JmxReporter(final MetricRegistry registry) {
+        this(registry, DEFAULT_DOMAIN, ManagementFactory.getPlatformMBeanServer());
+    }
+
+    public JmxReporter(final MetricRegistry registry, final String domain, final MBeanServer server) {
+        this.registry = registry;
+        this.domain = domain;
+        this.server = server;
+    }
+
+    public String getDomain() {
+        return domain;
+    }
+
+    public JmxReporter start() {
+        registry.addListener(this);
+        for (final Map.Entry<String, Metric> entry : registry.getMetrics().entrySet()) {
+            onAdded(entry.getKey(), entry.getValue());
+        }
+        return this;
+    }
+
+    public ObjectName objectName(final String name, final Metric metric) {
+        final String type = (metric instanceof Gauge) ? "Gauge" : metric.getClass().getSimpleName();
+        try {
+            return new ObjectName(domain + ":type=" + type + ",name=" + ObjectName.quote(name));
+        } catch (MalformedObjectNameException e) {
+            throw new IllegalArgumentException("Invalid metric name " + name, e);
+        }
+    }
+
+    @Override
+    public void onAdded(final String name, final Metric metric) {
+        final ObjectName objectName = objectName(name, metric);
+        try {
+            if (server.isRegistered(objectName)) {
+                server.unregisterMBean(objectName);
+            }
+            server.registerMBean(new MetricMBean(name, metric), objectName);
+            registered.add(objectName);
+        } catch (Exception e) {
+            logger.warnf(e, "Unable to register metric %s", name);
+        }
+    }
+
+    @Override
+    public void onRemoved(final String name, final Metric metric) {
+        final ObjectName objectName = objectName(name, metric);
+        try {
+            if (registered.remove(objectName) && server.isRegistered(objectName)) {
+                server.unregisterMBean(objectName);
+            }
+        } catch (Exception e) {
+            logger.warnf(e, "Unable to unregister metric %s", name);
+        }
+    }
+
+    @Override
+    public void close() {
+        registry.removeListener(this);
+        for (final ObjectName objectName : registered) {
+            try {
+                server.unregisterMBean(objectName);
+            } catch (Exception e) {
+                logger.debugf(e, "Unable to unregister %s", objectName);
+            }
+        }
+        registered.clear();
+    }
+
+    private static final class MetricMBean implements DynamicMBean {
+
+        private final String name;
+        private final Metric metric;
+        private final MBeanInfo info;
+
+        private MetricMBean(final String name, final Metric metric) {
+            this.name = name;
+            this.metric = metric;
+            final Map<String, Number> snapshot = metric.snapshot();
+            final MBeanAttributeInfo[] attributes = new MBeanAttributeInfo[snapshot.size()];
+            int i = 0;
+            for (final Map.Entry<String, Number> entry : snapshot.entrySet()) {
+                attributes[i++] = new MBeanAttributeInfo(entry.getKey(), entry.getValue().getClass().getName(), entry.getKey(), true, false, false);
+            }
+            this.info = new MBeanInfo(metric.getClass().getName(), name, attributes, null, null, null);
+        }
+
+        @Override
+        public Object getAttribute(final String attribute) throws AttributeNotFoundException {
+            final Number value = metric.snapshot().get(attribute);
+            if (value == null) {
+                throw new AttributeNotFoundException(attribute + " of " + name);
+            }
+            return value;
+        }
+
+        @Override
+        public AttributeList getAttributes(final String[] attributes) {
+            final Map<String, Number> snapshot = metric.snapshot();
+            final AttributeList list = new AttributeList();
+            for (final String attribute : attributes) {
+                final Number value = snapshot.get(attribute);
+                if (value != null) {
+                    list.add(new Attribute(attribute, value));
+                }
+            }
+            return list;
+        }
+
+        @Override
+        public void setAttribute(final Attribute attribute) {
+            throw new UnsupportedOperationException("Metrics are read-only");
+        }
+
+        @Override
+        public AttributeList setAttributes(final AttributeList attributes) {
+            return new AttributeList();
+        }
+
+        @Override
+        public Object invoke(final String actionName, final Object[] params, final String[] signature) {
+            throw new UnsupportedOperationException("Metrics have no operations");
+        }
+
+        @Override
+        public MBeanInfo getMBeanInfo() {
+            return info;
+        }
+
+    }
+
+}
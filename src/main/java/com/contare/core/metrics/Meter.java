@@ -0,0 +1,82 @@
+package com.contare.core.metrics;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Count of events and their rate per second.
+ * <p>
+ * The rate is an exponentially weighted moving average over about a minute, updated every
+ * {@link #TICK_SECONDS} seconds by whichever thread marks or reads the meter first, so a meter has no thread of its
+ * own.
+ */
+public final class Meter implements Metric {
+
+    public static final long TICK_SECONDS = 5;
+
+    private static final long TICK_NANOS = TimeUnit.SECONDS.toNanos(TICK_SECONDS);
+    private static final double ALPHA = 1 - Math.exp(-TICK_SECONDS / 60.0);
+
+    private final LongAdder count = new LongAdder();
+    private final LongAdder uncounted = new LongAdder();
+    private final AtomicLong lastTick;
+    private volatile double rate = 0;
+    private volatile boolean initialized = false;
+
+    public Meter() {
+        this.lastTick = new AtomicLong(System.nanoTime());
+    }
+
+    public void mark() {
+        mark(1);
+    }
+
+    public void mark(final long n) {
+        tickIfNecessary();
+        count.add(n);
+        uncounted.add(n);
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * @return events per second, moving average.
+     */
+    public double getRate() {
+        tickIfNecessary();
+        return rate;
+    }
+
+    @Override
+    public Map<String, Number> snapshot() {
+        return Map.of("Count", getCount(), "Rate", getRate());
+    }
+
+    private void tickIfNecessary() {
+        final long old = lastTick.get();
+        final long now = System.nanoTime();
+        final long age = now - old;
+        if (age < TICK_NANOS) {
+            return;
+        }
+        final long next = now - age % TICK_NANOS;
+        if (!lastTick.compareAndSet(old, next)) {
+            return; // another thread ticks
+        }
+        final long ticks = age / TICK_NANOS;
+        for (long i = 0; i < ticks; i++) {
+            final double instant = uncounted.sumThenReset() / (double) TICK_SECONDS;
+            if (initialized) {
+                rate += ALPHA * (instant - rate);
+            } else {
+                rate = instant;
+                initialized = true;
+            }
+        }
+    }
+
+}
@@ -0,0 +1,15 @@
+package com.contare.core.metrics;
+
+import java.util.Map;
+
+/**
+ * A value tracked by a {@link MetricRegistry}.
+ */
+public interface Metric {
+
+    /**
+     * @return current values by attribute name, e.g. {@code Count}, exported as JMX attributes.
+     */
+    Map<String, Number> snapshot();
+
+}
@@ -0,0 +1,136 @@
+package com.contare.core.metrics;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Supplier;
+
+/**
+ * Named metrics of the process.
+ * <p>
+ * Names are dot separated, scope first (e.g. {@code chafon.192.168.1.200:2022.reads}). Getting a counter, meter or
+ * histogram creates it on first use and returns the same instance afterwards, so a reader that is recreated (e.g. a
+ * fleet restart) keeps counting on the same metrics. Registering a gauge, or any metric with {@link #register}, replaces
+ * the previous one of that name.
+ */
+public final class MetricRegistry {
+
+    private static final MetricRegistry DEFAULT = new MetricRegistry();
+
+    private final Map<String, Metric> metrics = new ConcurrentHashMap<>();
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * @return registry the readers and devices report to.
+     */
+    public static MetricRegistry getDefault() {
+        return DEFAULT;
+    }
+
+    public Counter counter(final String name) {
+        return getOrAdd(name, Counter.class, Counter::new);
+    }
+
+    public Meter meter(final String name) {
+        return getOrAdd(name, Meter.class, Meter::new);
+    }
+
+    public Histogram histogram(final String name) {
+        return getOrAdd(name, Histogram.class, Histogram::new);
+    }
+
+    public Gauge gauge(final String name, final Gauge gauge) {
+        return register(name, gauge);
+    }
+
+    /**
+     * Register a metric owned elsewhere (e.g. a ring buffer latency histogram), replacing any metric of that name.
+     */
+    public <T extends Metric> T register(final String name, final T metric) {
+        final Metric previous = metrics.put(name, metric);
+        if (previous != null) {
+            fireRemoved(name, previous);
+        }
+        fireAdded(name, metric);
+        return metric;
+    }
+
+    public Metric get(final String name) {
+        return metrics.get(name);
+    }
+
+    /**
+     * @return true if a metric was removed.
+     */
+    public boolean remove(final String name) {
+        final Metric removed = metrics.remove(name);
+        if (removed != null) {
+            fireRemoved(name, removed);
+        }
+        return removed != null;
+    }
+
+    /**
+     * @return sorted copy of the metrics.
+     */
+    public SortedMap<String, Metric> getMetrics() {
+        return Collections.unmodifiableSortedMap(new TreeMap<>(metrics));
+    }
+
+    /**
+     * Register a listener, called for every metric added from now on (not for the existing ones).
+     */
+    public void addListener(final Listener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(final Listener listener) {
+        listeners.remove(listener);
+    }
+
+    private <T extends Metric> T getOrAdd(final String name, final Class<T> type, final Supplier<T> factory) {
+        final Metric existing = metrics.get(name);
+        if (existing == null) {
+            final T created = factory.get();
+            final Metric raced = metrics.putIfAbsent(name, created);
+            if (raced == null) {
+                fireAdded(name, created);
+                return created;
+            }
+            return cast(name, type, raced);
+        }
+        return cast(name, type, existing);
+    }
+
+    private static <T extends Metric> T cast(final String name, final Class<T> type, final Metric metric) {
+        if (!type.isInstance(metric)) {
+            throw new IllegalArgumentException("Metric " + name + " is a " + metric.getClass().getSimpleName() + ", not a " + type.getSimpleName());
+        }
+        return type.cast(metric);
+    }
+
+    private void fireAdded(final String name, final Metric metric) {
+        for (final Listener listener : listeners) {
+            listener.onAdded(name, metric);
+        }
+    }
+
+    private void fireRemoved(final String name, final Metric metric) {
+        for (final Listener listener : listeners) {
+            listener.onRemoved(name, metric);
+        }
+    }
+
+    public interface Listener {
+
+        void onAdded(final String name, final Metric metric);
+
+        void onRemoved(final String name, final Metric metric);
+
+    }
+
+}
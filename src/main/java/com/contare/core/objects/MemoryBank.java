@@ -0,0 +1,23 @@
+package com.contare.core.objects;
+
+/**
+ * EPC Gen2 tag memory banks.
+ */
+public enum MemoryBank {
+
+    RESERVED(0),    // kill and access passwords
+    EPC(1),         // CRC, PC and EPC
+    TID(2),         // chip vendor, model and serial
+    USER(3);
+
+    private final int code;
+
+    MemoryBank(final int code) {
+        this.code = code;
+    }
+
+    public int getCode() {
+        return code;
+    }
+
+}
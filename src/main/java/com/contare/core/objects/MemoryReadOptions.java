@@ -0,0 +1,36 @@
+package com.contare.core.objects;
+
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Memory bank slice read with every tag, in the same inventory round as its EPC.
+ */
+@Getter
+@ToString(exclude = "password")
+public class MemoryReadOptions {
+
+    public static final MemoryReadOptions TID = new MemoryReadOptions(MemoryBank.TID, 0, 6, null);
+
+    public final MemoryBank bank;
+    public final int wordPtr;       // first word
+    public final int words;         // number of words, 16 bits each
+    public final String password;   // access password, 8 hex digits
+
+    public MemoryReadOptions(final MemoryBank bank, final Integer wordPtr, final Integer words, final String password) {
+        this.bank = (bank != null) ? bank : MemoryBank.TID;
+        this.wordPtr = (wordPtr != null) ? wordPtr : 0;
+        this.words = (words != null) ? words : 6;
+        this.password = (password != null) ? password : "00000000";
+        if (this.wordPtr < 0 || this.wordPtr > 0xFFFF) {
+            throw new IllegalArgumentException("Word pointer must be between 0 and 65535, but received " + this.wordPtr);
+        }
+        if (this.words < 1 || this.words > 120) {
+            throw new IllegalArgumentException("Words must be between 1 and 120, but received " + this.words);
+        }
+        if (this.password.length() != 8 || !this.password.chars().allMatch((final int c) -> Character.digit(c, 16) >= 0)) {
+            throw new IllegalArgumentException("Password must be 8 hex digits");
+        }
+    }
+
+}
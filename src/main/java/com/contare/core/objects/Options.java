@@ -1,6 +1,7 @@
 package com.contare.core.objects;
 
 import com.contare.chafon.Frequency;
+import com.contare.core.pipeline.PipelineOptions;
 import lombok.Getter;
 import lombok.ToString;
 
@@ -18,8 +19,9 @@ public class Options {
     public final boolean verbose;  // enables verbose mode
     public final List<Frequency> frequencies;
     public final int interval;
+    public final PipelineOptions pipeline; // reader thread -> tag consumers
 
-    public Options(final String address, final String ip, final Integer port, final Integer antennas, final boolean verbose, final List<Frequency> frequencies, final Integer interval) {
+    public Options(final String address, final String ip, final Integer port, final Integer antennas, final boolean verbose, final List<Frequency> frequencies, final Integer interval, final PipelineOptions pipeline) {
         this.address = address;
         this.ip = ip;
         this.port = (port != null) ? port : 0;
@@ -27,6 +29,11 @@ public class Options {
         this.verbose = verbose;
         this.frequencies = frequencies;
         this.interval = (interval != null) ? interval : 1_000;
+        this.pipeline = (pipeline != null) ? pipeline : PipelineOptions.DEFAULT;
+    }
+
+    public Options(final String address, final String ip, final Integer port, final Integer antennas, final boolean verbose, final List<Frequency> frequencies, final Integer interval) {
+        this(address, ip, port, antennas, verbose, frequencies, interval, null);
     }
 
     public Options(final String address, final String ip, final Integer port, final Integer antennas, final boolean verbose) {
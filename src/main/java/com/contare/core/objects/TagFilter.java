@@ -0,0 +1,99 @@
+package com.contare.core.objects;
+
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Memory bank mask that decides which tags take part in the inventory, applied by the reader itself (Gen2 Select)
+ * instead of discarding the reads in Java.
+ * <p>
+ * A tag is inventoried when it matches every {@link Action#INCLUDE} filter and none of the {@link Action#EXCLUDE} ones.
+ */
+@Getter
+@ToString
+public class TagFilter {
+
+    public enum Action {
+        INCLUDE,    // only matching tags are inventoried
+        EXCLUDE     // matching tags are not inventoried
+    }
+
+    public static final int MAX_BITS = 255;
+
+    public final Action action;
+    public final MemoryBank bank;
+    public final int bitPtr;        // first bit of the mask, for the EPC bank counted from the start of the EPC
+    public final int bitLength;     // number of mask bits compared
+    public final String mask;       // hex, upper case
+
+    /**
+     * @param action    - null for {@link Action#INCLUDE}
+     * @param bank      - null for {@link MemoryBank#EPC}
+     * @param bitPtr    - null for 0, the start of the EPC (after StoredCRC + PC) or of the bank
+     * @param mask      - hex digits to compare
+     * @param bitLength - null for 4 bits per hex digit of the mask
+     * @throws IllegalArgumentException if the mask is not hex, is longer than {@value #MAX_BITS} bits or the bank is
+     *                                  {@link MemoryBank#RESERVED}.
+     */
+    public TagFilter(final Action action, final MemoryBank bank, final Integer bitPtr, final String mask, final Integer bitLength) {
+        this.action = (action != null) ? action : Action.INCLUDE;
+        this.bank = (bank != null) ? bank : MemoryBank.EPC;
+        this.bitPtr = (bitPtr != null) ? bitPtr : 0;
+        this.mask = (mask != null) ? mask.toUpperCase() : "";
+        this.bitLength = (bitLength != null) ? bitLength : this.mask.length() * 4;
+        if (this.bank == MemoryBank.RESERVED) {
+            throw new IllegalArgumentException("Bank must be EPC, TID or USER, but received " + this.bank);
+        }
+        if (!this.mask.chars().allMatch((final int c) -> Character.digit(c, 16) >= 0)) {
+            throw new IllegalArgumentException("Mask must be hex digits, but received " + mask);
+        }
+        if (this.bitLength < 1 || this.bitLength > Math.min(MAX_BITS, this.mask.length() * 4)) {
+            throw new IllegalArgumentException("Bit length must be between 1 and " + Math.min(MAX_BITS, this.mask.length() * 4) + ", but received " + this.bitLength);
+        }
+        final int maxPtr = 0xFFFF - (getSelectPtr() - this.bitPtr);
+        if (this.bitPtr < 0 || this.bitPtr > maxPtr) {
+            throw new IllegalArgumentException("Bit pointer must be between 0 and " + maxPtr + ", but received " + this.bitPtr);
+        }
+    }
+
+    /**
+     * @return filter passing only the tags whose {@code bank} starts with {@code prefix}.
+     */
+    public static TagFilter include(final MemoryBank bank, final String prefix) {
+        return new TagFilter(Action.INCLUDE, bank, 0, prefix, null);
+    }
+
+    /**
+     * @return filter dropping the tags whose {@code bank} starts with {@code prefix}.
+     */
+    public static TagFilter exclude(final MemoryBank bank, final String prefix) {
+        return new TagFilter(Action.EXCLUDE, bank, 0, prefix, null);
+    }
+
+    /**
+     * @return bit address of the mask in the bank, as sent in the Select command (the EPC bank starts with StoredCRC + PC).
+     */
+    public int getSelectPtr() {
+        return (bank == MemoryBank.EPC) ? bitPtr + 0x20 : bitPtr;
+    }
+
+    /**
+     * @return the mask bits, left aligned, {@code (bitLength + 7) / 8} bytes.
+     */
+    public byte[] getMaskBytes() {
+        final byte[] bytes = new byte[(bitLength + 7) / 8];
+        for (int i = 0; i < bytes.length * 2 && i < mask.length(); i++) {
+            bytes[i >> 1] |= (byte) (Character.digit(mask.charAt(i), 16) << (((i & 1) == 0) ? 4 : 0));
+        }
+        // bits past bitLength are not compared, keep them clear
+        if ((bitLength & 7) != 0) {
+            bytes[bytes.length - 1] &= (byte) (0xFF << (8 - (bitLength & 7)));
+        }
+        return bytes;
+    }
+
+    public boolean isInclude() {
+        return action == Action.INCLUDE;
+    }
+
+}
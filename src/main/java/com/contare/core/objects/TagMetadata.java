@@ -16,6 +16,12 @@ public class TagMetadata {
     private final Integer antenna;
     private final String device;
     private final String memId;
+    @ToString.Exclude
+    private final byte[] memory; // memory bank slice read with the tag (see MemoryReadOptions), memId as bytes, may be null
     private final Instant readtime = Instant.now();
 
+    public TagMetadata(final String epc, final Integer rssi, final Integer antenna, final String device, final String memId) {
+        this(epc, rssi, antenna, device, memId, null);
+    }
+
 }
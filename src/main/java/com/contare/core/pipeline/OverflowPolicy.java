@@ -0,0 +1,16 @@
+package com.contare.core.pipeline;
+
+/**
+ * What a {@link RingBuffer} does when the producer laps the slowest consumer.
+ * <p>
+ * - BLOCK: the producer waits for space, no event is lost but a slow consumer stalls the producer.
+ * - DROP_OLDEST: the producer never waits, consumers that fall a full ring behind skip the events they missed.
+ * - DROP_NEWEST: the producer never waits, the event being published is discarded while the ring is full.
+ */
+public enum OverflowPolicy {
+
+    BLOCK,
+    DROP_OLDEST,
+    DROP_NEWEST
+
+}
@@ -0,0 +1,25 @@
+package com.contare.core.pipeline;
+
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Sizing and behaviour of the ring buffer between a device reader thread and its tag consumers.
+ */
+@Getter
+@ToString
+public class PipelineOptions {
+
+    public static final PipelineOptions DEFAULT = new PipelineOptions(8192, WaitStrategy.PARK, OverflowPolicy.BLOCK);
+
+    public final int capacity;              // number of slots, rounded up to a power of two
+    public final WaitStrategy waitStrategy;
+    public final OverflowPolicy overflowPolicy;
+
+    public PipelineOptions(final Integer capacity, final WaitStrategy waitStrategy, final OverflowPolicy overflowPolicy) {
+        this.capacity = (capacity != null) ? capacity : 8192;
+        this.waitStrategy = (waitStrategy != null) ? waitStrategy : WaitStrategy.PARK;
+        this.overflowPolicy = (overflowPolicy != null) ? overflowPolicy : OverflowPolicy.BLOCK;
+    }
+
+}
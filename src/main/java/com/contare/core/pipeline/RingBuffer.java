@@ -0,0 +1,271 @@
+package com.contare.core.pipeline;
+
+import com.contare.core.metrics.Histogram;
+import org.jboss.logging.Logger;
+
+import java.io.Closeable;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Bounded single-producer / multi-consumer ring buffer.
+ * <p>
+ * Every subscriber runs on its own thread and sees every published event (broadcast), so a slow consumer (e.g. logging)
+ * does not hold back a fast one (e.g. dedup), and neither holds back the producer unless the policy is
+ * {@link OverflowPolicy#BLOCK}.
+ * <p>
+ * Slots are guarded by a sequence (seqlock): the producer marks a slot as being written, stores the event, then
+ * stores the event sequence. A consumer accepts an event only if the slot sequence matches before and after the read,
+ * which lets {@link OverflowPolicy#DROP_OLDEST} overwrite slots under a lagging consumer safely.
+ * <p>
+ * Every slot also holds its publish time, and each consumer records the time from publish to the end of its handler in
+ * {@link Subscription#getLatency()}.
+ * <p>
+ * {@link #publish(Object)} must only be called from one thread at a time.
+ */
+public class RingBuffer<T> implements Closeable {
+
+    private static final Logger logger = Logger.getLogger(RingBuffer.class);
+
+    private static final long WRITING = -1L;
+
+    private final String name;
+    private final int capacity;
+    private final int mask;
+    private final WaitStrategy waitStrategy;
+    private final OverflowPolicy overflowPolicy;
+
+    private final AtomicReferenceArray<T> entries;
+    private final AtomicLongArray sequences;
+    private final long[] stamps; // publish nanoTime per slot, guarded by the slot sequence
+    private final AtomicLong cursor = new AtomicLong(-1L); // last published sequence
+    private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+
+    private final LongAdder published = new LongAdder();
+    private final LongAdder droppedNewest = new LongAdder();
+    private final LongAdder droppedOldest = new LongAdder();
+    private final LongAdder blocked = new LongAdder();
+
+    private volatile boolean closed = false;
+
+    public RingBuffer(final String name, final PipelineOptions options) {
+        this(name, options.capacity, options.waitStrategy, options.overflowPolicy);
+    }
+
+    public RingBuffer(final String name, final int capacity, final WaitStrategy waitStrategy, final OverflowPolicy overflowPolicy) {
+        if (capacity < 2) {
+            throw new IllegalArgumentException("Capacity must be >= 2, but received " + capacity);
+        }
+        this.name = name;
+        this.capacity = Integer.highestOneBit(capacity - 1) << 1;
+        this.mask = this.capacity - 1;
+        this.waitStrategy = waitStrategy;
+        this.overflowPolicy = overflowPolicy;
+        this.entries = new AtomicReferenceArray<>(this.capacity);
+        this.sequences = new AtomicLongArray(this.capacity);
+        this.stamps = new long[this.capacity];
+        for (int i = 0; i < this.capacity; i++) {
+            sequences.set(i, i - (long) this.capacity); // "published" one lap ago, never matches a live sequence
+        }
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * @return number of events published.
+     */
+    public long getPublished() {
+        return published.sum();
+    }
+
+    /**
+     * @return number of events discarded by {@link OverflowPolicy#DROP_NEWEST}.
+     */
+    public long getDroppedNewest() {
+        return droppedNewest.sum();
+    }
+
+    /**
+     * @return number of events skipped by lagging consumers under {@link OverflowPolicy#DROP_OLDEST}, all consumers.
+     */
+    public long getDroppedOldest() {
+        return droppedOldest.sum();
+    }
+
+    /**
+     * @return number of publishes that had to wait for space under {@link OverflowPolicy#BLOCK}.
+     */
+    public long getBlocked() {
+        return blocked.sum();
+    }
+
+    /**
+     * Register a consumer. It starts with the next published event.
+     *
+     * @param consumerName - thread name suffix
+     * @param handler      - event handler, exceptions are logged and do not stop the consumer
+     */
+    public Subscription subscribe(final String consumerName, final Consumer<? super T> handler) {
+        final Subscription subscription = new Subscription(consumerName, handler, cursor.get());
+        subscriptions.add(subscription);
+        subscription.thread.start();
+        return subscription;
+    }
+
+    /**
+     * Publish an event.
+     *
+     * @return false if the event was dropped (ring full under {@link OverflowPolicy#DROP_NEWEST}, or closed).
+     */
+    public boolean publish(final T event) {
+        if (closed) {
+            return false;
+        }
+        final long next = cursor.get() + 1;
+        if (overflowPolicy != OverflowPolicy.DROP_OLDEST) {
+            int attempt = 0;
+            while (next - minimumSequence() > capacity) {
+                if (overflowPolicy == OverflowPolicy.DROP_NEWEST) {
+                    droppedNewest.increment();
+                    return false;
+                }
+                if (closed) {
+                    return false;
+                }
+                if (attempt == 0) {
+                    blocked.increment();
+                }
+                waitStrategy.idle(attempt++);
+            }
+        }
+
+        final int index = (int) (next & mask);
+        sequences.set(index, WRITING);
+        entries.set(index, event);
+        stamps[index] = System.nanoTime();
+        sequences.set(index, next);
+        cursor.set(next);
+        published.increment();
+        return true;
+    }
+
+    /**
+     * Stop every consumer after it drains the events published so far.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        for (final Subscription subscription : subscriptions) {
+            subscription.close();
+        }
+    }
+
+    private long minimumSequence() {
+        long min = cursor.get();
+        for (final Subscription subscription : subscriptions) {
+            min = Math.min(min, subscription.sequence.get());
+        }
+        return min;
+    }
+
+    public class Subscription implements Closeable {
+
+        private final Consumer<? super T> handler;
+        private final AtomicLong sequence; // last consumed sequence
+        private final LongAdder dropped = new LongAdder();
+        private final Histogram latency = new Histogram();
+        private final Thread thread;
+        private volatile boolean running = true;
+
+        private Subscription(final String consumerName, final Consumer<? super T> handler, final long start) {
+            this.handler = handler;
+            this.sequence = new AtomicLong(start);
+            this.thread = new Thread(this::run, name + "-" + consumerName);
+            this.thread.setDaemon(true);
+        }
+
+        /**
+         * @return number of events this consumer skipped because it fell a full ring behind.
+         */
+        public long getDropped() {
+            return dropped.sum();
+        }
+
+        /**
+         * @return time from publish to the end of the handler, in microseconds.
+         */
+        public Histogram getLatency() {
+            return latency;
+        }
+
+        /**
+         * @return number of published events not yet consumed.
+         */
+        public long getLag() {
+            return cursor.get() - sequence.get();
+        }
+
+        private void run() {
+            long next = sequence.get() + 1;
+            int attempt = 0;
+            while (true) {
+                final long available = cursor.get();
+                if (next > available) {
+                    if (!running) {
+                        return;
+                    }
+                    waitStrategy.idle(attempt++);
+                    continue;
+                }
+                attempt = 0;
+
+                if (available - next >= capacity) {
+                    // lapped by the producer, the oldest events are gone
+                    final long first = available - capacity + 1;
+                    dropped.add(first - next);
+                    droppedOldest.add(first - next);
+                    next = first;
+                }
+
+                final int index = (int) (next & mask);
+                final long before = sequences.get(index);
+                final T event = entries.get(index);
+                final long stamp = stamps[index];
+                final long after = sequences.get(index);
+                if (before != next || after != next) {
+                    continue; // overwritten while reading, re-evaluate the lap
+                }
+
+                try {
+                    handler.accept(event);
+                } catch (RuntimeException e) {
+                    logger.errorf(e, "Consumer %s failed to handle event %d", thread.getName(), next);
+                }
+                latency.record(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - stamp));
+                sequence.set(next);
+                next++;
+            }
+        }
+
+        @Override
+        public void close() {
+            running = false;
+            try {
+                thread.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            subscriptions.remove(this);
+        }
+
+    }
+
+}
@@ -0,0 +1,38 @@
+package com.contare.core.pipeline;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * How a {@link RingBuffer} consumer (or a blocked producer) waits for the other side.
+ * <p>
+ * - BUSY_SPIN: lowest latency, burns a core per waiting thread.
+ * - YIELD: spins briefly, then yields the core to other runnable threads.
+ * - PARK: spins and yields briefly, then parks for {@link #PARK_NANOS}; near zero CPU when idle.
+ */
+public enum WaitStrategy {
+
+    BUSY_SPIN,
+    YIELD,
+    PARK;
+
+    static final long PARK_NANOS = 50_000L;
+
+    private static final int SPIN_TRIES = 100;
+    private static final int YIELD_TRIES = 200;
+
+    /**
+     * Wait once.
+     *
+     * @param attempt - number of consecutive unsuccessful attempts so far, reset by the caller on progress
+     */
+    public void idle(final int attempt) {
+        if (this == BUSY_SPIN || attempt < SPIN_TRIES) {
+            Thread.onSpinWait();
+        } else if (this == YIELD || attempt < YIELD_TRIES) {
+            Thread.yield();
+        } else {
+            LockSupport.parkNanos(PARK_NANOS);
+        }
+    }
+
+}
@@ -0,0 +1,28 @@
+package com.contare.core.presence;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.Instant;
+
+/**
+ * A tag entering or leaving a reader, or an antenna with {@link PresenceScope#ANTENNA}.
+ */
+@Data
+@AllArgsConstructor
+public class PresenceEvent {
+
+    public enum Type {
+        ENTER,
+        EXIT
+    }
+
+    private final Type type;
+    private final String epc;
+    private final String device;
+    private final Integer antenna;  // antenna of the last read
+    private final Instant firstSeen;
+    private final Instant lastSeen;
+    private final long reads;       // reads since the tag entered
+
+}
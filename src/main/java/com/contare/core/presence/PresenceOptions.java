@@ -0,0 +1,61 @@
+package com.contare.core.presence;
+
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Exit timeout and timing wheel sizing of a {@link PresenceTracker}.
+ */
+@Getter
+@ToString
+public class PresenceOptions {
+
+    public static final PresenceOptions DEFAULT = new PresenceOptions(null, null, null, null, null);
+
+    public final long timeoutMs;                    // time without reads before a tag exits
+    public final Map<Integer, Long> antennaTimeoutMs; // timeout of the tags last read by an antenna, overrides timeoutMs
+    public final long tickMs;                       // wheel resolution, exits are reported up to one tick late
+    public final int slots;                         // wheel size, rounded up to a power of two
+    public final PresenceScope scope;
+
+    public PresenceOptions(final Long timeoutMs, final Map<Integer, Long> antennaTimeoutMs, final Long tickMs, final Integer slots, final PresenceScope scope) {
+        this.timeoutMs = (timeoutMs != null) ? timeoutMs : 3_000L;
+        this.antennaTimeoutMs = (antennaTimeoutMs != null) ? Collections.unmodifiableMap(new HashMap<>(antennaTimeoutMs)) : Collections.emptyMap();
+        this.tickMs = (tickMs != null) ? tickMs : 100L;
+        this.slots = (slots != null) ? slots : 512;
+        this.scope = (scope != null) ? scope : PresenceScope.READER;
+        if (this.timeoutMs <= 0) {
+            throw new IllegalArgumentException("Presence timeout must be > 0, but received " + this.timeoutMs);
+        }
+        for (final Map.Entry<Integer, Long> entry : this.antennaTimeoutMs.entrySet()) {
+            if (entry.getValue() == null || entry.getValue() <= 0) {
+                throw new IllegalArgumentException("Presence timeout of antenna " + entry.getKey() + " must be > 0, but received " + entry.getValue());
+            }
+        }
+        if (this.tickMs <= 0) {
+            throw new IllegalArgumentException("Presence tick must be > 0, but received " + this.tickMs);
+        }
+        if (this.slots <= 0) {
+            throw new IllegalArgumentException("Presence wheel slots must be > 0, but received " + this.slots);
+        }
+    }
+
+    /**
+     * @param antenna - antenna of the last read, may be null
+     * @return exit timeout of a tag last read by the antenna.
+     */
+    public long getTimeoutMs(final Integer antenna) {
+        if (antenna != null) {
+            final Long timeout = antennaTimeoutMs.get(antenna);
+            if (timeout != null) {
+                return timeout;
+            }
+        }
+        return timeoutMs;
+    }
+
+}
@@ -0,0 +1,18 @@
+package com.contare.core.presence;
+
+/**
+ * What a tag is present at, see {@link PresenceTracker}.
+ */
+public enum PresenceScope {
+
+    /**
+     * A tag enters and exits a reader, whatever antenna reads it.
+     */
+    READER,
+
+    /**
+     * A tag enters and exits every antenna on its own, e.g. the in and out gates of a conveyor.
+     */
+    ANTENNA
+
+}
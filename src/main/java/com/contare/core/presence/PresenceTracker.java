@@ -0,0 +1,291 @@
+package com.contare.core.presence;
+
+import com.contare.core.objects.TagMetadata;
+import org.jboss.logging.Logger;
+
+import java.io.Closeable;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Presence engine on top of a tag stream: emits {@link PresenceEvent.Type#ENTER} on the first read of a tag, and
+ * {@link PresenceEvent.Type#EXIT} once it has not been read for the timeout of the antenna that last read it.
+ * <p>
+ * Tracked tags sit in a hashed timing wheel: an array of slots, each a doubly linked list of the tags whose timeout
+ * falls on a tick congruent to the slot index. A read only moves the last read time of its tag forward, and a tick
+ * visits one slot, exiting the tags that timed out and moving the others to the slot of their new deadline, so reads
+ * and expiry cost O(1) per tag however many tags are tracked. A tag read by an antenna with a shorter timeout is moved
+ * on the read.
+ * <p>
+ * Feed it as a device or fleet listener ({@link #accept(TagMetadata)}), and either call {@link #advance(long)} or let
+ * {@link #start()} tick it on a daemon thread. Methods are synchronized, listeners run under the lock on the thread that
+ * fed the read (ENTER) or advanced the wheel (EXIT) and must be quick.
+ */
+public class PresenceTracker implements Consumer<TagMetadata>, Closeable {
+
+    private static final Logger logger = Logger.getLogger(PresenceTracker.class);
+
+    private final String name;
+    private final PresenceOptions options;
+    private final Entry[] wheel;
+    private final int mask;
+    private final Map<String, Entry> entries = new HashMap<>();
+    private final List<Consumer<PresenceEvent>> listeners = new CopyOnWriteArrayList<>();
+
+    private boolean started = false;
+    private long origin;     // time of tick 0
+    private long tick = 0;   // last tick visited
+
+    private volatile Thread ticker;
+    private volatile boolean running = false;
+
+    public PresenceTracker(final String name, final PresenceOptions options) {
+        this.name = name;
+        this.options = (options != null) ? options : PresenceOptions.DEFAULT;
+        int slots = 1;
+        while (slots < this.options.slots) {
+            slots <<= 1;
+        }
+        this.wheel = new Entry[slots];
+        this.mask = slots - 1;
+    }
+
+    public PresenceOptions getOptions() {
+        return options;
+    }
+
+    /**
+     * Register a listener for the ENTER and EXIT events.
+     *
+     * @param listener - presence listener
+     */
+    public void addListener(final Consumer<PresenceEvent> listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Count a read, at its read time.
+     */
+    @Override
+    public void accept(final TagMetadata tag) {
+        final Instant readtime = tag.getReadtime();
+        onTag(tag.getEpc(), tag.getDevice(), tag.getAntenna(), (readtime != null) ? readtime.toEpochMilli() : System.currentTimeMillis());
+    }
+
+    /**
+     * @param epc     - EPC as hex string
+     * @param device  - device that read it, may be null
+     * @param antenna - antenna that read it, may be null
+     * @param nowMs   - read time, epoch milliseconds
+     */
+    public synchronized void onTag(final String epc, final String device, final Integer antenna, final long nowMs) {
+        if (epc == null) {
+            return;
+        }
+        init(nowMs);
+        final String key = key(epc, device, antenna);
+        final long timeout = options.getTimeoutMs(antenna);
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            entry = new Entry(key, epc, device, antenna, nowMs, timeout);
+            entries.put(key, entry);
+            schedule(entry, tick + 1);
+            emit(PresenceEvent.Type.ENTER, entry);
+            return;
+        }
+
+        entry.reads++;
+        entry.antenna = antenna;
+        entry.lastSeen = Math.max(entry.lastSeen, nowMs);
+        if (timeout < entry.timeout) {
+            // the deadline moved back, the wheel would only see it at the old one
+            entry.timeout = timeout;
+            unlink(entry);
+            schedule(entry, tick + 1);
+        } else {
+            entry.timeout = timeout;
+        }
+    }
+
+    /**
+     * Visit the ticks up to the time, emitting EXIT for the tags that timed out.
+     *
+     * @param nowMs - epoch milliseconds
+     */
+    public synchronized void advance(final long nowMs) {
+        init(nowMs);
+        final long target = Math.floorDiv(nowMs - origin, options.tickMs);
+        if (target <= tick) {
+            return;
+        }
+        // a gap longer than the wheel visits every slot once
+        final long steps = Math.min(target - tick, wheel.length);
+        for (long t = target - steps + 1; t <= target; t++) {
+            expire((int) (t & mask), nowMs, target);
+        }
+        tick = target;
+    }
+
+    /**
+     * @return number of tags present.
+     */
+    public synchronized int getTracked() {
+        return entries.size();
+    }
+
+    /**
+     * @return true if the tag is present on the device (and antenna with {@link PresenceScope#ANTENNA}).
+     */
+    public synchronized boolean isPresent(final String epc, final String device, final Integer antenna) {
+        return entries.containsKey(key(epc, device, antenna));
+    }
+
+    /**
+     * Advance the wheel every tick on a daemon thread, until {@link #close()}.
+     */
+    public synchronized PresenceTracker start() {
+        if (ticker == null) {
+            running = true;
+            ticker = new Thread(this::run, "presence-" + name);
+            ticker.setDaemon(true);
+            ticker.start();
+        }
+        return this;
+    }
+
+    @Override
+    public void close() {
+        final Thread thread = ticker;
+        if (thread == null) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(thread);
+        try {
+            thread.join(TimeUnit.SECONDS.toMillis(1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        ticker = null;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("PresenceTracker(name = %s, tracked = %d, scope = %s, timeout = %d ms)", name, getTracked(), options.scope, options.timeoutMs);
+    }
+
+    private void run() {
+        final long tickNanos = TimeUnit.MILLISECONDS.toNanos(options.tickMs);
+        while (running) {
+            try {
+                advance(System.currentTimeMillis());
+            } catch (RuntimeException e) {
+                logger.errorf(e, "Presence tracker %s failed to advance", name);
+            }
+            LockSupport.parkNanos(this, tickNanos);
+        }
+    }
+
+    private void init(final long nowMs) {
+        if (!started) {
+            started = true;
+            origin = nowMs;
+        }
+    }
+
+    private String key(final String epc, final String device, final Integer antenna) {
+        if (options.scope == PresenceScope.ANTENNA) {
+            return device + "/" + antenna + "/" + epc;
+        }
+        return device + "/" + epc;
+    }
+
+    private void expire(final int slot, final long nowMs, final long target) {
+        Entry entry = wheel[slot];
+        wheel[slot] = null;
+        while (entry != null) {
+            final Entry next = entry.next;
+            entry.prev = entry.next = null;
+            if (nowMs - entry.lastSeen >= entry.timeout) {
+                entries.remove(entry.key);
+                emit(PresenceEvent.Type.EXIT, entry);
+            } else {
+                schedule(entry, target + 1);
+            }
+            entry = next;
+        }
+    }
+
+    /**
+     * @param earliest - first tick the entry may be visited at
+     */
+    private void schedule(final Entry entry, final long earliest) {
+        final long deadline = entry.lastSeen + entry.timeout - origin;
+        final long due = Math.max(Math.floorDiv(deadline + options.tickMs - 1, options.tickMs), earliest);
+        final int slot = (int) (due & mask);
+        entry.slot = slot;
+        entry.next = wheel[slot];
+        if (entry.next != null) {
+            entry.next.prev = entry;
+        }
+        wheel[slot] = entry;
+    }
+
+    private void unlink(final Entry entry) {
+        if (entry.prev != null) {
+            entry.prev.next = entry.next;
+        } else if (wheel[entry.slot] == entry) {
+            wheel[entry.slot] = entry.next;
+        }
+        if (entry.next != null) {
+            entry.next.prev = entry.prev;
+        }
+        entry.prev = entry.next = null;
+    }
+
+    private void emit(final PresenceEvent.Type type, final Entry entry) {
+        final PresenceEvent event = new PresenceEvent(type, entry.epc, entry.device, entry.antenna, Instant.ofEpochMilli(entry.firstSeen), Instant.ofEpochMilli(entry.lastSeen), entry.reads);
+        for (final Consumer<PresenceEvent> listener : listeners) {
+            try {
+                listener.accept(event);
+            } catch (RuntimeException e) {
+                logger.errorf(e, "Presence listener failed on %s", event);
+            }
+        }
+    }
+
+    private static final class Entry {
+
+        private final String key;
+        private final String epc;
+        private final String device;
+        private Integer antenna;      // antenna of the last read
+        private final long firstSeen;
+        private long lastSeen;
+        private long timeout;
+        private long reads = 1;
+
+        // wheel slot list
+        private int slot;
+        private Entry prev;
+        private Entry next;
+
+        private Entry(final String key, final String epc, final String device, final Integer antenna, final long nowMs, final long timeout) {
+            this.key = key;
+            this.epc = epc;
+            this.device = device;
+            this.antenna = antenna;
+            this.firstSeen = nowMs;
+            this.lastSeen = nowMs;
+            this.timeout = timeout;
+        }
+
+    }
+
+}
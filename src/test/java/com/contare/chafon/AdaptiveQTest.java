@@ -0,0 +1,73 @@
+package com.contare.chafon;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AdaptiveQTest {
+
+    private static final long SLOT_NANOS = 1_000_000L;
+
+    @ParameterizedTest
+    @CsvSource({
+        "200, 4, 7, 8",
+        "200, 12, 7, 8",
+        "3, 8, 1, 2",
+        "1000, 4, 9, 10"
+    })
+    public void convergesToPopulation(final int population, final int initialQ, final int minExpected, final int maxExpected) {
+        final AdaptiveQ engine = new AdaptiveQ(1, initialQ);
+        for (int round = 0; round < 100; round++) {
+            engine.update(0, population, duration(engine.getQ(0), population));
+        }
+        final int q = engine.getQ(0);
+        assertTrue(q >= minExpected && q <= maxExpected, "Q = " + q);
+        assertEquals(population, engine.getPopulation(0), population * 0.01);
+    }
+
+    @Test
+    public void emptyRoundsStepDown() {
+        final AdaptiveQ engine = new AdaptiveQ(1, 6, 2, 15);
+        for (int round = 0; round < 10; round++) {
+            engine.update(0, 0, SLOT_NANOS * 64);
+        }
+        assertEquals(2, engine.getQ(0));
+    }
+
+    @Test
+    public void followsPopulationChange() {
+        final AdaptiveQ engine = new AdaptiveQ(1, 4);
+        for (int round = 0; round < 50; round++) {
+            engine.update(0, 16, duration(engine.getQ(0), 16));
+        }
+        assertTrue(engine.getQ(0) <= 5, "Q = " + engine.getQ(0));
+        for (int round = 0; round < 50; round++) {
+            engine.update(0, 500, duration(engine.getQ(0), 500));
+        }
+        assertTrue(engine.getQ(0) >= 8, "Q = " + engine.getQ(0));
+    }
+
+    @Test
+    public void antennasAreIndependent() {
+        final AdaptiveQ engine = new AdaptiveQ(2, 4);
+        for (int round = 0; round < 50; round++) {
+            engine.update(0, 300, duration(engine.getQ(0), 300));
+            engine.update(1, 0, SLOT_NANOS);
+        }
+        assertTrue(engine.getQ(0) >= 7);
+        assertEquals(0, engine.getQ(1));
+        assertThrows(IllegalArgumentException.class, () -> new AdaptiveQ(1, 4, 5, 3));
+    }
+
+    /**
+     * Slotted ALOHA: with N tags in a frame of L slots a slot singulates (N / L) e^(-N / L) tags, so reading N tags takes about
+     * L e^(N / L) slots, shortest when L = N.
+     */
+    private static long duration(final int q, final int population) {
+        final double slots = 1 << q;
+        return (long) (slots * Math.exp(population / slots) * SLOT_NANOS);
+    }
+
+}
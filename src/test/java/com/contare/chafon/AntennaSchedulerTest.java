@@ -0,0 +1,81 @@
+package com.contare.chafon;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AntennaSchedulerTest {
+
+    private static final long ROUND_NANOS = 50_000_000L;
+
+    @Test
+    public void equalWithoutYield() {
+        final AntennaScheduler scheduler = new AntennaScheduler(4);
+        final int[] visits = run(scheduler, 0x0F, 400, new int[]{0, 0, 0, 0});
+        for (final int count : visits) {
+            assertEquals(100, count);
+        }
+        assertEquals(10, scheduler.getScanTime(0, 10));
+        assertEquals(0.25, scheduler.getTimeShare(0), 0.001);
+    }
+
+    @Test
+    public void followsYield() {
+        final AntennaScheduler scheduler = new AntennaScheduler(4);
+        final int[] yields = {20, 5, 0, 0};
+        final int[] visits = run(scheduler, 0x0F, 1000, yields);
+        assertTrue(visits[0] > visits[1], "visits = " + visits[0] + " / " + visits[1]);
+        assertTrue(visits[1] > visits[2], "visits = " + visits[1] + " / " + visits[2]);
+        assertTrue(visits[0] > 500, "visits = " + visits[0]);
+        assertTrue(scheduler.getTimeShare(0) > 0.5);
+
+        for (int round = 0; round < 40; round++) {
+            final int antenna = scheduler.next(0x0F);
+            final int scanTime = scheduler.getScanTime(antenna, 10);
+            if (antenna == 0) {
+                assertTrue(scanTime > 10 && scanTime <= 40, "scan time = " + scanTime);
+            } else if (antenna >= 2) {
+                assertTrue(scanTime >= 1 && scanTime < 10, "scan time = " + scanTime);
+            }
+            scheduler.update(antenna, yields[antenna], yields[antenna], ROUND_NANOS);
+        }
+    }
+
+    @Test
+    public void idleAntennasAreNotStarved() {
+        final AntennaScheduler scheduler = new AntennaScheduler(4);
+        final long[] last = new long[4];
+        int maxGap = 0;
+        for (int round = 1; round <= 2000; round++) {
+            final int antenna = scheduler.next(0x0F);
+            maxGap = Math.max(maxGap, (int) (round - last[antenna]));
+            last[antenna] = round;
+            scheduler.update(antenna, antenna == 0 ? 100 : 0, antenna == 0 ? 100 : 0, ROUND_NANOS);
+        }
+        assertTrue(maxGap <= 8 * 4 + 1, "max gap = " + maxGap);
+        for (int i = 1; i < 4; i++) {
+            assertTrue(scheduler.getRounds(i) >= 2000 / 33, "rounds = " + scheduler.getRounds(i));
+        }
+    }
+
+    @Test
+    public void honoursMask() {
+        final AntennaScheduler scheduler = new AntennaScheduler(4);
+        final int[] visits = run(scheduler, 0x05, 100, new int[]{1, 1, 1, 1});
+        assertEquals(0, visits[1]);
+        assertEquals(0, visits[3]);
+        assertEquals(100, visits[0] + visits[2]);
+        assertEquals(-1, scheduler.next(0));
+    }
+
+    private static int[] run(final AntennaScheduler scheduler, final int mask, final int rounds, final int[] yields) {
+        final int[] visits = new int[yields.length];
+        for (int round = 0; round < rounds; round++) {
+            final int antenna = scheduler.next(mask);
+            visits[antenna]++;
+            scheduler.update(antenna, yields[antenna], yields[antenna], ROUND_NANOS);
+        }
+        return visits;
+    }
+
+}
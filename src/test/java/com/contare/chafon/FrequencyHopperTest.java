@@ -0,0 +1,69 @@
+package com.contare.chafon;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FrequencyHopperTest {
+
+    @Test
+    public void validatesPlan() {
+        assertThrows(IllegalArgumentException.class, () -> new FrequencyHopper(List.of(), 100));
+        assertThrows(IllegalArgumentException.class, () -> new FrequencyHopper(List.of(Frequency.BRAZIL_1, new Frequency(2, 902.75, 0.5, 0, 60)), 100));
+        assertThrows(IllegalArgumentException.class, () -> new FrequencyHopper(List.of(Frequency.BRAZIL_1, new Frequency(99, 900, 0.5, 0, 1)), 100));
+        assertThrows(IllegalArgumentException.class, () -> new FrequencyHopper(List.of(Frequency.BRAZIL_1, Frequency.BRAZIL_2), -1));
+    }
+
+    @Test
+    public void singleGroupNeverHops() {
+        final FrequencyHopper hopper = new FrequencyHopper(List.of(Frequency.BRAZIL), 0);
+        assertFalse(hopper.isDue(System.nanoTime() + TimeUnit.HOURS.toNanos(1)));
+    }
+
+    @Test
+    public void weightsDownLowYieldGroups() throws Exception {
+        final FrequencyHopper hopper = new FrequencyHopper(List.of(Frequency.BRAZIL_1, Frequency.BRAZIL_2), 10);
+        for (int dwell = 0; dwell < 10; dwell++) {
+            final int tags = (hopper.getCurrent() == 0) ? 50 : 2;
+            for (int i = 0; i < tags; i++) {
+                hopper.onTag(epc(i), 0, 12);
+                hopper.onTag(epc(i), 0, 12); // a second read of the same tag is not unique
+            }
+            Thread.sleep(10);
+            hopper.onHop(true, TimeUnit.MILLISECONDS.toNanos(1));
+        }
+
+        assertEquals(10, hopper.getHops());
+        assertEquals(500, hopper.getReads(0));
+        assertEquals(250, hopper.getUnique(0));
+        assertEquals(10, hopper.getUnique(1));
+        assertEquals(FrequencyHopper.MAX_WEIGHT, hopper.getWeight(0), 0.5);
+        assertEquals(FrequencyHopper.MIN_WEIGHT, hopper.getWeight(1), 0.01);
+        assertTrue(hopper.getDwellNanos(0) > hopper.getDwellNanos(1));
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(1), hopper.getMeanHopNanos());
+    }
+
+    @Test
+    public void failedHopStays() {
+        final FrequencyHopper hopper = new FrequencyHopper(List.of(Frequency.BRAZIL_1, Frequency.BRAZIL_2), 0);
+        assertTrue(hopper.isDue(System.nanoTime()));
+        hopper.onHop(false, 1_000);
+        assertEquals(0, hopper.getCurrent());
+        assertEquals(1, hopper.getFailedHops());
+        hopper.onHop(true, 1_000);
+        assertEquals(1, hopper.getCurrent());
+        assertEquals(Frequency.BRAZIL_1, hopper.getNext());
+    }
+
+    private static byte[] epc(final int n) {
+        final byte[] epc = new byte[12];
+        epc[0] = (byte) 0xE2;
+        epc[10] = (byte) (n >> 8);
+        epc[11] = (byte) n;
+        return epc;
+    }
+
+}
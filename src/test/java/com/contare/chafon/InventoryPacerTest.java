@@ -0,0 +1,55 @@
+package com.contare.chafon;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class InventoryPacerTest {
+
+    private static final long ROUND_NANOS = TimeUnit.MILLISECONDS.toNanos(40);
+
+    @Test
+    public void noDelayWhileTagsFlow() {
+        final InventoryPacer pacer = new InventoryPacer(PacingOptions.DEFAULT);
+        for (int round = 0; round < 10; round++) {
+            assertEquals(0, pacer.delayNanos(12, ROUND_NANOS));
+        }
+    }
+
+    @Test
+    public void idleBackoff() {
+        final InventoryPacer pacer = new InventoryPacer(new PacingOptions(5L, 30L, null));
+        assertEquals(ms(5), pacer.delayNanos(0, ROUND_NANOS));
+        assertEquals(ms(10), pacer.delayNanos(0, ROUND_NANOS));
+        assertEquals(ms(20), pacer.delayNanos(0, ROUND_NANOS));
+        assertEquals(ms(30), pacer.delayNanos(0, ROUND_NANOS));
+        assertEquals(ms(30), pacer.delayNanos(0, ROUND_NANOS));
+
+        assertEquals(0, pacer.delayNanos(1, ROUND_NANOS)); // tags reset the backoff
+        assertEquals(ms(5), pacer.delayNanos(0, ROUND_NANOS));
+    }
+
+    @Test
+    public void dutyCycle() {
+        final InventoryPacer pacer = new InventoryPacer(new PacingOptions(5L, 100L, 0.8));
+        assertEquals(ms(10), pacer.delayNanos(12, ROUND_NANOS)); // 40 ms on, 10 ms off
+        assertEquals(ms(10), pacer.delayNanos(0, ROUND_NANOS));  // more than the 5 ms idle pause
+        assertEquals(ms(10), pacer.delayNanos(0, ROUND_NANOS));
+        assertEquals(ms(20), pacer.delayNanos(0, ROUND_NANOS));  // idle pause took over
+    }
+
+    @Test
+    public void invalidOptions() {
+        assertThrows(IllegalArgumentException.class, () -> new PacingOptions(-1L, null, null));
+        assertThrows(IllegalArgumentException.class, () -> new PacingOptions(50L, 10L, null));
+        assertThrows(IllegalArgumentException.class, () -> new PacingOptions(null, null, 0.0));
+        assertThrows(IllegalArgumentException.class, () -> new PacingOptions(null, null, 1.5));
+    }
+
+    private static long ms(final long value) {
+        return TimeUnit.MILLISECONDS.toNanos(value);
+    }
+
+}
@@ -0,0 +1,54 @@
+package com.contare.chafon;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TagCursorTest {
+
+    @Test
+    public void inventory() {
+        final byte[] list = new byte[]{
+            4, (byte) 0xE2, (byte) 0x80, 0x11, 0x60, 60,
+            2, 0x12, 0x34, 70,
+            0, 0, 0 // unused tail
+        };
+        final TagCursor cursor = new TagCursor().reset(list, 10, 3, false, "127.0.0.1");
+
+        assertTrue(cursor.next());
+        assertEquals("E2801160", cursor.getEpcHex());
+        assertEquals(60, cursor.getRssi());
+        assertEquals(3, cursor.getAntenna());
+        assertEquals(0, cursor.getMemLength());
+        assertNull(cursor.getMemHex());
+
+        assertTrue(cursor.next());
+        assertEquals(2, cursor.getEpcLength());
+        final byte[] epc = new byte[2];
+        assertEquals(2, cursor.copyEpc(epc, 0));
+        assertArrayEquals(new byte[]{ 0x12, 0x34 }, epc);
+        assertEquals(70, cursor.getRssi());
+
+        assertFalse(cursor.next());
+    }
+
+    @Test
+    public void inventoryMix() {
+        final byte[] list = new byte[]{ 2, (byte) 0xAB, (byte) 0xCD, 55, 4, 0x01, 0x02, 0x03, 0x04 };
+        final TagCursor cursor = new TagCursor().reset(list, list.length, 1, true, "127.0.0.1");
+
+        assertTrue(cursor.next());
+        assertEquals("ABCD", cursor.getEpcHex());
+        assertEquals(55, cursor.getRssi());
+        assertEquals("01020304", cursor.getMemHex());
+        assertFalse(cursor.next());
+    }
+
+    @Test
+    public void truncatedRecord() {
+        final byte[] list = new byte[]{ 12, (byte) 0xE2, (byte) 0x80 };
+        final TagCursor cursor = new TagCursor().reset(list, list.length, 1, false, "127.0.0.1");
+        assertFalse(cursor.next());
+    }
+
+}
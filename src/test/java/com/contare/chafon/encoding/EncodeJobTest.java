@@ -0,0 +1,131 @@
+package com.contare.chafon.encoding;
+
+import com.contare.chafon.ChafonReader;
+import com.contare.chafon.protocol.ChafonFrame;
+import com.contare.chafon.simulator.ChafonSimulator;
+import com.contare.chafon.simulator.SimulatorConfig;
+import com.contare.chafon.simulator.VirtualTag;
+import com.rfid.Utils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EncodeJobTest {
+
+    private static final int TAGS = 50;
+
+    private ChafonSimulator simulator;
+    private ChafonReader reader;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        simulator = ChafonSimulator.start(new SimulatorConfig().addTags(1, TAGS));
+        reader = new ChafonReader("127.0.0.1", simulator.getPort(), 4, false);
+        assertEquals(0x00, reader.Connect(), "Failed to connect to simulator");
+    }
+
+    @AfterEach
+    public void tearDown() {
+        reader.Disconnect();
+        simulator.close();
+    }
+
+    private static String hex(final byte[] bytes) {
+        return Utils.bytesToHexString(bytes, 0, bytes.length).toUpperCase();
+    }
+
+    private static String epc(final int n) {
+        return String.format("3034257BF400B7800000%04X", n);
+    }
+
+    private Map<String, String> mapping(final int count) {
+        final Map<String, String> tidToEpc = new LinkedHashMap<>();
+        final List<VirtualTag> tags = simulator.getConfig().getTags();
+        for (int i = 0; i < count; i++) {
+            tidToEpc.put(hex(tags.get(i).getTid()), epc(i));
+        }
+        return tidToEpc;
+    }
+
+    @Test
+    public void frame() {
+        final EncodingFrame frame = EncodingFrame.of("e2801160200074cf085e0000", "E2000017", "00000000");
+        assertEquals("E2801160200074CF085E0000", frame.getTid());
+        assertArrayEquals(new byte[]{ 0x10, 0x00, (byte) 0xE2, 0x00, 0x00, 0x17 }, frame.getData());
+        assertEquals(0x3000, EncodingFrame.pc(6));
+        assertEquals(0x8000, EncodingFrame.pc(16));
+        assertThrows(IllegalArgumentException.class, () -> EncodingFrame.of("E280116", "E2000017", "00000000"));
+        assertThrows(IllegalArgumentException.class, () -> EncodingFrame.of("E2801160", "E20000XY", "00000000"));
+        assertThrows(IllegalArgumentException.class, () -> EncodingFrame.of("E2801160", "E2000017", "0000"));
+        assertThrows(IllegalArgumentException.class, () -> new EncodeJob(Map.of("E2801160", "E2000017", "e2801160", "E2000018"), null));
+        assertEquals(2, new EncodeJob(Map.of("E2801160", "E2000017", "E28011600001", "E2000018"), null).size()); // a longer TID is not a repeat
+    }
+
+    @Test
+    public void WriteEPCByTID() {
+        final VirtualTag tag = simulator.getConfig().getTags().get(3);
+        assertEquals(0x00, reader.WriteEPCByTID(hex(tag.getTid()), "CAFEBABE", "00000000"));
+        assertEquals("CAFEBABE", hex(tag.getEpc()));
+        assertEquals(0x1000, tag.getPc());
+        assertEquals(0xFF, reader.WriteEPCByTID(hex(tag.getTid()), "CAFEBA", "00000000"));
+    }
+
+    @Test
+    public void encodeVerifyAndLock() throws Exception {
+        final Map<String, String> tidToEpc = mapping(20);
+        tidToEpc.put("E2801160FFFFFFFFFFFFFFFF", epc(999)); // not in the field
+
+        final EncodeJob job = new EncodeJob(tidToEpc, new EncodingOptions(null, null, null, true, 2, 2, null));
+        final EncodeReport report = job.submit(reader, 30_000).get(30, TimeUnit.SECONDS);
+
+        assertEquals(21, report.getResults().size());
+        assertEquals(20, report.count(EncodeResult.Outcome.LOCKED));
+        assertEquals(1, report.count(EncodeResult.Outcome.NOT_FOUND));
+        assertEquals(20, report.getEncoded());
+        assertTrue(report.getTagsPerMinute() > 0);
+
+        final List<VirtualTag> tags = simulator.getConfig().getTags();
+        for (int i = 0; i < 20; i++) {
+            assertEquals(epc(i), hex(tags.get(i).getEpc()));
+            assertEquals(VirtualTag.LOCK_SECURED, tags.get(i).getLock(2)); // EPC area
+        }
+        assertFalse(Arrays.equals(Utils.hexStringToBytes(epc(20)), tags.get(20).getEpc()));
+        for (final EncodeResult result : report.getResults()) {
+            if (result.getOutcome() == EncodeResult.Outcome.LOCKED) {
+                assertEquals(1, result.getAttempts());
+            }
+        }
+    }
+
+    @Test
+    public void escalateWritePower() {
+        simulator.getConfig().setMinWritePower(25);
+
+        final EncodeJob job = new EncodeJob(mapping(5), new EncodingOptions(null, List.of(15, 20, 25, 30), null, null, null, null, null));
+        assertEquals(4, job.getOptions().attempts);
+        final EncodeReport report = job.run(reader);
+
+        assertEquals(5, report.count(EncodeResult.Outcome.VERIFIED));
+        final EncodeResult first = report.getResults().get(0);
+        assertEquals(3, first.getAttempts());
+        assertEquals(25, first.getWritePower());
+        // every tag starts again from the lowest power
+        assertEquals(3, report.getResults().get(4).getAttempts());
+
+        // too weak for every attempt
+        simulator.getConfig().setMinWritePower(33);
+        final EncodeReport failed = new EncodeJob(mapping(2), new EncodingOptions(null, List.of(10, 20), 2, null, null, null, null)).run(reader);
+        assertEquals(2, failed.count(EncodeResult.Outcome.WRITE_FAILED));
+        assertEquals(ChafonFrame.NO_TAG, failed.getResults().get(0).getResult());
+        assertEquals(0, failed.getEncoded());
+    }
+
+}
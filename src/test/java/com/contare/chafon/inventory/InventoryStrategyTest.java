@@ -0,0 +1,83 @@
+package com.contare.chafon.inventory;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class InventoryStrategyTest {
+
+    @ParameterizedTest
+    @CsvSource({
+        "0, 0, TrackingStrategy",
+        "1, 2, FastCountStrategy",
+        "2, 2, DualTargetStrategy",
+        "3, 2, DualTargetStrategy",
+        "2, 0, NewTagsStrategy",
+        "3, 1, NewTagsStrategy",
+        "255, 0, PassthroughStrategy",
+        "255, 2, PassthroughStrategy"
+    })
+    public void fromReaderParameter(final int session, final int target, final String expected) {
+        final InventoryStrategy strategy = InventoryStrategy.of(session, target);
+        strategy.reset(4);
+        assertEquals(expected, strategy.getClass().getSimpleName());
+        assertEquals(session, strategy.session(0));
+        assertEquals(InventoryStrategy.TARGET_A, strategy.target(0));
+    }
+
+    @Test
+    public void passthroughFlipsTargetTwo() {
+        final InventoryStrategy fixed = InventoryStrategy.of(0xFF, 1);
+        fixed.reset(2);
+        for (int i = 0; i < 10; i++) {
+            fixed.onRound(0, 0);
+        }
+        assertEquals(InventoryStrategy.TARGET_B, fixed.target(0));
+
+        final InventoryStrategy dual = InventoryStrategy.of(0xFF, 2);
+        dual.reset(2);
+        dual.onRound(0, 0);
+        dual.onRound(1, 0);
+        assertEquals(InventoryStrategy.TARGET_A, dual.target(0));
+        dual.onRound(0, 0); // more than one empty round per port
+        assertEquals(InventoryStrategy.TARGET_B, dual.target(1));
+        dual.onRound(0, 5);
+        dual.onRound(0, 0);
+        assertEquals(InventoryStrategy.TARGET_B, dual.target(0));
+    }
+
+    @Test
+    public void dualTargetSwitchesPerAntenna() {
+        final DualTargetStrategy strategy = new DualTargetStrategy(2, 2);
+        strategy.reset(2);
+
+        strategy.onRound(0, 0);
+        strategy.onRound(0, 5); // tags reset the count
+        strategy.onRound(0, 0);
+        assertEquals(InventoryStrategy.TARGET_A, strategy.target(0));
+        strategy.onRound(0, 0);
+        assertEquals(InventoryStrategy.TARGET_B, strategy.target(0));
+        assertEquals(InventoryStrategy.TARGET_A, strategy.target(1));
+
+        strategy.onRound(0, 0);
+        strategy.onRound(0, 0);
+        assertEquals(InventoryStrategy.TARGET_A, strategy.target(0));
+
+        strategy.reset(2);
+        assertEquals(InventoryStrategy.TARGET_A, strategy.target(0));
+    }
+
+    @Test
+    public void fromConfig() {
+        final InventoryStrategy strategy = InventoryStrategyType.DUAL_TARGET.create(3, null);
+        strategy.reset(1);
+        assertEquals(3, strategy.session(0));
+        assertEquals(0, InventoryStrategyType.TRACKING.create(null, null).session(0));
+        assertEquals(2, InventoryStrategyType.NEW_TAGS.create(null, null).session(0));
+        assertThrows(IllegalArgumentException.class, () -> InventoryStrategyType.NEW_TAGS.create(1, null));
+        assertThrows(IllegalArgumentException.class, () -> InventoryStrategyType.DUAL_TARGET.create(2, 0));
+    }
+
+}
@@ -0,0 +1,45 @@
+package com.contare.chafon.inventory;
+
+import com.contare.core.objects.MemoryBank;
+import com.contare.core.objects.TagFilter;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SelectPlanTest {
+
+    @Test
+    public void filter() {
+        final TagFilter epc = TagFilter.include(MemoryBank.EPC, "e2801");
+        assertEquals("E2801", epc.mask);
+        assertEquals(20, epc.bitLength);
+        assertEquals(0x20, epc.getSelectPtr()); // after StoredCRC + PC
+        assertArrayEquals(new byte[]{ (byte) 0xE2, (byte) 0x80, 0x10 }, epc.getMaskBytes());
+
+        final TagFilter user = new TagFilter(TagFilter.Action.EXCLUDE, MemoryBank.USER, 16, "FF", 3);
+        assertFalse(user.isInclude());
+        assertEquals(16, user.getSelectPtr());
+        assertArrayEquals(new byte[]{ (byte) 0xE0 }, user.getMaskBytes());
+
+        assertThrows(IllegalArgumentException.class, () -> TagFilter.include(MemoryBank.RESERVED, "00"));
+        assertThrows(IllegalArgumentException.class, () -> TagFilter.include(MemoryBank.TID, "E2XY"));
+        assertThrows(IllegalArgumentException.class, () -> TagFilter.include(MemoryBank.TID, ""));
+        assertThrows(IllegalArgumentException.class, () -> new TagFilter(null, null, null, "E2", 9));
+        assertThrows(IllegalArgumentException.class, () -> new TagFilter(null, null, 0xFFF0, "E2", null));
+    }
+
+    @Test
+    public void actionFollowsTarget() {
+        // tags failing a filter are moved away from the target, matching includes are never touched
+        assertEquals(SelectPlan.NONMATCHING_TO_B, SelectPlan.action(true, InventoryStrategy.TARGET_A));
+        assertEquals(SelectPlan.NONMATCHING_TO_A, SelectPlan.action(true, InventoryStrategy.TARGET_B));
+        assertEquals(SelectPlan.MATCHING_TO_B, SelectPlan.action(false, InventoryStrategy.TARGET_A));
+        assertEquals(SelectPlan.MATCHING_TO_A, SelectPlan.action(false, InventoryStrategy.TARGET_B));
+
+        assertThrows(IllegalArgumentException.class, () -> new SelectPlan(List.of()));
+        assertEquals(2, new SelectPlan(List.of(TagFilter.include(null, "E2"), TagFilter.exclude(null, "E280"))).getFilters().size());
+    }
+
+}
@@ -0,0 +1,215 @@
+package com.contare.chafon.protocol;
+
+import com.rfid.Utils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class ChafonChannelTest {
+
+    private ServerSocket server;
+    private ChafonChannel channel;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        server = new ServerSocket(0);
+        channel = new ChafonChannel();
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        channel.close();
+        server.close();
+    }
+
+    private static byte[] frame(final int... bytes) {
+        final byte[] data = new byte[bytes.length + 3];
+        data[0] = (byte) (bytes.length + 2);
+        for (int i = 0; i < bytes.length; i++) {
+            data[i + 1] = (byte) bytes[i];
+        }
+        Utils.getCRC(data, bytes.length + 1);
+        return data;
+    }
+
+    @Test
+    public void exchange() throws Exception {
+        final CompletableFuture<byte[]> received = CompletableFuture.supplyAsync(() -> {
+            try (final Socket socket = server.accept()) {
+                final InputStream in = socket.getInputStream();
+                final OutputStream out = socket.getOutputStream();
+                final byte[] request = new byte[6];
+                int read = 0;
+                while (read < request.length) {
+                    read += in.read(request, read, request.length - read);
+                }
+
+                final byte[] stale = frame(0x00, 0x40, 0x00);          // response to another command
+                final byte[] response = frame(0x00, 0x2F, 0x00, 0x1E);  // SetRfPower response
+                out.write(new byte[]{ 0x13, 0x37 });                    // garbage
+                out.write(stale);
+                out.write(response, 0, 3);                              // split frame
+                out.flush();
+                Thread.sleep(50);
+                out.write(response, 3, response.length - 3);
+                out.flush();
+                Thread.sleep(100);
+                return request;
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        });
+
+        assertEquals(ChafonFrame.SUCCESS, channel.open("127.0.0.1", server.getLocalPort(), 1_000));
+
+        channel.lock();
+        try {
+            channel.beginFrame((byte) 0xFF, ChafonFrame.CMD_SET_RF_POWER).put((byte) 30);
+            assertEquals(ChafonFrame.SUCCESS, channel.exchange(ChafonFrame.CMD_SET_RF_POWER, 1_000));
+
+            final ByteBuffer response = channel.frame();
+            assertEquals(7, response.limit());
+            assertEquals(ChafonFrame.CMD_SET_RF_POWER, response.get(ChafonFrame.COMMAND) & 0xFF);
+            assertEquals(0x1E, response.get(ChafonFrame.DATA));
+        } finally {
+            channel.unlock();
+        }
+
+        final byte[] request = received.get(2, TimeUnit.SECONDS);
+        final byte[] expected = frame(0xFF, 0x2F, 30);
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(expected[i], request[i], "request byte " + i);
+        }
+    }
+
+    @Test
+    public void timeout() throws Exception {
+        final CompletableFuture<Void> accepted = CompletableFuture.runAsync(() -> {
+            try (final Socket socket = server.accept()) {
+                Thread.sleep(500);
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        });
+
+        assertEquals(ChafonFrame.SUCCESS, channel.open("127.0.0.1", server.getLocalPort(), 1_000));
+
+        channel.lock();
+        try {
+            channel.beginFrame((byte) 0xFF, ChafonFrame.CMD_GET_GPIO);
+            final long start = System.currentTimeMillis();
+            assertEquals(ChafonFrame.COMMUNICATION_ERROR, channel.exchange(ChafonFrame.CMD_GET_GPIO, 100));
+            final long elapsed = System.currentTimeMillis() - start;
+            assertEquals(true, elapsed >= 90 && elapsed < 450, "elapsed = " + elapsed);
+        } finally {
+            channel.unlock();
+        }
+        accepted.get(2, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void writeTimeout() throws Exception {
+        final CompletableFuture<Void> accepted = CompletableFuture.runAsync(() -> {
+            try (final Socket socket = server.accept()) {
+                Thread.sleep(5_000); // never reads
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        });
+
+        assertEquals(ChafonFrame.SUCCESS, channel.open("127.0.0.1", server.getLocalPort(), 1_000));
+
+        // fill the socket buffers of both ends until a write is no longer accepted
+        final ByteBuffer chunk = ByteBuffer.allocate(64 * 1024);
+        ChafonChannel.setDeadline(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(300));
+        try {
+            int result = ChafonFrame.SUCCESS;
+            final long start = System.currentTimeMillis();
+            for (int i = 0; i < 1_000 && result == ChafonFrame.SUCCESS; i++) {
+                chunk.clear();
+                result = channel.send(chunk);
+            }
+            final long elapsed = System.currentTimeMillis() - start;
+            assertEquals(ChafonFrame.COMMUNICATION_ERROR, result);
+            assertEquals(true, elapsed < 2_000, "elapsed = " + elapsed);
+        } finally {
+            ChafonChannel.clearDeadline();
+        }
+        server.close();
+        accepted.cancel(true);
+    }
+
+    @Test
+    public void closeWhileWaiting() throws Exception {
+        final CompletableFuture<Void> accepted = CompletableFuture.runAsync(() -> {
+            try (final Socket socket = server.accept()) {
+                Thread.sleep(1_000); // never answers
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        });
+        assertEquals(ChafonFrame.SUCCESS, channel.open("127.0.0.1", server.getLocalPort(), 1_000));
+
+        final CompletableFuture<Integer> result = CompletableFuture.supplyAsync(() -> {
+            channel.lock();
+            try {
+                channel.beginFrame((byte) 0xFF, ChafonFrame.CMD_GET_GPIO);
+                return channel.exchange(ChafonFrame.CMD_GET_GPIO, 5_000);
+            } finally {
+                channel.unlock();
+            }
+        });
+        Thread.sleep(100);
+        channel.close();
+
+        // a closed selector ends the wait with a communication error, not an unchecked exception
+        assertEquals(ChafonFrame.COMMUNICATION_ERROR, result.get(2, TimeUnit.SECONDS));
+        accepted.get(2, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void postKeepsExchangeTiming() throws Exception {
+        final CompletableFuture<Void> accepted = CompletableFuture.runAsync(() -> {
+            try (final Socket socket = server.accept()) {
+                Thread.sleep(400);
+                socket.getOutputStream().write(frame(0x00, ChafonFrame.CMD_GET_GPIO, 0x00, 0x01));
+                socket.getOutputStream().flush();
+                Thread.sleep(200);
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        });
+        assertEquals(ChafonFrame.SUCCESS, channel.open("127.0.0.1", server.getLocalPort(), 1_000));
+        final CompletableFuture<Long> nanos = new CompletableFuture<>();
+        channel.setExchangeListener((cmd, result, elapsed) -> nanos.complete(elapsed));
+
+        final CompletableFuture<Integer> result = CompletableFuture.supplyAsync(() -> {
+            channel.lock();
+            try {
+                channel.beginFrame((byte) 0xFF, ChafonFrame.CMD_GET_GPIO);
+                return channel.exchange(ChafonFrame.CMD_GET_GPIO, 2_000);
+            } finally {
+                channel.unlock();
+            }
+        });
+        Thread.sleep(200);
+        channel.beginFrame((byte) 0xFF, ChafonFrame.CMD_STOP_IMMEDIATELY);
+        assertEquals(ChafonFrame.SUCCESS, channel.post());
+
+        assertEquals(ChafonFrame.SUCCESS, result.get(2, TimeUnit.SECONDS));
+        final long elapsed = TimeUnit.NANOSECONDS.toMillis(nanos.get(1, TimeUnit.SECONDS));
+        assertEquals(true, elapsed >= 350, "round trip measured from the stop frame, elapsed = " + elapsed);
+        accepted.get(2, TimeUnit.SECONDS);
+    }
+
+}
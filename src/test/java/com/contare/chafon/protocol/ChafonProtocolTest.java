@@ -0,0 +1,104 @@
+package com.contare.chafon.protocol;
+
+import com.rfid.Utils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ChafonProtocolTest {
+
+    private ServerSocket server;
+    private ChafonProtocol protocol;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        server = new ServerSocket(0);
+        protocol = new ChafonProtocol("127.0.0.1", 4);
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        protocol.DisConnect();
+        server.close();
+    }
+
+    private static byte[] frame(final int... bytes) {
+        final byte[] data = new byte[bytes.length + 3];
+        data[0] = (byte) (bytes.length + 2);
+        for (int i = 0; i < bytes.length; i++) {
+            data[i + 1] = (byte) bytes[i];
+        }
+        Utils.getCRC(data, bytes.length + 1);
+        return data;
+    }
+
+    /**
+     * Accept the connection, wait for one request and answer it with {@code frames}.
+     */
+    private CompletableFuture<Void> reply(final byte[]... frames) {
+        return CompletableFuture.runAsync(() -> {
+            try (final Socket socket = server.accept()) {
+                final InputStream in = socket.getInputStream();
+                final OutputStream out = socket.getOutputStream();
+                final int length = in.read();
+                in.readNBytes(length);
+                for (final byte[] frame : frames) {
+                    out.write(frame);
+                }
+                out.flush();
+                Thread.sleep(200);
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        });
+    }
+
+    @Test
+    public void Inventory_Mix_OverflowOnLastFrame() throws Exception {
+        final int[] epc = { 0x01, 0x00, 0x04, 0xE2, 0x80, 0x11, 0x60 };     // packet 0, 4 bytes
+        final int[] memory = { 0x01, 0x81, 0x04, 0xCA, 0xFE, 0xBA, 0xBE };  // packet 0x81, 4 bytes
+        final CompletableFuture<Void> replied = reply(
+            frame(0x00, ChafonFrame.CMD_INVENTORY_MIX, ChafonFrame.INVENTORY_MORE, 0x01, epc[0], epc[1], epc[2], epc[3], epc[4], epc[5], epc[6], 0x50),
+            frame(0x00, ChafonFrame.CMD_INVENTORY_MIX, ChafonFrame.INVENTORY_FINISHED, 0x01, memory[0], memory[1], memory[2], memory[3], memory[4], memory[5], memory[6], 0x50)
+        );
+        assertEquals(ChafonFrame.SUCCESS, protocol.Connect("127.0.0.1", server.getLocalPort(), 0));
+
+        // room for the EPC only, the memory record of the last frame overflows
+        final byte[] list = new byte[5];
+        final int[] num = new int[1];
+        final int[] len = new int[1];
+        final byte[] address = new byte[2];
+        final long start = System.nanoTime();
+        final int result = protocol.Inventory_Mix((byte) 0, (byte) 4, (byte) 0, (byte) 0, address, (byte) 0, new byte[0], (byte) 0, (byte) 2, address, (byte) 2, new byte[4], (byte) 0, (byte) 0x80, (byte) 10, list, num, len);
+
+        assertEquals(ChafonFrame.INVENTORY_FINISHED, result);
+        assertEquals(0, num[0]);
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(1), "waited for a frame after the last one");
+        replied.get(2, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void GetReaderInformation_ShortResponse() throws Exception {
+        final CompletableFuture<Void> replied = reply(
+            frame(0x00, ChafonFrame.CMD_GET_READER_INFORMATION, 0xFE),          // error status, no data
+            frame(0x00, ChafonFrame.CMD_GET_READER_INFORMATION, 0x00, 0x01, 0x02) // success, truncated
+        );
+        assertEquals(ChafonFrame.SUCCESS, protocol.Connect("127.0.0.1", server.getLocalPort(), 0));
+
+        final byte[][] out = new byte[13][2];
+        out[0][0] = (byte) 0xFF;
+        assertEquals(0xFE, protocol.GetReaderInformation(out[0], out[1], out[2], out[3], out[4], out[5], out[6], out[7], out[8], out[9], out[10], out[11], out[12]));
+        assertEquals(ChafonFrame.COMMUNICATION_ERROR, protocol.GetReaderInformation(out[0], out[1], out[2], out[3], out[4], out[5], out[6], out[7], out[8], out[9], out[10], out[11], out[12]));
+        replied.get(2, TimeUnit.SECONDS);
+    }
+
+}
@@ -0,0 +1,42 @@
+package com.contare.chafon.protocol;
+
+import com.rfid.Utils;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class Crc16Test {
+
+    @Test
+    public void matchesVendorChecksum() {
+        final Random random = new Random(42);
+        for (int length = 1; length < 250; length++) {
+            final byte[] data = new byte[length + 2];
+            random.nextBytes(data);
+            Utils.getCRC(data, length);
+
+            final int crc = Crc16.compute(data, 0, length);
+            assertEquals(data[length] & 0xFF, crc & 0xFF, "low byte, length = " + length);
+            assertEquals(data[length + 1] & 0xFF, (crc >> 8) & 0xFF, "high byte, length = " + length);
+        }
+    }
+
+    @Test
+    public void checkFrame() {
+        // GetReaderInformation request: 04 FF 21 + crc
+        final byte[] data = new byte[]{ 0x04, (byte) 0xFF, 0x21, 0x00, 0x00 };
+        Utils.getCRC(data, 3);
+
+        final ByteBuffer frame = ByteBuffer.wrap(data);
+        assertTrue(Crc16.check(frame, 0, data.length));
+
+        data[2] = 0x22;
+        assertFalse(Crc16.check(frame, 0, data.length));
+    }
+
+}
@@ -0,0 +1,115 @@
+package com.contare.chafon.replay;
+
+import com.contare.core.archive.ArchiveWriter;
+import com.contare.core.journal.JournalOptions;
+import com.contare.core.journal.ReadJournal;
+import com.rfid.ReadTag;
+import com.rfid.TagCallback;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static com.contare.core.TestTags.epc;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReplayReaderTest {
+
+    private static final long T0 = 1_700_000_000_000L;
+
+    @Test
+    public void maxSpeedFromArchive(@TempDir final Path dir) throws Exception {
+        final Path file = dir.resolve("site.car");
+        final int reads = 20_000;
+        try (final ArchiveWriter writer = new ArchiveWriter(file, 4096)) {
+            for (int i = 0; i < reads; i++) {
+                writer.append(epc(i % 100), 40 + i % 30, 1 + i % 4, "192.168.1.200", T0 + i * 100L); // 2000 seconds
+            }
+        }
+
+        final ReplayReader replay = ReplayReader.fromArchive("archive", file, null, null);
+        assertEquals(reads, replay.size());
+        replay.SetOptions(ReplayOptions.MAX_SPEED);
+        final List<ReadTag> received = new ArrayList<>();
+        final CountDownLatch stopped = new CountDownLatch(1);
+        replay.SetCallBack(new TagCallback() {
+            @Override
+            public void tagCallback(final ReadTag tag) {
+                received.add(tag);
+            }
+
+            @Override
+            public void StopReadCallback() {
+                stopped.countDown();
+            }
+        });
+
+        assertEquals(0x00, replay.StartRead());
+        assertTrue(stopped.await(10, TimeUnit.SECONDS));
+        assertFalse(replay.isReading());
+        assertEquals(reads, replay.getEmitted());
+        assertEquals(reads, received.size());
+        assertEquals(epc(7), received.get(7).epcId);
+        assertEquals(47, received.get(7).rssi);
+        assertEquals(4, received.get(7).antId);
+        assertEquals("192.168.1.200", received.get(7).ipAddr);
+        assertTrue(replay.getThroughput() > 0);
+        assertTrue(replay.getElapsedNanos() < TimeUnit.SECONDS.toNanos(10));
+    }
+
+    @Test
+    public void pacedAndCompressedFromJournal(@TempDir final Path dir) throws Exception {
+        try (final ReadJournal journal = ReadJournal.open(new JournalOptions(dir.toString(), null, 10L))) {
+            for (int i = 0; i < 10; i++) {
+                journal.append(epc(i), 60, 1, "r1", i, T0 + i * 40L);  // 360 ms
+            }
+            journal.append(epc(10), 60, 1, "r1", 10, T0 + 3_600_000L); // an hour later
+        }
+        final ReplayReader replay = ReplayReader.fromJournal("journal", dir);
+        assertEquals(11, replay.size());
+        final List<String> received = Collections.synchronizedList(new ArrayList<>());
+        replay.SetCallBack((final ReadTag tag) -> received.add(tag.epcId));
+
+        // recorded pace with the idle hour cut to 100 ms
+        replay.SetOptions(new ReplayOptions(1.0, 100L));
+        assertEquals(0x00, replay.StartRead());
+        assertEquals(0xFF, replay.StartRead());
+        assertTrue(replay.await(10, TimeUnit.SECONDS));
+        assertEquals(11, received.size());
+        assertEquals(epc(10), received.get(10));
+        assertTrue(replay.getElapsedNanos() >= TimeUnit.MILLISECONDS.toNanos(460), "elapsed " + replay.getElapsedNanos());
+
+        // twice as fast
+        received.clear();
+        replay.SetOptions(new ReplayOptions(2.0, 100L));
+        replay.StartRead();
+        assertTrue(replay.await(10, TimeUnit.SECONDS));
+        assertEquals(11, received.size());
+        assertTrue(replay.getElapsedNanos() >= TimeUnit.MILLISECONDS.toNanos(230), "elapsed " + replay.getElapsedNanos());
+
+        // stopped mid-way, at the recorded pace the last read is an hour away
+        received.clear();
+        replay.SetOptions(null);
+        replay.StartRead();
+        while (received.size() < 10) {
+            Thread.sleep(10);
+        }
+        replay.StopRead();
+        assertTrue(replay.await(5, TimeUnit.SECONDS));
+        assertEquals(10, replay.getEmitted());
+    }
+
+    @Test
+    public void rejectsInvalidOptions() {
+        assertThrows(IllegalArgumentException.class, () -> new ReplayOptions(-1.0, null));
+        assertThrows(IllegalArgumentException.class, () -> new ReplayOptions(1.0, -5L));
+        assertTrue(new ReplayOptions(Double.POSITIVE_INFINITY, null).isMaxSpeed());
+        assertFalse(ReplayOptions.DEFAULT.isMaxSpeed());
+    }
+
+}
@@ -0,0 +1,554 @@
+package com.contare.chafon.simulator;
+
+import com.contare.chafon.ChafonReader;
+import com.contare.chafon.Frequency;
+import com.contare.chafon.FrequencyHopper;
+import com.contare.chafon.PacingOptions;
+import com.contare.chafon.ReaderConfiguration;
+import com.contare.chafon.TagCursor;
+import com.contare.chafon.UHFInformation;
+import com.contare.chafon.inventory.DualTargetStrategy;
+import com.contare.chafon.inventory.NewTagsStrategy;
+import com.contare.chafon.protocol.ChafonFrame;
+import com.contare.chafon.protocol.MemoryReadTag;
+import com.contare.core.collections.EpcSet;
+import com.contare.core.metrics.MetricRegistry;
+import com.contare.core.objects.MemoryBank;
+import com.contare.core.objects.MemoryReadOptions;
+import com.contare.core.objects.TagFilter;
+import com.rfid.CReader;
+import com.rfid.ReadTag;
+import com.rfid.Utils;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ChafonSimulatorTest {
+
+    private static final int TAGS = 200;
+
+    private ChafonSimulator simulator;
+    private ChafonReader reader;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        final SimulatorConfig config = new SimulatorConfig()
+            .addTags(1, TAGS)
+            .addTags(2, 10);
+        simulator = ChafonSimulator.start(config);
+
+        reader = new ChafonReader("127.0.0.1", simulator.getPort(), 4, false);
+        assertEquals(0x00, reader.Connect(), "Failed to connect to simulator");
+    }
+
+    @AfterEach
+    public void tearDown() {
+        reader.Disconnect();
+        simulator.close();
+    }
+
+    @Test
+    public void GetUHFInformation() {
+        assertTrue(reader.SetPower(20));
+        final UHFInformation result = reader.GetUHFInformation();
+        assertNotNull(result);
+        assertEquals(20, result.getPower());
+    }
+
+    @Test
+    public void StateCache() throws Exception {
+        final SimulatedReader device = simulator.getReader();
+        assertNotNull(reader.GetUHFInformation());
+        assertNotNull(reader.GetUHFInformation());
+        assertEquals(0x01, reader.GetAntennaMask());
+        assertNotNull(reader.GetSerialNo());
+        assertEquals(1, device.getCommandCount(ChafonFrame.CMD_GET_READER_INFORMATION));
+        assertEquals(1, device.getCommandCount(ChafonFrame.CMD_GET_RF_POWER_BY_ANT));
+        assertEquals(1, device.getCommandCount(ChafonFrame.CMD_GET_SERIAL_NO));
+
+        // setters update the cache in place, SetAntenna no longer reads the mask from the device
+        assertTrue(reader.SetPower(20));
+        assertTrue(reader.SetAntenna(2, true));
+        final UHFInformation info = reader.GetUHFInformation();
+        assertEquals(20, info.getPower());
+        assertEquals(20, info.getPowerPerAntenna()[0]);
+        assertEquals(0x03, info.getAntennaMask());
+        assertEquals(0x03, device.getAntennaMask());
+        assertEquals(1, device.getCommandCount(ChafonFrame.CMD_GET_READER_INFORMATION));
+
+        assertEquals(20, reader.RefreshState().getPower());
+        assertEquals(2, device.getCommandCount(ChafonFrame.CMD_GET_READER_INFORMATION));
+
+        reader.SetStateTtl(1);
+        Thread.sleep(5);
+        assertNotNull(reader.GetUHFInformation());
+        assertEquals(3, device.getCommandCount(ChafonFrame.CMD_GET_READER_INFORMATION));
+        assertEquals(2, device.getCommandCount(ChafonFrame.CMD_GET_SERIAL_NO)); // read again by the refresh only
+    }
+
+    @Test
+    public void SetAntenna() {
+        assertAll(
+            () -> assertEquals(0xFF, reader.SetAntenna(0x00, 0x00)),
+            () -> assertEquals(0x00, reader.SetAntenna(0x00, 0x05)),
+            () -> assertEquals(0x05, simulator.getReader().getAntennaMask())
+        );
+    }
+
+    @Test
+    public void Inventory_G2() {
+        final byte[] list = new byte[25600];
+        final int[] num = new int[1];
+        final int[] len = new int[1];
+
+        final int result = reader.Inventory_G2((byte) 8, (byte) 0, (byte) 0, (byte) 0, (byte) 0, (byte) 0x80, (byte) 10, list, num, len);
+        assertEquals(0x00, result);
+        assertEquals(TAGS, num[0]);
+        assertEquals(TAGS, parse(list, len[0]).size());
+    }
+
+    @Test
+    public void Inventory_G2_Session1() {
+        final byte[] list = new byte[25600];
+        final int[] num = new int[1];
+        final int[] len = new int[1];
+
+        assertEquals(0x00, reader.Inventory_G2((byte) 8, (byte) 1, (byte) 0, (byte) 0, (byte) 0, (byte) 0x80, (byte) 10, list, num, len));
+        assertEquals(TAGS, num[0]);
+
+        // tags read in S1 stay in B while the flag persists
+        assertEquals(ChafonFrame.INVENTORY_FINISHED, reader.Inventory_G2((byte) 8, (byte) 1, (byte) 0, (byte) 0, (byte) 0, (byte) 0x80, (byte) 10, list, num, len));
+        assertEquals(0, num[0]);
+
+        // target B reads them again
+        assertEquals(0x00, reader.Inventory_G2((byte) 8, (byte) 1, (byte) 0, (byte) 0, (byte) 1, (byte) 0x80, (byte) 10, list, num, len));
+        assertEquals(TAGS, num[0]);
+    }
+
+    @Test
+    public void Inventory_G2_Tid() {
+        final byte[] list = new byte[25600];
+        final int[] num = new int[1];
+        final int[] len = new int[1];
+
+        assertEquals(0x00, reader.SetAntenna(0x00, 0x03));
+        assertEquals(0x00, reader.Inventory_G2((byte) 4, (byte) 0, (byte) 0, (byte) 6, (byte) 0, (byte) 0x81, (byte) 10, list, num, len));
+        assertEquals(10, num[0]);
+        for (final String tid : parse(list, len[0])) {
+            assertTrue(tid.startsWith("E2801160"), tid);
+        }
+    }
+
+    @Test
+    public void SelectCmdWithCarrier() {
+        final byte[] epc = simulator.getConfig().getTags().get(7).getEpc();
+        final byte[] address = new byte[]{ 0x00, 0x20 }; // skip StoredCRC + PC
+        final int result = reader.SelectCmdWithCarrier((byte) 0, (byte) 4, (byte) 0, (byte) 1, address, (byte) 96, epc, (byte) 0, (byte) 0);
+        assertEquals(0x00, result);
+
+        final byte[] list = new byte[25600];
+        final int[] num = new int[1];
+        final int[] len = new int[1];
+        assertEquals(0x00, reader.Inventory_G2((byte) 4, (byte) 0, (byte) 0, (byte) 0, (byte) 0, (byte) 0x80, (byte) 10, list, num, len));
+        assertEquals(Set.of(Utils.bytesToHexString(epc, 0, epc.length)), parse(list, len[0]));
+    }
+
+    @Test
+    public void ReadWriteData() {
+        final VirtualTag tag = simulator.getConfig().getTags().get(0);
+        final String epc = Utils.bytesToHexString(tag.getEpc(), 0, tag.getEpc().length);
+
+        assertEquals(Utils.bytesToHexString(tag.getTid(), 0, 12), reader.ReadDataByEPC(epc, (byte) 2, (byte) 0, (byte) 6, "00000000"));
+        assertEquals(0x00, reader.WriteDataByEPC(epc, (byte) 3, (byte) 0, "00000000", "CAFEBABE"));
+        assertEquals("CAFEBABE", reader.ReadDataByEPC(epc, (byte) 3, (byte) 0, (byte) 2, "00000000"));
+    }
+
+    @Test
+    public void StartRead() throws Exception {
+        final Set<String> tags = ConcurrentHashMap.newKeySet();
+        reader.SetCallBack((ReadTag tag) -> tags.add(tag.epcId));
+
+        assertEquals(0x00, reader.StartRead(null, 0));
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (tags.size() < TAGS && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        reader.StopRead();
+
+        assertEquals(TAGS, tags.size());
+        assertTrue(simulator.getReader().getCommandCount(ChafonFrame.CMD_INVENTORY) > 0);
+    }
+
+    @Test
+    public void StartRead_TagListener() throws Exception {
+        final EpcSet tags = new EpcSet();
+        reader.SetTagListener((final TagCursor tag) -> tags.add(tag.getBuffer(), tag.getEpcOffset(), tag.getEpcLength()));
+
+        assertEquals(0x00, reader.StartRead(null, 0));
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (tags.size() < TAGS && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        reader.StopRead();
+
+        assertEquals(TAGS, tags.size());
+    }
+
+    @Test
+    public void StartRead_MemoryRead() throws Exception {
+        final Map<String, byte[]> tids = new ConcurrentHashMap<>();
+        reader.SetCallBack((ReadTag tag) -> tids.put(tag.epcId.toUpperCase(), ((MemoryReadTag) tag).memory));
+        reader.SetMemoryRead(MemoryReadOptions.TID);
+
+        assertEquals(0x00, reader.StartRead(null, 0));
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (tids.size() < TAGS && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        reader.StopRead();
+
+        assertEquals(TAGS, tids.size());
+        assertTrue(simulator.getReader().getCommandCount(ChafonFrame.CMD_INVENTORY_MIX) > 0);
+        assertEquals(0, simulator.getReader().getCommandCount(ChafonFrame.CMD_INVENTORY));
+        assertEquals(0, simulator.getReader().getCommandCount(ChafonFrame.CMD_READ_DATA)); // no round trip per tag
+        for (final VirtualTag tag : simulator.getConfig().getTags().subList(0, TAGS)) {
+            assertArrayEquals(tag.getTid(), tids.get(Utils.bytesToHexString(tag.getEpc(), 0, tag.getEpc().length).toUpperCase()));
+        }
+    }
+
+    @Test
+    public void StartRead_AutoSession() throws Exception {
+        final Set<String> tags = ConcurrentHashMap.newKeySet();
+        reader.SetCallBack((ReadTag tag) -> tags.add(tag.epcId));
+        reader.GetInventoryParameter().SetSession(0xFF);
+
+        assertEquals(0x00, reader.StartRead(null, 0));
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (tags.size() < TAGS && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        reader.StopRead();
+
+        assertEquals(TAGS, tags.size());
+    }
+
+    @Test
+    public void StartRead_SwapStrategy() throws Exception {
+        final Set<String> tags = ConcurrentHashMap.newKeySet();
+        reader.SetCallBack((ReadTag tag) -> tags.add(tag.epcId));
+        reader.SetInventoryStrategy(new NewTagsStrategy(2));
+
+        assertEquals(0x00, reader.StartRead(null, 0));
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (tags.size() < TAGS && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(TAGS, tags.size());
+
+        // every tag now sits in S2 target B, only target B rounds still see them
+        reader.SetInventoryStrategy(new DualTargetStrategy(2, 1));
+        tags.clear();
+        while (tags.size() < TAGS && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        reader.StopRead();
+
+        assertEquals(TAGS, tags.size());
+    }
+
+    @Test
+    public void StartRead_Filters() throws Exception {
+        final Set<String> tags = ConcurrentHashMap.newKeySet();
+        reader.SetCallBack((ReadTag tag) -> tags.add(tag.epcId.toUpperCase()));
+        reader.SetInventoryStrategy(new DualTargetStrategy(2, 1));
+        reader.SetFilters(List.of(
+            TagFilter.include(MemoryBank.EPC, "E28001"),                                    // antenna 1 tags only
+            new TagFilter(TagFilter.Action.EXCLUDE, MemoryBank.EPC, 64, "0000000", 25)     // serial below 128
+        ));
+
+        final Set<String> expected = new HashSet<>();
+        for (final VirtualTag tag : simulator.getConfig().getTags().subList(128, TAGS)) {
+            expected.add(Utils.bytesToHexString(tag.getEpc(), 0, tag.getEpc().length).toUpperCase());
+        }
+
+        assertEquals(0x00, reader.StartRead(null, 0));
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (tags.size() < expected.size() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        Thread.sleep(200); // both targets, a few rounds more
+        reader.StopRead();
+
+        assertEquals(expected, tags);
+        assertTrue(simulator.getReader().getCommandCount(ChafonFrame.CMD_SELECT_WITH_CARRIER) >= 2 * simulator.getReader().getCommandCount(ChafonFrame.CMD_INVENTORY));
+        assertEquals(2, reader.GetFilters().size());
+        reader.SetFilters(null);
+        assertTrue(reader.GetFilters().isEmpty());
+    }
+
+    @Test
+    public void StopRead_DuringPause() throws Exception {
+        reader.SetPacing(new PacingOptions(null, null, 0.0001)); // every round is followed by a pause of seconds
+
+        assertEquals(0x00, reader.StartRead(null, 0));
+        Thread.sleep(50);
+        final long start = System.nanoTime();
+        reader.StopRead();
+        while (reader.isReading() && System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5)) {
+            Thread.sleep(1);
+        }
+
+        assertFalse(reader.isReading());
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(1));
+    }
+
+    @Test
+    public void StartRead_ExecutorPause() throws Exception {
+        reader.SetPacing(new PacingOptions(null, null, 0.0001)); // every round is followed by a pause of seconds
+
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            assertEquals(0x00, reader.StartRead(null, 0, executor));
+            Thread.sleep(50);
+
+            // the pause must not hold the only pool thread
+            final long start = System.nanoTime();
+            executor.submit(() -> { }).get(500, TimeUnit.MILLISECONDS);
+
+            reader.StopRead();
+            while (reader.isReading() && System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5)) {
+                Thread.sleep(1);
+            }
+            assertFalse(reader.isReading());
+            assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(1));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void StartRead_FrequencyHopping() throws Exception {
+        final Set<String> tags = ConcurrentHashMap.newKeySet();
+        reader.SetCallBack((ReadTag tag) -> tags.add(tag.epcId));
+        simulator.getReader().resetCommandCounts();
+
+        assertEquals(0xFF, reader.StartRead(List.of(Frequency.BRAZIL_1, new Frequency(2, 902.75, 0.5, 40, 60)), 10));
+        assertEquals(0x00, reader.StartRead(List.of(Frequency.BRAZIL_1, Frequency.BRAZIL_2), 10));
+        final FrequencyHopper hopper = reader.GetFrequencyHopper();
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while ((tags.size() < TAGS || hopper.getHops() < 4) && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        reader.StopRead();
+
+        assertEquals(TAGS, tags.size());
+        assertTrue(hopper.getHops() >= 4);
+        assertEquals(hopper.getHops() + hopper.getFailedHops(), simulator.getReader().getCommandCount(ChafonFrame.CMD_SET_REGION));
+        assertTrue(hopper.getReads(0) + hopper.getReads(1) >= TAGS);
+    }
+
+    @Test
+    public void Metrics() throws Exception {
+        final Set<String> tags = ConcurrentHashMap.newKeySet();
+        reader.SetCallBack((ReadTag tag) -> tags.add(tag.epcId));
+
+        assertEquals(0x00, reader.StartRead(null, 0));
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (tags.size() < TAGS && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        reader.StopRead();
+        while (reader.isReading() && System.nanoTime() < deadline) {
+            Thread.sleep(1); // the round of the last tag is counted after its callbacks
+        }
+
+        final MetricRegistry registry = MetricRegistry.getDefault();
+        final String prefix = "chafon.127.0.0.1:" + simulator.getPort();
+        assertTrue(registry.counter(prefix + ".rounds").getCount() > 0);
+        assertTrue(registry.meter(prefix + ".reads").getCount() >= TAGS);
+        assertEquals(TAGS, registry.meter(prefix + ".unique").getCount());
+        assertEquals(TAGS, registry.meter(prefix + ".antenna.1.unique").getCount());
+        assertEquals(registry.counter(prefix + ".rounds").getCount(), registry.histogram(prefix + ".round-duration-us").getCount());
+        assertTrue(registry.histogram(String.format("%s.command.%02X.latency-us", prefix, ChafonFrame.CMD_INVENTORY)).getCount() > 0);
+    }
+
+    @Test
+    public void FlightRecorder() throws Exception {
+        final Set<String> tags = ConcurrentHashMap.newKeySet();
+        reader.SetCallBack((ReadTag tag) -> tags.add(tag.epcId));
+
+        final Path file = Files.createTempFile("chafon", ".jfr");
+        try (final Recording recording = new Recording()) {
+            recording.enable("com.contare.chafon.Command");
+            recording.enable("com.contare.chafon.InventoryRound");
+            recording.enable("com.contare.chafon.Callback");
+            recording.enable("com.contare.chafon.FrequencyHop");
+            recording.start();
+
+            assertEquals(0x00, reader.StartRead(List.of(Frequency.BRAZIL_1, Frequency.BRAZIL_2), 10));
+            final FrequencyHopper hopper = reader.GetFrequencyHopper();
+            final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while ((tags.size() < TAGS || hopper.getHops() < 2) && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            reader.StopRead();
+            while (reader.isReading() && System.nanoTime() < deadline) {
+                Thread.sleep(1);
+            }
+
+            recording.stop();
+            recording.dump(file);
+        }
+
+        final Map<String, Integer> counts = new HashMap<>();
+        try {
+            for (final RecordedEvent event : RecordingFile.readAllEvents(file)) {
+                counts.merge(event.getEventType().getName(), 1, Integer::sum);
+                if (event.getEventType().getName().equals("com.contare.chafon.InventoryRound") && event.getInt("tags") > 0) {
+                    assertEquals(1, event.getInt("antenna"));
+                    assertEquals("127.0.0.1:" + simulator.getPort(), event.getString("reader"));
+                }
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+        assertTrue(counts.getOrDefault("com.contare.chafon.Command", 0) > 0, counts.toString());
+        assertTrue(counts.getOrDefault("com.contare.chafon.InventoryRound", 0) > 0, counts.toString());
+        assertTrue(counts.getOrDefault("com.contare.chafon.Callback", 0) >= TAGS, counts.toString());
+        assertTrue(counts.getOrDefault("com.contare.chafon.FrequencyHop", 0) >= 2, counts.toString());
+    }
+
+    @Test
+    public void Apply() {
+        final ReaderConfiguration config = new ReaderConfiguration()
+            .antenna(1, true)
+            .antenna(3, true);
+        config.setFrequency(Frequency.KOREAN);
+        config.setPower(25);
+        config.setBeep(false);
+
+        simulator.getReader().resetCommandCounts();
+        assertTrue(reader.Apply(config));
+        assertAll(
+            () -> assertEquals(0x05, simulator.getReader().getAntennaMask()),
+            () -> assertEquals(25, simulator.getReader().getPower()),
+            () -> assertEquals(3, simulator.getReader().getBand()),
+            () -> assertEquals(31, simulator.getReader().getMaxIndex()),
+            () -> assertEquals(0, simulator.getReader().getBeep()),
+            () -> assertEquals(1, simulator.getReader().getCommandCount(ChafonFrame.CMD_GET_READER_INFORMATION)),
+            () -> assertEquals(5, simulator.getReader().getTotalCommandCount()) // read + region, antenna, power, beep
+        );
+
+        // already applied, only the state is read
+        simulator.getReader().resetCommandCounts();
+        assertTrue(reader.Apply(config));
+        assertEquals(1, simulator.getReader().getTotalCommandCount());
+
+        // an antenna left out of the simulated reader is rejected
+        assertFalse(reader.Apply(new ReaderConfiguration().antenna(16, true)));
+    }
+
+    @Test
+    public void Async_Serialized() throws Exception {
+        final List<CompletableFuture<Boolean>> futures = new ArrayList<>();
+        for (int power = 10; power <= 30; power++) {
+            futures.add(reader.SetPowerAsync(power));
+        }
+        final UHFInformation info = reader.GetUHFInformationAsync().get(5, TimeUnit.SECONDS);
+
+        for (final CompletableFuture<Boolean> future : futures) {
+            assertTrue(future.isDone());
+            assertTrue(future.get());
+        }
+        assertEquals(30, info.getPower()); // queued after every SetPower
+        assertEquals(21, simulator.getReader().getCommandCount(ChafonFrame.CMD_SET_RF_POWER));
+    }
+
+    @Test
+    public void Async_Timeout() throws Exception {
+        simulator.getConfig().getLatencyMs().put(ChafonFrame.CMD_SET_RF_POWER, 500);
+
+        final long start = System.nanoTime();
+        final CompletableFuture<Boolean> slow = reader.submit((final ChafonReader r) -> r.SetPower(20), 100);
+        final CompletableFuture<Boolean> queued = reader.submit((final ChafonReader r) -> r.SetPower(25), 50);
+
+        final ExecutionException e = assertThrows(ExecutionException.class, () -> slow.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(TimeoutException.class, e.getCause());
+        assertThrows(ExecutionException.class, () -> queued.get(5, TimeUnit.SECONDS));
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 400);
+
+        // the queued command expired before the worker got to it and was never sent
+        Thread.sleep(600);
+        assertEquals(1, simulator.getReader().getCommandCount(ChafonFrame.CMD_SET_RF_POWER));
+        assertEquals(0, reader.GetPendingCommands());
+    }
+
+    @Test
+    public void Inventory_Mix() {
+        final byte[] list = new byte[25600];
+        final int[] num = new int[1];
+        final int[] len = new int[1];
+        final byte[] readAdr = new byte[2];
+        final byte[] password = new byte[4];
+
+        // read the 6 word TID of every tag on antenna 1
+        final int result = reader.Inventory_Mix((byte) 8, (byte) 0, (byte) 0, new byte[2], (byte) 0, new byte[12], (byte) 0, (byte) 2, readAdr, (byte) 6, password, (byte) 0, (byte) 0x80, (byte) 10, list, num, len);
+        assertEquals(0x00, result);
+        assertEquals(TAGS, num[0]);
+
+        final TagCursor cursor = new TagCursor().reset(list, len[0], 1, true, "127.0.0.1");
+        int count = 0;
+        while (cursor.next()) {
+            assertEquals(12, cursor.getEpcLength());
+            assertEquals(12, cursor.getMemLength());
+            assertTrue(cursor.getMemHex().startsWith("E2801160"), cursor.toString());
+            count++;
+        }
+        assertEquals(TAGS, count);
+    }
+
+    @Test
+    public void CReader() {
+        final CReader sdk = new CReader("127.0.0.1", simulator.getPort(), 4, 0);
+        try {
+            assertEquals(0x00, sdk.Connect());
+            assertEquals(0x00, sdk.SetAntenna(0x00, 0x03));
+            assertEquals(0x03, simulator.getReader().getAntennaMask());
+        } finally {
+            sdk.DisConnect();
+        }
+    }
+
+    private static Set<String> parse(final byte[] list, final int length) {
+        final Set<String> result = new HashSet<>();
+        int m = 0;
+        while (m < length) {
+            final int idLen = list[m] & 0xFF;
+            result.add(Utils.bytesToHexString(list, m + 1, idLen));
+            m += idLen + 2;
+        }
+        return result;
+    }
+
+}
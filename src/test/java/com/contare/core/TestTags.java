@@ -0,0 +1,18 @@
+package com.contare.core;
+
+/**
+ * Tag fixtures shared by the tests.
+ */
+public final class TestTags {
+
+    private TestTags() {
+    }
+
+    /**
+     * @return 96 bit EPC, distinct for every {@code n}.
+     */
+    public static String epc(final int n) {
+        return String.format("E28011606000%012X", n);
+    }
+
+}
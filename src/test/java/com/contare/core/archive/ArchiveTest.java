@@ -0,0 +1,101 @@
+package com.contare.core.archive;
+
+import com.contare.core.objects.TagMetadata;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.List;
+
+import static com.contare.core.TestTags.epc;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ArchiveTest {
+
+    private static final long T0 = 1_700_000_000_000L;
+
+    @Test
+    public void writeAndQuery(@TempDir final Path dir) throws Exception {
+        final Path file = dir.resolve("site.car");
+        final int reads = 50_000;
+        try (final ArchiveWriter writer = new ArchiveWriter(file, 4096)) {
+            for (int i = 0; i < reads; i++) {
+                // 500 tags on 2 readers, 10 reads per second
+                writer.append(epc(i % 500), 40 + i % 50, 1 + i % 4, "192.168.1." + (200 + i % 2), T0 + i * 100L);
+            }
+            writer.accept(new TagMetadata("e28011606000000000000001", null, null, null, null));
+        }
+
+        try (final ArchiveReader reader = new ArchiveReader(file)) {
+            assertEquals(13, reader.getBlocks());
+            assertEquals(reads + 1, reader.getRows());
+            assertEquals(Instant.ofEpochMilli(T0), reader.getFrom());
+
+            // one minute in the middle of the archive
+            final Instant from = Instant.ofEpochMilli(T0 + 1_000_000);
+            final Instant to = from.plusSeconds(60).minusMillis(1);
+            final List<ArchivedRead> minute = reader.query(from, to);
+            assertEquals(600, minute.size());
+            assertEquals(epc(10_000 % 500), minute.get(0).getEpc());
+            assertEquals(40 + 10_000 % 50, minute.get(0).getRssi());
+            assertEquals(1, minute.get(0).getAntenna());
+            assertEquals("192.168.1.200", minute.get(0).getDevice());
+            assertEquals(from, minute.get(0).getReadtime());
+            for (int i = 1; i < minute.size(); i++) {
+                assertTrue(minute.get(i).getReadtime().isAfter(minute.get(i - 1).getReadtime()));
+            }
+            assertEquals(600, reader.count(from, to, null));
+
+            // one tag over the whole archive, lower case accepted
+            final List<ArchivedRead> tag = reader.query(null, Instant.ofEpochMilli(T0 + reads * 100L - 1), epc(7).toLowerCase());
+            assertEquals(reads / 500, tag.size());
+            assertEquals(Instant.ofEpochMilli(T0 + 700), tag.get(0).getReadtime());
+            assertEquals(reads / 500, reader.count(null, null, epc(7)));
+            assertEquals(0, reader.count(null, null, epc(1_000)));
+
+            final List<ArchivedRead> last = reader.query(null, null, epc(1));
+            assertEquals(reads / 500 + 1, last.size()); // and the read without rssi / antenna
+            final ArchivedRead bare = last.get(last.size() - 1);
+            assertNull(bare.getRssi());
+            assertNull(bare.getAntenna());
+            assertNull(bare.getDevice());
+
+            assertTrue(reader.query(Instant.ofEpochMilli(0), Instant.ofEpochMilli(T0 - 1)).isEmpty());
+        }
+
+        // well below the 60+ bytes per read of the log line
+        assertTrue(Files.size(file) < reads * 4L, "archive is " + Files.size(file) + " bytes");
+    }
+
+    @Test
+    public void appendAfterTornBlock(@TempDir final Path dir) throws Exception {
+        final Path file = dir.resolve("site.car");
+        try (final ArchiveWriter writer = new ArchiveWriter(file, 10)) {
+            for (int i = 0; i < 25; i++) {
+                writer.append(epc(i), 50, 1, "r1", T0 + i);
+            }
+        }
+        // the crash cut the last block
+        final long size = Files.size(file);
+        try (final FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(size - 3);
+        }
+        try (final ArchiveReader reader = new ArchiveReader(file)) {
+            assertEquals(20, reader.getRows());
+        }
+
+        try (final ArchiveWriter writer = new ArchiveWriter(file, 10)) {
+            assertEquals(2, writer.getBlocks());
+            writer.append(epc(100), 50, 1, "r1", T0 + 100);
+        }
+        try (final ArchiveReader reader = new ArchiveReader(file)) {
+            assertEquals(21, reader.getRows());
+            assertEquals(epc(100), reader.query(Instant.ofEpochMilli(T0 + 100), null).get(0).getEpc());
+        }
+    }
+
+}
@@ -0,0 +1,122 @@
+package com.contare.core.collections;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static com.contare.core.TestTags.epc;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EpcSetTest {
+
+    @Test
+    public void addAndContains() {
+        final EpcSet set = new EpcSet();
+        assertTrue(set.add("E2801160600002000000A1B2"));
+        assertFalse(set.add("E2801160600002000000A1B2"));
+        assertFalse(set.add("e2801160600002000000a1b2"));
+        assertTrue(set.contains("E2801160600002000000A1B2"));
+        assertFalse(set.contains("E2801160600002000000A1B3"));
+        assertEquals(1, set.size());
+    }
+
+    @Test
+    public void bytesAndHexAreTheSameKey() {
+        final EpcSet set = new EpcSet();
+        final byte[] list = new byte[]{ 12, (byte) 0xE2, (byte) 0x80, 0x11, 0x60, 0x60, 0x00, 0x02, 0x00, 0x00, 0x00, (byte) 0xA1, (byte) 0xB2, 60 };
+        assertTrue(set.add(list, 1, 12));
+        assertFalse(set.add("E2801160600002000000A1B2"));
+        assertEquals(Set.of("E2801160600002000000A1B2"), set.snapshot());
+    }
+
+    @Test
+    public void lengthIsPartOfTheKey() {
+        final EpcSet set = new EpcSet();
+        assertTrue(set.add("00AB"));
+        assertTrue(set.add("AB"));
+        assertTrue(set.add(""));
+        assertTrue(set.add("00000000000000000000000000000001")); // 128 bits
+        assertTrue(set.add("000000000000000000000001"));         // 96 bits
+        assertEquals(Set.of("00AB", "AB", "", "00000000000000000000000000000001", "000000000000000000000001"), set.snapshot());
+    }
+
+    @Test
+    public void overflow() {
+        final EpcSet set = new EpcSet();
+        final String longEpc = "E28011606000020000000000000000000000A1B2"; // 160 bits
+        assertTrue(set.add(longEpc));
+        assertFalse(set.add(longEpc.toLowerCase()));
+        assertTrue(set.add("E28")); // odd length
+        assertTrue(set.contains(longEpc));
+        assertEquals(2, set.size());
+        assertEquals(Set.of(longEpc, "E28"), set.snapshot());
+    }
+
+    @Test
+    public void resize() {
+        final EpcSet set = new EpcSet(16);
+        for (int i = 0; i < 50_000; i++) {
+            assertTrue(set.add(epc(i)));
+        }
+        for (int i = 0; i < 50_000; i++) {
+            assertFalse(set.add(epc(i)));
+        }
+        assertEquals(50_000, set.size());
+        assertEquals(50_000, set.snapshot().size());
+        assertTrue(set.snapshot().contains(epc(49_999)));
+    }
+
+    @Test
+    public void clear() {
+        final EpcSet set = new EpcSet();
+        set.add(epc(1));
+        set.clear();
+        assertTrue(set.isEmpty());
+        assertTrue(set.add(epc(1)));
+    }
+
+    @Test
+    public void concurrentAdd() throws Exception {
+        final int threads = 4;
+        final int count = 20_000;
+        final EpcSet set = new EpcSet(64);
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            final CountDownLatch start = new CountDownLatch(1);
+            final Set<Future<Integer>> futures = new HashSet<>();
+            for (int t = 0; t < threads; t++) {
+                final int offset = t * (count / 2); // every thread overlaps its neighbours
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    int added = 0;
+                    for (int i = 0; i < count; i++) {
+                        if (set.add(epc(offset + i))) {
+                            added++;
+                        }
+                    }
+                    return added;
+                }));
+            }
+            start.countDown();
+
+            int added = 0;
+            for (final Future<Integer> future : futures) {
+                added += future.get(30, TimeUnit.SECONDS);
+            }
+
+            final int distinct = (threads - 1) * (count / 2) + count;
+            assertEquals(distinct, added);
+            assertEquals(distinct, set.size());
+            assertEquals(distinct, set.snapshot().size());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+}
@@ -0,0 +1,86 @@
+package com.contare.core.collections;
+
+import com.contare.core.objects.TagMetadata;
+import org.junit.jupiter.api.Test;
+
+import static com.contare.core.TestTags.epc;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TagStatsTest {
+
+    @Test
+    public void record() {
+        final TagStats stats = new TagStats(16, 4);
+        final int id = stats.record("E2801160600002000000A1B2", 1, 60, 1_000);
+        assertEquals(id, stats.record("e2801160600002000000a1b2", 1, 70, 2_000));
+        assertEquals(id, stats.record("E2801160600002000000A1B2", 3, 50, 1_500));
+        final byte[] list = new byte[]{ 12, (byte) 0xE2, (byte) 0x80, 0x11, 0x60, 0x60, 0x00, 0x02, 0x00, 0x00, 0x00, (byte) 0xA1, (byte) 0xB2, 60 };
+        assertEquals(id, stats.record(list, 1, 12, 3, TagStats.UNKNOWN, 500));
+
+        assertEquals(1, stats.size());
+        assertEquals(id, stats.find("E2801160600002000000A1B2"));
+        assertEquals(-1, stats.find("E2801160600002000000A1B3"));
+        assertEquals("E2801160600002000000A1B2", stats.getEpc(id));
+        assertEquals(4, stats.getReads(id));
+        assertEquals(500, stats.getFirstSeen(id));
+        assertEquals(2_000, stats.getLastSeen(id));
+
+        assertEquals(2, stats.getReads(id, 1));
+        assertEquals(60, stats.getMinRssi(id, 1));
+        assertEquals(70, stats.getMaxRssi(id, 1));
+        assertEquals(62, stats.getRssi(id, 1), 1e-4); // 0.2 * 70 + 0.8 * 60
+        assertEquals(2, stats.getReads(id, 3));
+        assertEquals(50, stats.getMaxRssi(id, 3));
+        assertEquals(TagStats.UNKNOWN, stats.getMinRssi(id, 2));
+        assertTrue(Double.isNaN(stats.getRssi(id, 2)));
+        assertEquals(1, stats.getBestAntenna(id));
+
+        // not a port of the store, counted per tag only
+        stats.accept(new TagMetadata("E2801160600002000000A1B2", 80, 9, "r1", null));
+        assertEquals(5, stats.getReads(id));
+        assertEquals(1, stats.getBestAntenna(id));
+    }
+
+    @Test
+    public void overflow() {
+        final TagStats stats = new TagStats(16, 1);
+        final String longEpc = "E28011606000020000000000000000000000A1B2"; // 160 bits
+        final int a = stats.record(longEpc, 1, 40, 0);
+        final int b = stats.record("E28", 1, 45, 0);
+        assertEquals(a, stats.record(longEpc.toLowerCase(), 1, 50, 0));
+        assertNotEquals(a, b);
+        assertEquals(a, stats.find(longEpc));
+        assertEquals(longEpc, stats.getEpc(a));
+        assertEquals("E28", stats.getEpc(b));
+        assertEquals(2, stats.getReads(a, 1));
+    }
+
+    @Test
+    public void growAndRank() {
+        final TagStats stats = new TagStats(16, 2);
+        final int tags = 100_000;
+        for (int i = 0; i < tags; i++) {
+            stats.record(epc(i), 1 + (i & 1), i % 1000, i);
+        }
+        for (int i = 0; i < tags; i++) {
+            assertEquals(i, stats.record(epc(i), 1 + (i & 1), i % 1000, tags + i));
+        }
+        assertEquals(tags, stats.size());
+        assertEquals(epc(12_345), stats.getEpc(12_345));
+        assertEquals(2, stats.getReads(12_345));
+        assertEquals(2, stats.getBestAntenna(12_345));
+
+        final int[] top = stats.top(3);
+        assertEquals(3, top.length);
+        for (final int id : top) {
+            assertEquals(999, id % 1000);
+        }
+        assertEquals(tags, stats.top(tags + 1).length);
+
+        stats.clear();
+        assertEquals(0, stats.size());
+        assertEquals(-1, stats.find(epc(1)));
+        assertEquals(0, stats.top(10).length);
+    }
+
+}
@@ -0,0 +1,156 @@
+package com.contare.core.fleet;
+
+import com.contare.chafon.ChafonRfidDevice;
+import com.contare.chafon.simulator.ChafonSimulator;
+import com.contare.chafon.simulator.SimulatorConfig;
+import com.contare.chafon.simulator.VirtualTag;
+import com.contare.core.objects.MemoryBank;
+import com.contare.core.objects.MemoryReadOptions;
+import com.contare.core.objects.Options;
+import com.rfid.Utils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReaderFleetTest {
+
+    private static final int[] TAGS = { 10, 20, 30 };
+
+    private final List<ChafonSimulator> simulators = new ArrayList<>();
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        for (final int tags : TAGS) {
+            simulators.add(ChafonSimulator.start(new SimulatorConfig().addTags(1, tags)));
+        }
+    }
+
+    @AfterEach
+    public void tearDown() {
+        simulators.forEach(ChafonSimulator::close);
+    }
+
+    @Test
+    public void mergedStreamWithFailedMember() throws Exception {
+        final Set<String> epcs = ConcurrentHashMap.newKeySet();
+        final AtomicInteger configured = new AtomicInteger();
+
+        // fewer inventory threads than readers, the loops take turns on the pool
+        try (final ReaderFleet<ChafonRfidDevice> fleet = new ReaderFleet<>(new FleetOptions(2, 4))) {
+            for (int i = 0; i < simulators.size(); i++) {
+                fleet.add("sim-" + i, options(simulators.get(i).getPort()), new ChafonRfidDevice(), (final ChafonRfidDevice device) -> configured.incrementAndGet());
+            }
+            fleet.add("offline", options(closedPort()), new ChafonRfidDevice(), (final ChafonRfidDevice device) -> configured.incrementAndGet());
+            fleet.addListener((tag) -> {
+                throw new IllegalStateException("listener failure"); // must not starve the listeners after it
+            });
+            fleet.addListener((tag) -> epcs.add(tag.getEpc()));
+
+            fleet.start().get(10, TimeUnit.SECONDS);
+
+            assertEquals(3, fleet.getMembers(ReaderFleet.State.RUNNING).size());
+            assertEquals(3, configured.get());
+            final ReaderFleet.Member<ChafonRfidDevice> offline = fleet.find("offline");
+            assertEquals(ReaderFleet.State.FAILED, offline.getState());
+            assertNotNull(offline.getError());
+
+            final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while ((epcs.size() < TAGS[2] || !allReading(fleet)) && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            assertEquals(TAGS[2], epcs.size()); // EPCs overlap between simulators, the largest population covers them
+
+            long total = 0;
+            for (int i = 0; i < simulators.size(); i++) {
+                final ReaderFleet.Member<ChafonRfidDevice> member = fleet.find("sim-" + i);
+                assertTrue(member.getTags() > 0, member.toString());
+                assertTrue(member.getDevice().getBuffer().size() <= TAGS[i]);
+                assertTrue(member.getDevice().getStats().size() <= TAGS[i]);
+                total += member.getTags();
+            }
+            assertTrue(fleet.getTags() >= total);
+            assertEquals(0, offline.getTags());
+        }
+    }
+
+    @Test
+    public void restartFailedMember() throws Exception {
+        final int port = closedPort();
+        try (final ReaderFleet<ChafonRfidDevice> fleet = new ReaderFleet<>(new FleetOptions(1, 1))) {
+            fleet.add("late", options(port), new ChafonRfidDevice(), null);
+            fleet.start().get(10, TimeUnit.SECONDS);
+            assertEquals(ReaderFleet.State.FAILED, fleet.find("late").getState());
+
+            final SimulatorConfig config = new SimulatorConfig().addTags(1, 5);
+            config.setPort(port);
+            try (final ChafonSimulator simulator = ChafonSimulator.start(config)) {
+                final ReaderFleet.Member<ChafonRfidDevice> member = fleet.restart("late").get(10, TimeUnit.SECONDS);
+                assertEquals(ReaderFleet.State.RUNNING, member.getState());
+                assertNull(member.getError());
+                fleet.stop();
+                assertEquals(ReaderFleet.State.STOPPED, member.getState());
+            }
+        }
+    }
+
+    @Test
+    public void memoryReadStream() throws Exception {
+        final Map<String, byte[]> memory = new ConcurrentHashMap<>();
+        try (final ReaderFleet<ChafonRfidDevice> fleet = new ReaderFleet<>(FleetOptions.DEFAULT)) {
+            fleet.add("sim", options(simulators.get(0).getPort()), new ChafonRfidDevice(), (final ChafonRfidDevice device) -> device.setMemoryRead(new MemoryReadOptions(MemoryBank.TID, 2, 4, null)));
+            fleet.addListener((tag) -> memory.put(tag.getEpc().toUpperCase(), tag.getMemory()));
+            fleet.start().get(10, TimeUnit.SECONDS);
+
+            final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (memory.size() < TAGS[0] && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+        }
+        assertEquals(TAGS[0], memory.size());
+        for (final VirtualTag tag : simulators.get(0).getConfig().getTags()) {
+            final String epc = Utils.bytesToHexString(tag.getEpc(), 0, tag.getEpc().length).toUpperCase();
+            assertArrayEquals(Arrays.copyOfRange(tag.getTid(), 4, 12), memory.get(epc)); // TID words 2..5
+        }
+    }
+
+    @Test
+    public void duplicateMember() throws Exception {
+        try (final ReaderFleet<ChafonRfidDevice> fleet = new ReaderFleet<>(FleetOptions.DEFAULT)) {
+            fleet.add("a", options(1), new ChafonRfidDevice(), null);
+            assertThrows(IllegalArgumentException.class, () -> fleet.add("a", options(2), new ChafonRfidDevice(), null));
+        }
+    }
+
+    private static boolean allReading(final ReaderFleet<ChafonRfidDevice> fleet) {
+        for (final ReaderFleet.Member<ChafonRfidDevice> member : fleet.getMembers(ReaderFleet.State.RUNNING)) {
+            if (member.getTags() == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Options options(final int port) {
+        return new Options("00-00-00-00-00-00", "127.0.0.1", port, 4, false, Collections.emptyList(), 0);
+    }
+
+    private static int closedPort() throws Exception {
+        try (final ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+}
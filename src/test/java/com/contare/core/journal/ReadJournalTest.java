@@ -0,0 +1,107 @@
+package com.contare.core.journal;
+
+import com.contare.core.objects.TagMetadata;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static com.contare.core.TestTags.epc;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReadJournalTest {
+
+    private static List<JournalRecord> readAll(final Path dir) throws Exception {
+        final List<JournalRecord> records = new ArrayList<>();
+        ReadJournal.read(dir, records::add);
+        return records;
+    }
+
+    private static List<Path> segments(final Path dir) throws Exception {
+        try (final Stream<Path> files = Files.list(dir)) {
+            return files.filter((final Path path) -> path.toString().endsWith(".seg")).sorted().collect(Collectors.toList());
+        }
+    }
+
+    @Test
+    public void appendAndRead(@TempDir final Path dir) throws Exception {
+        try (final ReadJournal journal = ReadJournal.open(new JournalOptions(dir.toString(), null, 10L))) {
+            assertTrue(journal.append(epc(1), 60, 1, "192.168.1.200", 123, 1_000));
+            journal.accept(new TagMetadata(epc(2).toLowerCase(), 200, 4, "192.168.1.201", null));
+            assertFalse(journal.append("E28", 60, 1, "192.168.1.200", 0, 0));
+            assertEquals(2, journal.getSequence());
+            assertEquals(1, journal.getSkipped());
+        }
+
+        final List<JournalRecord> records = readAll(dir);
+        assertEquals(2, records.size());
+        assertEquals(new JournalRecord(0, epc(1), 60, 1, "192.168.1.200", 123, 1_000), records.get(0));
+        assertEquals(1, records.get(1).getSequence());
+        assertEquals(epc(2), records.get(1).getEpc());
+        assertEquals(200, records.get(1).getRssi());
+        assertEquals(4, records.get(1).getAntenna());
+        assertEquals("192.168.1.201", records.get(1).getReader());
+    }
+
+    @Test
+    public void rollSegments(@TempDir final Path dir) throws Exception {
+        final JournalOptions options = new JournalOptions(dir.toString(), 10L * ReadJournal.RECORD_BYTES, 0L);
+        try (final ReadJournal journal = ReadJournal.open(options)) {
+            for (int i = 0; i < 25; i++) {
+                journal.append(epc(i), i, 1, "r1", i, i);
+            }
+        }
+        assertEquals(3, segments(dir).size());
+
+        // reopening resumes in the last segment
+        try (final ReadJournal journal = ReadJournal.open(options)) {
+            assertEquals(25, journal.getSequence());
+            for (int i = 25; i < 31; i++) {
+                journal.append(epc(i), i, 1, "r2", i, i);
+            }
+        }
+        assertEquals(4, segments(dir).size());
+
+        final List<JournalRecord> records = readAll(dir);
+        assertEquals(31, records.size());
+        for (int i = 0; i < records.size(); i++) {
+            assertEquals(i, records.get(i).getSequence());
+            assertEquals(epc(i), records.get(i).getEpc());
+            assertEquals((i < 25) ? "r1" : "r2", records.get(i).getReader());
+        }
+    }
+
+    @Test
+    public void recoverTornRecord(@TempDir final Path dir) throws Exception {
+        final JournalOptions options = new JournalOptions(dir.toString(), null, 0L);
+        try (final ReadJournal journal = ReadJournal.open(options)) {
+            for (int i = 0; i < 5; i++) {
+                journal.append(epc(i), 60, 1, "r1", i, i);
+            }
+        }
+
+        // the crash tore record 3, and record 4 reached the disk anyway
+        final Path segment = segments(dir).get(0);
+        try (final FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{ 0x7F }), 3L * ReadJournal.RECORD_BYTES + 30);
+        }
+        assertEquals(3, readAll(dir).size());
+
+        try (final ReadJournal journal = ReadJournal.open(options)) {
+            assertEquals(3, journal.getSequence());
+            journal.append(epc(100), 60, 1, "r1", 0, 0);
+        }
+        final List<JournalRecord> records = readAll(dir);
+        assertEquals(4, records.size());
+        assertEquals(epc(100), records.get(3).getEpc());
+    }
+
+}
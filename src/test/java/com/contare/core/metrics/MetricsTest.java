@@ -0,0 +1,85 @@
+package com.contare.core.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import javax.management.MBeanServer;
+import javax.management.MBeanServerFactory;
+import javax.management.ObjectName;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MetricsTest {
+
+    @Test
+    public void histogramPercentiles() {
+        final Histogram histogram = new Histogram();
+        for (int i = 1; i <= 10_000; i++) {
+            histogram.record(i);
+        }
+        assertEquals(10_000, histogram.getCount());
+        assertEquals(5_000.5, histogram.getMean(), 0.001);
+        assertEquals(10_000, histogram.getMax());
+        assertEquals(5_000, histogram.getValueAtPercentile(50), 5_000 * 0.04);
+        assertEquals(9_900, histogram.getValueAtPercentile(99), 9_900 * 0.04);
+        assertEquals(10_000, histogram.getValueAtPercentile(100));
+        assertEquals(0, new Histogram().getValueAtPercentile(50));
+    }
+
+    @Test
+    public void histogramBuckets() {
+        for (int i = 0; i < 100_000; i++) {
+            final long value = ThreadLocalRandom.current().nextLong(Long.MAX_VALUE);
+            final long highest = Histogram.highest(Histogram.index(value));
+            assertTrue(highest >= value, value + " > " + highest);
+            assertTrue(highest - value <= value / 32, value + " ~ " + highest);
+        }
+        for (long value = 0; value < 64; value++) {
+            assertEquals(value, Histogram.highest(Histogram.index(value))); // exact below 64
+        }
+        assertDoesNotThrow(() -> new Histogram().record(Long.MAX_VALUE));
+    }
+
+    @Test
+    public void registry() {
+        final MetricRegistry registry = new MetricRegistry();
+        final Counter counter = registry.counter("a.count");
+        counter.add(3);
+        assertSame(counter, registry.counter("a.count"));
+        assertEquals(3, registry.counter("a.count").getCount());
+        assertThrows(IllegalArgumentException.class, () -> registry.meter("a.count"));
+
+        final Meter meter = registry.meter("a.meter");
+        meter.mark(5);
+        assertEquals(5, meter.getCount());
+        assertEquals(0, meter.getRate()); // no tick yet
+
+        registry.gauge("a.gauge", () -> 1.5);
+        assertEquals(1.5, registry.getMetrics().get("a.gauge").snapshot().get("Value"));
+        assertTrue(registry.remove("a.gauge"));
+        assertEquals(2, registry.getMetrics().size());
+    }
+
+    @Test
+    public void jmx() throws Exception {
+        final MBeanServer server = MBeanServerFactory.newMBeanServer();
+        final MetricRegistry registry = new MetricRegistry();
+        registry.counter("chafon.127.0.0.1:2022.rounds").add(7);
+
+        try (final JmxReporter reporter = new JmxReporter(registry, "test", server).start()) {
+            final Histogram histogram = registry.histogram("chafon.127.0.0.1:2022.round-duration-us");
+            histogram.record(100);
+
+            final ObjectName rounds = reporter.objectName("chafon.127.0.0.1:2022.rounds", registry.get("chafon.127.0.0.1:2022.rounds"));
+            final ObjectName duration = reporter.objectName("chafon.127.0.0.1:2022.round-duration-us", histogram);
+            assertEquals(7L, server.getAttribute(rounds, "Count"));
+            assertEquals(1L, server.getAttribute(duration, "Count"));
+            assertEquals(100L, server.getAttribute(duration, "Max"));
+
+            registry.remove("chafon.127.0.0.1:2022.rounds");
+            assertFalse(server.isRegistered(rounds));
+        }
+        assertTrue(server.queryNames(new ObjectName("test:*"), null).isEmpty());
+    }
+
+}
@@ -0,0 +1,160 @@
+package com.contare.core.pipeline;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RingBufferTest {
+
+    @ParameterizedTest
+    @EnumSource(WaitStrategy.class)
+    public void broadcast(final WaitStrategy waitStrategy) {
+        final int events = 100_000;
+        final List<Integer> first = Collections.synchronizedList(new ArrayList<>());
+        final AtomicLong sum = new AtomicLong();
+
+        final RingBuffer<Integer> ring = new RingBuffer<>("test", 1024, waitStrategy, OverflowPolicy.BLOCK);
+        ring.subscribe("first", first::add);
+        ring.subscribe("second", sum::addAndGet);
+        for (int i = 0; i < events; i++) {
+            assertTrue(ring.publish(i));
+        }
+        ring.close();
+
+        assertEquals(events, first.size());
+        for (int i = 0; i < events; i++) {
+            assertEquals(i, first.get(i)); // in order
+        }
+        assertEquals((long) events * (events - 1) / 2, sum.get());
+        assertEquals(events, ring.getPublished());
+    }
+
+    @Test
+    public void capacityIsPowerOfTwo() {
+        assertEquals(1024, new RingBuffer<>("test", 1000, WaitStrategy.YIELD, OverflowPolicy.BLOCK).getCapacity());
+        assertThrows(IllegalArgumentException.class, () -> new RingBuffer<>("test", 1, WaitStrategy.YIELD, OverflowPolicy.BLOCK));
+    }
+
+    @Test
+    public void dropNewest() throws Exception {
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch entered = new CountDownLatch(1);
+        final List<Integer> received = Collections.synchronizedList(new ArrayList<>());
+
+        final RingBuffer<Integer> ring = new RingBuffer<>("test", 8, WaitStrategy.YIELD, OverflowPolicy.DROP_NEWEST);
+        ring.subscribe("slow", (final Integer value) -> {
+            entered.countDown();
+            await(release);
+            received.add(value);
+        });
+
+        ring.publish(0);
+        assertTrue(entered.await(5, TimeUnit.SECONDS)); // consumer holds event 0
+        int accepted = 1;
+        for (int i = 1; i < 100; i++) {
+            if (ring.publish(i)) {
+                accepted++;
+            }
+        }
+        release.countDown();
+        ring.close();
+
+        assertEquals(8, accepted); // a full ring, the event in hand still holds its slot
+        assertEquals(92, ring.getDroppedNewest());
+        assertEquals(List.of(0, 1, 2, 3, 4, 5, 6, 7), received);
+    }
+
+    @Test
+    public void dropOldest() throws Exception {
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch entered = new CountDownLatch(1);
+        final List<Integer> received = Collections.synchronizedList(new ArrayList<>());
+
+        final RingBuffer<Integer> ring = new RingBuffer<>("test", 8, WaitStrategy.YIELD, OverflowPolicy.DROP_OLDEST);
+        final RingBuffer<Integer>.Subscription subscription = ring.subscribe("slow", (final Integer value) -> {
+            entered.countDown();
+            await(release);
+            received.add(value);
+        });
+
+        ring.publish(0);
+        assertTrue(entered.await(5, TimeUnit.SECONDS));
+        for (int i = 1; i < 100; i++) {
+            assertTrue(ring.publish(i)); // never blocks
+        }
+        release.countDown();
+        ring.close();
+
+        // event 0 was in hand, then only the last lap survives
+        assertEquals(0, received.get(0));
+        assertEquals(List.of(92, 93, 94, 95, 96, 97, 98, 99), received.subList(1, received.size()));
+        assertEquals(91, subscription.getDropped());
+        assertEquals(91, ring.getDroppedOldest());
+    }
+
+    @Test
+    public void block() throws Exception {
+        final int events = 10_000;
+        final List<Integer> received = Collections.synchronizedList(new ArrayList<>());
+
+        final RingBuffer<Integer> ring = new RingBuffer<>("test", 16, WaitStrategy.PARK, OverflowPolicy.BLOCK);
+        ring.subscribe("slow", (final Integer value) -> {
+            if (value % 1000 == 0) {
+                sleep(5);
+            }
+            received.add(value);
+        });
+        for (int i = 0; i < events; i++) {
+            assertTrue(ring.publish(i));
+        }
+        ring.close();
+
+        assertEquals(events, received.size());
+        assertTrue(ring.getBlocked() > 0);
+    }
+
+    @Test
+    public void handlerFailureDoesNotStopConsumer() {
+        final List<Integer> received = Collections.synchronizedList(new ArrayList<>());
+        final RingBuffer<Integer> ring = new RingBuffer<>("test", 16, WaitStrategy.YIELD, OverflowPolicy.BLOCK);
+        ring.subscribe("failing", (final Integer value) -> {
+            if (value == 1) {
+                throw new IllegalStateException("boom");
+            }
+            received.add(value);
+        });
+        ring.publish(0);
+        ring.publish(1);
+        ring.publish(2);
+        ring.close();
+
+        assertEquals(List.of(0, 2), received);
+        assertFalse(ring.publish(3));
+    }
+
+    private static void await(final CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void sleep(final long ms) {
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
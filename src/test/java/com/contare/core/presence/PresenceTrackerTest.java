@@ -0,0 +1,146 @@
+package com.contare.core.presence;
+
+import com.contare.core.objects.TagMetadata;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static com.contare.core.TestTags.epc;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PresenceTrackerTest {
+
+    private static List<PresenceEvent> events(final PresenceTracker tracker) {
+        final List<PresenceEvent> events = new ArrayList<>();
+        tracker.addListener(events::add);
+        return events;
+    }
+
+    @Test
+    public void enterAndExit() {
+        final PresenceTracker tracker = new PresenceTracker("test", new PresenceOptions(1_000L, null, 100L, 16, null));
+        final List<PresenceEvent> events = events(tracker);
+
+        tracker.onTag(epc(1), "r1", 1, 0);
+        tracker.onTag(epc(1), "r1", 2, 500); // another antenna, same tag on the reader
+        assertEquals(1, events.size());
+        assertEquals(PresenceEvent.Type.ENTER, events.get(0).getType());
+        assertEquals(1, tracker.getTracked());
+
+        tracker.advance(1_400);
+        assertEquals(1, events.size(), "read at 500, present until 1500");
+
+        tracker.advance(1_500);
+        assertEquals(2, events.size());
+        final PresenceEvent exit = events.get(1);
+        assertEquals(PresenceEvent.Type.EXIT, exit.getType());
+        assertEquals(epc(1), exit.getEpc());
+        assertEquals(2, exit.getAntenna());
+        assertEquals(2, exit.getReads());
+        assertEquals(500, exit.getLastSeen().toEpochMilli());
+        assertEquals(0, tracker.getTracked());
+
+        // back after leaving
+        tracker.onTag(epc(1), "r1", 1, 2_000);
+        assertEquals(PresenceEvent.Type.ENTER, events.get(2).getType());
+    }
+
+    @Test
+    public void antennaScope() {
+        final PresenceTracker tracker = new PresenceTracker("test", new PresenceOptions(1_000L, null, 100L, 16, PresenceScope.ANTENNA));
+        final List<PresenceEvent> events = events(tracker);
+
+        tracker.onTag(epc(1), "r1", 1, 0);
+        tracker.onTag(epc(1), "r1", 2, 600);
+        tracker.onTag(epc(1), "r2", 1, 600);
+        assertEquals(3, events.size());
+        assertTrue(tracker.isPresent(epc(1), "r1", 1));
+
+        tracker.advance(1_000);
+        assertEquals(4, events.size());
+        assertEquals(PresenceEvent.Type.EXIT, events.get(3).getType());
+        assertEquals(1, events.get(3).getAntenna());
+        assertEquals("r1", events.get(3).getDevice());
+        assertFalse(tracker.isPresent(epc(1), "r1", 1));
+        assertTrue(tracker.isPresent(epc(1), "r1", 2));
+    }
+
+    @Test
+    public void antennaTimeout() {
+        final PresenceTracker tracker = new PresenceTracker("test", new PresenceOptions(10_000L, Map.of(4, 200L), 100L, 16, null));
+        final List<PresenceEvent> events = events(tracker);
+
+        tracker.onTag(epc(1), "r1", 1, 0);
+        tracker.onTag(epc(1), "r1", 4, 100); // exit gate, the shorter timeout applies from here
+        tracker.advance(200);
+        assertEquals(1, events.size());
+        tracker.advance(300);
+        assertEquals(2, events.size());
+        assertEquals(PresenceEvent.Type.EXIT, events.get(1).getType());
+    }
+
+    @Test
+    public void timeoutLongerThanTheWheel() {
+        // 8 slots of 100 ms, the 5 s timeout wraps the wheel several times
+        final PresenceTracker tracker = new PresenceTracker("test", new PresenceOptions(5_000L, null, 100L, 8, null));
+        final List<PresenceEvent> events = events(tracker);
+
+        tracker.onTag(epc(1), "r1", 1, 0);
+        for (long now = 0; now < 5_000; now += 100) {
+            tracker.advance(now);
+        }
+        assertEquals(1, events.size());
+        tracker.advance(5_000);
+        assertEquals(2, events.size());
+
+        // a gap longer than the wheel
+        tracker.onTag(epc(2), "r1", 1, 6_000);
+        tracker.advance(60_000);
+        assertEquals(4, events.size());
+    }
+
+    @Test
+    public void manyTags() {
+        final PresenceTracker tracker = new PresenceTracker("test", new PresenceOptions(1_000L, null, 10L, 512, null));
+        final int[] counts = new int[2];
+        tracker.addListener((final PresenceEvent event) -> counts[event.getType().ordinal()]++);
+
+        final int tags = 200_000;
+        for (int i = 0; i < tags; i++) {
+            tracker.onTag(epc(i), "r1", 1, (i / 2_000) * 10); // 1000 ms of reads, on tick boundaries
+        }
+        // half of them are read again
+        for (int i = 0; i < tags; i += 2) {
+            tracker.onTag(epc(i), "r1", 1, 1_000 + (i / 2_000) * 10);
+        }
+        assertEquals(tags, counts[0]);
+        assertEquals(tags, tracker.getTracked());
+
+        tracker.advance(1_999);
+        assertEquals(tags / 2, counts[1]);
+        tracker.advance(3_000);
+        assertEquals(tags, counts[1]);
+        assertEquals(0, tracker.getTracked());
+    }
+
+    @Test
+    public void ticker() throws Exception {
+        final List<PresenceEvent> events = new CopyOnWriteArrayList<>();
+        try (final PresenceTracker tracker = new PresenceTracker("test", new PresenceOptions(100L, null, 10L, null, null)).start()) {
+            tracker.addListener(events::add);
+            tracker.accept(new TagMetadata(epc(1), -60, 1, "r1", null));
+
+            final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (events.size() < 2 && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+        }
+        assertEquals(2, events.size());
+        assertEquals(PresenceEvent.Type.EXIT, events.get(1).getType());
+    }
+
+}